@@ -0,0 +1,105 @@
+package benchmark;
+
+import modelo.Cliente;
+import modelo.ClienteDAO;
+import modelo.FacturaDAO;
+import modelo.Reserva;
+import modelo.ReservaDAO;
+import util.BaseDatosEmbebida;
+import util.PoolConexiones;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Base de datos embebida para los benchmarks, con el esquema de la aplicación y datos de prueba.
+ * Los DAO se usan tal cual, solo se reemplaza getConnection() para que tomen las conexiones
+ * de un pool sobre la base embebida.
+ */
+class BaseDatosBenchmark implements AutoCloseable {
+
+    private static final String URL = BaseDatosEmbebida.url("benchmark");
+
+    private static final String[] DESTINOS = {"Quito", "Lima", "Bogota", "Cusco", "Madrid", "Miami", "Roma", "Paris"};
+
+    final ClienteDAO clienteDAO;
+    final ReservaDAO reservaDAO;
+    final FacturaDAO facturaDAO;
+    final int cantidadClientes;
+    final int cantidadReservas;
+
+    private final PoolConexiones pool;
+    private final Connection conexionRetenida; // Mantiene viva la base en memoria
+
+    /**
+     * Crea el esquema y carga los datos de prueba.
+     * @param clientes cantidad de clientes
+     * @param reservasPorCliente reservas (con su factura) por cliente
+     */
+    BaseDatosBenchmark(int clientes, int reservasPorCliente) throws SQLException {
+        conexionRetenida = DriverManager.getConnection(URL);
+        try (Statement stmt = conexionRetenida.createStatement()) {
+            stmt.execute("DROP ALL OBJECTS");
+        }
+        BaseDatosEmbebida.crearEsquema(conexionRetenida);
+        pool = new PoolConexiones(() -> DriverManager.getConnection(URL), 2, 8, 300_000, 10_000, 0, 32);
+
+        clienteDAO = new ClienteDAO() {
+            @Override
+            protected Connection getConnection() throws SQLException {
+                return pool.obtenerConexion();
+            }
+        };
+        reservaDAO = new ReservaDAO() {
+            @Override
+            protected Connection getConnection() throws SQLException {
+                return pool.obtenerConexion();
+            }
+        };
+        facturaDAO = new FacturaDAO() {
+            @Override
+            protected Connection getConnection() throws SQLException {
+                return pool.obtenerConexion();
+            }
+        };
+
+        cantidadClientes = clientes;
+        cantidadReservas = clientes * reservasPorCliente;
+        cargarDatos(reservasPorCliente);
+    }
+
+    private void cargarDatos(int reservasPorCliente) throws SQLException {
+        List<Cliente> clientes = new ArrayList<>();
+        for (int i = 0; i < cantidadClientes; i++) {
+            clientes.add(new Cliente("Nombre", "Apellido", String.format("%010d", i), "0999999999",
+                    "cliente" + i + "@correo.com", "Calle " + i));
+        }
+        if (!clienteDAO.agregarClientes(clientes).esCompleto()) {
+            throw new SQLException("No se pudieron cargar los clientes de prueba");
+        }
+
+        long dia = 86_400_000L;
+        Date hoy = new Date();
+        for (Cliente cliente : clientes) {
+            List<Reserva> reservas = new ArrayList<>();
+            for (int j = 0; j < reservasPorCliente; j++) {
+                Date fechaViaje = new Date(hoy.getTime() + (j + 1) * 7 * dia);
+                reservas.add(new Reserva(cliente.getIdCliente(), hoy, DESTINOS[j % DESTINOS.length], fechaViaje,
+                        100.0 + j, "PENDIENTE"));
+            }
+            if (!reservaDAO.agregarReservasConFactura(reservas)) {
+                throw new SQLException("No se pudieron cargar las reservas de prueba");
+            }
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        pool.close();
+        conexionRetenida.close();
+    }
+}
@@ -0,0 +1,103 @@
+package benchmark;
+
+import modelo.Cliente;
+import modelo.Factura;
+import modelo.Reserva;
+import org.openjdk.jmh.annotations.*;
+import java.sql.SQLException;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las consultas y escrituras más usadas de los DAO.
+ * Las consultas por ID eligen una fila al azar para no medir siempre la misma página en caché.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DaoBenchmark {
+
+    private static final int TAMANO_PAGINA = 100;
+
+    @Param({"1000"})
+    public int clientes;
+
+    @Param({"10"})
+    public int reservasPorCliente;
+
+    private BaseDatosBenchmark baseDatos;
+
+    @Setup(Level.Trial)
+    public void preparar() throws SQLException {
+        baseDatos = new BaseDatosBenchmark(clientes, reservasPorCliente);
+    }
+
+    @TearDown(Level.Trial)
+    public void cerrar() throws SQLException {
+        baseDatos.close();
+    }
+
+    private static int idAlAzar(int maximo) {
+        return ThreadLocalRandom.current().nextInt(maximo) + 1;
+    }
+
+    @Benchmark
+    public Cliente consultarCliente() {
+        return baseDatos.clienteDAO.consultarCliente(idAlAzar(baseDatos.cantidadClientes));
+    }
+
+    @Benchmark
+    public Reserva consultarReserva() {
+        return baseDatos.reservaDAO.consultarReserva(idAlAzar(baseDatos.cantidadReservas));
+    }
+
+    @Benchmark
+    public Factura consultarFactura() {
+        return baseDatos.facturaDAO.consultarFactura(idAlAzar(baseDatos.cantidadReservas));
+    }
+
+    @Benchmark
+    public Factura consultarFacturaPorReserva() {
+        return baseDatos.facturaDAO.consultarFacturaPorReserva(idAlAzar(baseDatos.cantidadReservas));
+    }
+
+    @Benchmark
+    public List<Cliente> listarClientes() {
+        return baseDatos.clienteDAO.listarClientes();
+    }
+
+    @Benchmark
+    public List<Reserva> listarReservasPorCliente() {
+        return baseDatos.reservaDAO.listarReservasPorCliente(idAlAzar(baseDatos.cantidadClientes));
+    }
+
+    @Benchmark
+    public List<Factura> listarFacturasCliente() {
+        return baseDatos.facturaDAO.listarFacturasCliente(idAlAzar(baseDatos.cantidadClientes));
+    }
+
+    @Benchmark
+    public List<Reserva> listarReservasPagina() {
+        int despuesDeId = idAlAzar(baseDatos.cantidadReservas - TAMANO_PAGINA);
+        return baseDatos.reservaDAO.listarReservasPagina(despuesDeId, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public List<Factura> listarFacturasPagina() {
+        int despuesDeId = idAlAzar(baseDatos.cantidadReservas - TAMANO_PAGINA);
+        return baseDatos.facturaDAO.listarFacturasPagina(despuesDeId, TAMANO_PAGINA);
+    }
+
+    @Benchmark
+    public boolean agregarReservaConFactura() {
+        Date hoy = new Date();
+        Reserva reserva = new Reserva(idAlAzar(baseDatos.cantidadClientes), hoy, "Quito",
+                new Date(hoy.getTime() + 86_400_000L), 250.0, "PENDIENTE");
+        return baseDatos.reservaDAO.agregarReservaConFactura(reserva);
+    }
+}
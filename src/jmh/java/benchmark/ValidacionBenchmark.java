@@ -0,0 +1,58 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import util.ValidacionCliente;
+import util.ValidacionReserva;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks de las validaciones de cliente y reserva, con datos válidos e inválidos.
+ * Los casos inválidos de reserva incluyen el costo de crear la excepción.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValidacionBenchmark {
+
+    private Date fechaReserva;
+    private Date fechaViaje;
+
+    @Setup
+    public void preparar() {
+        fechaReserva = new Date();
+        fechaViaje = new Date(fechaReserva.getTime() + 7 * 86_400_000L);
+    }
+
+    @Benchmark
+    public String validarClienteValido() {
+        return ValidacionCliente.validarCliente("Juan Carlos", "Pérez", "0987654321", "0998765432",
+                "juan.perez@example.com", "Av. Principal 123, Guayaquil");
+    }
+
+    @Benchmark
+    public String validarClienteInvalido() {
+        // Falla en el último campo, por lo que se evalúan todas las validaciones
+        return ValidacionCliente.validarCliente("Juan Carlos", "Pérez", "0987654321", "0998765432",
+                "juan.perez@example.com", "Av. Principal #123");
+    }
+
+    @Benchmark
+    public String validarReservaValida() {
+        ValidacionReserva.validarReserva("Buenos Aires", fechaReserva, fechaViaje, "1250.50");
+        return null;
+    }
+
+    @Benchmark
+    public String validarReservaInvalida() {
+        try {
+            ValidacionReserva.validarReserva("Buenos Aires", fechaReserva, fechaViaje, "12.505");
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -2,13 +2,33 @@ package controlador;
 
 import modelo.Cliente;
 import modelo.ClienteDAO;
+import modelo.ResultadoLote;
+import modelo.ResumenCliente;
+import util.Bitacora;
+import util.CacheLectura;
+import util.EjecutorAsincrono;
 import util.ValidacionCliente;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 public class ClienteController {
+    private static final Bitacora LOG = Bitacora.obtener(ClienteController.class);
+
+    // Compartida por todos los paneles: los mismos clientes se consultan al refrescar cada vista
+    // (se puede ajustar con -Dcache.clientes.maximo=... y -Dcache.clientes.ttlMs=...)
+    private static final CacheLectura<Integer, Cliente> CACHE_CLIENTES = new CacheLectura<>(
+            Integer.getInteger("cache.clientes.maximo", 500),
+            Long.getLong("cache.clientes.ttlMs", 60_000L));
+    
     private ClienteDAO clienteDAO;
+    private final EjecutorAsincrono ejecutor;
     
     public ClienteController() {
         clienteDAO = new ClienteDAO();
+        ejecutor = EjecutorAsincrono.compartido();
     }
     
     public boolean agregarCliente(String nombre, String apellido, String dni, String telefono, String email, String direccion) {
@@ -24,11 +44,43 @@ public class ClienteController {
         }
         
         Cliente cliente = new Cliente(nombre, apellido, dni, telefono, email, direccion);
-        return clienteDAO.agregarCliente(cliente);
+        boolean exito = clienteDAO.agregarCliente(cliente);
+        
+        // Si otro usuario registró el mismo DNI entre la verificación y el INSERT,
+        // la restricción UNIQUE rechaza la inserción; se informa como DNI duplicado
+        if (!exito && existeClienteConDni(dni)) {
+            LOG.advertencia("DNI duplicado rechazado por la base al agregar cliente");
+            throw new IllegalArgumentException("Ya existe un cliente registrado con el DNI: " + dni);
+        }
+        return exito;
     }
     
+    /**
+     * Consulta un cliente por ID, usando la caché compartida de clientes.
+     * Devuelve una copia para que los cambios del llamador no alteren la caché.
+     */
     public Cliente consultarCliente(int idCliente) {
-        return clienteDAO.consultarCliente(idCliente);
+        return copiar(CACHE_CLIENTES.obtener(idCliente, clienteDAO::consultarCliente));
+    }
+    
+    /**
+     * Consulta el cliente con sus reservas y facturas en una sola consulta a la base.
+     * Las facturas llevan el estado encolado si tienen un cambio diferido sin guardar.
+     * @return el resumen, o null si el cliente no existe
+     */
+    public ResumenCliente consultarResumenCliente(int idCliente) {
+        ResumenCliente resumen = clienteDAO.consultarResumenCliente(idCliente);
+        if (resumen != null) {
+            FacturaController.conEstadosPendientes(resumen.getFacturas());
+        }
+        return resumen;
+    }
+    
+    /**
+     * Estadísticas de la caché de clientes (aciertos, fallos, tasa de aciertos, etc.)
+     */
+    public static CacheLectura.Estadisticas obtenerEstadisticasCache() {
+        return CACHE_CLIENTES.obtenerEstadisticas();
     }
     
     public boolean actualizarCliente(int idCliente, String nombre, String apellido, String dni, String telefono, String email, String direccion) {
@@ -45,40 +97,123 @@ public class ClienteController {
         
         Cliente cliente = new Cliente(nombre, apellido, dni, telefono, email, direccion);
         cliente.setIdCliente(idCliente);
-        return clienteDAO.actualizarCliente(cliente);
+        boolean exito = clienteDAO.actualizarCliente(cliente);
+        CACHE_CLIENTES.invalidar(idCliente);
+        
+        // La restricción UNIQUE de dni cubre la carrera entre la verificación y el UPDATE
+        if (!exito && existeClienteConDniExcluyendo(dni, idCliente)) {
+            LOG.advertencia("DNI duplicado rechazado por la base al actualizar cliente", "idCliente", idCliente);
+            throw new IllegalArgumentException("Ya existe otro cliente registrado con el DNI: " + dni);
+        }
+        return exito;
     }
     
     public boolean eliminarCliente(int idCliente) {
-        return clienteDAO.eliminarCliente(idCliente);
+        boolean exito = clienteDAO.eliminarCliente(idCliente);
+        CACHE_CLIENTES.invalidar(idCliente);
+        return exito;
     }
     
     public java.util.List<Cliente> listarClientes() {
         return clienteDAO.listarClientes();
     }
     
+    /**
+     * Recorre todos los clientes fila por fila. El Stream debe cerrarse al terminar.
+     */
+    public java.util.stream.Stream<Cliente> recorrerClientes() {
+        return clienteDAO.recorrerClientes();
+    }
+    
+    /**
+     * Lista la página de clientes que sigue al ID indicado (0 para la primera página)
+     */
+    public java.util.List<Cliente> listarClientesPagina(int despuesDeId, int tamanoPagina) {
+        return clienteDAO.listarClientesPagina(despuesDeId, tamanoPagina);
+    }
+    
     /**
      * Verifica si existe un cliente con el DNI especificado
      */
     private boolean existeClienteConDni(String dni) {
-        java.util.List<Cliente> clientes = clienteDAO.listarClientes();
-        for (Cliente cliente : clientes) {
-            if (cliente.getDni().equals(dni)) {
-                return true;
-            }
-        }
-        return false;
+        return clienteDAO.existeClienteConDni(dni, 0);
     }
     
     /**
      * Verifica si existe otro cliente con el DNI especificado, excluyendo el cliente con el ID dado
      */
     private boolean existeClienteConDniExcluyendo(String dni, int idExcluir) {
-        java.util.List<Cliente> clientes = clienteDAO.listarClientes();
-        for (Cliente cliente : clientes) {
-            if (cliente.getDni().equals(dni) && cliente.getIdCliente() != idExcluir) {
-                return true;
+        return clienteDAO.existeClienteConDni(dni, idExcluir);
+    }
+    
+    private static Cliente copiar(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        Cliente copia = new Cliente(cliente.getNombre(), cliente.getApellido(), cliente.getDni(),
+                cliente.getTelefono(), cliente.getEmail(), cliente.getDireccion());
+        copia.setIdCliente(cliente.getIdCliente());
+        return copia;
+    }
+    
+    /**
+     * Inserta muchos clientes por lotes (por ejemplo, al migrar datos de otra agencia).
+     * Los clientes con datos no válidos no se envían a la base; se informan como fallas en el
+     * resultado, igual que los DNI duplicados.
+     */
+    public ResultadoLote agregarClientes(java.util.List<Cliente> clientes) {
+        Map<Integer, String> rechazos = new HashMap<>();
+        List<Cliente> validos = new ArrayList<>(clientes.size());
+        for (int i = 0; i < clientes.size(); i++) {
+            Cliente cliente = clientes.get(i);
+            String errorValidacion = ValidacionCliente.validarCliente(cliente.getNombre(), cliente.getApellido(),
+                    cliente.getDni(), cliente.getTelefono(), cliente.getEmail(), cliente.getDireccion());
+            if (errorValidacion != null) {
+                rechazos.put(i, "Error de validación: " + errorValidacion);
+            } else {
+                validos.add(cliente);
             }
         }
-        return false;
+        ResultadoLote resultado = rechazos.isEmpty() ? clienteDAO.agregarClientes(clientes)
+                : ResultadoLote.conRechazos(clientes.size(), rechazos, clienteDAO.agregarClientes(validos));
+        LOG.info("Carga por lotes de clientes", "total", resultado.getTotal(),
+                "insertados", resultado.getInsertados(), "fallos", resultado.getFallos().size());
+        return resultado;
+    }
+    
+    // Versiones asíncronas: se ejecutan en el ejecutor acotado compartido (ver EjecutorAsincrono)
+    // y permiten combinar o paralelizar consultas independientes. Los errores de validación
+    // completan el futuro excepcionalmente con la misma IllegalArgumentException como causa.
+    
+    public CompletableFuture<Boolean> agregarClienteAsync(String nombre, String apellido, String dni, String telefono, String email, String direccion) {
+        return ejecutor.ejecutar(() -> agregarCliente(nombre, apellido, dni, telefono, email, direccion));
+    }
+    
+    public CompletableFuture<Cliente> consultarClienteAsync(int idCliente) {
+        return ejecutor.ejecutar(() -> consultarCliente(idCliente));
+    }
+    
+    public CompletableFuture<ResumenCliente> consultarResumenClienteAsync(int idCliente) {
+        return ejecutor.ejecutar(() -> consultarResumenCliente(idCliente));
+    }
+    
+    public CompletableFuture<Boolean> actualizarClienteAsync(int idCliente, String nombre, String apellido, String dni, String telefono, String email, String direccion) {
+        return ejecutor.ejecutar(() -> actualizarCliente(idCliente, nombre, apellido, dni, telefono, email, direccion));
+    }
+    
+    public CompletableFuture<Boolean> eliminarClienteAsync(int idCliente) {
+        return ejecutor.ejecutar(() -> eliminarCliente(idCliente));
+    }
+    
+    public CompletableFuture<java.util.List<Cliente>> listarClientesAsync() {
+        return ejecutor.ejecutar(this::listarClientes);
+    }
+    
+    public CompletableFuture<java.util.List<Cliente>> listarClientesPaginaAsync(int despuesDeId, int tamanoPagina) {
+        return ejecutor.ejecutar(() -> listarClientesPagina(despuesDeId, tamanoPagina));
+    }
+    
+    public CompletableFuture<ResultadoLote> agregarClientesAsync(java.util.List<Cliente> clientes) {
+        return ejecutor.ejecutar(() -> agregarClientes(clientes));
     }
-}
\ No newline at end of file
+}
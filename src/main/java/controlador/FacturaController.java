@@ -1,45 +1,351 @@
 package controlador;
 
+import modelo.AgrupacionIngresos;
+import modelo.CalculadoraImpuestos;
+import modelo.ColaEstadosFactura;
 import modelo.Factura;
 import modelo.FacturaDAO;
+import modelo.Reserva;
+import modelo.ReservaDAO;
+import modelo.ResultadoLote;
+import modelo.TablaTarifas;
+import modelo.TotalIngresos;
+import util.Bitacora;
+import util.Dinero;
+import util.EjecutorAsincrono;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.time.YearMonth;
+import java.util.Collection;
 import java.util.Date;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class FacturaController {
+    private static final Bitacora LOG = Bitacora.obtener(FacturaController.class);
+
     private FacturaDAO facturaDAO;
+    private final ReservaDAO reservaDAO;
+    private final CalculadoraImpuestos impuestos;
+    private final EjecutorAsincrono ejecutor;
     
     public FacturaController() {
+        this(TablaTarifas.predeterminada());
+    }
+    
+    /**
+     * @param impuestos calculadora con la que se suma el IVA a los subtotales de las facturas
+     */
+    public FacturaController(CalculadoraImpuestos impuestos) {
         this.facturaDAO = new FacturaDAO();
+        this.reservaDAO = new ReservaDAO();
+        this.impuestos = impuestos;
+        this.ejecutor = EjecutorAsincrono.compartido();
     }
     
-    public boolean agregarFactura(int idReserva, Date fechaEmision, double montoTotal, String estadoPago) {
-        Factura factura = new Factura(idReserva, fechaEmision, montoTotal, estadoPago);
+    /**
+     * Crea la factura de un subtotal en centavos (ver util.Dinero), al que se le suma el IVA
+     * del destino de la reserva
+     */
+    public boolean agregarFacturaCentavos(int idReserva, Date fechaEmision, long subtotalCentavos, String estadoPago) {
+        Factura factura = facturaConImpuestos(idReserva, fechaEmision, subtotalCentavos, estadoPago);
         return facturaDAO.agregarFactura(factura);
     }
     
+    /**
+     * Crea la factura de un subtotal en unidades monetarias (por ejemplo 150.50), al que se le
+     * suma el IVA del destino de la reserva
+     */
+    public boolean agregarFactura(int idReserva, Date fechaEmision, double subtotal, String estadoPago) {
+        return agregarFacturaCentavos(idReserva, fechaEmision, Dinero.deDouble(subtotal), estadoPago);
+    }
+    
     public Factura consultarFactura(int idFactura) {
-        return facturaDAO.consultarFactura(idFactura);
+        return conEstadoPendiente(facturaDAO.consultarFactura(idFactura));
     }
     
-    public boolean actualizarFactura(int idFactura, int idReserva, Date fechaEmision, double montoTotal, String estadoPago) {
-        Factura factura = new Factura(idReserva, fechaEmision, montoTotal, estadoPago);
+    /**
+     * Actualiza la factura con un subtotal en centavos (ver util.Dinero), al que se le suma el IVA
+     * del destino de la reserva
+     */
+    public boolean actualizarFacturaCentavos(int idFactura, int idReserva, Date fechaEmision, long subtotalCentavos, String estadoPago) {
+        Factura factura = facturaConImpuestos(idReserva, fechaEmision, subtotalCentavos, estadoPago);
         factura.setIdFactura(idFactura);
         return facturaDAO.actualizarFactura(factura);
     }
     
+    /**
+     * Actualiza la factura con un subtotal en unidades monetarias (por ejemplo 150.50), al que se
+     * le suma el IVA del destino de la reserva
+     */
+    public boolean actualizarFactura(int idFactura, int idReserva, Date fechaEmision, double subtotal, String estadoPago) {
+        return actualizarFacturaCentavos(idFactura, idReserva, fechaEmision, Dinero.deDouble(subtotal), estadoPago);
+    }
+    
+    /**
+     * Cambia solo el estado de la factura, sin leerla antes
+     */
+    public boolean actualizarEstadoFactura(int idFactura, String estadoPago) {
+        return facturaDAO.actualizarEstadoFactura(idFactura, validarEstadoPago(estadoPago));
+    }
+    
+    /**
+     * Cambia el estado de la factura sin esperar a la base si la escritura diferida está activa
+     * (-Dfacturas.diferidas=true): el cambio se encola y se guarda en el próximo lote (ver
+     * ColaEstadosFactura). Las consultas de facturas de este controlador ya devuelven el estado
+     * encolado; los totales de ingresos lo reflejan cuando se guarda el lote. Si no está activa,
+     * es igual que actualizarEstadoFactura.
+     * @return true si el cambio se guardó o se aceptó en la cola
+     */
+    public boolean actualizarEstadoFacturaDiferido(int idFactura, String estadoPago) {
+        ColaEstadosFactura cola = ColaCompartida.COLA;
+        if (cola == null) {
+            return actualizarEstadoFactura(idFactura, estadoPago);
+        }
+        return cola.encolar(idFactura, validarEstadoPago(estadoPago));
+    }
+    
+    /**
+     * @return el estado en mayúsculas, como lo guarda la base
+     */
+    private static String validarEstadoPago(String estadoPago) {
+        String estado = estadoPago == null ? "" : estadoPago.trim().toUpperCase(Locale.ROOT);
+        if (!Factura.ESTADOS_PAGO.contains(estado)) {
+            throw new IllegalArgumentException("Error de validación: El estado de pago debe ser uno de " + Factura.ESTADOS_PAGO);
+        }
+        return estado;
+    }
+    
+    /**
+     * Cola de escritura diferida compartida; se crea con el primer cambio diferido y solo si
+     * está activa. Los cambios pendientes se guardan al cerrar la aplicación.
+     */
+    private static final class ColaCompartida {
+        static final ColaEstadosFactura COLA = crear();
+        
+        private static ColaEstadosFactura crear() {
+            if (!Boolean.getBoolean("facturas.diferidas")) {
+                return null;
+            }
+            String diario = System.getProperty("facturas.diferidas.diario", "datos/estados-factura.diario");
+            try {
+                ColaEstadosFactura cola = new ColaEstadosFactura(new FacturaDAO(), Paths.get(diario),
+                        Long.getLong("facturas.diferidas.intervaloMs", 2_000L),
+                        Integer.getInteger("facturas.diferidas.lote", 500));
+                Runtime.getRuntime().addShutdownHook(new Thread(cola::close, "estados-factura-cierre"));
+                LOG.info("Escritura diferida de estados de factura activa", "diario", diario);
+                return cola;
+            } catch (IOException e) {
+                LOG.error("No se pudo leer el diario de estados de factura, se guardan sin diferir", e, "diario", diario);
+                return null;
+            }
+        }
+    }
+    
+    /**
+     * Reemplaza el estado leído de la base por el que está encolado y todavía no se guardó
+     */
+    static Factura conEstadoPendiente(Factura factura) {
+        ColaEstadosFactura cola = ColaCompartida.COLA;
+        if (cola != null && factura != null) {
+            String pendiente = cola.consultarPendiente(factura.getIdFactura());
+            if (pendiente != null) {
+                factura.setEstadoPago(pendiente);
+            }
+        }
+        return factura;
+    }
+    
+    static List<Factura> conEstadosPendientes(List<Factura> facturas) {
+        if (ColaCompartida.COLA != null) {
+            facturas.forEach(FacturaController::conEstadoPendiente);
+        }
+        return facturas;
+    }
+    
+    // Si la reserva no existe se usa la tasa general; la base rechaza luego la factura
+    private Factura facturaConImpuestos(int idReserva, Date fechaEmision, long subtotalCentavos, String estadoPago) {
+        Reserva reserva = reservaDAO.consultarReserva(idReserva);
+        String destino = reserva != null ? reserva.getDestino() : null;
+        long total = impuestos.calcularTotal(subtotalCentavos, destino, fechaEmision);
+        return Factura.conTotal(idReserva, fechaEmision, total, estadoPago);
+    }
+    
     public boolean eliminarFactura(int idFactura) {
         return facturaDAO.eliminarFactura(idFactura);
     }
     
     public List<Factura> listarFacturas() {
-        return facturaDAO.listarFacturas();
+        return conEstadosPendientes(facturaDAO.listarFacturas());
     }
 
     public List<Factura> listarFacturasCliente(int idCliente) {
-        return facturaDAO.listarFacturasCliente(idCliente);
+        return conEstadosPendientes(facturaDAO.listarFacturasCliente(idCliente));
     }
 
     public Factura consultarFacturaPorReserva(int idReserva) {
-        return facturaDAO.consultarFacturaPorReserva(idReserva);
+        return conEstadoPendiente(facturaDAO.consultarFacturaPorReserva(idReserva));
+    }
+    
+    /**
+     * Facturas de varias reservas, indexadas por ID de reserva, con una consulta por bloque de IDs
+     */
+    public Map<Integer, Factura> consultarFacturasPorReservas(Collection<Integer> idsReserva) {
+        Map<Integer, Factura> facturas = facturaDAO.consultarFacturasPorReservas(idsReserva);
+        if (ColaCompartida.COLA != null) {
+            facturas.values().forEach(FacturaController::conEstadoPendiente);
+        }
+        return facturas;
+    }
+    
+    /**
+     * Recorre todas las facturas fila por fila. El Stream debe cerrarse al terminar.
+     */
+    public Stream<Factura> recorrerFacturas() {
+        Stream<Factura> facturas = facturaDAO.recorrerFacturas();
+        return ColaCompartida.COLA != null ? facturas.map(FacturaController::conEstadoPendiente) : facturas;
+    }
+    
+    /**
+     * Lista la página de facturas que sigue al ID indicado (0 para la primera página)
+     */
+    public List<Factura> listarFacturasPagina(int despuesDeId, int tamanoPagina) {
+        return conEstadosPendientes(facturaDAO.listarFacturasPagina(despuesDeId, tamanoPagina));
+    }
+    
+    /**
+     * Lista la página de facturas ordenadas por fecha de emisión que sigue a la última factura recibida
+     * (fecha null para la primera página)
+     */
+    public List<Factura> listarFacturasPorFechaEmisionPagina(Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        return conEstadosPendientes(facturaDAO.listarFacturasPorFechaEmisionPagina(despuesDeFecha, despuesDeId, tamanoPagina));
+    }
+    
+    /**
+     * Cuenta las facturas registradas
+     */
+    public int contarFacturas() {
+        return facturaDAO.contarFacturas();
+    }
+    
+    /**
+     * Lista facturas a partir de una posición, para saltar a una página lejana
+     */
+    public List<Factura> listarFacturasDesdePosicion(int posicion, int tamanoPagina) {
+        return conEstadosPendientes(facturaDAO.listarFacturasDesdePosicion(posicion, tamanoPagina));
+    }
+    
+    /**
+     * Inserta muchas facturas por lotes
+     */
+    public ResultadoLote agregarFacturas(List<Factura> facturas) {
+        ResultadoLote resultado = facturaDAO.agregarFacturas(facturas);
+        LOG.info("Carga por lotes de facturas", "total", resultado.getTotal(),
+                "insertados", resultado.getInsertados(), "fallos", resultado.getFallos().size());
+        return resultado;
+    }
+    
+    /**
+     * Cantidad, monto y promedio de las facturas emitidas entre dos fechas (ambas incluidas),
+     * calculados en SQL sobre las facturas y agrupados por los criterios indicados
+     */
+    public List<TotalIngresos> calcularIngresos(Set<AgrupacionIngresos> agrupacion, Date desde, Date hasta) {
+        if (desde == null || hasta == null || desde.after(hasta)) {
+            throw new IllegalArgumentException("Error de validación: El rango de fechas de emisión no es válido");
+        }
+        return facturaDAO.calcularIngresos(agrupacion, desde, hasta);
+    }
+    
+    /**
+     * Igual que calcularIngresos, por meses completos, leyendo solo el resumen de ingresos (para tableros)
+     */
+    public List<TotalIngresos> consultarResumenIngresos(Set<AgrupacionIngresos> agrupacion, YearMonth desde, YearMonth hasta) {
+        if (desde == null || hasta == null || desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("Error de validación: El rango de periodos no es válido");
+        }
+        return facturaDAO.consultarResumenIngresos(agrupacion, desde, hasta);
+    }
+    
+    /**
+     * Vuelve a calcular el resumen de ingresos a partir de todas las facturas
+     */
+    public boolean reconstruirResumenIngresos() {
+        boolean exito = facturaDAO.reconstruirResumenIngresos();
+        LOG.info("Resumen de ingresos reconstruido", "exito", exito);
+        return exito;
+    }
+    
+    // Versiones asíncronas: se ejecutan en el ejecutor acotado compartido (ver EjecutorAsincrono)
+    
+    public CompletableFuture<Boolean> agregarFacturaCentavosAsync(int idReserva, Date fechaEmision, long subtotalCentavos, String estadoPago) {
+        return ejecutor.ejecutar(() -> agregarFacturaCentavos(idReserva, fechaEmision, subtotalCentavos, estadoPago));
+    }
+    
+    public CompletableFuture<Boolean> agregarFacturaAsync(int idReserva, Date fechaEmision, double subtotal, String estadoPago) {
+        return ejecutor.ejecutar(() -> agregarFactura(idReserva, fechaEmision, subtotal, estadoPago));
+    }
+    
+    public CompletableFuture<Factura> consultarFacturaAsync(int idFactura) {
+        return ejecutor.ejecutar(() -> consultarFactura(idFactura));
+    }
+    
+    public CompletableFuture<Boolean> actualizarFacturaCentavosAsync(int idFactura, int idReserva, Date fechaEmision, long subtotalCentavos, String estadoPago) {
+        return ejecutor.ejecutar(() -> actualizarFacturaCentavos(idFactura, idReserva, fechaEmision, subtotalCentavos, estadoPago));
+    }
+    
+    public CompletableFuture<Boolean> actualizarFacturaAsync(int idFactura, int idReserva, Date fechaEmision, double subtotal, String estadoPago) {
+        return ejecutor.ejecutar(() -> actualizarFactura(idFactura, idReserva, fechaEmision, subtotal, estadoPago));
+    }
+    
+    public CompletableFuture<Boolean> actualizarEstadoFacturaAsync(int idFactura, String estadoPago) {
+        return ejecutor.ejecutar(() -> actualizarEstadoFactura(idFactura, estadoPago));
+    }
+    
+    public CompletableFuture<Boolean> eliminarFacturaAsync(int idFactura) {
+        return ejecutor.ejecutar(() -> eliminarFactura(idFactura));
+    }
+    
+    public CompletableFuture<List<Factura>> listarFacturasAsync() {
+        return ejecutor.ejecutar(this::listarFacturas);
+    }
+    
+    public CompletableFuture<List<Factura>> listarFacturasClienteAsync(int idCliente) {
+        return ejecutor.ejecutar(() -> listarFacturasCliente(idCliente));
+    }
+    
+    public CompletableFuture<Factura> consultarFacturaPorReservaAsync(int idReserva) {
+        return ejecutor.ejecutar(() -> consultarFacturaPorReserva(idReserva));
+    }
+    
+    public CompletableFuture<Map<Integer, Factura>> consultarFacturasPorReservasAsync(Collection<Integer> idsReserva) {
+        return ejecutor.ejecutar(() -> consultarFacturasPorReservas(idsReserva));
+    }
+    
+    public CompletableFuture<List<Factura>> listarFacturasPaginaAsync(int despuesDeId, int tamanoPagina) {
+        return ejecutor.ejecutar(() -> listarFacturasPagina(despuesDeId, tamanoPagina));
+    }
+    
+    public CompletableFuture<Integer> contarFacturasAsync() {
+        return ejecutor.ejecutar(this::contarFacturas);
+    }
+    
+    public CompletableFuture<List<TotalIngresos>> calcularIngresosAsync(Set<AgrupacionIngresos> agrupacion, Date desde, Date hasta) {
+        return ejecutor.ejecutar(() -> calcularIngresos(agrupacion, desde, hasta));
+    }
+    
+    public CompletableFuture<List<TotalIngresos>> consultarResumenIngresosAsync(Set<AgrupacionIngresos> agrupacion, YearMonth desde, YearMonth hasta) {
+        return ejecutor.ejecutar(() -> consultarResumenIngresos(agrupacion, desde, hasta));
+    }
+    
+    public CompletableFuture<Boolean> reconstruirResumenIngresosAsync() {
+        return ejecutor.ejecutar(this::reconstruirResumenIngresos);
+    }
+    
+    public CompletableFuture<ResultadoLote> agregarFacturasAsync(List<Factura> facturas) {
+        return ejecutor.ejecutar(() -> agregarFacturas(facturas));
     }
-}
\ No newline at end of file
+}
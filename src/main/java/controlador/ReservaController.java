@@ -2,31 +2,88 @@ package controlador;
 
 import modelo.Reserva;
 import modelo.ReservaDAO;
+import modelo.ResultadoLote;
+import util.Bitacora;
+import util.Dinero;
+import util.EjecutorAsincrono;
+import util.ValidacionReserva;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
 
 public class ReservaController {
+    private static final Bitacora LOG = Bitacora.obtener(ReservaController.class);
+
     private ReservaDAO reservaDAO;
+    private final EjecutorAsincrono ejecutor;
     
     public ReservaController() {
         this.reservaDAO = new ReservaDAO();
+        this.ejecutor = EjecutorAsincrono.compartido();
     }
     
-    public boolean agregarReserva(int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
-        Reserva reserva = new Reserva(idCliente, fechaReserva, destino, fechaViaje, precio, estado);
+    /**
+     * Crea la reserva con su factura; el precio va en centavos (ver util.Dinero)
+     */
+    public boolean agregarReservaCentavos(int idCliente, Date fechaReserva, String destino, Date fechaViaje, long precioCentavos, String estado) {
+        Reserva reserva = new Reserva(idCliente, fechaReserva, destino, fechaViaje, 0, estado);
+        reserva.setPrecioCentavos(precioCentavos);
         return reservaDAO.agregarReservaConFactura(reserva);
     }
     
+    /**
+     * Crea la reserva con su factura; el precio va en unidades monetarias (por ejemplo 150.50)
+     */
+    public boolean agregarReserva(int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
+        return agregarReservaCentavos(idCliente, fechaReserva, destino, fechaViaje, Dinero.deDouble(precio), estado);
+    }
+    
+    /**
+     * Crea las reservas de un grupo con sus facturas en una sola transacción:
+     * se guardan todas o ninguna
+     * @throws IllegalArgumentException si alguna reserva no es válida; no se envía ninguna a la base
+     */
+    public boolean agregarReservasConFactura(List<Reserva> reservas) {
+        for (int i = 0; i < reservas.size(); i++) {
+            String errorValidacion = validar(reservas.get(i));
+            if (errorValidacion != null) {
+                throw new IllegalArgumentException("Error de validación en la reserva " + (i + 1) + " del grupo: " + errorValidacion);
+            }
+        }
+        boolean exito = reservaDAO.agregarReservasConFactura(reservas);
+        if (!exito) {
+            LOG.advertencia("No se pudo crear el grupo de reservas", "cantidad", reservas.size());
+        }
+        return exito;
+    }
+    
     public Reserva consultarReserva(int idReserva) {
         return reservaDAO.consultarReserva(idReserva);
     }
     
-    public boolean actualizarReserva(int idReserva, int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
-        Reserva reserva = new Reserva(idCliente, fechaReserva, destino, fechaViaje, precio, estado);
+    /**
+     * Actualiza la reserva; el precio va en centavos (ver util.Dinero)
+     */
+    public boolean actualizarReservaCentavos(int idReserva, int idCliente, Date fechaReserva, String destino, Date fechaViaje, long precioCentavos, String estado) {
+        Reserva reserva = new Reserva(idCliente, fechaReserva, destino, fechaViaje, 0, estado);
+        reserva.setPrecioCentavos(precioCentavos);
         reserva.setIdReserva(idReserva);
         return reservaDAO.actualizarReserva(reserva);
     }
     
+    /**
+     * Actualiza la reserva; el precio va en unidades monetarias (por ejemplo 150.50)
+     */
+    public boolean actualizarReserva(int idReserva, int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
+        return actualizarReservaCentavos(idReserva, idCliente, fechaReserva, destino, fechaViaje, Dinero.deDouble(precio), estado);
+    }
+    
     public boolean eliminarReserva(int idReserva) {
         return reservaDAO.eliminarReservaConFactura(idReserva);
     }
@@ -38,6 +95,211 @@ public class ReservaController {
     public List<Reserva> listarReservasPorCliente(int idCliente) {
         return reservaDAO.listarReservasPorCliente(idCliente);
     }
-
     
-}
\ No newline at end of file
+    /**
+     * Recorre todas las reservas fila por fila. El Stream debe cerrarse al terminar.
+     */
+    public Stream<Reserva> recorrerReservas() {
+        return reservaDAO.recorrerReservas();
+    }
+    
+    /**
+     * Lista la página de reservas que sigue al ID indicado (0 para la primera página)
+     */
+    public List<Reserva> listarReservasPagina(int despuesDeId, int tamanoPagina) {
+        return reservaDAO.listarReservasPagina(despuesDeId, tamanoPagina);
+    }
+    
+    /**
+     * Lista la página de reservas ordenadas por fecha de viaje que sigue a la última reserva recibida
+     * (fecha null para la primera página)
+     */
+    public List<Reserva> listarReservasPorFechaViajePagina(Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        return reservaDAO.listarReservasPorFechaViajePagina(despuesDeFecha, despuesDeId, tamanoPagina);
+    }
+    
+    /**
+     * Cuenta las reservas registradas
+     */
+    public int contarReservas() {
+        return reservaDAO.contarReservas();
+    }
+    
+    /**
+     * Lista reservas a partir de una posición, para saltar a una página lejana
+     */
+    public List<Reserva> listarReservasDesdePosicion(int posicion, int tamanoPagina) {
+        return reservaDAO.listarReservasDesdePosicion(posicion, tamanoPagina);
+    }
+    
+    /**
+     * Busca destinos por prefijo, sin distinguir mayúsculas ni tildes y tolerando errores de tipeo
+     * @return las formas escritas de hasta {@code limite} destinos, de la mejor coincidencia a la peor
+     */
+    public List<String> buscarDestinos(String texto, int limite) {
+        return reservaDAO.buscarDestinos(texto, limite);
+    }
+    
+    /**
+     * Lista la página de reservas de los destinos indicados que sigue al ID indicado (0 para la primera página)
+     */
+    public List<Reserva> listarReservasPorDestinosPagina(List<String> destinos, int despuesDeId, int tamanoPagina) {
+        return reservaDAO.listarReservasPorDestinosPagina(destinos, despuesDeId, tamanoPagina);
+    }
+    
+    /**
+     * Lista reservas de los destinos indicados a partir de una posición, para saltar a una página lejana
+     */
+    public List<Reserva> listarReservasPorDestinosDesdePosicion(List<String> destinos, int posicion, int tamanoPagina) {
+        return reservaDAO.listarReservasPorDestinosDesdePosicion(destinos, posicion, tamanoPagina);
+    }
+    
+    /**
+     * Cuenta las reservas de los destinos indicados
+     */
+    public int contarReservasPorDestinos(List<String> destinos) {
+        return reservaDAO.contarReservasPorDestinos(destinos);
+    }
+    
+    /**
+     * Lista la página de reservas que viajan entre dos fechas (ambas incluidas), ordenadas por fecha
+     * de viaje, que sigue a la última reserva recibida (fecha null para la primera página)
+     * @param estado estado de las reservas, o null para todas
+     */
+    public List<Reserva> listarReservasEntreFechasPagina(Date desde, Date hasta, String estado,
+                                                         Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        validarRangoFechas(desde, hasta);
+        return reservaDAO.listarReservasEntreFechasPagina(desde, hasta, estado, despuesDeFecha, despuesDeId, tamanoPagina);
+    }
+    
+    /**
+     * Cuenta las reservas que viajan entre dos fechas (ambas incluidas); los rangos de los próximos
+     * días se responden desde memoria
+     * @param estado estado de las reservas, o null para todas
+     */
+    public int contarReservasEntreFechas(Date desde, Date hasta, String estado) {
+        validarRangoFechas(desde, hasta);
+        return reservaDAO.contarReservasEntreFechas(desde, hasta, estado);
+    }
+    
+    /**
+     * Cantidad de salidas por fecha de viaje entre dos fechas (ambas incluidas); los días sin salidas no aparecen
+     * @param estado estado de las reservas, o null para todas
+     */
+    public SortedMap<LocalDate, Integer> contarSalidasPorDia(Date desde, Date hasta, String estado) {
+        validarRangoFechas(desde, hasta);
+        return reservaDAO.contarSalidasPorDia(desde, hasta, estado);
+    }
+    
+    private static void validarRangoFechas(Date desde, Date hasta) {
+        if (desde == null || hasta == null) {
+            throw new IllegalArgumentException("Error de validación: Debe indicar las fechas desde y hasta");
+        }
+        if (desde.after(hasta)) {
+            throw new IllegalArgumentException("Error de validación: La fecha desde no puede ser posterior a la fecha hasta");
+        }
+    }
+    
+    /**
+     * Inserta muchas reservas por lotes (por ejemplo, al migrar reservas de agencias asociadas).
+     * Las reservas con datos no válidos no se envían a la base; se informan como fallas en el resultado.
+     */
+    public ResultadoLote agregarReservas(List<Reserva> reservas) {
+        Map<Integer, String> rechazos = new HashMap<>();
+        List<Reserva> validas = new ArrayList<>(reservas.size());
+        for (int i = 0; i < reservas.size(); i++) {
+            String errorValidacion = validar(reservas.get(i));
+            if (errorValidacion != null) {
+                rechazos.put(i, "Error de validación: " + errorValidacion);
+            } else {
+                validas.add(reservas.get(i));
+            }
+        }
+        ResultadoLote resultado = rechazos.isEmpty() ? reservaDAO.agregarReservas(reservas)
+                : ResultadoLote.conRechazos(reservas.size(), rechazos, reservaDAO.agregarReservas(validas));
+        LOG.info("Carga por lotes de reservas", "total", resultado.getTotal(),
+                "insertados", resultado.getInsertados(), "fallos", resultado.getFallos().size());
+        return resultado;
+    }
+    
+    /**
+     * Valida una reserva de un lote con las mismas reglas que los formularios
+     * @return el primer error encontrado, o null si es válida
+     */
+    private static String validar(Reserva reserva) {
+        try {
+            ValidacionReserva.validarReserva(reserva.getDestino(), reserva.getFechaReserva(),
+                    reserva.getFechaViaje(), reserva.getPrecioCentavos());
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+    
+    // Versiones asíncronas: se ejecutan en el ejecutor acotado compartido (ver EjecutorAsincrono)
+    
+    public CompletableFuture<Boolean> agregarReservaCentavosAsync(int idCliente, Date fechaReserva, String destino, Date fechaViaje, long precioCentavos, String estado) {
+        return ejecutor.ejecutar(() -> agregarReservaCentavos(idCliente, fechaReserva, destino, fechaViaje, precioCentavos, estado));
+    }
+    
+    public CompletableFuture<Boolean> agregarReservaAsync(int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
+        return ejecutor.ejecutar(() -> agregarReserva(idCliente, fechaReserva, destino, fechaViaje, precio, estado));
+    }
+    
+    public CompletableFuture<Boolean> agregarReservasConFacturaAsync(List<Reserva> reservas) {
+        return ejecutor.ejecutar(() -> agregarReservasConFactura(reservas));
+    }
+    
+    public CompletableFuture<Reserva> consultarReservaAsync(int idReserva) {
+        return ejecutor.ejecutar(() -> consultarReserva(idReserva));
+    }
+    
+    public CompletableFuture<Boolean> actualizarReservaCentavosAsync(int idReserva, int idCliente, Date fechaReserva, String destino, Date fechaViaje, long precioCentavos, String estado) {
+        return ejecutor.ejecutar(() -> actualizarReservaCentavos(idReserva, idCliente, fechaReserva, destino, fechaViaje, precioCentavos, estado));
+    }
+    
+    public CompletableFuture<Boolean> actualizarReservaAsync(int idReserva, int idCliente, Date fechaReserva, String destino, Date fechaViaje, double precio, String estado) {
+        return ejecutor.ejecutar(() -> actualizarReserva(idReserva, idCliente, fechaReserva, destino, fechaViaje, precio, estado));
+    }
+    
+    public CompletableFuture<Boolean> eliminarReservaAsync(int idReserva) {
+        return ejecutor.ejecutar(() -> eliminarReserva(idReserva));
+    }
+    
+    public CompletableFuture<List<Reserva>> listarReservasAsync() {
+        return ejecutor.ejecutar(this::listarReservas);
+    }
+    
+    public CompletableFuture<List<Reserva>> listarReservasPorClienteAsync(int idCliente) {
+        return ejecutor.ejecutar(() -> listarReservasPorCliente(idCliente));
+    }
+    
+    public CompletableFuture<List<Reserva>> listarReservasPaginaAsync(int despuesDeId, int tamanoPagina) {
+        return ejecutor.ejecutar(() -> listarReservasPagina(despuesDeId, tamanoPagina));
+    }
+    
+    public CompletableFuture<Integer> contarReservasAsync() {
+        return ejecutor.ejecutar(this::contarReservas);
+    }
+    
+    public CompletableFuture<List<String>> buscarDestinosAsync(String texto, int limite) {
+        return ejecutor.ejecutar(() -> buscarDestinos(texto, limite));
+    }
+    
+    public CompletableFuture<List<Reserva>> listarReservasEntreFechasPaginaAsync(Date desde, Date hasta, String estado,
+                                                                                Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        return ejecutor.ejecutar(() -> listarReservasEntreFechasPagina(desde, hasta, estado, despuesDeFecha, despuesDeId, tamanoPagina));
+    }
+    
+    public CompletableFuture<Integer> contarReservasEntreFechasAsync(Date desde, Date hasta, String estado) {
+        return ejecutor.ejecutar(() -> contarReservasEntreFechas(desde, hasta, estado));
+    }
+    
+    public CompletableFuture<SortedMap<LocalDate, Integer>> contarSalidasPorDiaAsync(Date desde, Date hasta, String estado) {
+        return ejecutor.ejecutar(() -> contarSalidasPorDia(desde, hasta, estado));
+    }
+    
+    public CompletableFuture<ResultadoLote> agregarReservasAsync(List<Reserva> reservas) {
+        return ejecutor.ejecutar(() -> agregarReservas(reservas));
+    }
+}
@@ -0,0 +1,147 @@
+package modelo;
+
+import java.sql.*;
+
+/**
+ * Mantiene la tabla resumen_ingresos (cantidad de facturas y monto facturado por mes de emisión,
+ * estado y destino) a medida que cambian las facturas, para que los tableros lean unas pocas filas
+ * por grupo en lugar de recorrer todas las facturas.
+ *
+ * Cada método suma o resta las facturas indicadas tal como están en la base en ese momento
+ * (INSERT ... SELECT ... ON DUPLICATE KEY UPDATE), así que debe llamarse con la misma conexión y
+ * en la misma transacción que la escritura: restar antes de modificar o eliminar y sumar después
+ * de insertar o modificar. Cada escritura bloquea solo las filas de sus propios grupos.
+ *
+ * Los grupos que se quedan sin facturas conservan su fila con cantidad 0 (las consultas filtran
+ * cantidad &gt; 0): borrarlos en cada escritura recorrería y bloquearía toda la tabla.
+ */
+final class AcumuladoIngresos {
+
+    private static final String COLUMNAS_GRUPO = AgrupacionIngresos.PERIODO.columnaFacturas + ", "
+            + AgrupacionIngresos.ESTADO.columnaFacturas + ", " + AgrupacionIngresos.DESTINO.columnaFacturas;
+
+    // %1$s: 1 para sumar o -1 para restar; %2$s: condición sobre las facturas. En MySQL los valores
+    // nuevos se leen de la tabla derivada (VALUES() en ON DUPLICATE KEY UPDATE es obsoleto desde
+    // MySQL 8.0.20); H2, usado en modo embebido y en las pruebas, solo admite VALUES()
+    private static final String SQL_ACUMULAR_MYSQL = "INSERT INTO resumen_ingresos (periodo, estado, destino, cantidad, monto_total) "
+            + "SELECT g_periodo, g_estado, g_destino, g_cantidad, g_monto FROM ("
+            + "SELECT " + AgrupacionIngresos.PERIODO.columnaFacturas + " AS g_periodo, "
+            + AgrupacionIngresos.ESTADO.columnaFacturas + " AS g_estado, "
+            + AgrupacionIngresos.DESTINO.columnaFacturas + " AS g_destino, "
+            + "%1$s * COUNT(*) AS g_cantidad, %1$s * SUM(f.monto_total) AS g_monto "
+            + "FROM factura f JOIN reserva r ON r.id_reserva = f.id_reserva WHERE %2$s "
+            + "GROUP BY " + COLUMNAS_GRUPO + ") AS nuevo "
+            + "ON DUPLICATE KEY UPDATE cantidad = cantidad + nuevo.g_cantidad, monto_total = monto_total + nuevo.g_monto";
+    private static final String SQL_ACUMULAR_H2 = "INSERT INTO resumen_ingresos (periodo, estado, destino, cantidad, monto_total) "
+            + "SELECT " + COLUMNAS_GRUPO + ", %1$s * COUNT(*), %1$s * SUM(f.monto_total) "
+            + "FROM factura f JOIN reserva r ON r.id_reserva = f.id_reserva WHERE %2$s "
+            + "GROUP BY " + COLUMNAS_GRUPO + " "
+            + "ON DUPLICATE KEY UPDATE cantidad = cantidad + VALUES(cantidad), monto_total = monto_total + VALUES(monto_total)";
+
+    private static final Acumulacion SUMAR_FACTURA = new Acumulacion("1", "f.id_factura = ?");
+    private static final Acumulacion RESTAR_FACTURA = new Acumulacion("-1", "f.id_factura = ?");
+    private static final Acumulacion SUMAR_RESERVA = new Acumulacion("1", "f.id_reserva = ?");
+    private static final Acumulacion RESTAR_RESERVA = new Acumulacion("-1", "f.id_reserva = ?");
+    private static final Acumulacion RESTAR_SI_CAMBIA_DESTINO = new Acumulacion("-1", "f.id_reserva = ? AND r.destino <> ?");
+    private static final Acumulacion SUMAR_TODAS = new Acumulacion("1", "1 = 1");
+
+    /**
+     * Una misma acumulación en las dos variantes de SQL; se elige según la base de la conexión.
+     */
+    private static final class Acumulacion {
+        final String mysql;
+        final String h2;
+
+        Acumulacion(String signo, String condicion) {
+            this.mysql = String.format(SQL_ACUMULAR_MYSQL, signo, condicion);
+            this.h2 = String.format(SQL_ACUMULAR_H2, signo, condicion);
+        }
+
+        String sql(Connection conn) throws SQLException {
+            return "H2".equals(conn.getMetaData().getDatabaseProductName()) ? h2 : mysql;
+        }
+    }
+
+    private AcumuladoIngresos() {
+    }
+
+    static void sumarFactura(Connection conn, int idFactura) throws SQLException {
+        ejecutar(conn, SUMAR_FACTURA.sql(conn), idFactura);
+    }
+
+    static void restarFactura(Connection conn, int idFactura) throws SQLException {
+        ejecutar(conn, RESTAR_FACTURA.sql(conn), idFactura);
+    }
+
+    /**
+     * Suma las facturas de cada una de las reservas indicadas, en un solo lote.
+     */
+    static void sumarReservas(Connection conn, int... idsReserva) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SUMAR_RESERVA.sql(conn))) {
+            for (int idReserva : idsReserva) {
+                pstmt.setInt(1, idReserva);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    static void restarReserva(Connection conn, int idReserva) throws SQLException {
+        ejecutar(conn, RESTAR_RESERVA.sql(conn), idReserva);
+    }
+
+    /**
+     * Antes de actualizar una reserva: resta sus facturas solo si cambia el destino.
+     * @return true si se restaron facturas, que deben volver a sumarse después de actualizar
+     */
+    static boolean restarSiCambiaDestino(Connection conn, int idReserva, String destinoNuevo) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RESTAR_SI_CAMBIA_DESTINO.sql(conn))) {
+            pstmt.setInt(1, idReserva);
+            pstmt.setString(2, destinoNuevo);
+            return pstmt.executeUpdate() > 0;
+        }
+    }
+
+    /**
+     * Resta las facturas indicadas, en un solo lote.
+     */
+    static void restarFacturas(Connection conn, int... idsFactura) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(RESTAR_FACTURA.sql(conn))) {
+            for (int idFactura : idsFactura) {
+                pstmt.setInt(1, idFactura);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Suma las facturas indicadas, en un solo lote.
+     */
+    static void sumarFacturas(Connection conn, int... idsFactura) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(SUMAR_FACTURA.sql(conn))) {
+            for (int idFactura : idsFactura) {
+                pstmt.setInt(1, idFactura);
+                pstmt.addBatch();
+            }
+            pstmt.executeBatch();
+        }
+    }
+
+    /**
+     * Vuelve a calcular toda la tabla a partir de las facturas.
+     */
+    static void reconstruir(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM resumen_ingresos");
+            stmt.executeUpdate(SUMAR_TODAS.sql(conn));
+        }
+    }
+
+    private static void ejecutar(Connection conn, String sql, int id) throws SQLException {
+        try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            pstmt.setInt(1, id);
+            pstmt.executeUpdate();
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package modelo;
+
+/**
+ * Criterios por los que se pueden agrupar los totales de facturación (ver {@link TotalIngresos}).
+ * Cada criterio sabe cómo se expresa sobre las facturas (f JOIN r) y sobre la tabla resumen_ingresos.
+ */
+public enum AgrupacionIngresos {
+
+    /** Mes de emisión de la factura (AAAAMM) */
+    PERIODO("YEAR(f.fecha_emision) * 100 + MONTH(f.fecha_emision)", "periodo"),
+    /** Estado de la factura, en mayúsculas */
+    ESTADO("COALESCE(UPPER(f.estado), '')", "estado"),
+    /** Destino de la reserva facturada */
+    DESTINO("r.destino", "destino");
+
+    final String columnaFacturas;
+    final String columnaResumen;
+
+    AgrupacionIngresos(String columnaFacturas, String columnaResumen) {
+        this.columnaFacturas = columnaFacturas;
+        this.columnaResumen = columnaResumen;
+    }
+}
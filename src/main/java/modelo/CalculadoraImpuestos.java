@@ -0,0 +1,31 @@
+package modelo;
+
+import java.time.LocalDate;
+import java.util.Date;
+
+/**
+ * Calcula el total a facturar de un subtotal sumándole los impuestos que correspondan.
+ * Se usa en cada factura que se genera, también en los lotes de miles de reservas, así que las
+ * implementaciones no deben consultar la base y deben poder usarse desde varios hilos a la vez.
+ * La implementación predeterminada es {@link TablaTarifas}.
+ */
+public interface CalculadoraImpuestos {
+
+    /**
+     * @param subtotalCentavos subtotal en centavos (ver util.Dinero)
+     * @param destino destino de la reserva facturada, o null si no se conoce
+     * @param fechaEmision fecha de emisión de la factura
+     * @return total con impuestos, en centavos y redondeado al centavo
+     */
+    long calcularTotal(long subtotalCentavos, String destino, LocalDate fechaEmision);
+
+    /**
+     * Igual que {@link #calcularTotal(long, String, LocalDate)} con una fecha del modelo;
+     * si la fecha es null se usa la de hoy.
+     */
+    default long calcularTotal(long subtotalCentavos, String destino, Date fechaEmision) {
+        LocalDate dia = fechaEmision == null ? LocalDate.now()
+                : new java.sql.Date(fechaEmision.getTime()).toLocalDate();
+        return calcularTotal(subtotalCentavos, destino, dia);
+    }
+}
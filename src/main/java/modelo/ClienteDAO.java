@@ -1,43 +1,39 @@
 package modelo;
 
+import util.Bitacora;
 import util.ConexionMySQL;
+import util.Dinero;
 import java.sql.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 public class ClienteDAO {
+    private static final Bitacora LOG = Bitacora.obtener(ClienteDAO.class);
+
     // CRUD operations
     
     /**
-     * Obtiene una conexión a la base de datos.
+     * Obtiene una conexión del pool de la base de datos.
      * Este método puede ser sobrescrito en pruebas para proporcionar una conexión mock o a H2.
      */
     protected Connection getConnection() throws SQLException {
         return ConexionMySQL.getConnection();
     }
     
+    private static final String SQL_INSERTAR = "INSERT INTO cliente (nombre, apellido, dni, telefono, email, direccion) VALUES (?, ?, ?, ?, ?, ?)";
+    
     public boolean agregarCliente(Cliente cliente) {
-        String sql = "INSERT INTO cliente (nombre, apellido, dni, telefono, email, direccion) VALUES (?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            // Para depuración
-            System.out.println("Intentando agregar cliente: " + cliente.getNombre() + " " + cliente.getApellido());
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERTAR)) {
             
-            pstmt.setString(1, cliente.getNombre());
-            pstmt.setString(2, cliente.getApellido());
-            pstmt.setString(3, cliente.getDni());
-            pstmt.setString(4, cliente.getTelefono());
-            pstmt.setString(5, cliente.getEmail());
-            pstmt.setString(6, cliente.getDireccion());
+            asignarParametrosInsercion(pstmt, cliente);
             
             int rowsAffected = pstmt.executeUpdate();
-            System.out.println("Filas afectadas: " + rowsAffected);
+            LOG.depuracion("Cliente agregado", "filas", rowsAffected);
             return rowsAffected > 0;
         } catch (SQLException e) {
-            System.err.println("Error SQL al agregar cliente: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Error al agregar cliente", e);
             return false;
         }
     }
@@ -53,17 +49,10 @@ public class ClienteDAO {
             ResultSet rs = pstmt.executeQuery();
             
             if (rs.next()) {
-                cliente = new Cliente();
-                cliente.setIdCliente(rs.getInt("id_cliente"));
-                cliente.setNombre(rs.getString("nombre"));
-                cliente.setApellido(rs.getString("apellido"));
-                cliente.setDni(rs.getString("dni"));
-                cliente.setTelefono(rs.getString("telefono"));
-                cliente.setEmail(rs.getString("email"));
-                cliente.setDireccion(rs.getString("direccion"));
+                cliente = mapearCliente(rs);
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al consultar cliente", e, "idCliente", idCliente);
         }
         
         return cliente;
@@ -85,7 +74,7 @@ public class ClienteDAO {
             
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al actualizar cliente", e, "idCliente", cliente.getIdCliente());
             return false;
         }
     }
@@ -99,7 +88,7 @@ public class ClienteDAO {
             pstmt.setInt(1, idCliente);
             return pstmt.executeUpdate() > 0;
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al eliminar cliente", e, "idCliente", idCliente);
             return false;
         }
     }
@@ -113,21 +102,194 @@ public class ClienteDAO {
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                Cliente cliente = new Cliente();
-                cliente.setIdCliente(rs.getInt("id_cliente"));
-                cliente.setNombre(rs.getString("nombre"));
-                cliente.setApellido(rs.getString("apellido"));
-                cliente.setDni(rs.getString("dni"));
-                cliente.setTelefono(rs.getString("telefono"));
-                cliente.setEmail(rs.getString("email"));
-                cliente.setDireccion(rs.getString("direccion"));
-                
-                clientes.add(cliente);
+                clientes.add(mapearCliente(rs));
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar clientes", e);
+        }
+        
+        return clientes;
+    }
+    
+    /**
+     * Consulta un cliente por su DNI usando el índice único de la columna dni.
+     * @return el cliente encontrado o null si no existe
+     */
+    public Cliente consultarClientePorDni(String dni) {
+        String sql = "SELECT * FROM cliente WHERE dni = ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, dni);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (rs.next()) {
+                    return mapearCliente(rs);
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al consultar cliente por DNI", e);
+        }
+        return null;
+    }
+    
+    /**
+     * Verifica con una sola consulta indexada si existe un cliente con el DNI dado,
+     * ignorando el cliente con el ID indicado (usar 0 para no excluir ninguno).
+     */
+    public boolean existeClienteConDni(String dni, int idExcluir) {
+        String sql = "SELECT 1 FROM cliente WHERE dni = ? AND id_cliente <> ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setString(1, dni);
+            pstmt.setInt(2, idExcluir);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next();
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al verificar DNI duplicado", e, "idExcluir", idExcluir);
+            return false;
         }
+    }
+    
+    /**
+     * Lista una página de clientes ordenados por ID usando paginación por clave (keyset).
+     * @param despuesDeId ID del último cliente de la página anterior (0 para la primera página)
+     * @param tamanoPagina cantidad máxima de clientes a devolver
+     */
+    public List<Cliente> listarClientesPagina(int despuesDeId, int tamanoPagina) {
+        List<Cliente> clientes = new ArrayList<>();
+        String sql = "SELECT * FROM cliente WHERE id_cliente > ? ORDER BY id_cliente LIMIT ?";
         
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, despuesDeId);
+            pstmt.setInt(2, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    clientes.add(mapearCliente(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar página de clientes", e, "despuesDeId", despuesDeId, "tamanoPagina", tamanoPagina);
+        }
         return clientes;
     }
+    
+    /**
+     * Consulta un cliente junto con sus reservas y las facturas de esas reservas en una sola
+     * consulta (cliente LEFT JOIN reserva LEFT JOIN factura), usando una sola conexión.
+     * @return el resumen del cliente, o null si el cliente no existe o hubo un error
+     */
+    public ResumenCliente consultarResumenCliente(int idCliente) {
+        String sql = "SELECT c.*, r.id_reserva, r.fecha_reserva, r.destino, r.fecha_viaje, r.precio, "
+                + "r.estado AS estado_reserva, f.id_factura, f.fecha_emision, f.monto_total, f.estado AS estado_factura "
+                + "FROM cliente c "
+                + "LEFT JOIN reserva r ON r.id_cliente = c.id_cliente "
+                + "LEFT JOIN factura f ON f.id_reserva = r.id_reserva "
+                + "WHERE c.id_cliente = ? ORDER BY r.id_reserva, f.id_factura";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, idCliente);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                Cliente cliente = null;
+                List<Reserva> reservas = new ArrayList<>();
+                List<Factura> facturas = new ArrayList<>();
+                while (rs.next()) {
+                    if (cliente == null) {
+                        cliente = mapearCliente(rs);
+                    }
+                    // Una fila por factura: la reserva se repite si tiene varias
+                    int idReserva = rs.getInt("id_reserva");
+                    if (rs.wasNull()) {
+                        continue; // Cliente sin reservas
+                    }
+                    if (reservas.isEmpty() || reservas.get(reservas.size() - 1).getIdReserva() != idReserva) {
+                        Reserva reserva = new Reserva();
+                        reserva.setIdReserva(idReserva);
+                        reserva.setIdCliente(cliente.getIdCliente());
+                        reserva.setFechaReserva(rs.getDate("fecha_reserva"));
+                        reserva.setDestino(rs.getString("destino"));
+                        reserva.setFechaViaje(rs.getDate("fecha_viaje"));
+                        reserva.setPrecioCentavos(Dinero.deDecimal(rs.getBigDecimal("precio")));
+                        reserva.setEstado(rs.getString("estado_reserva"));
+                        reservas.add(reserva);
+                    }
+                    int idFactura = rs.getInt("id_factura");
+                    if (!rs.wasNull()) {
+                        Factura factura = new Factura();
+                        factura.setIdFactura(idFactura);
+                        factura.setIdReserva(idReserva);
+                        factura.setFechaEmision(rs.getDate("fecha_emision"));
+                        factura.setMontoTotalCentavos(Dinero.deDecimal(rs.getBigDecimal("monto_total")));
+                        factura.setEstadoPago(rs.getString("estado_factura"));
+                        facturas.add(factura);
+                    }
+                }
+                return cliente == null ? null : new ResumenCliente(cliente, reservas, facturas);
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al consultar resumen del cliente", e, "idCliente", idCliente);
+            return null;
+        }
+    }
+    
+    /**
+     * Recorre todos los clientes sin cargarlos en memoria: las filas se leen del servidor
+     * a medida que se consume el Stream. Debe cerrarse (try-with-resources) para liberar la conexión,
+     * tanto si se consume completo como si se interrumpe antes.
+     */
+    public Stream<Cliente> recorrerClientes() {
+        try {
+            return CursorStreaming.abrir(getConnection(), "SELECT * FROM cliente ORDER BY id_cliente", this::mapearCliente);
+        } catch (SQLException e) {
+            LOG.error("Error al abrir el recorrido de clientes", e);
+            return Stream.empty();
+        }
+    }
+    
+    private Cliente mapearCliente(ResultSet rs) throws SQLException {
+        Cliente cliente = new Cliente();
+        cliente.setIdCliente(rs.getInt("id_cliente"));
+        cliente.setNombre(rs.getString("nombre"));
+        cliente.setApellido(rs.getString("apellido"));
+        cliente.setDni(rs.getString("dni"));
+        cliente.setTelefono(rs.getString("telefono"));
+        cliente.setEmail(rs.getString("email"));
+        cliente.setDireccion(rs.getString("direccion"));
+        return cliente;
+    }
+    
+    /**
+     * Inserta muchos clientes por lotes (addBatch/executeBatch), confirmando cada bloque.
+     * Las filas rechazadas (por ejemplo, DNI duplicado) se informan en el resultado sin
+     * detener la carga; a los clientes insertados se les asigna el ID generado.
+     */
+    public ResultadoLote agregarClientes(List<Cliente> clientes) {
+        try (Connection conn = getConnection()) {
+            return InsercionPorLotes.insertar(conn, SQL_INSERTAR, clientes,
+                    this::asignarParametrosInsercion, Cliente::setIdCliente);
+        } catch (SQLException e) {
+            LOG.error("Error al agregar clientes por lotes", e, "cantidad", clientes.size());
+            return ResultadoLote.fallido(clientes.size(), e.getMessage());
+        }
+    }
+    
+    private void asignarParametrosInsercion(PreparedStatement pstmt, Cliente cliente) throws SQLException {
+        pstmt.setString(1, cliente.getNombre());
+        pstmt.setString(2, cliente.getApellido());
+        pstmt.setString(3, cliente.getDni());
+        pstmt.setString(4, cliente.getTelefono());
+        pstmt.setString(5, cliente.getEmail());
+        pstmt.setString(6, cliente.getDireccion());
+    }
 }
\ No newline at end of file
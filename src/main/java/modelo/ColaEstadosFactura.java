@@ -0,0 +1,315 @@
+package modelo;
+
+import util.Bitacora;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cola de escritura diferida para los cambios de estado de las facturas (por ejemplo, anular),
+ * que no necesitan esperar a la base: quien cambia el estado solo lo encola y un hilo propio
+ * guarda los cambios por lotes cada intervaloMs, o antes si se juntan tamanoLote facturas.
+ *
+ * Los cambios repetidos de una misma factura se combinan y solo se guarda el último. Cada cambio
+ * se anota en un diario, y se fuerza al disco, antes de aceptarse, así que los que no llegaron a
+ * guardarse (por un cierre inesperado de la aplicación o del equipo, o un error de la base) se
+ * vuelven a encolar al crear la cola con el mismo diario; el diario se compacta después de cada
+ * lote guardado. La escritura del diario usa su propio candado, así que las consultas no esperan
+ * al disco.
+ *
+ * Si un lote no se puede guardar, se reintenta factura por factura: los cambios que la base
+ * rechaza por sus datos se descartan (y se registran) para que no bloqueen al resto; si la base
+ * no responde, el lote vuelve a la cola. Mientras un cambio está en la cola, las consultas a la base siguen devolviendo
+ * el estado anterior; quien lee debe superponer consultarPendiente (como hace FacturaController).
+ */
+public class ColaEstadosFactura implements AutoCloseable {
+    private static final Bitacora LOG = Bitacora.obtener(ColaEstadosFactura.class);
+
+    private static final String SEPARADOR = ";";
+
+    private final FacturaDAO facturaDAO;
+    private final Path diario;
+    private final long intervaloMs;
+    private final int tamanoLote;
+    private final Map<Integer, String> pendientes = new LinkedHashMap<>();
+    private Map<Integer, String> enCurso = Map.of(); // Lote que se está guardando
+    private final Object guardando = new Object();
+    // Protege salidaDiario y el archivo; se toma antes que el candado de la cola, nunca después
+    private final Object diarioCandado = new Object();
+    private final Thread escritor;
+    private FileChannel salidaDiario;
+    private boolean cerrada;
+
+    /**
+     * Crea la cola y vuelve a encolar los cambios que hayan quedado en el diario.
+     * @param diario archivo donde se anotan los cambios hasta que se guardan
+     * @param intervaloMs tiempo máximo que un cambio espera en la cola
+     * @param tamanoLote cantidad de facturas a partir de la cual se guarda sin esperar el intervalo
+     * @throws IOException si no se puede leer el diario existente
+     */
+    public ColaEstadosFactura(FacturaDAO facturaDAO, Path diario, long intervaloMs, int tamanoLote) throws IOException {
+        if (intervaloMs < 1 || tamanoLote < 1) {
+            throw new IllegalArgumentException("El intervalo y el tamaño del lote deben ser positivos");
+        }
+        this.facturaDAO = facturaDAO;
+        this.diario = diario;
+        this.intervaloMs = intervaloMs;
+        this.tamanoLote = tamanoLote;
+        recuperarDiario();
+        this.escritor = new Thread(this::guardarPeriodicamente, "estados-factura-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Encola el cambio de estado y lo anota en el diario.
+     * @param estado uno de Factura.ESTADOS_PAGO
+     * @return false si la cola está cerrada o no se pudo escribir el diario; el cambio no se acepta
+     */
+    public boolean encolar(int idFactura, String estado) {
+        if (!Factura.ESTADOS_PAGO.contains(estado)) {
+            throw new IllegalArgumentException("Estado de factura inválido: " + estado);
+        }
+        synchronized (diarioCandado) {
+            synchronized (this) {
+                if (cerrada) {
+                    return false;
+                }
+            }
+            try {
+                anotar(idFactura, estado);
+            } catch (IOException e) {
+                LOG.error("Error al escribir el diario de estados de factura", e, "diario", diario, "idFactura", idFactura);
+                cerrarDiario();
+                return false;
+            }
+            synchronized (this) {
+                pendientes.put(idFactura, estado);
+                if (pendientes.size() >= tamanoLote) {
+                    notifyAll(); // Despierta al escritor sin esperar el intervalo
+                }
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Estado encolado y todavía no guardado de la factura, o null si no tiene cambios pendientes.
+     */
+    public synchronized String consultarPendiente(int idFactura) {
+        String estado = pendientes.get(idFactura);
+        return estado != null ? estado : enCurso.get(idFactura);
+    }
+
+    /**
+     * Cantidad de facturas con cambios todavía no guardados, incluidas las del lote en curso.
+     */
+    public synchronized int getPendientes() {
+        int cantidad = pendientes.size();
+        for (Integer idFactura : enCurso.keySet()) {
+            if (!pendientes.containsKey(idFactura)) {
+                cantidad++;
+            }
+        }
+        return cantidad;
+    }
+
+    /**
+     * Guarda ahora los cambios pendientes en un solo lote, o factura por factura si el lote falla.
+     * @return false si la base no respondió; los cambios siguen en la cola y en el diario. Los
+     *         cambios que la base rechazó se descartan y no cuentan como falla
+     */
+    public boolean guardar() {
+        synchronized (guardando) {
+            Map<Integer, String> lote;
+            synchronized (this) {
+                if (pendientes.isEmpty()) {
+                    return true;
+                }
+                lote = new LinkedHashMap<>(pendientes);
+                pendientes.clear();
+                enCurso = lote;
+            }
+            Set<Integer> rechazadas = Set.of();
+            if (!facturaDAO.actualizarEstadosFacturas(lote)) {
+                rechazadas = facturaDAO.actualizarEstadosFacturasPorFila(lote);
+            }
+            synchronized (this) {
+                enCurso = Map.of();
+                if (rechazadas == null) {
+                    // Los cambios encolados mientras tanto son más nuevos que los del lote
+                    lote.forEach(pendientes::putIfAbsent);
+                    return false;
+                }
+            }
+            for (Integer idFactura : rechazadas) {
+                LOG.error("Cambio de estado de factura descartado: la base lo rechazó", null,
+                        "idFactura", idFactura, "estado", lote.get(idFactura));
+            }
+            compactarDiario();
+            return true;
+        }
+    }
+
+    /**
+     * Guarda los cambios pendientes y detiene el hilo escritor. Si el último lote no se puede
+     * guardar, sus cambios quedan en el diario para la próxima vez que se cree la cola.
+     */
+    @Override
+    public void close() {
+        synchronized (diarioCandado) { // Espera a que terminen los encolar en curso
+            synchronized (this) {
+                if (cerrada) {
+                    return;
+                }
+                cerrada = true;
+                notifyAll();
+            }
+        }
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        guardar();
+        synchronized (diarioCandado) {
+            cerrarDiario();
+        }
+    }
+
+    private void guardarPeriodicamente() {
+        boolean fallo = false;
+        while (true) {
+            synchronized (this) {
+                // Tras un error se espera el intervalo completo aunque el lote esté lleno
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(intervaloMs);
+                long restante;
+                while (!cerrada && (fallo || pendientes.size() < tamanoLote)
+                        && (restante = limite - System.nanoTime()) > 0) {
+                    try {
+                        TimeUnit.NANOSECONDS.timedWait(this, restante);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (cerrada) {
+                    return;
+                }
+            }
+            fallo = !guardar();
+        }
+    }
+
+    private void recuperarDiario() throws IOException {
+        if (!Files.exists(diario)) {
+            return;
+        }
+        String contenido = Files.readString(diario, StandardCharsets.UTF_8);
+        List<String> lineas = new ArrayList<>(List.of(contenido.split("\\R")));
+        if (!contenido.isEmpty() && !contenido.endsWith("\n")) {
+            // Línea cortada por un cierre inesperado: ese cambio no llegó a aceptarse
+            LOG.advertencia("Última línea del diario de estados de factura incompleta", "diario", diario,
+                    "linea", lineas.remove(lineas.size() - 1));
+        }
+        for (String linea : lineas) {
+            int separador = linea.indexOf(SEPARADOR);
+            if (separador < 1 || separador == linea.length() - 1) {
+                LOG.advertencia("Línea del diario de estados de factura ignorada", "diario", diario, "linea", linea);
+                continue;
+            }
+            String estado = linea.substring(separador + 1);
+            if (!Factura.ESTADOS_PAGO.contains(estado)) {
+                LOG.advertencia("Línea del diario de estados de factura ignorada", "diario", diario, "linea", linea);
+                continue;
+            }
+            try {
+                pendientes.put(Integer.parseInt(linea.substring(0, separador)), estado);
+            } catch (NumberFormatException e) {
+                LOG.advertencia("Línea del diario de estados de factura ignorada", "diario", diario, "linea", linea);
+            }
+        }
+        if (!pendientes.isEmpty()) {
+            LOG.info("Cambios de estado de factura recuperados del diario", "diario", diario, "pendientes", pendientes.size());
+        }
+    }
+
+    // Se llama con diarioCandado tomado
+    private void anotar(int idFactura, String estado) throws IOException {
+        if (salidaDiario == null) {
+            Path carpeta = diario.toAbsolutePath().getParent();
+            if (carpeta != null) {
+                Files.createDirectories(carpeta);
+            }
+            salidaDiario = FileChannel.open(diario, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        ByteBuffer linea = ByteBuffer.wrap((idFactura + SEPARADOR + estado + System.lineSeparator())
+                .getBytes(StandardCharsets.UTF_8));
+        while (linea.hasRemaining()) {
+            salidaDiario.write(linea);
+        }
+        salidaDiario.force(false); // El cambio solo se acepta una vez que está en el disco
+    }
+
+    // Reescribe el diario con los cambios que siguen pendientes, sin bloquear las consultas
+    private void compactarDiario() {
+        synchronized (diarioCandado) {
+            Map<Integer, String> restantes;
+            synchronized (this) {
+                restantes = new LinkedHashMap<>(pendientes);
+            }
+            cerrarDiario();
+            reescribirDiario(restantes);
+        }
+    }
+
+    private void reescribirDiario(Map<Integer, String> restantes) {
+        try {
+            if (restantes.isEmpty()) {
+                Files.deleteIfExists(diario);
+                return;
+            }
+            Path temporal = diario.resolveSibling(diario.getFileName() + ".tmp");
+            try (FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                StringBuilder contenido = new StringBuilder();
+                for (Map.Entry<Integer, String> pendiente : restantes.entrySet()) {
+                    contenido.append(pendiente.getKey()).append(SEPARADOR).append(pendiente.getValue())
+                            .append(System.lineSeparator());
+                }
+                ByteBuffer bytes = ByteBuffer.wrap(contenido.toString().getBytes(StandardCharsets.UTF_8));
+                while (bytes.hasRemaining()) {
+                    canal.write(bytes);
+                }
+                canal.force(false); // El reemplazo no debe dejar un diario vacío tras un corte de energía
+            }
+            Files.move(temporal, diario, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // El diario conserva cambios ya guardados, que se volverán a aplicar al recuperarlo
+            LOG.error("Error al compactar el diario de estados de factura", e, "diario", diario);
+        }
+    }
+
+    // Se llama con diarioCandado tomado
+    private void cerrarDiario() {
+        if (salidaDiario != null) {
+            try {
+                salidaDiario.close();
+            } catch (IOException e) {
+                LOG.error("Error al cerrar el diario de estados de factura", e, "diario", diario);
+            }
+            salidaDiario = null;
+        }
+    }
+}
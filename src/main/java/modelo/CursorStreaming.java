@@ -0,0 +1,98 @@
+package modelo;
+
+import util.Bitacora;
+import util.ConexionMySQL;
+import java.sql.*;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Recorre el resultado de una consulta como un Stream, leyendo las filas del servidor
+ * una a una (result set en modo streaming) en lugar de cargarlas todas en memoria.
+ * La conexión, la sentencia y el ResultSet se cierran al cerrar el Stream, por lo que
+ * debe usarse siempre dentro de un try-with-resources.
+ */
+class CursorStreaming {
+
+    private static final Bitacora LOG = Bitacora.obtener(CursorStreaming.class);
+
+    // Otras bases (como la embebida) no aceptan el tamaño negativo de MySQL; leen por bloques de este tamaño
+    private static final int TAMANO_FETCH_OTRAS_BASES = 500;
+
+    /**
+     * Convierte la fila actual del ResultSet en un objeto del modelo.
+     */
+    @FunctionalInterface
+    interface MapeadorFila<T> {
+        T mapear(ResultSet rs) throws SQLException;
+    }
+
+    private CursorStreaming() {
+    }
+
+    /**
+     * Ejecuta la consulta y devuelve un Stream perezoso sobre sus filas.
+     * Si la consulta falla, la conexión se cierra antes de propagar la excepción.
+     */
+    static <T> Stream<T> abrir(Connection conn, String sql, MapeadorFila<T> mapeador) throws SQLException {
+        Statement stmt = null;
+        ResultSet rs;
+        try {
+            stmt = conn.createStatement(ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            stmt.setFetchSize(esMySQL(conn) ? ConexionMySQL.TAMANO_FETCH_STREAMING : TAMANO_FETCH_OTRAS_BASES);
+            rs = stmt.executeQuery(sql);
+        } catch (SQLException e) {
+            cerrar(stmt, conn);
+            throw e;
+        }
+
+        final Statement sentencia = stmt;
+        final ResultSet resultado = rs;
+        Spliterator<T> filas = new Spliterators.AbstractSpliterator<T>(Long.MAX_VALUE,
+                Spliterator.ORDERED | Spliterator.NONNULL) {
+            @Override
+            public boolean tryAdvance(Consumer<? super T> accion) {
+                try {
+                    if (!resultado.next()) {
+                        return false;
+                    }
+                    accion.accept(mapeador.mapear(resultado));
+                    return true;
+                } catch (SQLException e) {
+                    throw new IllegalStateException("Error al leer la consulta en streaming: " + e.getMessage(), e);
+                }
+            }
+        };
+
+        return StreamSupport.stream(filas, false).onClose(() -> {
+            try {
+                resultado.close();
+            } catch (SQLException e) {
+                LOG.error("Error al cerrar el resultado en streaming", e);
+            }
+            cerrar(sentencia, conn);
+        });
+    }
+
+    private static boolean esMySQL(Connection conn) throws SQLException {
+        return conn.getMetaData().getDatabaseProductName().toLowerCase().contains("mysql");
+    }
+
+    private static void cerrar(Statement stmt, Connection conn) {
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al cerrar la sentencia en streaming", e);
+        }
+        try {
+            conn.close();
+        } catch (SQLException e) {
+            LOG.error("Error al cerrar la conexión", e);
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package modelo;
 
+import util.Dinero;
 import java.util.Date;
+import java.util.List;
 
 public class Factura {
+    // Valores que admite la columna estado de la tabla factura (ENUM en MySQL)
+    public static final List<String> ESTADOS_PAGO = List.of("PENDIENTE", "PAGADA", "ANULADA");
+
     private int idFactura;
     private int idReserva;
     private Date fechaEmision;
-    private double montoTotal;
+    private long montoTotalCentavos; // Ver util.Dinero
     private String estadoPago;
 
     // Constructors
@@ -16,10 +21,24 @@ public class Factura {
     public Factura(int idReserva, Date fechaEmision, double montoTotal, String estadoPago) {
         this.idReserva = idReserva;
         this.fechaEmision = fechaEmision;
-        this.montoTotal = montoTotal * 1.12; // Adding 12% iva
+        // Adding IVA: tasa general de la tabla de tarifas, porque aquí no se conoce el destino
+        this.montoTotalCentavos = TablaTarifas.predeterminada().calcularTotal(Dinero.deDouble(montoTotal), null, fechaEmision);
         this.estadoPago = estadoPago;
     }
 
+    /**
+     * Factura por un total ya calculado en centavos, con los impuestos incluidos
+     * (ver {@link CalculadoraImpuestos}).
+     */
+    public static Factura conTotal(int idReserva, Date fechaEmision, long montoTotalCentavos, String estadoPago) {
+        Factura factura = new Factura();
+        factura.idReserva = idReserva;
+        factura.fechaEmision = fechaEmision;
+        factura.montoTotalCentavos = montoTotalCentavos;
+        factura.estadoPago = estadoPago;
+        return factura;
+    }
+
     // Getters and setters
     public int getIdFactura() {
         return idFactura;
@@ -46,11 +65,19 @@ public class Factura {
     }
 
     public double getMontoTotal() {
-        return montoTotal;
+        return Dinero.aDouble(montoTotalCentavos);
     }
 
     public void setMontoTotal(double montoTotal) {
-        this.montoTotal = montoTotal;
+        this.montoTotalCentavos = Dinero.deDouble(montoTotal);
+    }
+
+    public long getMontoTotalCentavos() {
+        return montoTotalCentavos;
+    }
+
+    public void setMontoTotalCentavos(long montoTotalCentavos) {
+        this.montoTotalCentavos = montoTotalCentavos;
     }
 
     public String getEstadoPago() {
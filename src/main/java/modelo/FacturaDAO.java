@@ -1,30 +1,62 @@
 package modelo;
 
+import util.Bitacora;
 import util.ConexionMySQL;
+import util.Dinero;
 import java.sql.*;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public class FacturaDAO {
+    private static final Bitacora LOG = Bitacora.obtener(FacturaDAO.class);
+
     
+    /**
+     * Obtiene una conexión del pool de la base de datos.
+     * Este método puede ser sobrescrito en pruebas para proporcionar una conexión mock o a H2.
+     */
     protected Connection getConnection() throws SQLException {
         return ConexionMySQL.getConnection();
     }
     
+    // Máximo de IDs por consulta IN en consultarFacturasPorReservas
+    static final int TAMANO_BLOQUE_IN = 512;
+    
+    private static final String SQL_INSERTAR = "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)";
+    
+    /**
+     * Inserta la factura y la suma al resumen de ingresos en la misma transacción.
+     * A la factura insertada se le asigna el ID generado.
+     */
     public boolean agregarFactura(Factura factura) {
-        String sql = "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)";
-        
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, factura.getIdReserva());
-            pstmt.setDate(2, new java.sql.Date(factura.getFechaEmision().getTime()));
-            pstmt.setDouble(3, factura.getMontoTotal());
-            pstmt.setString(4, factura.getEstadoPago());
-            
-            return pstmt.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+                    asignarParametrosInsercion(pstmt, factura);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                    try (ResultSet generatedKeys = pstmt.getGeneratedKeys()) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Error al obtener el ID de la factura");
+                        }
+                        factura.setIdFactura(generatedKeys.getInt(1));
+                    }
+                }
+                AcumuladoIngresos.sumarFactura(conn, factura.getIdFactura());
+                return true;
+            });
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al agregar factura", e, "idReserva", factura.getIdReserva());
             return false;
         }
     }
@@ -39,51 +71,162 @@ public class FacturaDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    Factura factura = new Factura();
-                    factura.setIdFactura(rs.getInt("id_factura"));
-                    factura.setIdReserva(rs.getInt("id_reserva"));
-                    factura.setFechaEmision(rs.getDate("fecha_emision"));
-                    factura.setMontoTotal(rs.getDouble("monto_total"));
-                    factura.setEstadoPago(rs.getString("estado"));
-                    return factura;
+                    return mapearFactura(rs);
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al consultar factura", e, "idFactura", idFactura);
         }
         return null;
     }
     
+    /**
+     * Actualiza la factura y mueve su monto en el resumen de ingresos en la misma transacción.
+     */
     public boolean actualizarFactura(Factura factura) {
         String sql = "UPDATE factura SET id_reserva = ?, fecha_emision = ?, monto_total = ?, estado = ? WHERE id_factura = ?";
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, factura.getIdReserva());
-            pstmt.setDate(2, new java.sql.Date(factura.getFechaEmision().getTime()));
-            pstmt.setDouble(3, factura.getMontoTotal());
-            pstmt.setString(4, factura.getEstadoPago());
-            pstmt.setInt(5, factura.getIdFactura());
-            
-            return pstmt.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                AcumuladoIngresos.restarFactura(conn, factura.getIdFactura());
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, factura.getIdReserva());
+                    pstmt.setDate(2, new java.sql.Date(factura.getFechaEmision().getTime()));
+                    pstmt.setBigDecimal(3, Dinero.aDecimal(factura.getMontoTotalCentavos()));
+                    pstmt.setString(4, factura.getEstadoPago());
+                    pstmt.setInt(5, factura.getIdFactura());
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                AcumuladoIngresos.sumarFactura(conn, factura.getIdFactura());
+                return true;
+            });
+        } catch (SQLException e) {
+            LOG.error("Error al actualizar factura", e, "idFactura", factura.getIdFactura());
+            return false;
+        }
+    }
+    
+    private static final String SQL_ACTUALIZAR_ESTADO = "UPDATE factura SET estado = ? WHERE id_factura = ?";
+    
+    /**
+     * Cambia solo el estado de la factura, sin leerla antes, y la mueve de grupo en el resumen
+     * de ingresos en la misma transacción.
+     */
+    public boolean actualizarEstadoFactura(int idFactura, String estado) {
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                AcumuladoIngresos.restarFactura(conn, idFactura);
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL_ACTUALIZAR_ESTADO)) {
+                    pstmt.setString(1, estado);
+                    pstmt.setInt(2, idFactura);
+                    if (pstmt.executeUpdate() == 0) {
+                        return false;
+                    }
+                }
+                AcumuladoIngresos.sumarFactura(conn, idFactura);
+                return true;
+            });
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al actualizar estado de factura", e, "idFactura", idFactura);
             return false;
         }
     }
     
+    /**
+     * Cambia el estado de varias facturas (ID de factura → estado) en una sola transacción, con
+     * un lote de UPDATE y el resumen de ingresos actualizado también por lotes. Las facturas que
+     * ya no existen se ignoran.
+     * @return false si no se pudo guardar el lote; en ese caso no se cambia ningún estado
+     */
+    public boolean actualizarEstadosFacturas(Map<Integer, String> estados) {
+        if (estados.isEmpty()) {
+            return true;
+        }
+        int[] idsFactura = estados.keySet().stream().mapToInt(Integer::intValue).toArray();
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                AcumuladoIngresos.restarFacturas(conn, idsFactura);
+                try (PreparedStatement pstmt = conn.prepareStatement(SQL_ACTUALIZAR_ESTADO)) {
+                    for (Map.Entry<Integer, String> estado : estados.entrySet()) {
+                        pstmt.setString(1, estado.getValue());
+                        pstmt.setInt(2, estado.getKey());
+                        pstmt.addBatch();
+                    }
+                    pstmt.executeBatch();
+                }
+                AcumuladoIngresos.sumarFacturas(conn, idsFactura);
+                return true;
+            });
+        } catch (SQLException e) {
+            LOG.error("Error al actualizar estados de facturas", e, "cantidad", estados.size());
+            return false;
+        }
+    }
+    
+    /**
+     * Cambia el estado de cada factura en su propia transacción, para separar las filas que la
+     * base rechaza de un lote que no se pudo guardar completo (ver actualizarEstadosFacturas).
+     * @return IDs de las facturas cuyo cambio la base rechazó por sus datos, o null si falló por
+     *         otro motivo (por ejemplo, la base no responde); en ese caso se detiene en esa fila
+     */
+    public Set<Integer> actualizarEstadosFacturasPorFila(Map<Integer, String> estados) {
+        Set<Integer> rechazadas = new LinkedHashSet<>();
+        try (Connection conn = getConnection()) {
+            for (Map.Entry<Integer, String> estado : estados.entrySet()) {
+                int idFactura = estado.getKey();
+                try {
+                    enTransaccion(conn, () -> {
+                        AcumuladoIngresos.restarFactura(conn, idFactura);
+                        try (PreparedStatement pstmt = conn.prepareStatement(SQL_ACTUALIZAR_ESTADO)) {
+                            pstmt.setString(1, estado.getValue());
+                            pstmt.setInt(2, idFactura);
+                            pstmt.executeUpdate();
+                        }
+                        AcumuladoIngresos.sumarFactura(conn, idFactura);
+                        return true;
+                    });
+                } catch (SQLException e) {
+                    if (!esRechazoDeDatos(e)) {
+                        throw e;
+                    }
+                    LOG.advertencia("La base rechazó el estado de la factura", e, "idFactura", idFactura,
+                            "estado", estado.getValue());
+                    rechazadas.add(idFactura);
+                }
+            }
+            return rechazadas;
+        } catch (SQLException e) {
+            LOG.error("Error al actualizar estados de facturas fila por fila", e, "cantidad", estados.size());
+            return null;
+        }
+    }
+    
+    // Errores por el valor de la fila (clases SQLState 22 y 23), que se repetirían en cada reintento
+    private static boolean esRechazoDeDatos(SQLException e) {
+        String estado = e.getSQLState();
+        return e instanceof SQLDataException || e instanceof SQLIntegrityConstraintViolationException
+                || e instanceof DataTruncation
+                || (estado != null && (estado.startsWith("22") || estado.startsWith("23")));
+    }
+    
+    /**
+     * Elimina la factura y la descuenta del resumen de ingresos en la misma transacción.
+     */
     public boolean eliminarFactura(int idFactura) {
         String sql = "DELETE FROM factura WHERE id_factura = ?";
         
-        try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, idFactura);
-            
-            return pstmt.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                AcumuladoIngresos.restarFactura(conn, idFactura);
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    pstmt.setInt(1, idFactura);
+                    return pstmt.executeUpdate() > 0;
+                }
+            });
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al eliminar factura", e, "idFactura", idFactura);
             return false;
         }
     }
@@ -97,16 +240,10 @@ public class FacturaDAO {
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                Factura factura = new Factura();
-                factura.setIdFactura(rs.getInt("id_factura"));
-                factura.setIdReserva(rs.getInt("id_reserva"));
-                factura.setFechaEmision(rs.getDate("fecha_emision"));
-                factura.setMontoTotal(rs.getDouble("monto_total"));
-                factura.setEstadoPago(rs.getString("estado"));
-                facturas.add(factura);
+                facturas.add(mapearFactura(rs));
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al listar facturas", e);
         }
         return facturas;
     }
@@ -122,17 +259,11 @@ public class FacturaDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Factura factura = new Factura();
-                    factura.setIdFactura(rs.getInt("id_factura"));
-                    factura.setIdReserva(rs.getInt("id_reserva"));
-                    factura.setFechaEmision(rs.getDate("fecha_emision"));
-                    factura.setMontoTotal(rs.getDouble("monto_total"));
-                    factura.setEstadoPago(rs.getString("estado"));
-                    facturas.add(factura);
+                    facturas.add(mapearFactura(rs));
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al listar facturas del cliente", e, "idCliente", idCliente);
         }
         return facturas;
     }
@@ -147,18 +278,346 @@ public class FacturaDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    Factura factura = new Factura();
-                    factura.setIdFactura(rs.getInt("id_factura"));
-                    factura.setIdReserva(rs.getInt("id_reserva"));
-                    factura.setFechaEmision(rs.getDate("fecha_emision"));
-                    factura.setMontoTotal(rs.getDouble("monto_total"));
-                    factura.setEstadoPago(rs.getString("estado"));
-                    return factura;
+                    return mapearFactura(rs);
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al consultar factura por reserva", e, "idReserva", idReserva);
         }
         return null;
     }
+    
+    /**
+     * Consulta las facturas de varias reservas con consultas id_reserva IN (...), en lugar de una
+     * consulta por reserva. Los IDs se envían en bloques de hasta {@link #TAMANO_BLOQUE_IN}; la
+     * cantidad de parámetros se redondea a una potencia de dos (repitiendo el último ID) para que
+     * haya pocas variantes de la sentencia y la caché de sentencias del pool las reutilice.
+     * @return la factura de cada reserva que tiene una (la de menor ID si tuviera varias)
+     */
+    public Map<Integer, Factura> consultarFacturasPorReservas(Collection<Integer> idsReserva) {
+        Map<Integer, Factura> facturas = new HashMap<>();
+        List<Integer> ids = new ArrayList<>(new LinkedHashSet<>(idsReserva));
+        if (ids.isEmpty()) {
+            return facturas;
+        }
+        
+        try (Connection conn = getConnection()) {
+            for (int inicio = 0; inicio < ids.size(); inicio += TAMANO_BLOQUE_IN) {
+                List<Integer> bloque = ids.subList(inicio, Math.min(inicio + TAMANO_BLOQUE_IN, ids.size()));
+                int parametros = Integer.highestOneBit(bloque.size());
+                if (parametros < bloque.size()) {
+                    parametros <<= 1;
+                }
+                String sql = "SELECT * FROM factura WHERE id_reserva IN ("
+                        + String.join(", ", Collections.nCopies(parametros, "?")) + ") ORDER BY id_factura";
+                
+                try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                    for (int i = 0; i < parametros; i++) {
+                        pstmt.setInt(i + 1, bloque.get(Math.min(i, bloque.size() - 1)));
+                    }
+                    try (ResultSet rs = pstmt.executeQuery()) {
+                        while (rs.next()) {
+                            Factura factura = mapearFactura(rs);
+                            facturas.putIfAbsent(factura.getIdReserva(), factura);
+                        }
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al consultar facturas por reservas", e, "reservas", ids.size());
+        }
+        return facturas;
+    }
+    
+    /**
+     * Lista una página de facturas ordenadas por ID usando paginación por clave (keyset).
+     * @param despuesDeId ID de la última factura de la página anterior (0 para la primera página)
+     * @param tamanoPagina cantidad máxima de facturas a devolver
+     */
+    public List<Factura> listarFacturasPagina(int despuesDeId, int tamanoPagina) {
+        List<Factura> facturas = new ArrayList<>();
+        String sql = "SELECT * FROM factura WHERE id_factura > ? ORDER BY id_factura LIMIT ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, despuesDeId);
+            pstmt.setInt(2, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    facturas.add(mapearFactura(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar página de facturas", e, "despuesDeId", despuesDeId, "tamanoPagina", tamanoPagina);
+        }
+        return facturas;
+    }
+    
+    /**
+     * Lista una página de facturas ordenadas por fecha de emisión (y por ID para desempatar).
+     * @param despuesDeFecha fecha de emisión de la última factura recibida (null para la primera página)
+     * @param despuesDeId ID de la última factura recibida
+     * @param tamanoPagina cantidad máxima de facturas a devolver
+     */
+    public List<Factura> listarFacturasPorFechaEmisionPagina(Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        List<Factura> facturas = new ArrayList<>();
+        String sql;
+        if (despuesDeFecha == null) {
+            sql = "SELECT * FROM factura ORDER BY fecha_emision, id_factura LIMIT ?";
+        } else {
+            sql = "SELECT * FROM factura WHERE fecha_emision >= ? AND (fecha_emision > ? OR id_factura > ?) "
+                + "ORDER BY fecha_emision, id_factura LIMIT ?";
+        }
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int indice = 1;
+            if (despuesDeFecha != null) {
+                java.sql.Date fecha = new java.sql.Date(despuesDeFecha.getTime());
+                pstmt.setDate(indice++, fecha);
+                pstmt.setDate(indice++, fecha);
+                pstmt.setInt(indice++, despuesDeId);
+            }
+            pstmt.setInt(indice, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    facturas.add(mapearFactura(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar página de facturas por fecha de emisión", e, "despuesDeId", despuesDeId, "tamanoPagina", tamanoPagina);
+        }
+        return facturas;
+    }
+    
+    /**
+     * Cuenta las facturas registradas.
+     */
+    public int contarFacturas() {
+        String sql = "SELECT COUNT(*) FROM factura";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al contar facturas", e);
+        }
+        return 0;
+    }
+    
+    /**
+     * Lista facturas ordenadas por ID a partir de una posición. Solo debe usarse para saltar
+     * a una página cuyo cursor no se conoce; para avanzar página a página usar
+     * {@link #listarFacturasPagina(int, int)}, que no recorre las filas anteriores.
+     * @param posicion cantidad de facturas a saltar
+     * @param tamanoPagina cantidad máxima de facturas a devolver
+     */
+    public List<Factura> listarFacturasDesdePosicion(int posicion, int tamanoPagina) {
+        List<Factura> facturas = new ArrayList<>();
+        String sql = "SELECT * FROM factura ORDER BY id_factura LIMIT ? OFFSET ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Paginacion.limitarTamanoPagina(tamanoPagina));
+            pstmt.setInt(2, Math.max(0, posicion));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    facturas.add(mapearFactura(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar facturas desde posición", e, "posicion", posicion, "tamanoPagina", tamanoPagina);
+        }
+        return facturas;
+    }
+    
+    /**
+     * Recorre todas las facturas sin cargarlas en memoria: las filas se leen del servidor
+     * a medida que se consume el Stream. Debe cerrarse (try-with-resources) para liberar la conexión,
+     * tanto si se consume completo como si se interrumpe antes.
+     */
+    public Stream<Factura> recorrerFacturas() {
+        try {
+            return CursorStreaming.abrir(getConnection(), "SELECT * FROM factura ORDER BY id_factura", this::mapearFactura);
+        } catch (SQLException e) {
+            LOG.error("Error al abrir el recorrido de facturas", e);
+            return Stream.empty();
+        }
+    }
+    
+    private Factura mapearFactura(ResultSet rs) throws SQLException {
+        Factura factura = new Factura();
+        factura.setIdFactura(rs.getInt("id_factura"));
+        factura.setIdReserva(rs.getInt("id_reserva"));
+        factura.setFechaEmision(rs.getDate("fecha_emision"));
+        factura.setMontoTotalCentavos(Dinero.deDecimal(rs.getBigDecimal("monto_total")));
+        factura.setEstadoPago(rs.getString("estado"));
+        return factura;
+    }
+    
+    /**
+     * Calcula en SQL la cantidad y el monto facturado de las facturas emitidas entre dos fechas
+     * (ambas incluidas), agrupadas por los criterios indicados (ninguno para un solo total).
+     * Recorre las facturas del rango; para tableros conviene {@link #consultarResumenIngresos}.
+     */
+    public List<TotalIngresos> calcularIngresos(Set<AgrupacionIngresos> agrupacion, Date desde, Date hasta) {
+        String columnas = columnasAgrupacion(agrupacion, true);
+        String sql = "SELECT " + columnas + (columnas.isEmpty() ? "" : ", ") + "COUNT(*), SUM(f.monto_total) "
+                + "FROM factura f JOIN reserva r ON r.id_reserva = f.id_reserva "
+                + "WHERE f.fecha_emision BETWEEN ? AND ?"
+                + (columnas.isEmpty() ? "" : " GROUP BY " + columnas + " ORDER BY " + columnas);
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setDate(1, new java.sql.Date(desde.getTime()));
+            pstmt.setDate(2, new java.sql.Date(hasta.getTime()));
+            return leerTotales(pstmt, agrupacion);
+        } catch (SQLException e) {
+            LOG.error("Error al calcular ingresos", e, "agrupacion", agrupacion);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Igual que {@link #calcularIngresos}, pero leyendo la tabla resumen_ingresos (una fila por mes,
+     * estado y destino) en lugar de las facturas, por meses completos entre desde y hasta.
+     */
+    public List<TotalIngresos> consultarResumenIngresos(Set<AgrupacionIngresos> agrupacion, YearMonth desde, YearMonth hasta) {
+        String columnas = columnasAgrupacion(agrupacion, false);
+        String sql = "SELECT " + columnas + (columnas.isEmpty() ? "" : ", ") + "SUM(cantidad), SUM(monto_total) "
+                + "FROM resumen_ingresos WHERE periodo BETWEEN ? AND ? AND cantidad > 0"
+                + (columnas.isEmpty() ? "" : " GROUP BY " + columnas + " ORDER BY " + columnas);
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, desde.getYear() * 100 + desde.getMonthValue());
+            pstmt.setInt(2, hasta.getYear() * 100 + hasta.getMonthValue());
+            return leerTotales(pstmt, agrupacion);
+        } catch (SQLException e) {
+            LOG.error("Error al consultar el resumen de ingresos", e, "agrupacion", agrupacion);
+            return new ArrayList<>();
+        }
+    }
+    
+    /**
+     * Vuelve a calcular la tabla resumen_ingresos a partir de todas las facturas, por ejemplo
+     * después de crearla en una base existente o de modificar facturas fuera de la aplicación.
+     */
+    public boolean reconstruirResumenIngresos() {
+        try (Connection conn = getConnection()) {
+            return enTransaccion(conn, () -> {
+                AcumuladoIngresos.reconstruir(conn);
+                return true;
+            });
+        } catch (SQLException e) {
+            LOG.error("Error al reconstruir el resumen de ingresos", e);
+            return false;
+        }
+    }
+    
+    private static String columnasAgrupacion(Set<AgrupacionIngresos> agrupacion, boolean sobreFacturas) {
+        StringBuilder columnas = new StringBuilder();
+        for (AgrupacionIngresos criterio : AgrupacionIngresos.values()) {
+            if (agrupacion.contains(criterio)) {
+                if (columnas.length() > 0) {
+                    columnas.append(", ");
+                }
+                columnas.append(sobreFacturas ? criterio.columnaFacturas : criterio.columnaResumen);
+            }
+        }
+        return columnas.toString();
+    }
+    
+    // Las columnas de agrupación vienen primero, en el orden de AgrupacionIngresos, seguidas de la cantidad y el monto
+    private static List<TotalIngresos> leerTotales(PreparedStatement pstmt, Set<AgrupacionIngresos> agrupacion) throws SQLException {
+        List<TotalIngresos> totales = new ArrayList<>();
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                int columna = 1;
+                YearMonth periodo = null;
+                String estado = null;
+                String destino = null;
+                if (agrupacion.contains(AgrupacionIngresos.PERIODO)) {
+                    int valor = rs.getInt(columna++);
+                    periodo = YearMonth.of(valor / 100, valor % 100);
+                }
+                if (agrupacion.contains(AgrupacionIngresos.ESTADO)) {
+                    estado = rs.getString(columna++);
+                }
+                if (agrupacion.contains(AgrupacionIngresos.DESTINO)) {
+                    destino = rs.getString(columna++);
+                }
+                long cantidad = rs.getLong(columna++);
+                if (cantidad > 0) { // Sin filas, SUM devuelve una fila con NULL
+                    totales.add(new TotalIngresos(periodo, estado, destino, cantidad, Dinero.deDecimal(rs.getBigDecimal(columna))));
+                }
+            }
+        }
+        return totales;
+    }
+    
+    /**
+     * Inserta muchas facturas por lotes (addBatch/executeBatch), confirmando cada bloque.
+     * Las filas rechazadas (por ejemplo, una reserva inexistente) se informan en el resultado
+     * sin detener la carga; a las facturas insertadas se les asigna el ID generado.
+     */
+    public ResultadoLote agregarFacturas(List<Factura> facturas) {
+        try (Connection conn = getConnection()) {
+            // Cada bloque se suma al resumen de ingresos en la misma transacción que lo inserta
+            return InsercionPorLotes.insertar(conn, SQL_INSERTAR, facturas, this::asignarParametrosInsercion,
+                    Factura::setIdFactura, AcumuladoIngresos::sumarFacturas);
+        } catch (SQLException e) {
+            LOG.error("Error al agregar facturas por lotes", e, "cantidad", facturas.size());
+            return ResultadoLote.fallido(facturas.size(), e.getMessage());
+        }
+    }
+    
+    /**
+     * Operación que se ejecuta dentro de una transacción.
+     */
+    @FunctionalInterface
+    private interface OperacionTransaccion {
+        boolean ejecutar() throws SQLException;
+    }
+    
+    /**
+     * Ejecuta la operación en una transacción: confirma si termina (aunque devuelva false, que
+     * indica que no había filas para modificar) y deshace si lanza SQLException.
+     */
+    private static boolean enTransaccion(Connection conn, OperacionTransaccion operacion) throws SQLException {
+        conn.setAutoCommit(false);
+        try {
+            boolean exito = operacion.ejecutar();
+            conn.commit();
+            return exito;
+        } catch (SQLException e) {
+            try {
+                conn.rollback(); // Revertir transacción en caso de error
+            } catch (SQLException ex) {
+                LOG.error("Error al revertir la transacción", ex);
+            }
+            throw e;
+        } finally {
+            conn.setAutoCommit(true);
+        }
+    }
+    
+    private void asignarParametrosInsercion(PreparedStatement pstmt, Factura factura) throws SQLException {
+        pstmt.setInt(1, factura.getIdReserva());
+        pstmt.setDate(2, new java.sql.Date(factura.getFechaEmision().getTime()));
+        pstmt.setBigDecimal(3, Dinero.aDecimal(factura.getMontoTotalCentavos()));
+        pstmt.setString(4, factura.getEstadoPago());
+    }
 }
\ No newline at end of file
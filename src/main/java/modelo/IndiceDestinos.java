@@ -0,0 +1,305 @@
+package modelo;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Índice en memoria de los destinos de las reservas para buscarlos por prefijo, sin distinguir
+ * mayúsculas ni tildes y tolerando errores de tipeo.
+ *
+ * Se indexan los destinos distintos (no las reservas): cada destino normalizado ("cancun") guarda
+ * las formas en que se escribió ("Cancún", "CANCUN") con su cantidad de reservas, y cada trigrama
+ * de sus palabras apunta a los destinos que lo contienen. Una búsqueda junta los destinos que
+ * comparten trigramas con el texto buscado y los ordena: primero los que empiezan con el texto,
+ * luego los que tienen una palabra que empieza con él y luego los parecidos (distancia de
+ * Levenshtein acotada). Con miles de destinos distintos la búsqueda toma microsegundos, aunque
+ * haya millones de reservas.
+ */
+public class IndiceDestinos {
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern NO_ALFANUMERICO = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * Un destino normalizado y sus formas escritas con la cantidad de reservas de cada una.
+     */
+    private static final class Destino {
+        final String normalizado;
+        final String[] palabras;
+        final Map<String, Integer> formas = new HashMap<>();
+        int reservas;
+
+        Destino(String normalizado) {
+            this.normalizado = normalizado;
+            this.palabras = normalizado.split(" ");
+        }
+    }
+
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private final TreeMap<String, Destino> destinos = new TreeMap<>();
+    private final Map<String, Set<Destino>> porTrigrama = new HashMap<>();
+    private volatile boolean cargado;
+    private volatile long cargadoEn;
+
+    /**
+     * Reemplaza el contenido del índice con la cantidad de reservas de cada destino.
+     */
+    public void cargar(Map<String, Integer> reservasPorDestino) {
+        candado.writeLock().lock();
+        try {
+            destinos.clear();
+            porTrigrama.clear();
+            for (Map.Entry<String, Integer> entrada : reservasPorDestino.entrySet()) {
+                sumar(entrada.getKey(), entrada.getValue());
+            }
+            cargado = true;
+            cargadoEn = System.currentTimeMillis();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si el índice se cargó y no se invalidó después.
+     */
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * Momento (System.currentTimeMillis) de la última carga completa.
+     */
+    public long getCargadoEn() {
+        return cargadoEn;
+    }
+
+    /**
+     * Hace que la próxima búsqueda vuelva a cargar el índice desde la base de datos.
+     */
+    public void invalidar() {
+        cargado = false;
+    }
+
+    /**
+     * Registra una reserva nueva (o actualizada) con el destino indicado.
+     */
+    public void agregar(String destino) {
+        if (!cargado || destino == null) {
+            return; // Se leerá completo en la próxima carga
+        }
+        candado.writeLock().lock();
+        try {
+            sumar(destino, 1);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descuenta una reserva eliminada (o actualizada) con el destino indicado.
+     */
+    public void quitar(String destino) {
+        if (!cargado || destino == null) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            sumar(destino, -1);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Busca destinos que coincidan con el texto (prefijo, prefijo de una palabra o parecido).
+     * @param limite máximo de destinos normalizados a devolver
+     * @return las formas escritas de los destinos encontrados, de la mejor coincidencia a la peor
+     */
+    public List<String> buscar(String texto, int limite) {
+        String consulta = normalizar(texto);
+        if (consulta.isEmpty() || limite <= 0) {
+            return List.of();
+        }
+        int tolerancia = consulta.length() <= 3 ? 0 : consulta.length() <= 6 ? 1 : 2;
+
+        candado.readLock().lock();
+        try {
+            // Destinos que comparten trigramas con el texto; un error de tipeo altera a lo sumo 3
+            Set<String> trigramasConsulta = trigramas(consulta.split(" "), false);
+            Map<Destino, Integer> coincidencias = new HashMap<>();
+            for (String trigrama : trigramasConsulta) {
+                for (Destino destino : porTrigrama.getOrDefault(trigrama, Set.of())) {
+                    coincidencias.merge(destino, 1, Integer::sum);
+                }
+            }
+            int minimo = Math.max(1, trigramasConsulta.size() - 3 * tolerancia);
+
+            List<Destino> encontrados = new ArrayList<>();
+            Map<Destino, Integer> rangos = new HashMap<>();
+            for (Map.Entry<Destino, Integer> candidato : coincidencias.entrySet()) {
+                if (candidato.getValue() < minimo) {
+                    continue;
+                }
+                int rango = rango(candidato.getKey(), consulta, tolerancia);
+                if (rango >= 0) {
+                    encontrados.add(candidato.getKey());
+                    rangos.put(candidato.getKey(), rango);
+                }
+            }
+            encontrados.sort(Comparator.<Destino>comparingInt(rangos::get)
+                    .thenComparing(Comparator.<Destino>comparingInt(d -> d.reservas).reversed())
+                    .thenComparing(d -> d.normalizado));
+
+            List<String> resultado = new ArrayList<>();
+            for (Destino destino : encontrados.subList(0, Math.min(limite, encontrados.size()))) {
+                resultado.addAll(destino.formas.keySet());
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de reservas de los destinos indicados (formas escritas), según el índice.
+     */
+    public int contarReservas(List<String> formas) {
+        candado.readLock().lock();
+        try {
+            int total = 0;
+            for (String forma : formas) {
+                Destino destino = destinos.get(normalizar(forma));
+                if (destino != null) {
+                    total += destino.formas.getOrDefault(forma, 0);
+                }
+            }
+            return total;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Minúsculas, sin tildes ni signos, con un solo espacio entre palabras.
+     */
+    static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return NO_ALFANUMERICO.matcher(sinTildes.toLowerCase()).replaceAll(" ").trim();
+    }
+
+    /**
+     * Distancia de Levenshtein entre dos textos.
+     */
+    static int distancia(String a, String b) {
+        int[] anterior = new int[b.length() + 1];
+        int[] actual = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            anterior[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            actual[0] = i;
+            for (int j = 1; j <= b.length(); j++) {
+                int sustitucion = anterior[j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+                actual[j] = Math.min(sustitucion, Math.min(anterior[j], actual[j - 1]) + 1);
+            }
+            int[] temporal = anterior;
+            anterior = actual;
+            actual = temporal;
+        }
+        return anterior[b.length()];
+    }
+
+    /**
+     * 0 si el destino empieza con la consulta, 1 si alguna palabra empieza con ella,
+     * 2 + distancia si se parece al comienzo del destino o de una palabra, y -1 si no coincide.
+     */
+    private static int rango(Destino destino, String consulta, int tolerancia) {
+        if (destino.normalizado.startsWith(consulta)) {
+            return 0;
+        }
+        for (String palabra : destino.palabras) {
+            if (palabra.startsWith(consulta)) {
+                return 1;
+            }
+        }
+        int mejor = Integer.MAX_VALUE;
+        List<String> inicios = new ArrayList<>();
+        for (int i = 0; i < destino.normalizado.length(); i++) {
+            if (i == 0 || destino.normalizado.charAt(i - 1) == ' ') {
+                inicios.add(destino.normalizado.substring(i));
+            }
+        }
+        // Se compara con el comienzo de igual largo (± tolerancia), porque el texto puede estar incompleto
+        for (String inicio : inicios) {
+            for (int largo = consulta.length() - tolerancia; largo <= consulta.length() + tolerancia; largo++) {
+                if (largo > 0 && largo <= inicio.length()) {
+                    mejor = Math.min(mejor, distancia(consulta, inicio.substring(0, largo)));
+                }
+            }
+        }
+        return mejor <= tolerancia ? 2 + mejor : -1;
+    }
+
+    private void sumar(String forma, int reservas) {
+        String normalizado = normalizar(forma);
+        if (normalizado.isEmpty()) {
+            return;
+        }
+        Destino destino = destinos.get(normalizado);
+        if (destino == null) {
+            if (reservas <= 0) {
+                return;
+            }
+            destino = new Destino(normalizado);
+            destinos.put(normalizado, destino);
+            for (String trigrama : trigramas(destino.palabras, true)) {
+                porTrigrama.computeIfAbsent(trigrama, t -> new HashSet<>()).add(destino);
+            }
+        }
+        int cantidad = destino.formas.getOrDefault(forma, 0) + reservas;
+        if (cantidad > 0) {
+            destino.formas.put(forma, cantidad);
+        } else {
+            destino.formas.remove(forma);
+        }
+        destino.reservas = destino.formas.values().stream().mapToInt(Integer::intValue).sum();
+        if (destino.formas.isEmpty()) {
+            destinos.remove(normalizado);
+            for (String trigrama : trigramas(destino.palabras, true)) {
+                Set<Destino> conTrigrama = porTrigrama.get(trigrama);
+                conTrigrama.remove(destino);
+                if (conTrigrama.isEmpty()) {
+                    porTrigrama.remove(trigrama);
+                }
+            }
+        }
+    }
+
+    /**
+     * Trigramas de cada palabra precedida de dos espacios, para que los del comienzo de la palabra
+     * ("  q", " qu") permitan buscar por prefijos cortos. Para indexar se agrega un espacio final.
+     */
+    private static Set<String> trigramas(String[] palabras, boolean conFinal) {
+        Set<String> trigramas = new HashSet<>();
+        for (String palabra : palabras) {
+            String conBordes = "  " + palabra + (conFinal ? " " : "");
+            for (int i = 0; i + 3 <= conBordes.length(); i++) {
+                trigramas.add(conBordes.substring(i, i + 3));
+            }
+        }
+        return trigramas;
+    }
+}
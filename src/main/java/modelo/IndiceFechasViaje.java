@@ -0,0 +1,225 @@
+package modelo;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Índice en memoria de las salidas (reservas por fecha de viaje) de los próximos días, para
+ * contar quién viaja en un rango de fechas sin consultar la base.
+ *
+ * Cubre una ventana fija de días a partir del primer día cargado (normalmente hoy). Por cada
+ * estado guarda un arreglo con la cantidad de reservas de cada día de la ventana, así que agregar
+ * o quitar una reserva es O(1) y contar un rango recorre a lo sumo los días de la ventana.
+ * Las fechas fuera de la ventana se ignoran; esos rangos se consultan en la base.
+ * Los estados se comparan sin distinguir mayúsculas, como la collation de MySQL.
+ */
+public class IndiceFechasViaje {
+
+    private final int dias;
+    private final ReadWriteLock candado = new ReentrantReadWriteLock();
+    private final Map<String, int[]> salidasPorEstado = new HashMap<>();
+    private LocalDate primerDia;
+    private volatile boolean cargado;
+    private volatile long cargadoEn;
+
+    /**
+     * @param dias cantidad de días de la ventana, a partir del primer día cargado
+     */
+    public IndiceFechasViaje(int dias) {
+        if (dias < 1) {
+            throw new IllegalArgumentException("La ventana debe tener al menos un día");
+        }
+        this.dias = dias;
+    }
+
+    /**
+     * Reemplaza el contenido del índice con la cantidad de reservas de cada estado por día.
+     * Los días fuera de la ventana que empieza en primerDia se descartan.
+     */
+    public void cargar(LocalDate primerDia, Map<String, Map<LocalDate, Integer>> salidas) {
+        candado.writeLock().lock();
+        try {
+            this.primerDia = primerDia;
+            salidasPorEstado.clear();
+            for (Map.Entry<String, Map<LocalDate, Integer>> porEstado : salidas.entrySet()) {
+                for (Map.Entry<LocalDate, Integer> porDia : porEstado.getValue().entrySet()) {
+                    sumar(porDia.getKey(), porEstado.getKey(), porDia.getValue());
+                }
+            }
+            cargado = true;
+            cargadoEn = System.currentTimeMillis();
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Indica si el índice se cargó y no se invalidó después.
+     */
+    public boolean estaCargado() {
+        return cargado;
+    }
+
+    /**
+     * Momento (System.currentTimeMillis) de la última carga completa.
+     */
+    public long getCargadoEn() {
+        return cargadoEn;
+    }
+
+    /**
+     * Primer día de la ventana cargada, o null si nunca se cargó.
+     */
+    public LocalDate getPrimerDia() {
+        candado.readLock().lock();
+        try {
+            return primerDia;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    public int getDias() {
+        return dias;
+    }
+
+    /**
+     * Marca el índice para recargarlo en la próxima consulta.
+     */
+    public void invalidar() {
+        cargado = false;
+    }
+
+    /**
+     * Indica si el rango de días (ambos incluidos) cae completo dentro de la ventana cargada.
+     */
+    public boolean cubre(LocalDate desde, LocalDate hasta) {
+        candado.readLock().lock();
+        try {
+            return cargado && primerDia != null && posicion(desde) >= 0 && posicion(hasta) < dias;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Registra una reserva nueva (o el estado o la fecha nuevos de una reserva modificada).
+     */
+    public void agregar(LocalDate fechaViaje, String estado) {
+        if (fechaViaje == null) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            sumar(fechaViaje, estado, 1);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Descuenta una reserva eliminada (o el estado o la fecha anteriores de una reserva modificada).
+     */
+    public void quitar(LocalDate fechaViaje, String estado) {
+        if (fechaViaje == null) {
+            return;
+        }
+        candado.writeLock().lock();
+        try {
+            sumar(fechaViaje, estado, -1);
+        } finally {
+            candado.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Cuenta las reservas con fecha de viaje en el rango (ambos días incluidos).
+     * @param estado estado a contar, o null para contar todos
+     */
+    public int contar(LocalDate desde, LocalDate hasta, String estado) {
+        candado.readLock().lock();
+        try {
+            int total = 0;
+            for (int[] salidas : seleccionar(estado)) {
+                for (int i = Math.max(0, posicion(desde)), fin = Math.min(dias - 1, posicion(hasta)); i <= fin; i++) {
+                    total += salidas[i];
+                }
+            }
+            return total;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    /**
+     * Cantidad de reservas de cada día del rango (ambos incluidos); los días sin salidas no aparecen.
+     * @param estado estado a contar, o null para contar todos
+     */
+    public SortedMap<LocalDate, Integer> contarPorDia(LocalDate desde, LocalDate hasta, String estado) {
+        candado.readLock().lock();
+        try {
+            SortedMap<LocalDate, Integer> resultado = new TreeMap<>();
+            if (primerDia == null) {
+                return resultado;
+            }
+            int inicio = Math.max(0, posicion(desde));
+            int fin = Math.min(dias - 1, posicion(hasta));
+            int[] porDia = new int[Math.max(0, fin - inicio + 1)];
+            for (int[] salidas : seleccionar(estado)) {
+                for (int i = inicio; i <= fin; i++) {
+                    porDia[i - inicio] += salidas[i];
+                }
+            }
+            for (int i = 0; i < porDia.length; i++) {
+                if (porDia[i] > 0) {
+                    resultado.put(primerDia.plusDays(inicio + i), porDia[i]);
+                }
+            }
+            return resultado;
+        } finally {
+            candado.readLock().unlock();
+        }
+    }
+
+    // Debe llamarse con el candado de escritura tomado
+    private void sumar(LocalDate fechaViaje, String estado, int cantidad) {
+        if (primerDia == null) {
+            return;
+        }
+        int i = posicion(fechaViaje);
+        if (i < 0 || i >= dias) {
+            return;
+        }
+        int[] salidas = salidasPorEstado.computeIfAbsent(clave(estado), k -> new int[dias]);
+        salidas[i] = Math.max(0, salidas[i] + cantidad);
+    }
+
+    // Debe llamarse con el candado de lectura tomado
+    private Iterable<int[]> seleccionar(String estado) {
+        if (primerDia == null) {
+            return Collections.emptyList();
+        }
+        if (estado == null) {
+            return salidasPorEstado.values();
+        }
+        int[] salidas = salidasPorEstado.get(clave(estado));
+        return salidas == null ? Collections.emptyList() : Collections.singletonList(salidas);
+    }
+
+    private int posicion(LocalDate dia) {
+        long diferencia = dia.toEpochDay() - primerDia.toEpochDay();
+        // Acotado para que los rangos muy lejanos no desborden int
+        return (int) Math.max(-1, Math.min(dias, diferencia));
+    }
+
+    private static String clave(String estado) {
+        return estado == null ? "" : estado.trim().toUpperCase(Locale.ROOT);
+    }
+}
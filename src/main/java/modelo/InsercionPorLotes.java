@@ -0,0 +1,176 @@
+package modelo;
+
+import util.Bitacora;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserta muchas filas con una sola sentencia preparada usando addBatch/executeBatch.
+ * Las filas se envían y confirman en bloques de {@link #TAMANO_LOTE}, de modo que una carga
+ * grande no mantiene una transacción abierta de principio a fin. Si un bloque falla, se
+ * deshace y se reintenta fila por fila para identificar exactamente las filas rechazadas;
+ * las demás filas del bloque se insertan igualmente.
+ */
+class InsercionPorLotes {
+
+    /**
+     * Asigna los parámetros de la sentencia INSERT a partir de una fila.
+     */
+    @FunctionalInterface
+    interface ParametrosFila<T> {
+        void asignar(PreparedStatement pstmt, T fila) throws SQLException;
+    }
+
+    /**
+     * Guarda en la fila el ID generado por la base de datos.
+     */
+    @FunctionalInterface
+    interface AsignadorId<T> {
+        void asignar(T fila, int id);
+    }
+
+    /**
+     * Trabajo sobre las filas insertadas de un bloque que debe confirmarse junto con ellas.
+     */
+    @FunctionalInterface
+    interface AlConfirmarBloque {
+        void ejecutar(Connection conn, int[] idsInsertados) throws SQLException;
+    }
+
+    // Filas por executeBatch y por commit (se puede ajustar con -Ddb.lote.tamano=...)
+    static final int TAMANO_LOTE = Integer.getInteger("db.lote.tamano", 1000);
+
+    private static final Bitacora LOG = Bitacora.obtener(InsercionPorLotes.class);
+
+    private InsercionPorLotes() {
+    }
+
+    /**
+     * Inserta las filas usando la conexión recibida, que queda en su modo de autocommit original.
+     * Solo lanza SQLException si falla antes de insertar cualquier fila.
+     * @param asignadorId recibe el ID generado de cada fila insertada (puede ser null)
+     */
+    static <T> ResultadoLote insertar(Connection conn, String sql, List<T> filas,
+                                      ParametrosFila<T> parametros, AsignadorId<T> asignadorId) throws SQLException {
+        return insertar(conn, sql, filas, parametros, asignadorId, null);
+    }
+
+    /**
+     * Igual que {@link #insertar(Connection, String, List, ParametrosFila, AsignadorId)}, y antes de
+     * confirmar cada bloque ejecuta alConfirmar con los IDs generados de sus filas insertadas. Si
+     * alConfirmar falla, el bloque se deshace como si hubiera fallado el commit.
+     */
+    static <T> ResultadoLote insertar(Connection conn, String sql, List<T> filas, ParametrosFila<T> parametros,
+                                      AsignadorId<T> asignadorId, AlConfirmarBloque alConfirmar) throws SQLException {
+        ResultadoLote resultado = new ResultadoLote(filas.size());
+        boolean autoCommitOriginal = conn.getAutoCommit();
+        conn.setAutoCommit(false);
+        try (PreparedStatement pstmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
+            for (int inicio = 0; inicio < filas.size(); inicio += TAMANO_LOTE) {
+                int fin = Math.min(inicio + TAMANO_LOTE, filas.size());
+                try {
+                    insertarBloque(conn, pstmt, filas, inicio, fin, parametros, asignadorId, alConfirmar, resultado);
+                } catch (SQLException e) {
+                    // Falló el commit (o alConfirmar) o se perdió la conexión: ni este bloque ni los siguientes se insertaron
+                    LOG.error("Error al confirmar bloque del lote", e, "inicio", inicio, "fin", fin);
+                    deshacer(conn);
+                    for (int i = inicio; i < filas.size(); i++) {
+                        resultado.registrarFallo(i, e.getMessage());
+                    }
+                    break;
+                }
+            }
+        } finally {
+            try {
+                conn.setAutoCommit(autoCommitOriginal);
+            } catch (SQLException e) {
+                LOG.error("Error al restaurar el autocommit", e);
+            }
+        }
+        return resultado;
+    }
+
+    private static <T> void insertarBloque(Connection conn, PreparedStatement pstmt, List<T> filas, int inicio, int fin,
+                                           ParametrosFila<T> parametros, AsignadorId<T> asignadorId,
+                                           AlConfirmarBloque alConfirmar, ResultadoLote resultado) throws SQLException {
+        Map<Integer, String> fallos = new LinkedHashMap<>();
+        Map<Integer, Integer> ids = new HashMap<>();
+        List<Integer> enLote = new ArrayList<>();
+
+        for (int i = inicio; i < fin; i++) {
+            try {
+                parametros.asignar(pstmt, filas.get(i));
+                pstmt.addBatch();
+                enLote.add(i);
+            } catch (SQLException | RuntimeException e) {
+                // Fila con datos incompletos: se informa y no se envía
+                pstmt.clearParameters();
+                fallos.put(i, e.getMessage());
+            }
+        }
+
+        try {
+            pstmt.executeBatch();
+            leerIds(pstmt, enLote, ids);
+        } catch (BatchUpdateException e) {
+            // Se deshace el bloque y se reintenta fila por fila para saber cuáles fallan
+            conn.rollback();
+            pstmt.clearBatch();
+            ids.clear();
+            for (int i : enLote) {
+                try {
+                    parametros.asignar(pstmt, filas.get(i));
+                    pstmt.executeUpdate();
+                    leerIds(pstmt, List.of(i), ids);
+                } catch (SQLException ex) {
+                    fallos.put(i, ex.getMessage());
+                }
+            }
+        }
+        if (alConfirmar != null) {
+            alConfirmar.ejecutar(conn, enLote.stream().map(ids::get).filter(id -> id != null)
+                    .mapToInt(Integer::intValue).toArray());
+        }
+        conn.commit();
+
+        for (int i = inicio; i < fin; i++) {
+            String fallo = fallos.get(i);
+            if (fallo != null) {
+                resultado.registrarFallo(i, fallo);
+            } else {
+                resultado.registrarInsertado();
+                Integer id = ids.get(i);
+                if (asignadorId != null && id != null) {
+                    asignadorId.asignar(filas.get(i), id);
+                }
+            }
+        }
+    }
+
+    /**
+     * Asocia los IDs generados, que llegan en el mismo orden de las filas insertadas.
+     */
+    private static void leerIds(PreparedStatement pstmt, List<Integer> indices, Map<Integer, Integer> ids)
+            throws SQLException {
+        try (ResultSet rs = pstmt.getGeneratedKeys()) {
+            for (int i : indices) {
+                if (!rs.next()) {
+                    break;
+                }
+                ids.put(i, rs.getInt(1));
+            }
+        }
+    }
+
+    private static void deshacer(Connection conn) {
+        try {
+            conn.rollback();
+        } catch (SQLException e) {
+            LOG.error("Error al revertir la transacción", e);
+        }
+    }
+}
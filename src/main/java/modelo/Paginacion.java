@@ -0,0 +1,20 @@
+package modelo;
+
+/**
+ * Límites comunes de las consultas paginadas de los DAO.
+ */
+final class Paginacion {
+
+    // Límite de filas por página para las consultas paginadas
+    static final int TAMANO_PAGINA_MAXIMO = 1000;
+
+    private Paginacion() {
+    }
+
+    /**
+     * Ajusta el tamaño de página pedido al rango de 1 a {@link #TAMANO_PAGINA_MAXIMO}.
+     */
+    static int limitarTamanoPagina(int tamanoPagina) {
+        return Math.max(1, Math.min(tamanoPagina, TAMANO_PAGINA_MAXIMO));
+    }
+}
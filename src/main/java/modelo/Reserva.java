@@ -1,5 +1,6 @@
 package modelo;
 
+import util.Dinero;
 import java.util.Date;
 
 public class Reserva {
@@ -8,7 +9,7 @@ public class Reserva {
     private Date fechaReserva;
     private String destino;
     private Date fechaViaje;
-    private double precio;
+    private long precioCentavos; // Ver util.Dinero
     private String estado;
     
     // Constructors
@@ -20,7 +21,7 @@ public class Reserva {
         this.fechaReserva = fechaReserva;
         this.destino = destino;
         this.fechaViaje = fechaViaje;
-        this.precio = precio;
+        this.precioCentavos = Dinero.deDouble(precio);
         this.estado = estado;
     }
     
@@ -66,11 +67,19 @@ public class Reserva {
     }
     
     public double getPrecio() {
-        return precio;
+        return Dinero.aDouble(precioCentavos);
     }
     
     public void setPrecio(double precio) {
-        this.precio = precio;
+        this.precioCentavos = Dinero.deDouble(precio);
+    }
+    
+    public long getPrecioCentavos() {
+        return precioCentavos;
+    }
+    
+    public void setPrecioCentavos(long precioCentavos) {
+        this.precioCentavos = precioCentavos;
     }
     
     public String getEstado() {
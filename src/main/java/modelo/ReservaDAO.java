@@ -1,36 +1,71 @@
 package modelo;
 
+import util.Bitacora;
 import util.ConexionMySQL;
+import util.Dinero;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.stream.Stream;
 
 public class ReservaDAO {
+    private static final Bitacora LOG = Bitacora.obtener(ReservaDAO.class);
+
     // cRUD operations Reserva
     
     /**
-     * Obtiene una conexión a la base de datos.
+     * Obtiene una conexión del pool de la base de datos.
      * Este método puede ser sobrescrito en pruebas para proporcionar una conexión mock o a H2.
      */
     protected Connection getConnection() throws SQLException {
         return ConexionMySQL.getConnection();
     }
+    
+    private static final String SQL_INSERTAR = "INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String SQL_INSERTAR_FACTURA = "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)";
+    
+    // Índice de destinos compartido; se carga con la primera búsqueda y se recarga completo cada
+    // busqueda.destinos.recargaMs para incorporar cambios hechos fuera de esta aplicación
+    private static final IndiceDestinos INDICE_DESTINOS = new IndiceDestinos();
+    private static final long RECARGA_INDICE_MS = Long.getLong("busqueda.destinos.recargaMs", 300_000L);
+    
+    // Salidas por día de los próximos ocupacion.ventanaDias días, para contar rangos de fechas
+    // de viaje sin consultar la base; se recarga cada ocupacion.recargaMs y al cambiar el día
+    private static final IndiceFechasViaje INDICE_FECHAS_VIAJE = new IndiceFechasViaje(
+            Integer.getInteger("ocupacion.ventanaDias", 180));
+    private static final long RECARGA_OCUPACION_MS = Long.getLong("ocupacion.recargaMs", 300_000L);
+    private static final String SQL_ANTERIOR_DE_RESERVA = "SELECT destino, fecha_viaje, estado FROM reserva WHERE id_reserva = ?";
+    
+    // Tasas con las que se calculan las facturas creadas junto con las reservas
+    private CalculadoraImpuestos impuestos = TablaTarifas.predeterminada();
+    
+    /**
+     * Reemplaza la calculadora de impuestos de las facturas que crea este DAO
+     * (por omisión, {@link TablaTarifas#predeterminada()}).
+     */
+    public void setCalculadoraImpuestos(CalculadoraImpuestos impuestos) {
+        this.impuestos = impuestos;
+    }
+    
     public boolean agregarReserva(Reserva reserva) {
-        String sql = "INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) VALUES (?, ?, ?, ?, ?, ?)";
-        
         try (Connection conn = getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+             PreparedStatement pstmt = conn.prepareStatement(SQL_INSERTAR)) {
             
-            pstmt.setInt(1, reserva.getIdCliente());
-            pstmt.setDate(2, new java.sql.Date(reserva.getFechaReserva().getTime()));
-            pstmt.setString(3, reserva.getDestino());
-            pstmt.setDate(4, new java.sql.Date(reserva.getFechaViaje().getTime()));
-            pstmt.setDouble(5, reserva.getPrecio());
-            pstmt.setString(6, reserva.getEstado());
+            asignarParametrosInsercion(pstmt, reserva);
             
-            return pstmt.executeUpdate() > 0;
+            boolean exito = pstmt.executeUpdate() > 0;
+            if (exito) {
+                registrarEnIndices(reserva);
+            }
+            return exito;
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al agregar reserva", e, "idCliente", reserva.getIdCliente());
             return false;
         }
     }
@@ -45,19 +80,11 @@ public class ReservaDAO {
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 if (rs.next()) {
-                    Reserva reserva = new Reserva();
-                    reserva.setIdReserva(rs.getInt("id_reserva"));
-                    reserva.setIdCliente(rs.getInt("id_cliente"));
-                    reserva.setFechaReserva(rs.getDate("fecha_reserva"));
-                    reserva.setDestino(rs.getString("destino"));
-                    reserva.setFechaViaje(rs.getDate("fecha_viaje"));
-                    reserva.setPrecio(rs.getDouble("precio"));
-                    reserva.setEstado(rs.getString("estado"));
-                    return reserva;
+                    return mapearReserva(rs);
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al consultar reserva", e, "idReserva", idReserva);
         }
         return null;
     }
@@ -65,20 +92,41 @@ public class ReservaDAO {
     public boolean actualizarReserva(Reserva reserva) {
         String sql = "UPDATE reserva SET id_cliente = ?, fecha_reserva = ?, destino = ?, fecha_viaje = ?, precio = ?, estado = ? WHERE id_reserva = ?";
         
-        try (Connection conn = ConexionMySQL.getConnection();
-             PreparedStatement pstmt = conn.prepareStatement(sql)) {
-            
-            pstmt.setInt(1, reserva.getIdCliente());
-            pstmt.setDate(2, new java.sql.Date(reserva.getFechaReserva().getTime()));
-            pstmt.setString(3, reserva.getDestino());
-            pstmt.setDate(4, new java.sql.Date(reserva.getFechaViaje().getTime()));
-            pstmt.setDouble(5, reserva.getPrecio());
-            pstmt.setString(6, reserva.getEstado());
-            pstmt.setInt(7, reserva.getIdReserva());
-            
-            return pstmt.executeUpdate() > 0;
+        try (Connection conn = getConnection()) {
+            conn.setAutoCommit(false); // Iniciar transacción: el resumen de ingresos agrupa las facturas por destino
+            try (PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                Reserva anterior = consultarAnteriorSiHayIndices(conn, reserva.getIdReserva());
+                boolean moverFacturas = AcumuladoIngresos.restarSiCambiaDestino(conn, reserva.getIdReserva(), reserva.getDestino());
+                pstmt.setInt(1, reserva.getIdCliente());
+                pstmt.setDate(2, new java.sql.Date(reserva.getFechaReserva().getTime()));
+                pstmt.setString(3, reserva.getDestino());
+                pstmt.setDate(4, new java.sql.Date(reserva.getFechaViaje().getTime()));
+                pstmt.setBigDecimal(5, Dinero.aDecimal(reserva.getPrecioCentavos()));
+                pstmt.setString(6, reserva.getEstado());
+                pstmt.setInt(7, reserva.getIdReserva());
+                
+                boolean exito = pstmt.executeUpdate() > 0;
+                if (exito && moverFacturas) {
+                    AcumuladoIngresos.sumarReservas(conn, reserva.getIdReserva());
+                }
+                conn.commit(); // Confirmar transacción
+                if (exito) {
+                    quitarDeIndices(anterior);
+                    registrarEnIndices(reserva);
+                }
+                return exito;
+            } catch (SQLException e) {
+                try {
+                    conn.rollback(); // Revertir transacción en caso de error
+                } catch (SQLException ex) {
+                    LOG.error("Error al revertir la transacción", ex);
+                }
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al actualizar reserva", e, "idReserva", reserva.getIdReserva());
             return false;
         }
     }
@@ -86,14 +134,19 @@ public class ReservaDAO {
     public boolean eliminarReserva(int idReserva) {
         String sql = "DELETE FROM reserva WHERE id_reserva = ?";
         
-        try (Connection conn = ConexionMySQL.getConnection();
+        try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
+            Reserva anterior = consultarAnteriorSiHayIndices(conn, idReserva);
             pstmt.setInt(1, idReserva);
             
-            return pstmt.executeUpdate() > 0;
+            boolean exito = pstmt.executeUpdate() > 0;
+            if (exito) {
+                quitarDeIndices(anterior);
+            }
+            return exito;
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al eliminar reserva", e, "idReserva", idReserva);
             return false;
         }
     }
@@ -102,23 +155,15 @@ public class ReservaDAO {
         List<Reserva> reservas = new ArrayList<>();
         String sql = "SELECT * FROM reserva";
         
-        try (Connection conn = ConexionMySQL.getConnection();
+        try (Connection conn = getConnection();
              Statement stmt = conn.createStatement();
              ResultSet rs = stmt.executeQuery(sql)) {
             
             while (rs.next()) {
-                Reserva reserva = new Reserva();
-                reserva.setIdReserva(rs.getInt("id_reserva"));
-                reserva.setIdCliente(rs.getInt("id_cliente"));
-                reserva.setFechaReserva(rs.getDate("fecha_reserva"));
-                reserva.setDestino(rs.getString("destino"));
-                reserva.setFechaViaje(rs.getDate("fecha_viaje"));
-                reserva.setPrecio(rs.getDouble("precio"));
-                reserva.setEstado(rs.getString("estado"));
-                reservas.add(reserva);
+                reservas.add(mapearReserva(rs));
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al listar reservas", e);
         }
         return reservas;
     }
@@ -127,48 +172,32 @@ public class ReservaDAO {
         List<Reserva> reservas = new ArrayList<>();
         String sql = "SELECT * FROM reserva WHERE id_cliente = ?";
         
-        try (Connection conn = ConexionMySQL.getConnection();
+        try (Connection conn = getConnection();
              PreparedStatement pstmt = conn.prepareStatement(sql)) {
             
             pstmt.setInt(1, idCliente);
             
             try (ResultSet rs = pstmt.executeQuery()) {
                 while (rs.next()) {
-                    Reserva reserva = new Reserva();
-                    reserva.setIdReserva(rs.getInt("id_reserva"));
-                    reserva.setIdCliente(rs.getInt("id_cliente"));
-                    reserva.setFechaReserva(rs.getDate("fecha_reserva"));
-                    reserva.setDestino(rs.getString("destino"));
-                    reserva.setFechaViaje(rs.getDate("fecha_viaje"));
-                    reserva.setPrecio(rs.getDouble("precio"));
-                    reserva.setEstado(rs.getString("estado"));
-                    reservas.add(reserva);
+                    reservas.add(mapearReserva(rs));
                 }
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al listar reservas del cliente", e, "idCliente", idCliente);
         }
         return reservas;
     }
 
 
     public boolean agregarReservaConFactura(Reserva reserva) {
-    String sqlReserva = "INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) VALUES (?, ?, ?, ?, ?, ?)";
-    String sqlFactura = "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)";
-    
     Connection conn = null;
     try {
-        conn = ConexionMySQL.getConnection();
+        conn = getConnection();
         conn.setAutoCommit(false); // Iniciar transacción
         
         // Insertar reserva
-        try (PreparedStatement pstmtReserva = conn.prepareStatement(sqlReserva, Statement.RETURN_GENERATED_KEYS)) {
-            pstmtReserva.setInt(1, reserva.getIdCliente());
-            pstmtReserva.setDate(2, new java.sql.Date(reserva.getFechaReserva().getTime()));
-            pstmtReserva.setString(3, reserva.getDestino());
-            pstmtReserva.setDate(4, new java.sql.Date(reserva.getFechaViaje().getTime()));
-            pstmtReserva.setDouble(5, reserva.getPrecio());
-            pstmtReserva.setString(6, reserva.getEstado());
+        try (PreparedStatement pstmtReserva = conn.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+            asignarParametrosInsercion(pstmtReserva, reserva);
             
             int affectedRows = pstmtReserva.executeUpdate();
             if (affectedRows == 0) {
@@ -181,14 +210,12 @@ public class ReservaDAO {
                     int idReserva = generatedKeys.getInt(1);
                     
                     // Insertar factura
-                    try (PreparedStatement pstmtFactura = conn.prepareStatement(sqlFactura)) {
-                        pstmtFactura.setInt(1, idReserva);
-                        pstmtFactura.setDate(2, new java.sql.Date(System.currentTimeMillis()));
-                        pstmtFactura.setDouble(3, reserva.getPrecio()* 1.12); // Assuming 12% IVA
-                        pstmtFactura.setString(4, "Pendiente");
+                    try (PreparedStatement pstmtFactura = conn.prepareStatement(SQL_INSERTAR_FACTURA)) {
+                        asignarParametrosFactura(pstmtFactura, idReserva, reserva, new java.sql.Date(System.currentTimeMillis()));
                         
                         pstmtFactura.executeUpdate();
                     }
+                    AcumuladoIngresos.sumarReservas(conn, idReserva);
                 } else {
                     throw new SQLException("Error al obtener el ID de la reserva");
                 }
@@ -196,17 +223,19 @@ public class ReservaDAO {
         }
         
         conn.commit(); // Confirmar transacción
+        registrarEnIndices(reserva);
         return true;
         
-    } catch (SQLException e) {
+    } catch (SQLException | RuntimeException e) {
+        // También un error de la calculadora de impuestos debe revertir lo ya insertado
         try {
             if (conn != null) {
                 conn.rollback(); // Revertir transacción en caso de error
             }
         } catch (SQLException ex) {
-            ex.printStackTrace();
+            LOG.error("Error al revertir la transacción", ex);
         }
-        e.printStackTrace();
+        LOG.error("Error al agregar reserva con factura", e, "idCliente", reserva.getIdCliente());
         return false;
     } finally {
         try {
@@ -215,10 +244,95 @@ public class ReservaDAO {
                 conn.close();
             }
         } catch (SQLException e) {
-            e.printStackTrace();
+            LOG.error("Error al cerrar la conexión", e);
         }
         }
     }
+    
+    /**
+     * Crea varias reservas con sus facturas (con el IVA de su destino) en una sola transacción,
+     * por ejemplo para una reserva de grupo. Las reservas se insertan en un lote y sus IDs
+     * generados se leen de una vez; luego las facturas se insertan en un segundo lote, con las
+     * tasas de la calculadora de impuestos (en memoria). Si alguna fila falla no se guarda
+     * ninguna. A las reservas insertadas se les asigna el ID generado.
+     */
+    public boolean agregarReservasConFactura(List<Reserva> reservas) {
+        if (reservas.isEmpty()) {
+            return true;
+        }
+        
+        Connection conn = null;
+        try {
+            conn = getConnection();
+            conn.setAutoCommit(false); // Iniciar transacción
+            
+            int[] idsReserva = new int[reservas.size()];
+            try (PreparedStatement pstmtReserva = conn.prepareStatement(SQL_INSERTAR, Statement.RETURN_GENERATED_KEYS)) {
+                for (Reserva reserva : reservas) {
+                    asignarParametrosInsercion(pstmtReserva, reserva);
+                    pstmtReserva.addBatch();
+                }
+                pstmtReserva.executeBatch();
+                
+                // Los IDs generados llegan en el mismo orden en que se agregaron las reservas al lote
+                try (ResultSet generatedKeys = pstmtReserva.getGeneratedKeys()) {
+                    for (int i = 0; i < idsReserva.length; i++) {
+                        if (!generatedKeys.next()) {
+                            throw new SQLException("Error al obtener los IDs de las reservas");
+                        }
+                        idsReserva[i] = generatedKeys.getInt(1);
+                    }
+                }
+            }
+            
+            java.sql.Date fechaEmision = new java.sql.Date(System.currentTimeMillis());
+            try (PreparedStatement pstmtFactura = conn.prepareStatement(SQL_INSERTAR_FACTURA)) {
+                for (int i = 0; i < idsReserva.length; i++) {
+                    asignarParametrosFactura(pstmtFactura, idsReserva[i], reservas.get(i), fechaEmision);
+                    pstmtFactura.addBatch();
+                }
+                pstmtFactura.executeBatch();
+            }
+            AcumuladoIngresos.sumarReservas(conn, idsReserva);
+            
+            conn.commit(); // Confirmar transacción
+            for (int i = 0; i < idsReserva.length; i++) {
+                reservas.get(i).setIdReserva(idsReserva[i]);
+                registrarEnIndices(reservas.get(i));
+            }
+            return true;
+            
+        } catch (SQLException | RuntimeException e) {
+            // También un error de la calculadora de impuestos debe revertir lo ya insertado
+            try {
+                if (conn != null) {
+                    conn.rollback(); // Revertir transacción en caso de error
+                }
+            } catch (SQLException ex) {
+                LOG.error("Error al revertir la transacción", ex);
+            }
+            LOG.error("Error al agregar grupo de reservas con factura", e, "cantidad", reservas.size());
+            return false;
+        } finally {
+            try {
+                if (conn != null) {
+                    conn.setAutoCommit(true);
+                    conn.close();
+                }
+            } catch (SQLException e) {
+                LOG.error("Error al cerrar la conexión", e);
+            }
+        }
+    }
+    
+    private void asignarParametrosFactura(PreparedStatement pstmt, int idReserva, Reserva reserva,
+                                          java.sql.Date fechaEmision) throws SQLException {
+        pstmt.setInt(1, idReserva);
+        pstmt.setDate(2, fechaEmision);
+        long total = impuestos.calcularTotal(reserva.getPrecioCentavos(), reserva.getDestino(), fechaEmision.toLocalDate());
+        pstmt.setBigDecimal(3, Dinero.aDecimal(total));
+        pstmt.setString(4, "Pendiente");
+    }
 
     public boolean eliminarReservaConFactura(int idReserva) {
         String sqlFactura = "DELETE FROM factura WHERE id_reserva = ?";
@@ -226,10 +340,12 @@ public class ReservaDAO {
         
         Connection conn = null;
         try {
-            conn = ConexionMySQL.getConnection();
+            conn = getConnection();
             conn.setAutoCommit(false); // Iniciar transacción
+            Reserva anterior = consultarAnteriorSiHayIndices(conn, idReserva);
             
-            // Primero eliminar la factura asociada
+            // Primero descontar y eliminar la factura asociada
+            AcumuladoIngresos.restarReserva(conn, idReserva);
             try (PreparedStatement pstmtFactura = conn.prepareStatement(sqlFactura)) {
                 pstmtFactura.setInt(1, idReserva);
                 pstmtFactura.executeUpdate(); // No verificamos si hay filas afectadas porque puede no existir factura
@@ -246,6 +362,7 @@ public class ReservaDAO {
             }
             
             conn.commit(); // Confirmar transacción
+            quitarDeIndices(anterior);
             return true;
             
         } catch (SQLException e) {
@@ -254,9 +371,9 @@ public class ReservaDAO {
                     conn.rollback(); // Revertir transacción en caso de error
                 }
             } catch (SQLException ex) {
-                ex.printStackTrace();
+                LOG.error("Error al revertir la transacción", ex);
             }
-            e.printStackTrace();
+            LOG.error("Error al eliminar reserva con factura", e, "idReserva", idReserva);
             return false;
         } finally {
             try {
@@ -265,9 +382,499 @@ public class ReservaDAO {
                     conn.close();
                 }
             } catch (SQLException e) {
-                e.printStackTrace();
+                LOG.error("Error al cerrar la conexión", e);
             }
         }
     }
-
-}
+    
+    /**
+     * Lista una página de reservas ordenadas por ID usando paginación por clave (keyset).
+     * @param despuesDeId ID de la última reserva de la página anterior (0 para la primera página)
+     * @param tamanoPagina cantidad máxima de reservas a devolver
+     */
+    public List<Reserva> listarReservasPagina(int despuesDeId, int tamanoPagina) {
+        List<Reserva> reservas = new ArrayList<>();
+        String sql = "SELECT * FROM reserva WHERE id_reserva > ? ORDER BY id_reserva LIMIT ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, despuesDeId);
+            pstmt.setInt(2, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapearReserva(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar página de reservas", e, "despuesDeId", despuesDeId, "tamanoPagina", tamanoPagina);
+        }
+        return reservas;
+    }
+    
+    /**
+     * Lista una página de reservas ordenadas por fecha de viaje (y por ID para desempatar).
+     * El cursor es la fecha de viaje y el ID de la última reserva de la página anterior.
+     * @param despuesDeFecha fecha de viaje de la última reserva recibida (null para la primera página)
+     * @param despuesDeId ID de la última reserva recibida
+     * @param tamanoPagina cantidad máxima de reservas a devolver
+     */
+    public List<Reserva> listarReservasPorFechaViajePagina(Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        List<Reserva> reservas = new ArrayList<>();
+        String sql;
+        if (despuesDeFecha == null) {
+            sql = "SELECT * FROM reserva ORDER BY fecha_viaje, id_reserva LIMIT ?";
+        } else {
+            sql = "SELECT * FROM reserva WHERE fecha_viaje >= ? AND (fecha_viaje > ? OR id_reserva > ?) "
+                + "ORDER BY fecha_viaje, id_reserva LIMIT ?";
+        }
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int indice = 1;
+            if (despuesDeFecha != null) {
+                java.sql.Date fecha = new java.sql.Date(despuesDeFecha.getTime());
+                pstmt.setDate(indice++, fecha);
+                pstmt.setDate(indice++, fecha);
+                pstmt.setInt(indice++, despuesDeId);
+            }
+            pstmt.setInt(indice, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapearReserva(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar página de reservas por fecha de viaje", e, "despuesDeId", despuesDeId, "tamanoPagina", tamanoPagina);
+        }
+        return reservas;
+    }
+    
+    /**
+     * Cuenta las reservas registradas.
+     */
+    public int contarReservas() {
+        String sql = "SELECT COUNT(*) FROM reserva";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql);
+             ResultSet rs = pstmt.executeQuery()) {
+            
+            if (rs.next()) {
+                return rs.getInt(1);
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al contar reservas", e);
+        }
+        return 0;
+    }
+    
+    /**
+     * Lista reservas ordenadas por ID a partir de una posición. Solo debe usarse para saltar
+     * a una página cuyo cursor no se conoce; para avanzar página a página usar
+     * {@link #listarReservasPagina(int, int)}, que no recorre las filas anteriores.
+     * @param posicion cantidad de reservas a saltar
+     * @param tamanoPagina cantidad máxima de reservas a devolver
+     */
+    public List<Reserva> listarReservasDesdePosicion(int posicion, int tamanoPagina) {
+        List<Reserva> reservas = new ArrayList<>();
+        String sql = "SELECT * FROM reserva ORDER BY id_reserva LIMIT ? OFFSET ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            pstmt.setInt(1, Paginacion.limitarTamanoPagina(tamanoPagina));
+            pstmt.setInt(2, Math.max(0, posicion));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapearReserva(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar reservas desde posición", e, "posicion", posicion, "tamanoPagina", tamanoPagina);
+        }
+        return reservas;
+    }
+    
+    /**
+     * Recorre todas las reservas sin cargarlas en memoria: las filas se leen del servidor
+     * a medida que se consume el Stream. Debe cerrarse (try-with-resources) para liberar la conexión,
+     * tanto si se consume completo como si se interrumpe antes.
+     */
+    public Stream<Reserva> recorrerReservas() {
+        try {
+            return CursorStreaming.abrir(getConnection(), "SELECT * FROM reserva ORDER BY id_reserva", this::mapearReserva);
+        } catch (SQLException e) {
+            LOG.error("Error al abrir el recorrido de reservas", e);
+            return Stream.empty();
+        }
+    }
+    
+    /**
+     * Busca destinos por prefijo, sin distinguir mayúsculas ni tildes y tolerando errores de tipeo,
+     * con el índice en memoria de destinos (ver {@link IndiceDestinos}).
+     * @param limite máximo de destinos distintos a devolver
+     * @return las formas escritas de los destinos encontrados, de la mejor coincidencia a la peor
+     */
+    public List<String> buscarDestinos(String texto, int limite) {
+        if (!INDICE_DESTINOS.estaCargado()
+                || System.currentTimeMillis() - INDICE_DESTINOS.getCargadoEn() > RECARGA_INDICE_MS) {
+            cargarIndiceDestinos();
+        }
+        return INDICE_DESTINOS.buscar(texto, limite);
+    }
+    
+    /**
+     * Lista una página de las reservas con alguno de los destinos indicados, ordenadas por ID (keyset).
+     */
+    public List<Reserva> listarReservasPorDestinosPagina(List<String> destinos, int despuesDeId, int tamanoPagina) {
+        return consultarPorDestinos(destinos, "AND id_reserva > ? ORDER BY id_reserva LIMIT ?",
+                despuesDeId, Paginacion.limitarTamanoPagina(tamanoPagina));
+    }
+    
+    /**
+     * Lista reservas con alguno de los destinos indicados a partir de una posición, para saltar a una página lejana.
+     */
+    public List<Reserva> listarReservasPorDestinosDesdePosicion(List<String> destinos, int posicion, int tamanoPagina) {
+        return consultarPorDestinos(destinos, "ORDER BY id_reserva LIMIT ? OFFSET ?",
+                Paginacion.limitarTamanoPagina(tamanoPagina), Math.max(0, posicion));
+    }
+    
+    /**
+     * Cuenta las reservas con alguno de los destinos indicados
+     */
+    public int contarReservasPorDestinos(List<String> destinos) {
+        if (destinos.isEmpty()) {
+            return 0;
+        }
+        String sql = "SELECT COUNT(*) FROM reserva WHERE destino IN (" + marcadores(destinos.size()) + ")";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            for (int i = 0; i < destinos.size(); i++) {
+                pstmt.setString(i + 1, destinos.get(i));
+            }
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al contar reservas por destinos", e, "destinos", destinos.size());
+            return 0;
+        }
+    }
+    
+    /**
+     * Lista una página de las reservas que viajan entre dos fechas (ambas incluidas), ordenadas por
+     * fecha de viaje e ID, usando paginación por clave (keyset) sobre el índice (fecha_viaje, estado).
+     * @param estado estado de las reservas, o null para todas
+     * @param despuesDeFecha fecha de viaje de la última reserva de la página anterior (null para la primera página)
+     * @param despuesDeId ID de la última reserva de la página anterior
+     */
+    public List<Reserva> listarReservasEntreFechasPagina(Date desde, Date hasta, String estado,
+                                                         Date despuesDeFecha, int despuesDeId, int tamanoPagina) {
+        List<Reserva> reservas = new ArrayList<>();
+        String sql = "SELECT * FROM reserva WHERE fecha_viaje BETWEEN ? AND ?"
+                + (estado == null ? "" : " AND estado = ?")
+                + (despuesDeFecha == null ? "" : " AND fecha_viaje >= ? AND (fecha_viaje > ? OR id_reserva > ?)")
+                + " ORDER BY fecha_viaje, id_reserva LIMIT ?";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int indice = asignarRangoFechas(pstmt, desde, hasta, estado);
+            if (despuesDeFecha != null) {
+                java.sql.Date fecha = java.sql.Date.valueOf(aDia(despuesDeFecha));
+                pstmt.setDate(indice++, fecha);
+                pstmt.setDate(indice++, fecha);
+                pstmt.setInt(indice++, despuesDeId);
+            }
+            pstmt.setInt(indice, Paginacion.limitarTamanoPagina(tamanoPagina));
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapearReserva(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar reservas entre fechas", e, "desde", desde, "hasta", hasta, "estado", estado);
+        }
+        return reservas;
+    }
+    
+    /**
+     * Cuenta las reservas que viajan entre dos fechas (ambas incluidas). Si el rango cae dentro
+     * de la ventana de próximos días se responde con el índice en memoria, sin consultar la base.
+     * @param estado estado de las reservas, o null para todas
+     */
+    public int contarReservasEntreFechas(Date desde, Date hasta, String estado) {
+        LocalDate primero = aDia(desde);
+        LocalDate ultimo = aDia(hasta);
+        if (indiceFechasViajeCubre(primero, ultimo)) {
+            return INDICE_FECHAS_VIAJE.contar(primero, ultimo, estado);
+        }
+        String sql = "SELECT COUNT(*) FROM reserva WHERE fecha_viaje BETWEEN ? AND ?"
+                + (estado == null ? "" : " AND estado = ?");
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            asignarRangoFechas(pstmt, desde, hasta, estado);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                return rs.next() ? rs.getInt(1) : 0;
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al contar reservas entre fechas", e, "desde", desde, "hasta", hasta, "estado", estado);
+            return 0;
+        }
+    }
+    
+    /**
+     * Cantidad de salidas (reservas) por fecha de viaje entre dos fechas (ambas incluidas); los días
+     * sin salidas no aparecen. Dentro de la ventana de próximos días se responde desde memoria.
+     * @param estado estado de las reservas, o null para todas
+     */
+    public SortedMap<LocalDate, Integer> contarSalidasPorDia(Date desde, Date hasta, String estado) {
+        LocalDate primero = aDia(desde);
+        LocalDate ultimo = aDia(hasta);
+        if (indiceFechasViajeCubre(primero, ultimo)) {
+            return INDICE_FECHAS_VIAJE.contarPorDia(primero, ultimo, estado);
+        }
+        SortedMap<LocalDate, Integer> salidas = new TreeMap<>();
+        String sql = "SELECT fecha_viaje, COUNT(*) FROM reserva WHERE fecha_viaje BETWEEN ? AND ?"
+                + (estado == null ? "" : " AND estado = ?")
+                + " GROUP BY fecha_viaje ORDER BY fecha_viaje";
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            asignarRangoFechas(pstmt, desde, hasta, estado);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    salidas.put(rs.getDate(1).toLocalDate(), rs.getInt(2));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al contar salidas por día", e, "desde", desde, "hasta", hasta, "estado", estado);
+        }
+        return salidas;
+    }
+    
+    /**
+     * Índice de salidas por día compartido por todas las instancias del DAO.
+     */
+    static IndiceFechasViaje getIndiceFechasViaje() {
+        return INDICE_FECHAS_VIAJE;
+    }
+    
+    /**
+     * Índice de destinos compartido por todas las instancias del DAO.
+     */
+    static IndiceDestinos getIndiceDestinos() {
+        return INDICE_DESTINOS;
+    }
+    
+    /**
+     * Reservas con alguno de los destinos; restoSql completa la consulta con dos parámetros enteros
+     */
+    private List<Reserva> consultarPorDestinos(List<String> destinos, String restoSql, int primero, int segundo) {
+        List<Reserva> reservas = new ArrayList<>();
+        if (destinos.isEmpty()) {
+            return reservas;
+        }
+        String sql = "SELECT * FROM reserva WHERE destino IN (" + marcadores(destinos.size()) + ") " + restoSql;
+        
+        try (Connection conn = getConnection();
+             PreparedStatement pstmt = conn.prepareStatement(sql)) {
+            
+            int indice = 1;
+            for (String destino : destinos) {
+                pstmt.setString(indice++, destino);
+            }
+            pstmt.setInt(indice++, primero);
+            pstmt.setInt(indice, segundo);
+            
+            try (ResultSet rs = pstmt.executeQuery()) {
+                while (rs.next()) {
+                    reservas.add(mapearReserva(rs));
+                }
+            }
+        } catch (SQLException e) {
+            LOG.error("Error al listar reservas por destinos", e, "destinos", destinos.size());
+        }
+        return reservas;
+    }
+    
+    private void cargarIndiceDestinos() {
+        synchronized (INDICE_DESTINOS) {
+            if (INDICE_DESTINOS.estaCargado()
+                    && System.currentTimeMillis() - INDICE_DESTINOS.getCargadoEn() <= RECARGA_INDICE_MS) {
+                return; // Otro hilo lo cargó mientras se esperaba
+            }
+            String sql = "SELECT destino, COUNT(*) FROM reserva GROUP BY destino";
+            Map<String, Integer> reservasPorDestino = new HashMap<>();
+            
+            try (Connection conn = getConnection();
+                 Statement stmt = conn.createStatement();
+                 ResultSet rs = stmt.executeQuery(sql)) {
+                
+                while (rs.next()) {
+                    reservasPorDestino.put(rs.getString(1), rs.getInt(2));
+                }
+                INDICE_DESTINOS.cargar(reservasPorDestino);
+                LOG.info("Índice de destinos cargado", "destinos", reservasPorDestino.size());
+            } catch (SQLException e) {
+                LOG.error("Error al cargar el índice de destinos", e);
+            }
+        }
+    }
+    
+    /**
+     * Indica si el rango cae en la ventana de próximos días, cargando el índice si hace falta
+     * (primera consulta, recarga periódica o cambio de día).
+     */
+    private boolean indiceFechasViajeCubre(LocalDate desde, LocalDate hasta) {
+        LocalDate hoy = LocalDate.now();
+        if (desde.isBefore(hoy) || !hasta.isBefore(hoy.plusDays(INDICE_FECHAS_VIAJE.getDias()))) {
+            return false; // Fuera de la ventana: no vale la pena cargar el índice
+        }
+        if (!hoy.equals(INDICE_FECHAS_VIAJE.getPrimerDia()) || !INDICE_FECHAS_VIAJE.estaCargado()
+                || System.currentTimeMillis() - INDICE_FECHAS_VIAJE.getCargadoEn() > RECARGA_OCUPACION_MS) {
+            cargarIndiceFechasViaje(hoy);
+        }
+        return INDICE_FECHAS_VIAJE.cubre(desde, hasta);
+    }
+    
+    private void cargarIndiceFechasViaje(LocalDate hoy) {
+        synchronized (INDICE_FECHAS_VIAJE) {
+            if (hoy.equals(INDICE_FECHAS_VIAJE.getPrimerDia()) && INDICE_FECHAS_VIAJE.estaCargado()
+                    && System.currentTimeMillis() - INDICE_FECHAS_VIAJE.getCargadoEn() <= RECARGA_OCUPACION_MS) {
+                return; // Otro hilo lo cargó mientras se esperaba
+            }
+            String sql = "SELECT fecha_viaje, estado, COUNT(*) FROM reserva "
+                    + "WHERE fecha_viaje BETWEEN ? AND ? GROUP BY fecha_viaje, estado";
+            Map<String, Map<LocalDate, Integer>> salidas = new HashMap<>();
+            
+            try (Connection conn = getConnection();
+                 PreparedStatement pstmt = conn.prepareStatement(sql)) {
+                
+                pstmt.setDate(1, java.sql.Date.valueOf(hoy));
+                pstmt.setDate(2, java.sql.Date.valueOf(hoy.plusDays(INDICE_FECHAS_VIAJE.getDias() - 1)));
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        // Los estados que difieren solo en mayúsculas se suman en el índice
+                        salidas.computeIfAbsent(String.valueOf(rs.getString(2)), k -> new HashMap<>())
+                                .merge(rs.getDate(1).toLocalDate(), rs.getInt(3), Integer::sum);
+                    }
+                }
+                INDICE_FECHAS_VIAJE.cargar(hoy, salidas);
+                LOG.info("Índice de salidas por día cargado", "desde", hoy, "dias", INDICE_FECHAS_VIAJE.getDias());
+            } catch (SQLException e) {
+                LOG.error("Error al cargar el índice de salidas por día", e);
+            }
+        }
+    }
+    
+    /**
+     * Asigna las fechas del rango y el estado (si no es null); devuelve el siguiente índice de parámetro
+     */
+    private static int asignarRangoFechas(PreparedStatement pstmt, Date desde, Date hasta, String estado) throws SQLException {
+        int indice = 1;
+        pstmt.setDate(indice++, java.sql.Date.valueOf(aDia(desde)));
+        pstmt.setDate(indice++, java.sql.Date.valueOf(aDia(hasta)));
+        if (estado != null) {
+            pstmt.setString(indice++, estado);
+        }
+        return indice;
+    }
+    
+    /**
+     * Destino, fecha de viaje y estado actuales de una reserva, solo si alguno de los índices en
+     * memoria está cargado y hay que mantenerlo al día
+     */
+    private static Reserva consultarAnteriorSiHayIndices(Connection conn, int idReserva) throws SQLException {
+        if (!INDICE_DESTINOS.estaCargado() && !INDICE_FECHAS_VIAJE.estaCargado()) {
+            return null;
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(SQL_ANTERIOR_DE_RESERVA)) {
+            pstmt.setInt(1, idReserva);
+            try (ResultSet rs = pstmt.executeQuery()) {
+                if (!rs.next()) {
+                    return null;
+                }
+                Reserva anterior = new Reserva();
+                anterior.setDestino(rs.getString("destino"));
+                anterior.setFechaViaje(rs.getDate("fecha_viaje"));
+                anterior.setEstado(rs.getString("estado"));
+                return anterior;
+            }
+        }
+    }
+    
+    private static void registrarEnIndices(Reserva reserva) {
+        INDICE_DESTINOS.agregar(reserva.getDestino());
+        INDICE_FECHAS_VIAJE.agregar(aDia(reserva.getFechaViaje()), reserva.getEstado());
+    }
+    
+    private static void quitarDeIndices(Reserva anterior) {
+        if (anterior != null) {
+            INDICE_DESTINOS.quitar(anterior.getDestino());
+            INDICE_FECHAS_VIAJE.quitar(aDia(anterior.getFechaViaje()), anterior.getEstado());
+        }
+    }
+    
+    private static LocalDate aDia(Date fecha) {
+        return fecha == null ? null : new java.sql.Date(fecha.getTime()).toLocalDate();
+    }
+    
+    private static String marcadores(int cantidad) {
+        return String.join(", ", java.util.Collections.nCopies(cantidad, "?"));
+    }
+    
+    private Reserva mapearReserva(ResultSet rs) throws SQLException {
+        Reserva reserva = new Reserva();
+        reserva.setIdReserva(rs.getInt("id_reserva"));
+        reserva.setIdCliente(rs.getInt("id_cliente"));
+        reserva.setFechaReserva(rs.getDate("fecha_reserva"));
+        reserva.setDestino(rs.getString("destino"));
+        reserva.setFechaViaje(rs.getDate("fecha_viaje"));
+        reserva.setPrecioCentavos(Dinero.deDecimal(rs.getBigDecimal("precio")));
+        reserva.setEstado(rs.getString("estado"));
+        return reserva;
+    }
+    
+    /**
+     * Inserta muchas reservas por lotes (addBatch/executeBatch), confirmando cada bloque.
+     * Las filas rechazadas (por ejemplo, un cliente inexistente) se informan en el resultado
+     * sin detener la carga; a las reservas insertadas se les asigna el ID generado.
+     */
+    public ResultadoLote agregarReservas(List<Reserva> reservas) {
+        try (Connection conn = getConnection()) {
+            ResultadoLote resultado = InsercionPorLotes.insertar(conn, SQL_INSERTAR, reservas,
+                    this::asignarParametrosInsercion, Reserva::setIdReserva);
+            // A las reservas insertadas se les asignó su ID
+            for (Reserva reserva : reservas) {
+                if (reserva.getIdReserva() > 0) {
+                    registrarEnIndices(reserva);
+                }
+            }
+            return resultado;
+        } catch (SQLException e) {
+            LOG.error("Error al agregar reservas por lotes", e, "cantidad", reservas.size());
+            return ResultadoLote.fallido(reservas.size(), e.getMessage());
+        }
+    }
+    
+    private void asignarParametrosInsercion(PreparedStatement pstmt, Reserva reserva) throws SQLException {
+        pstmt.setInt(1, reserva.getIdCliente());
+        pstmt.setDate(2, new java.sql.Date(reserva.getFechaReserva().getTime()));
+        pstmt.setString(3, reserva.getDestino());
+        pstmt.setDate(4, new java.sql.Date(reserva.getFechaViaje().getTime()));
+        pstmt.setBigDecimal(5, Dinero.aDecimal(reserva.getPrecioCentavos()));
+        pstmt.setString(6, reserva.getEstado());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,104 @@
+package modelo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de una inserción por lotes: cuántas filas se insertaron y cuáles fallaron.
+ * Los índices de las fallas corresponden a la posición de la fila en la lista recibida.
+ */
+public class ResultadoLote {
+
+    /**
+     * Fila que no se pudo insertar y el motivo: el informado por la base de datos o, si la fila
+     * no llegó a enviarse, el error de validación.
+     */
+    public static class Fallo {
+        private final int indice;
+        private final String mensaje;
+
+        Fallo(int indice, String mensaje) {
+            this.indice = indice;
+            this.mensaje = mensaje;
+        }
+
+        public int getIndice() { return indice; }
+        public String getMensaje() { return mensaje; }
+
+        @Override
+        public String toString() {
+            return "Fila " + indice + ": " + mensaje;
+        }
+    }
+
+    private final int total;
+    private int insertados;
+    private final List<Fallo> fallos = new ArrayList<>();
+
+    ResultadoLote(int total) {
+        this.total = total;
+    }
+
+    /**
+     * Resultado en el que ninguna fila se insertó, por ejemplo si no se pudo obtener la conexión.
+     */
+    static ResultadoLote fallido(int total, String mensaje) {
+        ResultadoLote resultado = new ResultadoLote(total);
+        for (int i = 0; i < total; i++) {
+            resultado.registrarFallo(i, mensaje);
+        }
+        return resultado;
+    }
+
+    /**
+     * Resultado de un lote del que se descartaron filas antes de enviarlo a la base, por ejemplo
+     * las que no pasaron la validación.
+     * @param total filas recibidas
+     * @param rechazos motivo de cada fila descartada, por su índice en la lista recibida
+     * @param enviadas resultado de insertar las demás filas, en el orden en que se recibieron
+     */
+    public static ResultadoLote conRechazos(int total, Map<Integer, String> rechazos, ResultadoLote enviadas) {
+        // Posición en la lista recibida de cada fila enviada
+        int[] indices = new int[total - rechazos.size()];
+        for (int i = 0, enviada = 0; i < total; i++) {
+            if (!rechazos.containsKey(i)) {
+                indices[enviada++] = i;
+            }
+        }
+        ResultadoLote resultado = new ResultadoLote(total);
+        resultado.insertados = enviadas.insertados;
+        rechazos.forEach(resultado::registrarFallo);
+        for (Fallo fallo : enviadas.fallos) {
+            resultado.registrarFallo(indices[fallo.indice], fallo.mensaje);
+        }
+        resultado.fallos.sort(Comparator.comparingInt(Fallo::getIndice));
+        return resultado;
+    }
+
+    void registrarInsertado() {
+        insertados++;
+    }
+
+    void registrarFallo(int indice, String mensaje) {
+        fallos.add(new Fallo(indice, mensaje));
+    }
+
+    public int getTotal() { return total; }
+    public int getInsertados() { return insertados; }
+    public List<Fallo> getFallos() { return Collections.unmodifiableList(fallos); }
+
+    /**
+     * Indica si todas las filas se insertaron correctamente.
+     */
+    public boolean esCompleto() {
+        return fallos.isEmpty() && insertados == total;
+    }
+
+    @Override
+    public String toString() {
+        return "ResultadoLote{" + "insertados=" + insertados + "/" + total + ", fallos=" + fallos.size() + '}';
+    }
+}
@@ -0,0 +1,57 @@
+package modelo;
+
+import util.Dinero;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Un cliente con todas sus reservas y la factura de cada una, leído en una sola consulta.
+ * Las listas están ordenadas por ID y no se pueden modificar.
+ */
+public class ResumenCliente {
+
+    private final Cliente cliente;
+    private final List<Reserva> reservas;
+    private final List<Factura> facturas;
+    private final Map<Integer, Factura> facturaPorReserva = new LinkedHashMap<>();
+
+    ResumenCliente(Cliente cliente, List<Reserva> reservas, List<Factura> facturas) {
+        this.cliente = cliente;
+        this.reservas = Collections.unmodifiableList(reservas);
+        this.facturas = Collections.unmodifiableList(facturas);
+        for (Factura factura : facturas) {
+            facturaPorReserva.putIfAbsent(factura.getIdReserva(), factura);
+        }
+    }
+
+    public Cliente getCliente() { return cliente; }
+    public List<Reserva> getReservas() { return reservas; }
+    public List<Factura> getFacturas() { return facturas; }
+
+    /**
+     * Factura de la reserva indicada, o null si la reserva no tiene factura.
+     */
+    public Factura getFacturaDeReserva(int idReserva) {
+        return facturaPorReserva.get(idReserva);
+    }
+
+    /**
+     * Suma de los montos de todas las facturas del cliente.
+     */
+    public double getMontoFacturado() {
+        return Dinero.aDouble(getMontoFacturadoCentavos());
+    }
+
+    /**
+     * Suma exacta, en centavos, de los montos de todas las facturas del cliente.
+     */
+    public long getMontoFacturadoCentavos() {
+        long total = 0;
+        for (Factura factura : facturas) {
+            total += factura.getMontoTotalCentavos();
+        }
+        return total;
+    }
+}
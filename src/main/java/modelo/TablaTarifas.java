@@ -0,0 +1,230 @@
+package modelo;
+
+import util.Bitacora;
+import util.Dinero;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Tabla inmutable de tasas de impuesto por destino y vigencia, cargada una sola vez en memoria
+ * para calcular los totales de las facturas sin consultar la base.
+ *
+ * Cada línea de la tabla tiene el formato destino;desde;hasta;porcentaje, por ejemplo
+ * "Galápagos;2025-01-01;;0" o "*;;;12". El destino "*" es la tasa general, que se usa cuando el
+ * destino no tiene una tasa propia vigente en la fecha de emisión. Desde y hasta son fechas
+ * AAAA-MM-DD inclusivas (vacías significan sin límite) y las vigencias de un mismo destino no
+ * pueden superponerse; las de la tasa general, además, deben cubrir todas las fechas sin huecos,
+ * para que cualquier factura tenga una tasa vigente. El porcentaje admite hasta dos decimales. Las líneas vacías y las que
+ * empiezan con # se ignoran. Los destinos se comparan sin distinguir mayúsculas, como la
+ * collation de MySQL.
+ */
+public final class TablaTarifas implements CalculadoraImpuestos {
+    private static final Bitacora LOG = Bitacora.obtener(TablaTarifas.class);
+
+    public static final String DESTINO_GENERAL = "*";
+
+    // Tabla que se usa si no se indica el archivo impuestos.tarifas
+    private static final String RECURSO_PREDETERMINADO = "/impuestos/tarifas.csv";
+
+    // Los porcentajes se guardan en centésimas (12% = 1200), así que el total es
+    // subtotal * (ESCALA + porcentaje) / ESCALA
+    private static final long ESCALA = 100 * Dinero.CENTAVOS_POR_UNIDAD;
+    private static final long IVA_GENERAL = 1200;
+
+    private final Map<String, Tarifa[]> porDestino;
+    private final Tarifa[] generales;
+
+    private TablaTarifas(Map<String, Tarifa[]> porDestino, Tarifa[] generales) {
+        this.porDestino = porDestino;
+        this.generales = generales;
+    }
+
+    /**
+     * Tabla compartida, leída la primera vez que se usa del archivo indicado en la propiedad
+     * impuestos.tarifas o, si no se indica, del recurso /impuestos/tarifas.csv. Si no se puede
+     * leer se registra el error y se usa un 12% general.
+     */
+    public static TablaTarifas predeterminada() {
+        return Predeterminada.TABLA;
+    }
+
+    private static final class Predeterminada {
+        static final TablaTarifas TABLA = cargarPredeterminada();
+    }
+
+    private static TablaTarifas cargarPredeterminada() {
+        String archivo = System.getProperty("impuestos.tarifas");
+        try (Reader lector = archivo != null
+                ? Files.newBufferedReader(Paths.get(archivo), StandardCharsets.UTF_8)
+                : abrirRecurso(RECURSO_PREDETERMINADO)) {
+            return leer(lector);
+        } catch (IOException | IllegalArgumentException e) {
+            LOG.error("Error al cargar las tarifas de impuestos, se usa la tasa general", e,
+                    "archivo", archivo != null ? archivo : RECURSO_PREDETERMINADO);
+            return general(IVA_GENERAL);
+        }
+    }
+
+    private static Reader abrirRecurso(String recurso) throws IOException {
+        InputStream entrada = TablaTarifas.class.getResourceAsStream(recurso);
+        if (entrada == null) {
+            throw new IOException("No se encontró el recurso " + recurso);
+        }
+        return new InputStreamReader(entrada, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Tabla con una única tasa para todos los destinos y fechas.
+     * @param porcentajeCentesimas porcentaje en centésimas, por ejemplo 1200 para un 12%
+     */
+    public static TablaTarifas general(long porcentajeCentesimas) {
+        validarPorcentaje(porcentajeCentesimas);
+        Tarifa[] generales = { new Tarifa(LocalDate.MIN, LocalDate.MAX, porcentajeCentesimas) };
+        return new TablaTarifas(Collections.emptyMap(), generales);
+    }
+
+    /**
+     * Lee una tabla con el formato descrito en la clase.
+     * @throws IllegalArgumentException si una línea no es válida, si dos vigencias de un mismo
+     *         destino se superponen o si la tasa general no cubre todas las fechas
+     */
+    public static TablaTarifas leer(Reader lector) throws IOException {
+        Map<String, List<Tarifa>> leidas = new HashMap<>();
+        BufferedReader lineas = new BufferedReader(lector);
+        String linea;
+        int numero = 0;
+        while ((linea = lineas.readLine()) != null) {
+            numero++;
+            String texto = linea.trim();
+            if (texto.isEmpty() || texto.startsWith("#")) {
+                continue;
+            }
+            String[] campos = texto.split(";", -1);
+            if (campos.length != 4 || campos[0].trim().isEmpty()) {
+                throw new IllegalArgumentException("Línea " + numero + " de tarifas no válida: " + linea);
+            }
+            try {
+                LocalDate desde = campos[1].trim().isEmpty() ? LocalDate.MIN : LocalDate.parse(campos[1].trim());
+                LocalDate hasta = campos[2].trim().isEmpty() ? LocalDate.MAX : LocalDate.parse(campos[2].trim());
+                long porcentaje = Dinero.parsear(campos[3]);
+                validarPorcentaje(porcentaje);
+                if (hasta.isBefore(desde)) {
+                    throw new IllegalArgumentException("la vigencia termina antes de empezar");
+                }
+                leidas.computeIfAbsent(clave(campos[0]), k -> new ArrayList<>()).add(new Tarifa(desde, hasta, porcentaje));
+            } catch (DateTimeParseException | IllegalArgumentException e) {
+                throw new IllegalArgumentException("Línea " + numero + " de tarifas no válida (" + e.getMessage() + "): " + linea, e);
+            }
+        }
+
+        List<Tarifa> generales = leidas.remove(DESTINO_GENERAL);
+        if (generales == null) {
+            throw new IllegalArgumentException("La tabla de tarifas no tiene una tasa general (" + DESTINO_GENERAL + ")");
+        }
+        Tarifa[] vigenciasGenerales = ordenar(DESTINO_GENERAL, generales);
+        validarCobertura(vigenciasGenerales);
+        Map<String, Tarifa[]> porDestino = new HashMap<>();
+        for (Map.Entry<String, List<Tarifa>> entrada : leidas.entrySet()) {
+            porDestino.put(entrada.getKey(), ordenar(entrada.getKey(), entrada.getValue()));
+        }
+        return new TablaTarifas(Collections.unmodifiableMap(porDestino), vigenciasGenerales);
+    }
+
+    // Las vigencias ya están ordenadas y sin superposiciones: basta con que cada una empiece el día
+    // siguiente al fin de la anterior y que la primera y la última no tengan límite
+    private static void validarCobertura(Tarifa[] generales) {
+        if (!generales[0].desde.equals(LocalDate.MIN)) {
+            throw new IllegalArgumentException("La tasa general no cubre las fechas anteriores al " + generales[0].desde);
+        }
+        for (int i = 1; i < generales.length; i++) {
+            LocalDate siguiente = generales[i - 1].hasta.plusDays(1);
+            if (!generales[i].desde.equals(siguiente)) {
+                throw new IllegalArgumentException("La tasa general no cubre las fechas del " + siguiente
+                        + " al " + generales[i].desde.minusDays(1));
+            }
+        }
+        if (!generales[generales.length - 1].hasta.equals(LocalDate.MAX)) {
+            throw new IllegalArgumentException("La tasa general no cubre las fechas posteriores al "
+                    + generales[generales.length - 1].hasta);
+        }
+    }
+
+    private static Tarifa[] ordenar(String destino, List<Tarifa> tarifas) {
+        tarifas.sort(Comparator.comparing(tarifa -> tarifa.desde));
+        for (int i = 1; i < tarifas.size(); i++) {
+            if (!tarifas.get(i).desde.isAfter(tarifas.get(i - 1).hasta)) {
+                throw new IllegalArgumentException("Las vigencias de las tarifas de " + destino + " se superponen");
+            }
+        }
+        return tarifas.toArray(new Tarifa[0]);
+    }
+
+    private static void validarPorcentaje(long porcentajeCentesimas) {
+        if (porcentajeCentesimas < 0 || porcentajeCentesimas > ESCALA) {
+            throw new IllegalArgumentException("El porcentaje debe estar entre 0 y 100");
+        }
+    }
+
+    private static String clave(String destino) {
+        return destino.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Porcentaje de impuesto vigente para el destino en la fecha, en centésimas (12% = 1200).
+     * Si el destino no tiene una tasa propia vigente se usa la general, que cubre todas las fechas.
+     */
+    public long consultarPorcentaje(String destino, LocalDate fecha) {
+        if (destino != null) {
+            Tarifa tarifa = buscar(porDestino.get(clave(destino)), fecha);
+            if (tarifa != null) {
+                return tarifa.porcentaje;
+            }
+        }
+        return buscar(generales, fecha).porcentaje;
+    }
+
+    // Las tablas de cada destino tienen pocas vigencias, así que basta con recorrerlas
+    private static Tarifa buscar(Tarifa[] tarifas, LocalDate fecha) {
+        if (tarifas == null) {
+            return null;
+        }
+        for (Tarifa tarifa : tarifas) {
+            if (!fecha.isBefore(tarifa.desde) && !fecha.isAfter(tarifa.hasta)) {
+                return tarifa;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public long calcularTotal(long subtotalCentavos, String destino, LocalDate fechaEmision) {
+        return Dinero.multiplicar(subtotalCentavos, ESCALA + consultarPorcentaje(destino, fechaEmision), ESCALA);
+    }
+
+    private static final class Tarifa {
+        final LocalDate desde;
+        final LocalDate hasta;
+        final long porcentaje;
+
+        Tarifa(LocalDate desde, LocalDate hasta, long porcentaje) {
+            this.desde = desde;
+            this.hasta = hasta;
+            this.porcentaje = porcentaje;
+        }
+    }
+}
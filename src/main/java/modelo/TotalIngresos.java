@@ -0,0 +1,45 @@
+package modelo;
+
+import util.Dinero;
+import java.time.YearMonth;
+
+/**
+ * Cantidad de facturas y monto facturado de un grupo. Los criterios que no se usaron para
+ * agrupar quedan en null (por ejemplo, getDestino() al agrupar solo por periodo y estado).
+ */
+public class TotalIngresos {
+
+    private final YearMonth periodo;
+    private final String estado;
+    private final String destino;
+    private final long cantidad;
+    private final long montoTotalCentavos;
+
+    TotalIngresos(YearMonth periodo, String estado, String destino, long cantidad, long montoTotalCentavos) {
+        this.periodo = periodo;
+        this.estado = estado;
+        this.destino = destino;
+        this.cantidad = cantidad;
+        this.montoTotalCentavos = montoTotalCentavos;
+    }
+
+    public YearMonth getPeriodo() { return periodo; }
+    public String getEstado() { return estado; }
+    public String getDestino() { return destino; }
+    public long getCantidad() { return cantidad; }
+    public double getMontoTotal() { return Dinero.aDouble(montoTotalCentavos); }
+    public long getMontoTotalCentavos() { return montoTotalCentavos; }
+
+    /**
+     * Monto promedio por factura del grupo.
+     */
+    public double getPromedio() {
+        return cantidad == 0 ? 0 : Dinero.aDouble(montoTotalCentavos) / cantidad;
+    }
+
+    @Override
+    public String toString() {
+        return "TotalIngresos{periodo=" + periodo + ", estado=" + estado + ", destino=" + destino
+                + ", cantidad=" + cantidad + ", montoTotal=" + Dinero.formatear(montoTotalCentavos) + "}";
+    }
+}
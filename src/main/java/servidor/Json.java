@@ -0,0 +1,270 @@
+package servidor;
+
+import java.math.BigDecimal;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lectura y escritura mínima de JSON para la API, sin dependencias externas.
+ * Los objetos se leen como LinkedHashMap, los arreglos como ArrayList, los números enteros
+ * como Long y los demás como BigDecimal (para no perder precisión en montos).
+ * Al escribir, las fechas se representan como "yyyy-MM-dd".
+ */
+public final class Json {
+
+    public static final String FORMATO_FECHA = "yyyy-MM-dd";
+
+    private final String texto;
+    private int posicion;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    /**
+     * Convierte un texto JSON en mapas, listas, textos, números, booleanos o null.
+     * @throws IllegalArgumentException si el texto no es JSON válido
+     */
+    public static Object leer(String texto) {
+        Json lector = new Json(texto);
+        lector.saltarEspacios();
+        Object valor = lector.leerValor();
+        lector.saltarEspacios();
+        if (lector.posicion != texto.length()) {
+            throw lector.error("Contenido inesperado después del valor");
+        }
+        return valor;
+    }
+
+    /**
+     * Convierte mapas, colecciones, arreglos de objetos, textos, números, booleanos, fechas y null en JSON.
+     */
+    public static String escribir(Object valor) {
+        StringBuilder salida = new StringBuilder();
+        escribir(valor, salida);
+        return salida.toString();
+    }
+
+    private static void escribir(Object valor, StringBuilder salida) {
+        if (valor == null) {
+            salida.append("null");
+        } else if (valor instanceof CharSequence) {
+            escribirTexto(valor.toString(), salida);
+        } else if (valor instanceof Double || valor instanceof Float) {
+            double numero = ((Number) valor).doubleValue();
+            if (Double.isNaN(numero) || Double.isInfinite(numero)) {
+                salida.append("null");
+            } else {
+                salida.append(BigDecimal.valueOf(numero).stripTrailingZeros().toPlainString());
+            }
+        } else if (valor instanceof BigDecimal) {
+            salida.append(((BigDecimal) valor).toPlainString());
+        } else if (valor instanceof Number || valor instanceof Boolean) {
+            salida.append(valor);
+        } else if (valor instanceof Date) {
+            escribirTexto(new SimpleDateFormat(FORMATO_FECHA).format((Date) valor), salida);
+        } else if (valor instanceof Map) {
+            salida.append('{');
+            boolean primero = true;
+            for (Map.Entry<?, ?> entrada : ((Map<?, ?>) valor).entrySet()) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                escribirTexto(String.valueOf(entrada.getKey()), salida);
+                salida.append(':');
+                escribir(entrada.getValue(), salida);
+                primero = false;
+            }
+            salida.append('}');
+        } else if (valor instanceof Iterable || valor instanceof Object[]) {
+            Iterable<?> elementos = valor instanceof Object[] ? Arrays.asList((Object[]) valor) : (Iterable<?>) valor;
+            salida.append('[');
+            boolean primero = true;
+            for (Object elemento : elementos) {
+                if (!primero) {
+                    salida.append(',');
+                }
+                escribir(elemento, salida);
+                primero = false;
+            }
+            salida.append(']');
+        } else {
+            escribirTexto(valor.toString(), salida);
+        }
+    }
+
+    private static void escribirTexto(String texto, StringBuilder salida) {
+        salida.append('"');
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            switch (c) {
+                case '"': salida.append("\\\""); break;
+                case '\\': salida.append("\\\\"); break;
+                case '\n': salida.append("\\n"); break;
+                case '\r': salida.append("\\r"); break;
+                case '\t': salida.append("\\t"); break;
+                default:
+                    if (c < 0x20) {
+                        salida.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        salida.append(c);
+                    }
+            }
+        }
+        salida.append('"');
+    }
+
+    private Object leerValor() {
+        if (posicion >= texto.length()) {
+            throw error("Fin inesperado del JSON");
+        }
+        char c = texto.charAt(posicion);
+        switch (c) {
+            case '{': return leerObjeto();
+            case '[': return leerArreglo();
+            case '"': return leerTexto();
+            case 't': return leerLiteral("true", Boolean.TRUE);
+            case 'f': return leerLiteral("false", Boolean.FALSE);
+            case 'n': return leerLiteral("null", null);
+            default:
+                if (c == '-' || (c >= '0' && c <= '9')) {
+                    return leerNumero();
+                }
+                throw error("Carácter inesperado '" + c + "'");
+        }
+    }
+
+    private Map<String, Object> leerObjeto() {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        posicion++;
+        saltarEspacios();
+        if (consumir('}')) {
+            return objeto;
+        }
+        do {
+            saltarEspacios();
+            if (posicion >= texto.length() || texto.charAt(posicion) != '"') {
+                throw error("Se esperaba el nombre de un campo");
+            }
+            String clave = leerTexto();
+            saltarEspacios();
+            if (!consumir(':')) {
+                throw error("Se esperaba ':'");
+            }
+            saltarEspacios();
+            objeto.put(clave, leerValor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir('}')) {
+            throw error("Se esperaba '}'");
+        }
+        return objeto;
+    }
+
+    private List<Object> leerArreglo() {
+        List<Object> arreglo = new ArrayList<>();
+        posicion++;
+        saltarEspacios();
+        if (consumir(']')) {
+            return arreglo;
+        }
+        do {
+            saltarEspacios();
+            arreglo.add(leerValor());
+            saltarEspacios();
+        } while (consumir(','));
+        if (!consumir(']')) {
+            throw error("Se esperaba ']'");
+        }
+        return arreglo;
+    }
+
+    private String leerTexto() {
+        StringBuilder valor = new StringBuilder();
+        posicion++;
+        while (posicion < texto.length()) {
+            char c = texto.charAt(posicion++);
+            if (c == '"') {
+                return valor.toString();
+            }
+            if (c != '\\') {
+                valor.append(c);
+                continue;
+            }
+            if (posicion >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicion++);
+            switch (escape) {
+                case '"': case '\\': case '/': valor.append(escape); break;
+                case 'b': valor.append('\b'); break;
+                case 'f': valor.append('\f'); break;
+                case 'n': valor.append('\n'); break;
+                case 'r': valor.append('\r'); break;
+                case 't': valor.append('\t'); break;
+                case 'u':
+                    if (posicion + 4 > texto.length()) {
+                        throw error("Escape \\u incompleto");
+                    }
+                    try {
+                        valor.append((char) Integer.parseInt(texto.substring(posicion, posicion + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Escape \\u inválido");
+                    }
+                    posicion += 4;
+                    break;
+                default:
+                    throw error("Escape inválido '\\" + escape + "'");
+            }
+        }
+        throw error("Texto sin cerrar");
+    }
+
+    private Object leerNumero() {
+        int inicio = posicion;
+        while (posicion < texto.length() && "+-0123456789.eE".indexOf(texto.charAt(posicion)) >= 0) {
+            posicion++;
+        }
+        String numero = texto.substring(inicio, posicion);
+        try {
+            BigDecimal valor = new BigDecimal(numero);
+            if (numero.indexOf('.') < 0 && numero.indexOf('e') < 0 && numero.indexOf('E') < 0) {
+                return valor.longValueExact();
+            }
+            return valor;
+        } catch (NumberFormatException | ArithmeticException e) {
+            throw error("Número inválido '" + numero + "'");
+        }
+    }
+
+    private Object leerLiteral(String literal, Object valor) {
+        if (!texto.startsWith(literal, posicion)) {
+            throw error("Valor inválido");
+        }
+        posicion += literal.length();
+        return valor;
+    }
+
+    private boolean consumir(char esperado) {
+        if (posicion < texto.length() && texto.charAt(posicion) == esperado) {
+            posicion++;
+            return true;
+        }
+        return false;
+    }
+
+    private void saltarEspacios() {
+        while (posicion < texto.length() && Character.isWhitespace(texto.charAt(posicion))) {
+            posicion++;
+        }
+    }
+
+    private IllegalArgumentException error(String mensaje) {
+        return new IllegalArgumentException("JSON inválido en la posición " + posicion + ": " + mensaje);
+    }
+}
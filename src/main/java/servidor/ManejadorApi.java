@@ -0,0 +1,268 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import util.Bitacora;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base de los recursos de la API: separa la ruta y los parámetros de la solicitud, lee el cuerpo
+ * JSON y convierte el resultado (o el error) en la respuesta HTTP.
+ * Las IllegalArgumentException (validaciones de los controladores o datos mal formados) se
+ * responden con 400; cualquier otra excepción con 500.
+ */
+abstract class ManejadorApi implements HttpHandler {
+
+    private static final Bitacora LOG = Bitacora.obtener(ManejadorApi.class);
+    private static final int MAXIMO_CUERPO_BYTES = 1 << 20;
+    static final int TAMANO_PAGINA_POR_DEFECTO = 100;
+
+    /**
+     * Atiende la solicitud. La ruta no incluye el prefijo del recurso: en /api/clientes/7/reservas
+     * los segmentos son ["7", "reservas"].
+     */
+    protected abstract Respuesta atender(Solicitud solicitud);
+
+    @Override
+    public final void handle(HttpExchange intercambio) throws IOException {
+        Respuesta respuesta;
+        try {
+            respuesta = atender(new Solicitud(intercambio));
+        } catch (IllegalArgumentException e) {
+            respuesta = Respuesta.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            LOG.error("Error al atender la solicitud", e, "metodo", intercambio.getRequestMethod(),
+                    "ruta", intercambio.getRequestURI().getPath());
+            respuesta = Respuesta.error(500, "Error interno del servidor");
+        }
+        try {
+            byte[] cuerpo = respuesta.cuerpo == null ? null : Json.escribir(respuesta.cuerpo).getBytes(StandardCharsets.UTF_8);
+            if (cuerpo != null) {
+                intercambio.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            }
+            if (respuesta.estado == 405) {
+                intercambio.getResponseHeaders().set("Allow", respuesta.permitidos);
+            }
+            intercambio.sendResponseHeaders(respuesta.estado, cuerpo == null ? -1 : cuerpo.length);
+            if (cuerpo != null) {
+                try (OutputStream salida = intercambio.getResponseBody()) {
+                    salida.write(cuerpo);
+                }
+            }
+        } finally {
+            intercambio.close();
+        }
+    }
+
+    /**
+     * Solicitud HTTP ya separada en método, segmentos de ruta y parámetros de consulta.
+     */
+    static final class Solicitud {
+        final String metodo;
+        final List<String> ruta;
+        private final Map<String, String> consulta;
+        private final HttpExchange intercambio;
+
+        Solicitud(HttpExchange intercambio) {
+            this.intercambio = intercambio;
+            this.metodo = intercambio.getRequestMethod();
+            String prefijo = intercambio.getHttpContext().getPath();
+            String camino = intercambio.getRequestURI().getPath().substring(prefijo.length());
+            List<String> segmentos = new ArrayList<>();
+            for (String segmento : camino.split("/")) {
+                if (!segmento.isEmpty()) {
+                    segmentos.add(URLDecoder.decode(segmento, StandardCharsets.UTF_8));
+                }
+            }
+            this.ruta = Collections.unmodifiableList(segmentos);
+            this.consulta = leerConsulta(intercambio.getRequestURI().getRawQuery());
+        }
+
+        boolean es(String metodoEsperado, int segmentos) {
+            return metodo.equals(metodoEsperado) && ruta.size() == segmentos;
+        }
+
+        /**
+         * Segmento de la ruta interpretado como ID.
+         */
+        int id(int indice) {
+            return entero(ruta.get(indice), "ID");
+        }
+
+        String parametro(String nombre, String porDefecto) {
+            return consulta.getOrDefault(nombre, porDefecto);
+        }
+
+        int parametroEntero(String nombre, int porDefecto) {
+            String valor = consulta.get(nombre);
+            return valor == null ? porDefecto : entero(valor, nombre);
+        }
+
+        /**
+         * Lee el cuerpo como un objeto JSON.
+         */
+        Map<String, Object> cuerpo() {
+            try (InputStream entrada = intercambio.getRequestBody()) {
+                byte[] bytes = entrada.readNBytes(MAXIMO_CUERPO_BYTES + 1);
+                if (bytes.length > MAXIMO_CUERPO_BYTES) {
+                    throw new IllegalArgumentException("El cuerpo de la solicitud supera el tamaño máximo");
+                }
+                Object valor = Json.leer(new String(bytes, StandardCharsets.UTF_8));
+                if (!(valor instanceof Map)) {
+                    throw new IllegalArgumentException("Se esperaba un objeto JSON");
+                }
+                @SuppressWarnings("unchecked")
+                Map<String, Object> objeto = (Map<String, Object>) valor;
+                return objeto;
+            } catch (IOException e) {
+                throw new IllegalArgumentException("No se pudo leer el cuerpo de la solicitud");
+            }
+        }
+
+        private static Map<String, String> leerConsulta(String consulta) {
+            Map<String, String> parametros = new HashMap<>();
+            if (consulta != null) {
+                for (String par : consulta.split("&")) {
+                    int igual = par.indexOf('=');
+                    if (igual > 0) {
+                        parametros.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                                URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+                    }
+                }
+            }
+            return parametros;
+        }
+
+        private static int entero(String valor, String nombre) {
+            try {
+                return Integer.parseInt(valor);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("El valor de " + nombre + " no es un número entero: " + valor);
+            }
+        }
+    }
+
+    /**
+     * Estado HTTP y objeto a devolver como JSON (null para responder sin cuerpo).
+     */
+    static final class Respuesta {
+        final int estado;
+        final Object cuerpo;
+        String permitidos;
+
+        private Respuesta(int estado, Object cuerpo) {
+            this.estado = estado;
+            this.cuerpo = cuerpo;
+        }
+
+        static Respuesta ok(Object cuerpo) {
+            return new Respuesta(200, cuerpo);
+        }
+
+        static Respuesta creado(Object cuerpo) {
+            return new Respuesta(201, cuerpo);
+        }
+
+        static Respuesta sinContenido() {
+            return new Respuesta(204, null);
+        }
+
+        static Respuesta error(int estado, String mensaje) {
+            return new Respuesta(estado, Map.of("error", mensaje == null ? "" : mensaje));
+        }
+
+        static Respuesta noEncontrado(String mensaje) {
+            return error(404, mensaje);
+        }
+
+        static Respuesta metodoNoPermitido(String permitidos) {
+            Respuesta respuesta = error(405, "Método no permitido");
+            respuesta.permitidos = permitidos;
+            return respuesta;
+        }
+
+        /**
+         * 200 con el objeto, o 404 si es null.
+         */
+        static Respuesta okONoEncontrado(Object cuerpo, String mensaje) {
+            return cuerpo == null ? noEncontrado(mensaje) : ok(cuerpo);
+        }
+    }
+
+    // Lectura de campos del cuerpo
+
+    static String texto(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (valor == null) {
+            throw new IllegalArgumentException("Falta el campo " + campo);
+        }
+        return valor.toString();
+    }
+
+    /**
+     * Valor del campo como texto, o null si no viene; las validaciones de la aplicación
+     * se encargan de informar los campos obligatorios.
+     */
+    static String textoOpcional(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        return valor == null ? null : valor.toString();
+    }
+
+    static int entero(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (!(valor instanceof Long) || (Long) valor > Integer.MAX_VALUE || (Long) valor < Integer.MIN_VALUE) {
+            throw new IllegalArgumentException("El campo " + campo + " debe ser un número entero");
+        }
+        return ((Long) valor).intValue();
+    }
+
+    /**
+     * Número como texto sin notación científica, para pasarlo a las validaciones de la aplicación.
+     */
+    static String numero(Map<String, Object> cuerpo, String campo) {
+        Object valor = cuerpo.get(campo);
+        if (valor instanceof Long) {
+            return valor.toString();
+        }
+        if (valor instanceof BigDecimal) {
+            return ((BigDecimal) valor).toPlainString();
+        }
+        if (valor instanceof String) {
+            return (String) valor;
+        }
+        throw new IllegalArgumentException("El campo " + campo + " debe ser un número");
+    }
+
+    static Date fecha(Map<String, Object> cuerpo, String campo) {
+        String valor = texto(cuerpo, campo);
+        SimpleDateFormat formato = new SimpleDateFormat(Json.FORMATO_FECHA);
+        formato.setLenient(false);
+        try {
+            return formato.parse(valor);
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("El campo " + campo + " debe ser una fecha " + Json.FORMATO_FECHA);
+        }
+    }
+
+    static Map<String, Object> objeto(Object... clavesYValores) {
+        Map<String, Object> objeto = new LinkedHashMap<>();
+        for (int i = 0; i + 1 < clavesYValores.length; i += 2) {
+            objeto.put((String) clavesYValores[i], clavesYValores[i + 1]);
+        }
+        return objeto;
+    }
+}
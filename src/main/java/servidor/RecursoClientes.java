@@ -0,0 +1,121 @@
+package servidor;
+
+import controlador.ClienteController;
+import controlador.FacturaController;
+import controlador.ReservaController;
+import modelo.Cliente;
+import modelo.Reserva;
+import modelo.ResumenCliente;
+import util.Dinero;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * /api/clientes
+ * <pre>
+ * GET    /api/clientes?despuesDeId=0&amp;tamano=100   página de clientes ordenados por ID
+ * POST   /api/clientes                            registra un cliente
+ * GET    /api/clientes/{id}                       consulta un cliente
+ * PUT    /api/clientes/{id}                       actualiza un cliente
+ * DELETE /api/clientes/{id}                       elimina un cliente
+ * GET    /api/clientes/{id}/reservas              reservas del cliente
+ * GET    /api/clientes/{id}/facturas              facturas del cliente
+ * GET    /api/clientes/{id}/resumen               cliente, reservas y facturas en una sola consulta
+ * </pre>
+ */
+class RecursoClientes extends ManejadorApi {
+
+    private final ClienteController clienteController = new ClienteController();
+    private final ReservaController reservaController = new ReservaController();
+    private final FacturaController facturaController = new FacturaController();
+
+    @Override
+    protected Respuesta atender(Solicitud solicitud) {
+        if (solicitud.es("GET", 0)) {
+            List<Cliente> pagina = clienteController.listarClientesPagina(
+                    solicitud.parametroEntero("despuesDeId", 0),
+                    solicitud.parametroEntero("tamano", TAMANO_PAGINA_POR_DEFECTO));
+            return Respuesta.ok(pagina.stream().map(RecursoClientes::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.es("POST", 0)) {
+            Map<String, Object> cuerpo = solicitud.cuerpo();
+            boolean exito = clienteController.agregarCliente(textoOpcional(cuerpo, "nombre"),
+                    textoOpcional(cuerpo, "apellido"), textoOpcional(cuerpo, "dni"), textoOpcional(cuerpo, "telefono"),
+                    textoOpcional(cuerpo, "email"), textoOpcional(cuerpo, "direccion"));
+            return exito ? Respuesta.creado(objeto("agregado", true))
+                    : Respuesta.error(500, "No se pudo agregar el cliente");
+        }
+        if (solicitud.ruta.size() == 1) {
+            int idCliente = solicitud.id(0);
+            switch (solicitud.metodo) {
+                case "GET":
+                    return Respuesta.okONoEncontrado(aJson(clienteController.consultarCliente(idCliente)),
+                            "Cliente no encontrado");
+                case "PUT": {
+                    Map<String, Object> cuerpo = solicitud.cuerpo();
+                    if (clienteController.consultarCliente(idCliente) == null) {
+                        return Respuesta.noEncontrado("Cliente no encontrado");
+                    }
+                    boolean exito = clienteController.actualizarCliente(idCliente, textoOpcional(cuerpo, "nombre"),
+                            textoOpcional(cuerpo, "apellido"), textoOpcional(cuerpo, "dni"),
+                            textoOpcional(cuerpo, "telefono"), textoOpcional(cuerpo, "email"),
+                            textoOpcional(cuerpo, "direccion"));
+                    return exito ? Respuesta.ok(aJson(clienteController.consultarCliente(idCliente)))
+                            : Respuesta.error(500, "No se pudo actualizar el cliente");
+                }
+                case "DELETE":
+                    if (clienteController.consultarCliente(idCliente) == null) {
+                        return Respuesta.noEncontrado("Cliente no encontrado");
+                    }
+                    return clienteController.eliminarCliente(idCliente) ? Respuesta.sinContenido()
+                            : Respuesta.error(409, "No se pudo eliminar el cliente; verifique que no tenga reservas");
+                default:
+                    return Respuesta.metodoNoPermitido("GET, PUT, DELETE");
+            }
+        }
+        if (solicitud.es("GET", 2) && "reservas".equals(solicitud.ruta.get(1))) {
+            return Respuesta.ok(reservaController.listarReservasPorCliente(solicitud.id(0)).stream()
+                    .map(RecursoReservas::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.es("GET", 2) && "facturas".equals(solicitud.ruta.get(1))) {
+            return Respuesta.ok(facturaController.listarFacturasCliente(solicitud.id(0)).stream()
+                    .map(RecursoFacturas::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.es("GET", 2) && "resumen".equals(solicitud.ruta.get(1))) {
+            return Respuesta.okONoEncontrado(aJson(clienteController.consultarResumenCliente(solicitud.id(0))),
+                    "Cliente no encontrado");
+        }
+        return solicitud.ruta.isEmpty() ? Respuesta.metodoNoPermitido("GET, POST")
+                : Respuesta.noEncontrado("Recurso no encontrado");
+    }
+
+    /**
+     * El cliente con sus reservas; cada reserva lleva su factura (o null) en el campo "factura".
+     */
+    static Map<String, Object> aJson(ResumenCliente resumen) {
+        if (resumen == null) {
+            return null;
+        }
+        List<Map<String, Object>> reservas = new ArrayList<>();
+        for (Reserva reserva : resumen.getReservas()) {
+            Map<String, Object> json = RecursoReservas.aJson(reserva);
+            json.put("factura", RecursoFacturas.aJson(resumen.getFacturaDeReserva(reserva.getIdReserva())));
+            reservas.add(json);
+        }
+        Map<String, Object> json = aJson(resumen.getCliente());
+        json.put("reservas", reservas);
+        json.put("montoFacturado", Dinero.aDecimal(resumen.getMontoFacturadoCentavos()));
+        return json;
+    }
+
+    static Map<String, Object> aJson(Cliente cliente) {
+        if (cliente == null) {
+            return null;
+        }
+        return objeto("idCliente", cliente.getIdCliente(), "nombre", cliente.getNombre(),
+                "apellido", cliente.getApellido(), "dni", cliente.getDni(), "telefono", cliente.getTelefono(),
+                "email", cliente.getEmail(), "direccion", cliente.getDireccion());
+    }
+}
@@ -0,0 +1,121 @@
+package servidor;
+
+import controlador.FacturaController;
+import modelo.AgrupacionIngresos;
+import modelo.Factura;
+import modelo.TotalIngresos;
+import util.Dinero;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * /api/facturas
+ * <pre>
+ * GET    /api/facturas?despuesDeId=0&amp;tamano=100   página de facturas ordenadas por ID
+ * GET    /api/facturas/ingresos?agrupar=periodo,estado,destino&amp;desde=2026-01&amp;hasta=2026-12
+ *                                                 totales del resumen de ingresos (por defecto, los últimos 12 meses)
+ * GET    /api/facturas/{id}                       consulta una factura
+ * PATCH  /api/facturas/{id}                       cambia solo el estado: {"estadoPago": "ANULADA"}
+ * DELETE /api/facturas/{id}                       elimina una factura
+ * </pre>
+ * Las facturas se crean junto con su reserva (POST /api/reservas).
+ */
+class RecursoFacturas extends ManejadorApi {
+
+    private final FacturaController facturaController = new FacturaController();
+
+    @Override
+    protected Respuesta atender(Solicitud solicitud) {
+        if (solicitud.es("GET", 0)) {
+            List<Factura> pagina = facturaController.listarFacturasPagina(
+                    solicitud.parametroEntero("despuesDeId", 0),
+                    solicitud.parametroEntero("tamano", TAMANO_PAGINA_POR_DEFECTO));
+            return Respuesta.ok(pagina.stream().map(RecursoFacturas::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.es("GET", 1) && "ingresos".equals(solicitud.ruta.get(0))) {
+            YearMonth actual = YearMonth.now();
+            List<TotalIngresos> totales = facturaController.consultarResumenIngresos(
+                    agrupacion(solicitud.parametro("agrupar", "")),
+                    periodo(solicitud.parametro("desde", actual.minusMonths(11).toString())),
+                    periodo(solicitud.parametro("hasta", actual.toString())));
+            return Respuesta.ok(totales.stream().map(RecursoFacturas::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.ruta.size() == 1) {
+            int idFactura = solicitud.id(0);
+            switch (solicitud.metodo) {
+                case "GET":
+                    return Respuesta.okONoEncontrado(aJson(facturaController.consultarFactura(idFactura)),
+                            "Factura no encontrada");
+                case "PATCH": {
+                    String estadoPago = textoOpcional(solicitud.cuerpo(), "estadoPago");
+                    if (facturaController.consultarFactura(idFactura) == null) {
+                        return Respuesta.noEncontrado("Factura no encontrada");
+                    }
+                    return facturaController.actualizarEstadoFactura(idFactura, estadoPago)
+                            ? Respuesta.ok(aJson(facturaController.consultarFactura(idFactura)))
+                            : Respuesta.error(500, "No se pudo actualizar el estado de la factura");
+                }
+                case "DELETE":
+                    return facturaController.eliminarFactura(idFactura) ? Respuesta.sinContenido()
+                            : Respuesta.noEncontrado("Factura no encontrada");
+                default:
+                    return Respuesta.metodoNoPermitido("GET, PATCH, DELETE");
+            }
+        }
+        return solicitud.ruta.isEmpty() ? Respuesta.metodoNoPermitido("GET")
+                : Respuesta.noEncontrado("Recurso no encontrado");
+    }
+
+    static Map<String, Object> aJson(TotalIngresos total) {
+        Map<String, Object> json = objeto("cantidad", total.getCantidad(),
+                "montoTotal", Dinero.aDecimal(total.getMontoTotalCentavos()), "promedio", total.getPromedio());
+        if (total.getPeriodo() != null) {
+            json.put("periodo", total.getPeriodo().toString());
+        }
+        if (total.getEstado() != null) {
+            json.put("estado", total.getEstado());
+        }
+        if (total.getDestino() != null) {
+            json.put("destino", total.getDestino());
+        }
+        return json;
+    }
+
+    private static Set<AgrupacionIngresos> agrupacion(String criterios) {
+        Set<AgrupacionIngresos> agrupacion = EnumSet.noneOf(AgrupacionIngresos.class);
+        for (String criterio : criterios.split(",")) {
+            if (!criterio.isBlank()) {
+                try {
+                    agrupacion.add(AgrupacionIngresos.valueOf(criterio.trim().toUpperCase(Locale.ROOT)));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Criterio de agrupación desconocido: " + criterio
+                            + " (se admiten periodo, estado y destino)");
+                }
+            }
+        }
+        return agrupacion;
+    }
+
+    private static YearMonth periodo(String valor) {
+        try {
+            return YearMonth.parse(valor);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("El periodo debe tener el formato AAAA-MM: " + valor);
+        }
+    }
+
+    static Map<String, Object> aJson(Factura factura) {
+        if (factura == null) {
+            return null;
+        }
+        return objeto("idFactura", factura.getIdFactura(), "idReserva", factura.getIdReserva(),
+                "fechaEmision", factura.getFechaEmision(), "montoTotal", Dinero.aDecimal(factura.getMontoTotalCentavos()),
+                "estadoPago", factura.getEstadoPago());
+    }
+}
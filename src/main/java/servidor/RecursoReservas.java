@@ -0,0 +1,111 @@
+package servidor;
+
+import controlador.FacturaController;
+import controlador.ReservaController;
+import modelo.Reserva;
+import util.Dinero;
+import util.ValidacionReserva;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * /api/reservas
+ * <pre>
+ * GET    /api/reservas?despuesDeId=0&amp;tamano=100   página de reservas ordenadas por ID
+ * POST   /api/reservas                            registra una reserva con su factura
+ * GET    /api/reservas/{id}                       consulta una reserva
+ * PUT    /api/reservas/{id}                       actualiza una reserva
+ * DELETE /api/reservas/{id}                       elimina la reserva y su factura
+ * GET    /api/reservas/{id}/factura               factura de la reserva
+ * </pre>
+ * Las reservas se validan igual que en la ventana de reservas; la fecha de reserva de una
+ * reserva nueva es la fecha actual.
+ */
+class RecursoReservas extends ManejadorApi {
+
+    private static final Set<String> ESTADOS = Set.of("Pendiente", "Confirmada", "Cancelada", "Completada");
+
+    private final ReservaController reservaController = new ReservaController();
+    private final FacturaController facturaController = new FacturaController();
+
+    @Override
+    protected Respuesta atender(Solicitud solicitud) {
+        if (solicitud.es("GET", 0)) {
+            List<Reserva> pagina = reservaController.listarReservasPagina(
+                    solicitud.parametroEntero("despuesDeId", 0),
+                    solicitud.parametroEntero("tamano", TAMANO_PAGINA_POR_DEFECTO));
+            return Respuesta.ok(pagina.stream().map(RecursoReservas::aJson).collect(Collectors.toList()));
+        }
+        if (solicitud.es("POST", 0)) {
+            Map<String, Object> cuerpo = solicitud.cuerpo();
+            Date fechaReserva = new Date();
+            String destino = textoOpcional(cuerpo, "destino");
+            Date fechaViaje = fecha(cuerpo, "fechaViaje");
+            String precio = numero(cuerpo, "precio");
+            ValidacionReserva.validarReserva(destino, fechaReserva, fechaViaje, precio);
+            boolean exito = reservaController.agregarReservaCentavos(entero(cuerpo, "idCliente"), fechaReserva,
+                    destino, fechaViaje, ValidacionReserva.convertirPrecio(precio), estado(cuerpo));
+            return exito ? Respuesta.creado(objeto("agregada", true))
+                    : Respuesta.error(500, "No se pudo agregar la reserva");
+        }
+        if (solicitud.ruta.size() == 1) {
+            int idReserva = solicitud.id(0);
+            switch (solicitud.metodo) {
+                case "GET":
+                    return Respuesta.okONoEncontrado(aJson(reservaController.consultarReserva(idReserva)),
+                            "Reserva no encontrada");
+                case "PUT": {
+                    Map<String, Object> cuerpo = solicitud.cuerpo();
+                    Reserva actual = reservaController.consultarReserva(idReserva);
+                    if (actual == null) {
+                        return Respuesta.noEncontrado("Reserva no encontrada");
+                    }
+                    // Se mantiene la fecha de reserva original
+                    String destino = textoOpcional(cuerpo, "destino");
+                    Date fechaViaje = fecha(cuerpo, "fechaViaje");
+                    String precio = numero(cuerpo, "precio");
+                    ValidacionReserva.validarReserva(destino, actual.getFechaReserva(), fechaViaje, precio);
+                    boolean exito = reservaController.actualizarReservaCentavos(idReserva, entero(cuerpo, "idCliente"),
+                            actual.getFechaReserva(), destino, fechaViaje, ValidacionReserva.convertirPrecio(precio), estado(cuerpo));
+                    return exito ? Respuesta.ok(aJson(reservaController.consultarReserva(idReserva)))
+                            : Respuesta.error(500, "No se pudo actualizar la reserva");
+                }
+                case "DELETE":
+                    return reservaController.eliminarReserva(idReserva) ? Respuesta.sinContenido()
+                            : Respuesta.noEncontrado("Reserva no encontrada");
+                default:
+                    return Respuesta.metodoNoPermitido("GET, PUT, DELETE");
+            }
+        }
+        if (solicitud.es("GET", 2) && "factura".equals(solicitud.ruta.get(1))) {
+            return Respuesta.okONoEncontrado(
+                    RecursoFacturas.aJson(facturaController.consultarFacturaPorReserva(solicitud.id(0))),
+                    "La reserva no tiene factura");
+        }
+        return solicitud.ruta.isEmpty() ? Respuesta.metodoNoPermitido("GET, POST")
+                : Respuesta.noEncontrado("Recurso no encontrado");
+    }
+
+    private static String estado(Map<String, Object> cuerpo) {
+        String estado = textoOpcional(cuerpo, "estado");
+        if (estado == null) {
+            return "Pendiente";
+        }
+        if (!ESTADOS.contains(estado)) {
+            throw new IllegalArgumentException("Estado de reserva inválido: " + estado + ". Valores válidos: " + ESTADOS);
+        }
+        return estado;
+    }
+
+    static Map<String, Object> aJson(Reserva reserva) {
+        if (reserva == null) {
+            return null;
+        }
+        return objeto("idReserva", reserva.getIdReserva(), "idCliente", reserva.getIdCliente(),
+                "fechaReserva", reserva.getFechaReserva(), "destino", reserva.getDestino(),
+                "fechaViaje", reserva.getFechaViaje(), "precio", Dinero.aDecimal(reserva.getPrecioCentavos()), "estado", reserva.getEstado());
+    }
+}
@@ -0,0 +1,144 @@
+package servidor;
+
+import com.sun.net.httpserver.HttpServer;
+import util.Bitacora;
+import util.ConexionMySQL;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Servidor HTTP/JSON sin interfaz gráfica que expone las operaciones de los controladores
+ * de clientes, reservas y facturas bajo /api.
+ *
+ * Cada solicitud se atiende en un hilo virtual cuando la JVM los soporta (Java 21 o superior);
+ * en versiones anteriores se usa un grupo fijo de hilos de tamaño -Dservidor.hilos (64 por defecto).
+ * En ambos casos el límite real de concurrencia contra la base de datos lo pone el pool de conexiones.
+ *
+ * La API no tiene autenticación, así que por defecto solo escucha en la interfaz local (loopback);
+ * para aceptar conexiones de otros equipos hay que indicar la dirección con --host o -Dservidor.host
+ * (por ejemplo 0.0.0.0) y protegerla con un proxy o un firewall.
+ *
+ * Se inicia con: java -cp proyecto_g8.jar vista.MainView --servidor [--puerto=8080] [--host=127.0.0.1]
+ */
+public class ServidorApi {
+
+    private static final Bitacora LOG = Bitacora.obtener(ServidorApi.class);
+    private static final int PUERTO_POR_DEFECTO = 8080;
+
+    private final HttpServer servidor;
+    private final ExecutorService ejecutor;
+
+    /**
+     * Crea el servidor en el puerto indicado (0 = un puerto libre cualquiera), escuchando en la
+     * dirección de -Dservidor.host o, si no se indica, solo en la interfaz local.
+     */
+    public ServidorApi(int puerto) throws IOException {
+        this(System.getProperty("servidor.host"), puerto);
+    }
+
+    /**
+     * Crea el servidor en la dirección y el puerto indicados (host null = solo la interfaz local).
+     */
+    public ServidorApi(String host, int puerto) throws IOException {
+        InetSocketAddress direccion = host == null || host.isBlank()
+                ? new InetSocketAddress(InetAddress.getLoopbackAddress(), puerto)
+                : new InetSocketAddress(host.trim(), puerto);
+        if (direccion.isUnresolved()) {
+            throw new IOException("No se pudo resolver la dirección del servidor: " + host);
+        }
+        if (!direccion.getAddress().isLoopbackAddress()) {
+            LOG.advertencia("El servidor API acepta conexiones de otros equipos y no tiene autenticación",
+                    "host", direccion.getAddress().getHostAddress());
+        }
+        this.servidor = HttpServer.create(direccion, 0);
+        this.ejecutor = crearEjecutor();
+        servidor.setExecutor(ejecutor);
+        servidor.createContext("/api/clientes", new RecursoClientes());
+        servidor.createContext("/api/reservas", new RecursoReservas());
+        servidor.createContext("/api/facturas", new RecursoFacturas());
+        servidor.createContext("/api/salud", new ManejadorApi() {
+            @Override
+            protected Respuesta atender(Solicitud solicitud) {
+                return Respuesta.ok(objeto("estado", "ok"));
+            }
+        });
+    }
+
+    public void iniciar() {
+        servidor.start();
+        LOG.info("Servidor API iniciado", "host", getDireccion().getAddress().getHostAddress(), "puerto", getPuerto());
+    }
+
+    /**
+     * Deja de aceptar conexiones y espera hasta los segundos indicados a que terminen las solicitudes en curso.
+     */
+    public void detener(int segundos) {
+        servidor.stop(segundos);
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(segundos, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        LOG.info("Servidor API detenido");
+    }
+
+    public int getPuerto() {
+        return servidor.getAddress().getPort();
+    }
+
+    public InetSocketAddress getDireccion() {
+        return servidor.getAddress();
+    }
+
+    /**
+     * Un hilo virtual por tarea si la JVM lo permite; si no, un grupo fijo de hilos.
+     * Se obtiene por reflexión para seguir compilando con Java 17.
+     */
+    static ExecutorService crearEjecutor() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService ejecutor = (ExecutorService) fabrica.invoke(null);
+            LOG.info("Solicitudes atendidas en hilos virtuales");
+            return ejecutor;
+        } catch (ReflectiveOperationException e) {
+            int hilos = Integer.getInteger("servidor.hilos", 64);
+            LOG.info("Hilos virtuales no disponibles, se usa un grupo fijo", "hilos", hilos);
+            return Executors.newFixedThreadPool(hilos);
+        }
+    }
+
+    /**
+     * Punto de entrada del modo servidor. El puerto se toma de --puerto=N o de -Dservidor.puerto,
+     * y la dirección de --host=H o de -Dservidor.host.
+     */
+    public static void ejecutar(String[] args) {
+        int puerto = Integer.getInteger("servidor.puerto", PUERTO_POR_DEFECTO);
+        String host = System.getProperty("servidor.host");
+        for (String argumento : args) {
+            if (argumento.startsWith("--puerto=")) {
+                puerto = Integer.parseInt(argumento.substring("--puerto=".length()));
+            } else if (argumento.startsWith("--host=")) {
+                host = argumento.substring("--host=".length());
+            }
+        }
+        ServidorApi api;
+        try {
+            api = new ServidorApi(host, puerto);
+        } catch (IOException e) {
+            LOG.error("No se pudo iniciar el servidor API", e, "host", host, "puerto", puerto);
+            Bitacora.vaciar(2000);
+            return;
+        }
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            api.detener(5);
+            ConexionMySQL.cerrarPool();
+        }, "servidor-api-cierre"));
+        api.iniciar();
+    }
+}
@@ -0,0 +1,58 @@
+package util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Base de datos embebida (H2 en memoria, en modo de compatibilidad MySQL) que reemplaza al
+ * servidor MySQL en pruebas, benchmarks o demostraciones. El esquema se crea a partir del
+ * recurso db/esquema.sql la primera vez que se usa cada base.
+ */
+public class BaseDatosEmbebida {
+
+    private static final String RECURSO_ESQUEMA = "/db/esquema.sql";
+
+    private BaseDatosEmbebida() {
+    }
+
+    /**
+     * URL JDBC de una base en memoria con el nombre indicado. La base vive mientras dure la JVM.
+     */
+    public static String url(String nombre) {
+        return "jdbc:h2:mem:" + nombre + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+    }
+
+    /**
+     * Crea las tablas e índices que aún no existan.
+     */
+    public static void crearEsquema(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sentencia : leerEsquema().split(";")) {
+                if (!sentencia.isBlank()) {
+                    stmt.execute(sentencia);
+                }
+            }
+        }
+    }
+
+    private static String leerEsquema() throws SQLException {
+        try (InputStream entrada = BaseDatosEmbebida.class.getResourceAsStream(RECURSO_ESQUEMA)) {
+            if (entrada == null) {
+                throw new SQLException("No se encontró el esquema " + RECURSO_ESQUEMA);
+            }
+            StringBuilder sql = new StringBuilder();
+            for (String linea : new String(entrada.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+                if (!linea.trim().startsWith("--")) {
+                    sql.append(linea).append('\n');
+                }
+            }
+            return sql.toString();
+        } catch (IOException e) {
+            throw new SQLException("No se pudo leer el esquema " + RECURSO_ESQUEMA, e);
+        }
+    }
+}
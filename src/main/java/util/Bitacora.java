@@ -0,0 +1,210 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bitácora estructurada y asíncrona para DAOs, controladores y utilidades.
+ * Cada evento lleva un nivel, un mensaje fijo y campos clave=valor; el formateo y la escritura
+ * los hace un hilo aparte (ver {@link DespachadorBitacora}), por lo que registrar cuesta poco más
+ * que copiar unas referencias y, si el nivel está desactivado, solo una lectura.
+ * Como los campos se formatean después, sus valores deben ser inmutables (números, textos, fechas).
+ *
+ * Configuración por propiedades del sistema:
+ * -Dlog.nivel=INFO (nivel general), -Dlog.nivel.modelo=ADVERTENCIA (por paquete),
+ * -Dlog.nivel.modelo.ClienteDAO=DEPURACION (por clase; gana el prefijo más largo),
+ * -Dlog.archivo=logs/aplicacion.log (por defecto se escribe en la consola) y
+ * -Dlog.capacidad=8192 (eventos en el búfer circular).
+ */
+public final class Bitacora {
+
+    /**
+     * Niveles de la bitácora, de menor a mayor severidad. APAGADO desactiva todos los eventos.
+     */
+    public enum Nivel {
+        DEPURACION, INFO, ADVERTENCIA, ERROR, APAGADO
+    }
+
+    private static final String PREFIJO_PROPIEDAD = "log.nivel";
+    private static final Map<String, Bitacora> BITACORAS = new ConcurrentHashMap<>();
+    private static final Map<String, Nivel> NIVELES_CONFIGURADOS = new ConcurrentHashMap<>();
+    private static final DespachadorBitacora DESPACHADOR;
+
+    static {
+        for (String propiedad : System.getProperties().stringPropertyNames()) {
+            if (propiedad.equals(PREFIJO_PROPIEDAD) || propiedad.startsWith(PREFIJO_PROPIEDAD + ".")) {
+                try {
+                    Nivel nivel = Nivel.valueOf(System.getProperty(propiedad).trim().toUpperCase());
+                    NIVELES_CONFIGURADOS.put(propiedad.substring(PREFIJO_PROPIEDAD.length()), nivel);
+                } catch (IllegalArgumentException e) {
+                    System.err.println("Nivel de bitácora inválido en " + propiedad + ": " + System.getProperty(propiedad));
+                }
+            }
+        }
+        DESPACHADOR = new DespachadorBitacora(Integer.getInteger("log.capacidad", 8192),
+                crearSalida(System.getProperty("log.archivo")));
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> DESPACHADOR.detener(2000), "bitacora-cierre"));
+    }
+
+    private final String nombre;
+    private final String origen;
+    private final DespachadorBitacora despachador;
+    private volatile Nivel nivel;
+
+    Bitacora(String nombre, Nivel nivel, DespachadorBitacora despachador) {
+        this.nombre = nombre;
+        this.origen = nombre.substring(nombre.lastIndexOf('.') + 1);
+        this.nivel = nivel;
+        this.despachador = despachador;
+    }
+
+    /**
+     * Obtiene la bitácora de una clase. Conviene guardarla en un campo estático final.
+     */
+    public static Bitacora obtener(Class<?> clase) {
+        return BITACORAS.computeIfAbsent(clase.getName(),
+                nombre -> new Bitacora(nombre, nivelPara(nombre), DESPACHADOR));
+    }
+
+    /**
+     * Cambia en tiempo de ejecución el nivel de una clase o paquete (null o "" = nivel general).
+     */
+    public static void configurarNivel(String prefijo, Nivel nivel) {
+        NIVELES_CONFIGURADOS.put(prefijo == null || prefijo.isEmpty() ? "" : "." + prefijo, nivel);
+        for (Bitacora bitacora : BITACORAS.values()) {
+            bitacora.nivel = nivelPara(bitacora.nombre);
+        }
+    }
+
+    /**
+     * Eventos descartados porque el búfer estaba lleno.
+     */
+    public static long getDescartados() {
+        return DESPACHADOR.getDescartados();
+    }
+
+    /**
+     * Espera a que se escriban los eventos pendientes (por ejemplo, antes de terminar el programa).
+     */
+    public static boolean vaciar(long tiempoMaximoMs) {
+        return DESPACHADOR.esperarVaciado(tiempoMaximoMs);
+    }
+
+    public boolean estaActivo(Nivel nivel) {
+        return nivel.compareTo(this.nivel) >= 0 && nivel != Nivel.APAGADO;
+    }
+
+    /**
+     * Registra un evento de depuración. Los campos van en pares: "clave", valor, "clave", valor...
+     */
+    public void depuracion(String mensaje, Object... campos) {
+        registrar(Nivel.DEPURACION, mensaje, null, campos);
+    }
+
+    public void info(String mensaje, Object... campos) {
+        registrar(Nivel.INFO, mensaje, null, campos);
+    }
+
+    public void advertencia(String mensaje, Object... campos) {
+        registrar(Nivel.ADVERTENCIA, mensaje, null, campos);
+    }
+
+    public void advertencia(String mensaje, Throwable error, Object... campos) {
+        registrar(Nivel.ADVERTENCIA, mensaje, error, campos);
+    }
+
+    public void error(String mensaje, Throwable error, Object... campos) {
+        registrar(Nivel.ERROR, mensaje, error, campos);
+    }
+
+    private void registrar(Nivel nivelEvento, String mensaje, Throwable error, Object[] campos) {
+        if (estaActivo(nivelEvento)) {
+            despachador.publicar(System.currentTimeMillis(), nivelEvento, origen, mensaje, campos, error);
+        }
+    }
+
+    private static Nivel nivelPara(String nombreClase) {
+        String clave = "." + nombreClase;
+        while (true) {
+            Nivel configurado = NIVELES_CONFIGURADOS.get(clave);
+            if (configurado != null) {
+                return configurado;
+            }
+            if (clave.isEmpty()) {
+                return Nivel.INFO;
+            }
+            clave = clave.substring(0, clave.lastIndexOf('.'));
+        }
+    }
+
+    /**
+     * Formato de una línea: fecha nivel [hilo] Clase - mensaje clave=valor ..., seguida de la
+     * traza de la excepción si la hay. Los valores con espacios van entre comillas.
+     */
+    static void formatear(StringBuilder linea, long momento, Nivel nivel, String hilo, String origen,
+                          String mensaje, Object[] campos, Throwable error) {
+        linea.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(momento)))
+             .append(' ').append(nivel)
+             .append(" [").append(hilo).append("] ")
+             .append(origen).append(" - ").append(mensaje);
+        if (campos != null) {
+            for (int i = 0; i + 1 < campos.length; i += 2) {
+                linea.append(' ').append(campos[i]).append('=');
+                String valor = String.valueOf(campos[i + 1]);
+                if (valor.isEmpty() || valor.indexOf(' ') >= 0 || valor.indexOf('"') >= 0) {
+                    linea.append('"').append(valor.replace("\"", "\\\"")).append('"');
+                } else {
+                    linea.append(valor);
+                }
+            }
+        }
+        if (error != null) {
+            linea.append(" error=\"").append(error).append('"').append(System.lineSeparator());
+            StringWriter traza = new StringWriter();
+            error.printStackTrace(new PrintWriter(traza));
+            linea.append(traza.toString().stripTrailing());
+        }
+    }
+
+    private static DespachadorBitacora.Salida crearSalida(String archivo) {
+        Writer destino;
+        if (archivo == null || archivo.isBlank()) {
+            destino = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+        } else {
+            try {
+                Path ruta = Paths.get(archivo).toAbsolutePath();
+                Files.createDirectories(ruta.getParent());
+                destino = Files.newBufferedWriter(ruta, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                System.err.println("No se pudo abrir la bitácora " + archivo + ", se usará la consola: " + e);
+                destino = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+            }
+        }
+        BufferedWriter salida = new BufferedWriter(destino);
+        return new DespachadorBitacora.Salida() {
+            @Override
+            public void escribir(CharSequence linea) throws IOException {
+                salida.append(linea).append(System.lineSeparator());
+            }
+
+            @Override
+            public void vaciar() throws IOException {
+                salida.flush();
+            }
+        };
+    }
+}
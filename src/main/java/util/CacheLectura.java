@@ -0,0 +1,181 @@
+package util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Caché de lectura (read-through) acotada, con desalojo LRU y tiempo de vida por entrada.
+ * Si la clave no está o ya expiró, el valor se obtiene con la función de carga y se guarda.
+ * Los valores null (por ejemplo, un registro inexistente) no se guardan.
+ * Es segura para usar desde varios hilos; la carga se ejecuta fuera del bloqueo.
+ */
+public class CacheLectura<K, V> {
+
+    private final int tamanoMaximo;
+    private final long ttlNanos;
+    private final LongSupplier reloj;
+    private final LinkedHashMap<K, Entrada<V>> entradas;
+    // Cambia con cada invalidación: si hubo alguna mientras se cargaba, el valor cargado se descarta
+    private long version;
+
+    private long aciertos;
+    private long fallos;
+    private long expiradas;
+    private long desalojadas;
+    private long invalidaciones;
+
+    /**
+     * @param tamanoMaximo cantidad máxima de entradas
+     * @param ttlMs tiempo de vida de cada entrada en milisegundos (0 = sin vencimiento)
+     */
+    public CacheLectura(int tamanoMaximo, long ttlMs) {
+        this(tamanoMaximo, ttlMs, System::nanoTime);
+    }
+
+    CacheLectura(int tamanoMaximo, long ttlMs, LongSupplier reloj) {
+        if (tamanoMaximo < 1) {
+            throw new IllegalArgumentException("El tamaño máximo de la caché debe ser al menos 1");
+        }
+        this.tamanoMaximo = tamanoMaximo;
+        this.ttlNanos = ttlMs * 1_000_000L;
+        this.reloj = reloj;
+        this.entradas = new LinkedHashMap<K, Entrada<V>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entrada<V>> mayor) {
+                if (size() > CacheLectura.this.tamanoMaximo) {
+                    desalojadas++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Devuelve el valor de la clave, cargándolo con la función indicada si no está en la caché.
+     */
+    public V obtener(K clave, Function<? super K, ? extends V> cargar) {
+        long versionCarga;
+        synchronized (this) {
+            Entrada<V> entrada = entradas.get(clave);
+            if (entrada != null) {
+                if (ttlNanos <= 0 || reloj.getAsLong() - entrada.creada < ttlNanos) {
+                    aciertos++;
+                    return entrada.valor;
+                }
+                entradas.remove(clave);
+                expiradas++;
+            }
+            fallos++;
+            versionCarga = version;
+        }
+
+        V valor = cargar.apply(clave);
+
+        synchronized (this) {
+            if (valor != null && version == versionCarga) {
+                entradas.put(clave, new Entrada<>(valor, reloj.getAsLong()));
+            }
+        }
+        return valor;
+    }
+
+    /**
+     * Elimina la clave de la caché. Las cargas que estén en curso no se guardarán.
+     */
+    public synchronized void invalidar(K clave) {
+        entradas.remove(clave);
+        version++;
+        invalidaciones++;
+    }
+
+    /**
+     * Vacía la caché.
+     */
+    public synchronized void invalidarTodo() {
+        entradas.clear();
+        version++;
+        invalidaciones++;
+    }
+
+    public synchronized Estadisticas obtenerEstadisticas() {
+        return new Estadisticas(entradas.size(), tamanoMaximo, aciertos, fallos, expiradas, desalojadas,
+                invalidaciones);
+    }
+
+    private static final class Entrada<V> {
+        private final V valor;
+        private final long creada;
+
+        Entrada(V valor, long creada) {
+            this.valor = valor;
+            this.creada = creada;
+        }
+    }
+
+    /**
+     * Fotografía de los contadores de la caché.
+     */
+    public static final class Estadisticas {
+        private final int tamano;
+        private final int tamanoMaximo;
+        private final long aciertos;
+        private final long fallos;
+        private final long expiradas;
+        private final long desalojadas;
+        private final long invalidaciones;
+
+        Estadisticas(int tamano, int tamanoMaximo, long aciertos, long fallos, long expiradas,
+                     long desalojadas, long invalidaciones) {
+            this.tamano = tamano;
+            this.tamanoMaximo = tamanoMaximo;
+            this.aciertos = aciertos;
+            this.fallos = fallos;
+            this.expiradas = expiradas;
+            this.desalojadas = desalojadas;
+            this.invalidaciones = invalidaciones;
+        }
+
+        public int getTamano() {
+            return tamano;
+        }
+
+        public long getAciertos() {
+            return aciertos;
+        }
+
+        public long getFallos() {
+            return fallos;
+        }
+
+        public long getExpiradas() {
+            return expiradas;
+        }
+
+        public long getDesalojadas() {
+            return desalojadas;
+        }
+
+        public long getInvalidaciones() {
+            return invalidaciones;
+        }
+
+        /**
+         * Proporción de lecturas resueltas desde la caché (0 a 1).
+         */
+        public double getTasaAciertos() {
+            long lecturas = aciertos + fallos;
+            return lecturas == 0 ? 0 : (double) aciertos / lecturas;
+        }
+
+        @Override
+        public String toString() {
+            return "Cache[entradas=" + tamano + "/" + tamanoMaximo + ", aciertos=" + aciertos
+                    + ", fallos=" + fallos + ", tasaAciertos=" + String.format("%.1f%%", getTasaAciertos() * 100)
+                    + ", expiradas=" + expiradas + ", desalojadas=" + desalojadas
+                    + ", invalidaciones=" + invalidaciones + "]";
+        }
+    }
+}
@@ -1,21 +1,130 @@
 package util;
 
+import java.nio.file.Paths;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 
 public class ConexionMySQL {
-    private static final String URL = "jdbc:mysql://localhost:3306/travel_agency_g8";
+    // useServerPrepStmts: las sentencias guardadas en la caché del pool quedan preparadas en el servidor
+    // rewriteBatchedStatements: executeBatch envía los INSERT de un lote como una sola sentencia multi-fila
+    private static final String URL = "jdbc:mysql://localhost:3306/travel_agency_g8?useServerPrepStmts=true&rewriteBatchedStatements=true";
     //private static final String URL = "jdbc:mysql://localhost:3306/test_agency_g8";
     private static final String USER = "";
     private static final String PASSWORD = "";
+    
+    // Modo de base de datos: "mysql" (servidor) o "embebido" (H2 en memoria, sin servidor): -Ddb.modo=embebido
+    private static final String MODO = System.getProperty("db.modo", "mysql");
+    private static final String NOMBRE_BASE_EMBEBIDA = "travel_agency_g8";
 
+    // Configuración del pool (se puede ajustar con -Ddb.pool.minimo=..., etc.)
+    private static final int POOL_MINIMO = Integer.getInteger("db.pool.minimo", 2);
+    private static final int POOL_MAXIMO = Integer.getInteger("db.pool.maximo", 10);
+    private static final long POOL_INACTIVIDAD_MS = Long.getLong("db.pool.inactividadMs", 300_000L);
+    private static final long POOL_ESPERA_MS = Long.getLong("db.pool.esperaMs", 10_000L);
+    // Detección de fugas desactivada por defecto: guarda la pila de cada préstamo, útil solo al diagnosticar
+    private static final long POOL_FUGA_MS = Long.getLong("db.pool.fugaMs", 0L);
+    private static final int POOL_CACHE_SENTENCIAS = Integer.getInteger("db.pool.cacheSentencias", 32);
+
+    // Métricas de latencia por método DAO y por sentencia (JMX + volcado periódico al log).
+    // Desactivadas por defecto: identificar el método DAO recorre la pila en cada préstamo
+    private static final boolean METRICAS = Boolean.getBoolean("db.metricas");
+    private static final long METRICAS_INTERVALO_MS = Long.getLong("db.metricas.intervaloMs", 60_000L);
+    private static final MetricasConsultas MEDICIONES = new MetricasConsultas();
+
+    // Registro de consultas lentas (umbral negativo = desactivado)
+    private static final long LENTAS_UMBRAL_MS = Long.getLong("db.lentas.umbralMs", 500L);
+    private static final String LENTAS_ARCHIVO = System.getProperty("db.lentas.archivo", "logs/consultas-lentas.log");
+    private static final long LENTAS_TAMANO_MAXIMO = Long.getLong("db.lentas.tamanoMaximoBytes", 10_485_760L);
+    private static final int LENTAS_ARCHIVOS = Integer.getInteger("db.lentas.archivos", 5);
+    private static RegistroConsultasLentas consultasLentas;
+
+    // Con Connector/J, Integer.MIN_VALUE hace que el ResultSet se lea del servidor fila por fila
+    public static final int TAMANO_FETCH_STREAMING = Integer.MIN_VALUE;
+    
+    /**
+     * Indica si la aplicación usa la base embebida en lugar del servidor MySQL.
+     */
+    public static boolean esModoEmbebido() {
+        return "embebido".equalsIgnoreCase(MODO);
+    }
+
+    private static volatile PoolConexiones pool;
+
+    /**
+     * Obtiene una conexión del pool. Al cerrarla vuelve al pool para ser reutilizada.
+     */
     public static Connection getConnection() throws SQLException {
-        try {
-            Class.forName("com.mysql.cj.jdbc.Driver");
-            return DriverManager.getConnection(URL, USER, PASSWORD);
-        } catch (ClassNotFoundException e) {
-            throw new SQLException("MySQL JDBC Driver not found", e);
+        return obtenerPool().obtenerConexion();
+    }
+
+    /**
+     * Estadísticas actuales del pool de conexiones.
+     */
+    public static PoolConexiones.Estadisticas obtenerEstadisticasPool() throws SQLException {
+        return obtenerPool().obtenerEstadisticas();
+    }
+
+    /**
+     * Métricas de latencia y rendimiento de las consultas, también publicadas por JMX
+     * como proyecto_g8:type=MetricasConsultas.
+     */
+    public static MetricasConsultas obtenerMetricas() {
+        return MEDICIONES;
+    }
+
+    /**
+     * Cierra el pool y todas sus conexiones inactivas.
+     */
+    public static synchronized void cerrarPool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+        if (consultasLentas != null) {
+            consultasLentas.close();
+            consultasLentas = null;
+        }
+    }
+
+    private static PoolConexiones obtenerPool() throws SQLException {
+        PoolConexiones actual = pool;
+        if (actual == null) {
+            synchronized (ConexionMySQL.class) {
+                actual = pool;
+                if (actual == null) {
+                    PoolConexiones.FabricaConexiones fabrica;
+                    if (esModoEmbebido()) {
+                        String urlEmbebida = BaseDatosEmbebida.url(NOMBRE_BASE_EMBEBIDA);
+                        try (Connection conn = DriverManager.getConnection(urlEmbebida)) {
+                            BaseDatosEmbebida.crearEsquema(conn);
+                        }
+                        fabrica = () -> DriverManager.getConnection(urlEmbebida);
+                    } else {
+                        try {
+                            Class.forName("com.mysql.cj.jdbc.Driver");
+                        } catch (ClassNotFoundException e) {
+                            throw new SQLException("MySQL JDBC Driver not found", e);
+                        }
+                        fabrica = () -> DriverManager.getConnection(URL, USER, PASSWORD);
+                    }
+                    actual = new PoolConexiones(fabrica,
+                            POOL_MINIMO, POOL_MAXIMO, POOL_INACTIVIDAD_MS, POOL_ESPERA_MS, POOL_FUGA_MS,
+                            POOL_CACHE_SENTENCIAS);
+                    if (METRICAS) {
+                        actual.usarMetricas(MEDICIONES);
+                        MEDICIONES.registrarEnJmx();
+                        MEDICIONES.iniciarVolcadoPeriodico(METRICAS_INTERVALO_MS);
+                    }
+                    if (LENTAS_UMBRAL_MS >= 0) {
+                        consultasLentas = new RegistroConsultasLentas(LENTAS_UMBRAL_MS, Paths.get(LENTAS_ARCHIVO),
+                                LENTAS_TAMANO_MAXIMO, LENTAS_ARCHIVOS);
+                        actual.usarRegistroConsultasLentas(consultasLentas);
+                    }
+                    pool = actual;
+                }
+            }
         }
+        return actual;
     }
 }
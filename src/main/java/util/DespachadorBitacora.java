@@ -0,0 +1,188 @@
+package util;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * Búfer circular de eventos de la bitácora con varios productores y un único consumidor.
+ * Los eventos se guardan en ranuras preasignadas: quien registra solo reserva una ranura con
+ * un CAS y copia las referencias, sin bloquearse ni formatear texto. Un hilo propio formatea
+ * los eventos y los escribe en la salida. Si el búfer está lleno el evento se descarta y se cuenta.
+ */
+final class DespachadorBitacora {
+
+    // Espera del consumidor cuando no hay eventos; la latencia de escritura no es crítica
+    private static final long ESPERA_NANOS = TimeUnit.MILLISECONDS.toNanos(2);
+
+    private final Ranura[] ranuras;
+    private final int mascara;
+    private final AtomicLong reservadas = new AtomicLong();
+    private final AtomicLong consumidas = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final Salida salida;
+    private final Thread consumidor;
+    private volatile boolean detenido;
+
+    /**
+     * Destino de los eventos ya formateados. Solo lo usa el hilo consumidor.
+     */
+    interface Salida {
+        void escribir(CharSequence linea) throws IOException;
+
+        void vaciar() throws IOException;
+    }
+
+    /**
+     * @param capacidad cantidad de ranuras; se redondea a la siguiente potencia de dos
+     */
+    DespachadorBitacora(int capacidad, Salida salida) {
+        int tamano = Integer.highestOneBit(Math.max(2, capacidad - 1)) << 1;
+        this.ranuras = new Ranura[tamano];
+        for (int i = 0; i < tamano; i++) {
+            ranuras[i] = new Ranura(i - tamano);
+        }
+        this.mascara = tamano - 1;
+        this.salida = salida;
+        this.consumidor = new Thread(this::consumir, "bitacora-escritor");
+        consumidor.setDaemon(true);
+        consumidor.start();
+    }
+
+    /**
+     * Publica un evento. Nunca bloquea: si no hay lugar, el evento se descarta.
+     */
+    void publicar(long momento, Bitacora.Nivel nivel, String origen, String mensaje, Object[] campos,
+                  Throwable error) {
+        long secuencia;
+        do {
+            secuencia = reservadas.get();
+            if (secuencia - consumidas.get() >= ranuras.length) {
+                descartados.incrementAndGet();
+                return;
+            }
+        } while (!reservadas.compareAndSet(secuencia, secuencia + 1));
+
+        Ranura ranura = ranuras[(int) (secuencia & mascara)];
+        ranura.momento = momento;
+        ranura.nivel = nivel;
+        ranura.hilo = Thread.currentThread().getName();
+        ranura.origen = origen;
+        ranura.mensaje = mensaje;
+        ranura.campos = campos;
+        ranura.error = error;
+        ranura.publicada = secuencia; // Escritura volátil: publica los campos anteriores
+    }
+
+    long getDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Espera (hasta el tiempo indicado) a que se escriban todos los eventos publicados hasta ahora.
+     */
+    boolean esperarVaciado(long tiempoMaximoMs) {
+        long objetivo = reservadas.get();
+        long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(tiempoMaximoMs);
+        while (consumidas.get() < objetivo) {
+            if (System.nanoTime() > limite || !consumidor.isAlive()) {
+                return false;
+            }
+            LockSupport.parkNanos(ESPERA_NANOS / 2);
+        }
+        return true;
+    }
+
+    /**
+     * Escribe los eventos pendientes y detiene el hilo consumidor.
+     */
+    void detener(long tiempoMaximoMs) {
+        esperarVaciado(tiempoMaximoMs);
+        detenido = true;
+        LockSupport.unpark(consumidor);
+        try {
+            consumidor.join(tiempoMaximoMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void consumir() {
+        StringBuilder linea = new StringBuilder(256);
+        long siguiente = 0;
+        while (true) {
+            Ranura ranura = ranuras[(int) (siguiente & mascara)];
+            if (ranura.publicada != siguiente) {
+                vaciarSalida();
+                if (detenido) {
+                    return;
+                }
+                LockSupport.parkNanos(ESPERA_NANOS);
+                continue;
+            }
+            linea.setLength(0);
+            ranura.formatear(linea);
+            ranura.limpiar();
+            consumidas.lazySet(++siguiente);
+            try {
+                salida.escribir(linea);
+            } catch (IOException | RuntimeException e) {
+                // La bitácora no puede registrar sus propios errores; se descarta el evento
+                descartados.incrementAndGet();
+            }
+        }
+    }
+
+    private void vaciarSalida() {
+        try {
+            salida.vaciar();
+        } catch (IOException e) {
+            // Se reintentará en el próximo vaciado
+        }
+    }
+
+    /**
+     * Salida que escribe en un Consumer, útil para pruebas.
+     */
+    static Salida hacia(Consumer<String> destino) {
+        return new Salida() {
+            @Override
+            public void escribir(CharSequence linea) {
+                destino.accept(linea.toString());
+            }
+
+            @Override
+            public void vaciar() {
+            }
+        };
+    }
+
+    private static final class Ranura {
+        volatile long publicada;
+        long momento;
+        Bitacora.Nivel nivel;
+        String hilo;
+        String origen;
+        String mensaje;
+        Object[] campos;
+        Throwable error;
+
+        Ranura(long publicadaInicial) {
+            this.publicada = publicadaInicial;
+        }
+
+        void formatear(StringBuilder linea) {
+            Bitacora.formatear(linea, momento, nivel, hilo, origen, mensaje, campos, error);
+        }
+
+        void limpiar() {
+            hilo = null;
+            origen = null;
+            mensaje = null;
+            campos = null;
+            error = null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Operaciones con montos de dinero representados como centavos en un long.
+ *
+ * Los montos se guardan en la base como DECIMAL(10,2) y en memoria como la cantidad exacta de
+ * centavos, así que las sumas de muchos montos no acumulan errores de redondeo y no crean objetos
+ * (a diferencia de double y de BigDecimal). Las conversiones a double quedan solo para mostrar
+ * valores o para el código que todavía los usa; los redondeos son siempre al centavo más cercano,
+ * con las mitades alejándose de cero.
+ */
+public final class Dinero {
+
+    public static final long CENTAVOS_POR_UNIDAD = 100;
+
+    /** Mayor monto que admite una columna DECIMAL(10,2): 99999999.99 */
+    public static final long MAXIMO_DECIMAL_10_2 = 9_999_999_999L;
+
+    private Dinero() {
+    }
+
+    /**
+     * Centavos de un monto expresado como double. Es exacto para montos con hasta dos decimales.
+     */
+    public static long deDouble(double monto) {
+        if (Double.isNaN(monto) || Double.isInfinite(monto)) {
+            throw new IllegalArgumentException("El monto no es un número finito: " + monto);
+        }
+        return Math.round(monto * CENTAVOS_POR_UNIDAD);
+    }
+
+    public static double aDouble(long centavos) {
+        return (double) centavos / CENTAVOS_POR_UNIDAD;
+    }
+
+    /**
+     * Centavos de un valor DECIMAL leído de la base (null se toma como cero).
+     */
+    public static long deDecimal(BigDecimal monto) {
+        return monto == null ? 0 : monto.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    /**
+     * Valor con dos decimales para guardar en una columna DECIMAL.
+     */
+    public static BigDecimal aDecimal(long centavos) {
+        return BigDecimal.valueOf(centavos, 2);
+    }
+
+    /**
+     * Convierte un texto como "150", "150.5" o "-150.50" en centavos, sin pasar por double.
+     * @throws NumberFormatException si el texto no es un número con hasta dos decimales o no cabe en un long
+     */
+    public static long parsear(String texto) {
+        if (texto == null) {
+            throw new NumberFormatException("El monto es nulo");
+        }
+        String monto = texto.trim();
+        int inicio = monto.startsWith("-") ? 1 : 0;
+        int punto = monto.indexOf('.');
+        int finEnteros = punto < 0 ? monto.length() : punto;
+        int decimales = punto < 0 ? 0 : monto.length() - punto - 1;
+        if (finEnteros == inicio || decimales > 2 || (punto >= 0 && decimales == 0)) {
+            throw new NumberFormatException("Monto no válido: " + texto);
+        }
+        try {
+            long centavos = 0;
+            for (int i = inicio; i < monto.length(); i++) {
+                if (i == punto) {
+                    continue;
+                }
+                char c = monto.charAt(i);
+                if (c < '0' || c > '9') {
+                    throw new NumberFormatException("Monto no válido: " + texto);
+                }
+                centavos = Math.addExact(Math.multiplyExact(centavos, 10), c - '0');
+            }
+            for (int i = decimales; i < 2; i++) {
+                centavos = Math.multiplyExact(centavos, 10);
+            }
+            return inicio == 1 ? -centavos : centavos;
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Monto demasiado grande: " + texto);
+        }
+    }
+
+    /**
+     * Texto con dos decimales y punto decimal, por ejemplo "1234.50".
+     */
+    public static String formatear(long centavos) {
+        long absoluto = Math.abs(centavos);
+        long decimales = absoluto % CENTAVOS_POR_UNIDAD;
+        return (centavos < 0 ? "-" : "") + absoluto / CENTAVOS_POR_UNIDAD + (decimales < 10 ? ".0" : ".") + decimales;
+    }
+
+    /**
+     * Multiplica el monto por numerador/denominador redondeando al centavo, por ejemplo
+     * multiplicar(subtotal, 112, 100) para sumar un 12% de impuesto.
+     * @throws ArithmeticException si el resultado intermedio no cabe en un long
+     */
+    public static long multiplicar(long centavos, long numerador, long denominador) {
+        if (denominador <= 0) {
+            throw new IllegalArgumentException("El denominador debe ser positivo");
+        }
+        long producto = Math.multiplyExact(centavos, numerador);
+        long cociente = producto / denominador;
+        long resto = producto % denominador;
+        if (Math.abs(resto) * 2 >= denominador) {
+            cociente += Long.signum(producto);
+        }
+        return cociente;
+    }
+}
@@ -0,0 +1,96 @@
+package util;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ejecutor acotado para las versiones asíncronas de los controladores.
+ * Tiene un número fijo de hilos y una cola de tamaño limitado: si la cola se llena, la tarea
+ * no se encola sino que el CompletableFuture devuelto falla con RejectedExecutionException,
+ * para que una ráfaga de pedidos no acumule memoria ni espere indefinidamente por el pool.
+ *
+ * El ejecutor compartido se configura con -Dasync.hilos (por defecto el máximo del pool de
+ * conexiones, db.pool.maximo) y -Dasync.cola (1000 tareas en espera). No tiene sentido usar
+ * más hilos que conexiones: los restantes solo esperarían una conexión libre.
+ */
+public final class EjecutorAsincrono {
+
+    private static final Bitacora LOG = Bitacora.obtener(EjecutorAsincrono.class);
+    private static volatile EjecutorAsincrono compartido;
+
+    private final ThreadPoolExecutor ejecutor;
+
+    /**
+     * @param hilos          hilos que ejecutan tareas a la vez
+     * @param capacidadCola  tareas que pueden esperar un hilo libre
+     * @param nombre         prefijo del nombre de los hilos
+     */
+    public EjecutorAsincrono(int hilos, int capacidadCola, String nombre) {
+        AtomicInteger contador = new AtomicInteger();
+        ThreadFactory fabrica = tarea -> {
+            Thread hilo = new Thread(tarea, nombre + "-" + contador.incrementAndGet());
+            hilo.setDaemon(true);
+            return hilo;
+        };
+        this.ejecutor = new ThreadPoolExecutor(hilos, hilos, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(capacidadCola), fabrica, new ThreadPoolExecutor.AbortPolicy());
+        // Los hilos inactivos se liberan; se vuelven a crear con la siguiente tarea
+        ejecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Ejecutor compartido por los controladores; se crea con el primer uso.
+     */
+    public static EjecutorAsincrono compartido() {
+        if (compartido == null) {
+            synchronized (EjecutorAsincrono.class) {
+                if (compartido == null) {
+                    int hilos = Integer.getInteger("async.hilos", Integer.getInteger("db.pool.maximo", 10));
+                    int cola = Integer.getInteger("async.cola", 1000);
+                    compartido = new EjecutorAsincrono(hilos, cola, "controlador-async");
+                    LOG.info("Ejecutor asíncrono creado", "hilos", hilos, "cola", cola);
+                }
+            }
+        }
+        return compartido;
+    }
+
+    /**
+     * Ejecuta la operación en un hilo del ejecutor. Las excepciones de la operación (por ejemplo,
+     * las IllegalArgumentException de validación) completan el futuro excepcionalmente.
+     */
+    public <T> CompletableFuture<T> ejecutar(Supplier<T> operacion) {
+        try {
+            return CompletableFuture.supplyAsync(operacion, ejecutor);
+        } catch (RejectedExecutionException e) {
+            LOG.advertencia("Tarea asíncrona rechazada: cola llena", "enCola", ejecutor.getQueue().size(),
+                    "activos", ejecutor.getActiveCount());
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Tareas esperando un hilo libre.
+     */
+    public int getTareasEnCola() {
+        return ejecutor.getQueue().size();
+    }
+
+    /**
+     * Deja de aceptar tareas y espera hasta el tiempo indicado a que terminen las pendientes.
+     */
+    public void detener(long tiempoMaximoMs) {
+        ejecutor.shutdown();
+        try {
+            ejecutor.awaitTermination(tiempoMaximoMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
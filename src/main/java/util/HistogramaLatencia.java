@@ -0,0 +1,97 @@
+package util;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histograma de latencias con cubetas log-lineales (al estilo de HdrHistogram): cada potencia
+ * de dos se divide en 16 cubetas iguales, por lo que cualquier percentil se obtiene con un error
+ * relativo menor al 6.25% usando memoria fija (menos de 5 KB) sin importar cuántos valores se registren.
+ * Los valores se guardan en microsegundos. Es seguro para registrar desde varios hilos.
+ */
+public class HistogramaLatencia {
+
+    private static final int BITS_SUBCUBETA = 4;
+    private static final int SUBCUBETAS = 1 << BITS_SUBCUBETA; // 16
+    private static final int EXPONENTE_MAXIMO = 36; // 2^40 µs: unos 12 días
+    private static final int CUBETAS = SUBCUBETAS * (EXPONENTE_MAXIMO + 2);
+
+    private final AtomicLongArray conteos = new AtomicLongArray(CUBETAS);
+    private final LongAdder cantidad = new LongAdder();
+    private final LongAdder sumaMicros = new LongAdder();
+    private final AtomicLong maximoMicros = new AtomicLong();
+
+    /**
+     * Registra una duración medida con System.nanoTime().
+     */
+    public void registrarNanos(long nanos) {
+        registrarMicros(Math.max(0, nanos / 1000));
+    }
+
+    public void registrarMicros(long micros) {
+        conteos.incrementAndGet(indice(micros));
+        cantidad.increment();
+        sumaMicros.add(micros);
+        maximoMicros.accumulateAndGet(micros, Math::max);
+    }
+
+    public long getCantidad() {
+        return cantidad.sum();
+    }
+
+    public long getMaximoMicros() {
+        return maximoMicros.get();
+    }
+
+    public long getPromedioMicros() {
+        long total = cantidad.sum();
+        return total == 0 ? 0 : sumaMicros.sum() / total;
+    }
+
+    /**
+     * Valor por debajo del cual está el porcentaje indicado de las mediciones (por ejemplo 99.9).
+     * Devuelve el límite superior de la cubeta, sin superar el máximo registrado.
+     */
+    public long percentilMicros(double percentil) {
+        long total = 0;
+        long[] copia = new long[CUBETAS];
+        for (int i = 0; i < CUBETAS; i++) {
+            copia[i] = conteos.get(i);
+            total += copia[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long objetivo = Math.max(1, (long) Math.ceil(percentil / 100.0 * total));
+        long acumulado = 0;
+        for (int i = 0; i < CUBETAS; i++) {
+            acumulado += copia[i];
+            if (acumulado >= objetivo) {
+                return Math.min(limiteSuperior(i), maximoMicros.get());
+            }
+        }
+        return maximoMicros.get();
+    }
+
+    static int indice(long micros) {
+        if (micros < 2 * SUBCUBETAS) {
+            return (int) micros;
+        }
+        int exponente = 63 - Long.numberOfLeadingZeros(micros) - BITS_SUBCUBETA;
+        if (exponente > EXPONENTE_MAXIMO) {
+            return CUBETAS - 1;
+        }
+        int mantisa = (int) (micros >>> exponente); // Entre 16 y 31
+        return SUBCUBETAS * (exponente + 1) + (mantisa - SUBCUBETAS);
+    }
+
+    static long limiteSuperior(int indice) {
+        if (indice < 2 * SUBCUBETAS) {
+            return indice;
+        }
+        int exponente = indice / SUBCUBETAS - 1;
+        long mantisa = indice % SUBCUBETAS + SUBCUBETAS;
+        return ((mantisa + 1) << exponente) - 1;
+    }
+}
@@ -0,0 +1,222 @@
+package util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Registro de métricas de acceso a datos: cantidad de llamadas, errores y percentiles de latencia
+ * (p50/p99/p999), tanto por método que usa la conexión (por ejemplo, ReservaDAO.listarReservas)
+ * como por sentencia SQL. Lo alimenta el pool de conexiones; se consulta por JMX y se puede
+ * volcar periódicamente a la bitácora.
+ */
+public class MetricasConsultas implements MetricasConsultasMXBean {
+
+    // Límite de nombres distintos, para que un SQL armado con literales no haga crecer el registro sin fin
+    private static final int MAXIMO_NOMBRES = 500;
+    private static final String OTRAS = "(otras)";
+    private static final Bitacora LOG = Bitacora.obtener(MetricasConsultas.class);
+    private static final StackWalker PILA = StackWalker.getInstance();
+    private static final String[] CLASES_INFRAESTRUCTURA = {
+        "util.MetricasConsultas", "util.PoolConexiones", "util.ConexionMySQL", "modelo.CursorStreaming"
+    };
+
+    private final Map<String, Metrica> operaciones = new ConcurrentHashMap<>();
+    private final Map<String, Metrica> sentencias = new ConcurrentHashMap<>();
+    private ScheduledExecutorService volcado;
+    private ObjectName nombreJmx;
+    private long llamadasUltimoVolcado;
+
+    /**
+     * Registra la ejecución de una sentencia SQL.
+     */
+    public void registrarSentencia(String sql, long nanos, boolean error) {
+        obtener(sentencias, sql).registrar(nanos, error);
+    }
+
+    /**
+     * Registra una operación completa: desde que se pidió la conexión hasta que se devolvió.
+     */
+    public void registrarOperacion(String operacion, long nanos, boolean error) {
+        obtener(operaciones, operacion).registrar(nanos, error);
+    }
+
+    /**
+     * Identifica el método que está pidiendo o usando la conexión: el primer método de la pila que
+     * no es parte de la infraestructura de conexión (pool, proxies, getConnection, cursores).
+     */
+    public static String identificarOperacion() {
+        return PILA.walk(marcos -> marcos
+                .filter(marco -> !esInfraestructura(marco))
+                .findFirst()
+                .map(marco -> {
+                    String clase = marco.getClassName();
+                    return clase.substring(clase.lastIndexOf('.') + 1) + "." + marco.getMethodName();
+                })
+                .orElse("(desconocida)"));
+    }
+
+    private static boolean esInfraestructura(StackWalker.StackFrame marco) {
+        String clase = marco.getClassName();
+        if ("getConnection".equals(marco.getMethodName())) {
+            return true;
+        }
+        for (String infraestructura : CLASES_INFRAESTRUCTURA) {
+            if (clase.equals(infraestructura) || clase.startsWith(infraestructura + "$")) {
+                return true;
+            }
+        }
+        return clase.startsWith("java.") || clase.startsWith("jdk.") || clase.startsWith("sun.")
+                || clase.startsWith("com.sun.");
+    }
+
+    /**
+     * Publica las métricas como MXBean en el servidor JMX de la plataforma.
+     */
+    public synchronized void registrarEnJmx() {
+        if (nombreJmx != null) {
+            return;
+        }
+        try {
+            ObjectName nombre = new ObjectName("proyecto_g8:type=MetricasConsultas");
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            if (!servidor.isRegistered(nombre)) {
+                servidor.registerMBean(this, nombre);
+                nombreJmx = nombre;
+            }
+        } catch (JMException e) {
+            LOG.error("No se pudieron publicar las métricas por JMX", e);
+        }
+    }
+
+    /**
+     * Escribe el resumen de métricas cada cierto tiempo, solo si hubo llamadas nuevas.
+     */
+    public synchronized void iniciarVolcadoPeriodico(long intervaloMs) {
+        if (volcado != null || intervaloMs <= 0) {
+            return;
+        }
+        volcado = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "metricas-consultas-volcado");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        volcado.scheduleAtFixedRate(() -> {
+            long llamadas = totalLlamadas();
+            if (llamadas != llamadasUltimoVolcado) {
+                llamadasUltimoVolcado = llamadas;
+                LOG.info(volcar());
+            }
+        }, intervaloMs, intervaloMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Detiene el volcado periódico y retira el MXBean.
+     */
+    public synchronized void detener() {
+        if (volcado != null) {
+            volcado.shutdownNow();
+            volcado = null;
+        }
+        if (nombreJmx != null) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(nombreJmx);
+            } catch (JMException e) {
+                LOG.error("No se pudieron retirar las métricas de JMX", e);
+            }
+            nombreJmx = null;
+        }
+    }
+
+    @Override
+    public List<ResumenMetrica> getOperaciones() {
+        return resumir(operaciones);
+    }
+
+    @Override
+    public List<ResumenMetrica> getSentencias() {
+        return resumir(sentencias);
+    }
+
+    @Override
+    public void reiniciar() {
+        operaciones.clear();
+        sentencias.clear();
+    }
+
+    @Override
+    public String volcar() {
+        StringBuilder texto = new StringBuilder("Métricas de acceso a datos (tiempos en microsegundos)\n");
+        texto.append("Operaciones:\n");
+        for (ResumenMetrica resumen : getOperaciones()) {
+            texto.append("  ").append(resumen).append('\n');
+        }
+        texto.append("Sentencias SQL:\n");
+        for (ResumenMetrica resumen : getSentencias()) {
+            texto.append("  ").append(resumen).append('\n');
+        }
+        return texto.toString();
+    }
+
+    private long totalLlamadas() {
+        long total = 0;
+        for (Metrica metrica : operaciones.values()) {
+            total += metrica.llamadas.sum();
+        }
+        return total;
+    }
+
+    private static Metrica obtener(Map<String, Metrica> metricas, String nombre) {
+        Metrica metrica = metricas.get(nombre);
+        if (metrica != null) {
+            return metrica;
+        }
+        if (metricas.size() >= MAXIMO_NOMBRES) {
+            nombre = OTRAS;
+        }
+        return metricas.computeIfAbsent(nombre, n -> new Metrica());
+    }
+
+    /**
+     * Resúmenes ordenados por tiempo total (llamadas x promedio), de mayor a menor.
+     */
+    private static List<ResumenMetrica> resumir(Map<String, Metrica> metricas) {
+        List<ResumenMetrica> resumenes = new ArrayList<>();
+        for (Map.Entry<String, Metrica> entrada : metricas.entrySet()) {
+            resumenes.add(entrada.getValue().resumir(entrada.getKey()));
+        }
+        resumenes.sort(Comparator.comparingLong(
+                (ResumenMetrica r) -> r.getLlamadas() * r.getPromedioMicros()).reversed());
+        return resumenes;
+    }
+
+    private static final class Metrica {
+        final LongAdder llamadas = new LongAdder();
+        final LongAdder errores = new LongAdder();
+        final HistogramaLatencia latencias = new HistogramaLatencia();
+
+        void registrar(long nanos, boolean error) {
+            llamadas.increment();
+            if (error) {
+                errores.increment();
+            }
+            latencias.registrarNanos(nanos);
+        }
+
+        ResumenMetrica resumir(String nombre) {
+            return new ResumenMetrica(nombre, llamadas.sum(), errores.sum(), latencias.getPromedioMicros(),
+                    latencias.percentilMicros(50), latencias.percentilMicros(99),
+                    latencias.percentilMicros(99.9), latencias.getMaximoMicros());
+        }
+    }
+}
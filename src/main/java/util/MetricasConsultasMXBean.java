@@ -0,0 +1,30 @@
+package util;
+
+import java.util.List;
+
+/**
+ * Interfaz JMX de las métricas de acceso a datos (visible en JConsole o VisualVM
+ * como proyecto_g8:type=MetricasConsultas).
+ */
+public interface MetricasConsultasMXBean {
+
+    /**
+     * Métricas por método de acceso a datos (por ejemplo, ClienteDAO.consultarCliente).
+     */
+    List<ResumenMetrica> getOperaciones();
+
+    /**
+     * Métricas por sentencia SQL.
+     */
+    List<ResumenMetrica> getSentencias();
+
+    /**
+     * Descarta todas las mediciones acumuladas.
+     */
+    void reiniciar();
+
+    /**
+     * Resumen en texto de las métricas, el mismo que se escribe periódicamente en el log.
+     */
+    String volcar();
+}
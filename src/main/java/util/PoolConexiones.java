@@ -0,0 +1,861 @@
+package util;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool acotado de conexiones JDBC.
+ * Reutiliza las conexiones físicas en lugar de abrir una sesión nueva por cada operación CRUD.
+ * Incluye tamaño mínimo y máximo, expulsión de conexiones inactivas, validación al prestar,
+ * tiempo máximo de espera y detección de fugas (conexiones que no se devuelven).
+ * Cada conexión física guarda además una caché LRU de sentencias preparadas por texto SQL,
+ * de modo que las consultas frecuentes no vuelven a prepararse en el servidor.
+ * Opcionalmente mide cada préstamo y cada sentencia ejecutada (ver {@link MetricasConsultas})
+ * y registra las sentencias lentas con sus parámetros (ver {@link RegistroConsultasLentas}).
+ */
+public class PoolConexiones implements AutoCloseable {
+
+    /**
+     * Crea conexiones físicas nuevas para el pool.
+     */
+    @FunctionalInterface
+    public interface FabricaConexiones {
+        Connection crear() throws SQLException;
+    }
+
+    private static final Bitacora LOG = Bitacora.obtener(PoolConexiones.class);
+
+    // Solo se valida con un ping si la conexión estuvo inactiva más de este tiempo
+    private static final long UMBRAL_VALIDACION_MS = 500;
+    private static final int TIMEOUT_VALIDACION_SEGUNDOS = 2;
+
+    private final FabricaConexiones fabrica;
+    private final int tamanoMinimo;
+    private final int tamanoMaximo;
+    private final long tiempoMaximoInactivoMs;
+    private final long tiempoEsperaMs;
+    private final long umbralFugaMs;
+    private final int tamanoCacheSentencias;
+
+    private final LinkedBlockingDeque<ConexionFisica> libres = new LinkedBlockingDeque<>();
+    private final Set<ConexionPrestada> prestadas = ConcurrentHashMap.newKeySet();
+    private final Semaphore permisos;
+    private final AtomicInteger totalConexiones = new AtomicInteger();
+    private final ScheduledExecutorService mantenimiento;
+    private volatile boolean cerrado;
+    private volatile MetricasConsultas metricas;
+    private volatile RegistroConsultasLentas consultasLentas;
+
+    // Estadísticas
+    private final AtomicLong prestamos = new AtomicLong();
+    private final AtomicLong creadas = new AtomicLong();
+    private final AtomicLong destruidas = new AtomicLong();
+    private final AtomicLong esperasAgotadas = new AtomicLong();
+    private final AtomicLong validacionesFallidas = new AtomicLong();
+    private final AtomicLong fugasDetectadas = new AtomicLong();
+    private final AtomicLong tiempoEsperaTotalNanos = new AtomicLong();
+    private final AtomicLong aciertosCacheSentencias = new AtomicLong();
+    private final AtomicLong fallosCacheSentencias = new AtomicLong();
+
+    /**
+     * @param fabrica crea las conexiones físicas
+     * @param tamanoMinimo conexiones que se mantienen abiertas aunque estén inactivas
+     * @param tamanoMaximo máximo de conexiones abiertas al mismo tiempo
+     * @param tiempoMaximoInactivoMs tiempo tras el cual se cierra una conexión inactiva sobrante
+     * @param tiempoEsperaMs tiempo máximo de espera para obtener una conexión
+     * @param umbralFugaMs tiempo prestada tras el cual se reporta una posible fuga (0 = desactivado);
+     *        si está activa, cada préstamo guarda la pila de llamadas para indicar dónde se obtuvo
+     * @param tamanoCacheSentencias sentencias preparadas guardadas por conexión (0 = sin caché)
+     */
+    public PoolConexiones(FabricaConexiones fabrica, int tamanoMinimo, int tamanoMaximo,
+                          long tiempoMaximoInactivoMs, long tiempoEsperaMs, long umbralFugaMs,
+                          int tamanoCacheSentencias) {
+        if (tamanoMaximo < 1 || tamanoMinimo < 0 || tamanoMinimo > tamanoMaximo) {
+            throw new IllegalArgumentException("Tamaños de pool inválidos: mínimo " + tamanoMinimo
+                    + ", máximo " + tamanoMaximo);
+        }
+        this.fabrica = fabrica;
+        this.tamanoMinimo = tamanoMinimo;
+        this.tamanoMaximo = tamanoMaximo;
+        this.tiempoMaximoInactivoMs = tiempoMaximoInactivoMs;
+        this.tiempoEsperaMs = tiempoEsperaMs;
+        this.umbralFugaMs = umbralFugaMs;
+        this.tamanoCacheSentencias = tamanoCacheSentencias;
+        this.permisos = new Semaphore(tamanoMaximo, true);
+
+        this.mantenimiento = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread hilo = new Thread(r, "pool-conexiones-mantenimiento");
+            hilo.setDaemon(true);
+            return hilo;
+        });
+        long periodo = Math.max(1000, Math.min(tiempoMaximoInactivoMs, umbralFugaMs > 0 ? umbralFugaMs : Long.MAX_VALUE) / 2);
+        mantenimiento.scheduleWithFixedDelay(this::mantener, periodo, periodo, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Activa la medición de latencias: desde ahora cada préstamo se registra como una operación
+     * del método que pidió la conexión y cada ejecución de sentencia bajo su texto SQL.
+     * Con null se desactiva.
+     */
+    public void usarMetricas(MetricasConsultas metricas) {
+        this.metricas = metricas;
+    }
+
+    /**
+     * Activa el registro de consultas lentas para las conexiones que se presten desde ahora.
+     * Con null se desactiva.
+     */
+    public void usarRegistroConsultasLentas(RegistroConsultasLentas consultasLentas) {
+        this.consultasLentas = consultasLentas;
+    }
+
+    /**
+     * Presta una conexión del pool. Al llamar a close() sobre la conexión devuelta,
+     * ésta regresa al pool en lugar de cerrarse.
+     * @throws SQLException si no hay conexión disponible dentro del tiempo de espera
+     */
+    public Connection obtenerConexion() throws SQLException {
+        if (cerrado) {
+            throw new SQLException("El pool de conexiones está cerrado");
+        }
+
+        long inicio = System.nanoTime();
+        try {
+            if (!permisos.tryAcquire(tiempoEsperaMs, TimeUnit.MILLISECONDS)) {
+                esperasAgotadas.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado (" + tiempoEsperaMs
+                        + " ms) al obtener una conexión del pool. " + obtenerEstadisticas());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrumpido mientras se esperaba una conexión del pool", e);
+        }
+
+        try {
+            ConexionFisica fisica = tomarLibreValida();
+            if (fisica == null) {
+                fisica = crearOEsperar(inicio);
+            }
+            tiempoEsperaTotalNanos.addAndGet(System.nanoTime() - inicio);
+            prestamos.incrementAndGet();
+            return prestar(fisica, inicio);
+        } catch (SQLException | RuntimeException e) {
+            permisos.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Obtiene una instantánea de las estadísticas del pool para dimensionarlo.
+     */
+    public Estadisticas obtenerEstadisticas() {
+        int activas = prestadas.size();
+        int inactivas = libres.size();
+        long totalPrestamos = prestamos.get();
+        return new Estadisticas(activas, inactivas, totalConexiones.get(), permisos.getQueueLength(),
+                tamanoMinimo, tamanoMaximo, totalPrestamos, creadas.get(), destruidas.get(),
+                esperasAgotadas.get(), validacionesFallidas.get(), fugasDetectadas.get(),
+                totalPrestamos == 0 ? 0 : tiempoEsperaTotalNanos.get() / totalPrestamos / 1000,
+                aciertosCacheSentencias.get(), fallosCacheSentencias.get());
+    }
+
+    /**
+     * Cierra todas las conexiones inactivas y las que se devuelvan a partir de ahora.
+     */
+    @Override
+    public void close() {
+        cerrado = true;
+        mantenimiento.shutdownNow();
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            destruir(fisica);
+        }
+    }
+
+    private ConexionFisica tomarLibreValida() {
+        ConexionFisica fisica;
+        while ((fisica = libres.pollFirst()) != null) {
+            if (esValida(fisica)) {
+                return fisica;
+            }
+            validacionesFallidas.incrementAndGet();
+            destruir(fisica);
+        }
+        return null;
+    }
+
+    private ConexionFisica crearOEsperar(long inicio) throws SQLException {
+        while (true) {
+            int actual = totalConexiones.get();
+            if (actual < tamanoMaximo) {
+                if (totalConexiones.compareAndSet(actual, actual + 1)) {
+                    return crear();
+                }
+                continue;
+            }
+            // El pool está lleno pero hay permiso: una conexión está por devolverse al pool
+            long restanteMs = tiempoEsperaMs - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+            ConexionFisica fisica;
+            try {
+                fisica = libres.pollFirst(Math.max(restanteMs, 0), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrumpido mientras se esperaba una conexión del pool", e);
+            }
+            if (fisica == null) {
+                esperasAgotadas.incrementAndGet();
+                throw new SQLException("Tiempo de espera agotado al obtener una conexión del pool");
+            }
+            if (esValida(fisica)) {
+                return fisica;
+            }
+            validacionesFallidas.incrementAndGet();
+            destruir(fisica);
+        }
+    }
+
+    /**
+     * Crea una conexión física. El llamador ya reservó su lugar en totalConexiones.
+     */
+    private ConexionFisica crear() throws SQLException {
+        try {
+            ConexionFisica fisica = new ConexionFisica(fabrica.crear(), tamanoCacheSentencias);
+            creadas.incrementAndGet();
+            return fisica;
+        } catch (SQLException | RuntimeException e) {
+            totalConexiones.decrementAndGet();
+            throw e;
+        }
+    }
+
+    private boolean esValida(ConexionFisica fisica) {
+        if (System.currentTimeMillis() - fisica.ultimoUso < UMBRAL_VALIDACION_MS) {
+            return true;
+        }
+        try {
+            return fisica.conexion.isValid(TIMEOUT_VALIDACION_SEGUNDOS);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    private void destruir(ConexionFisica fisica) {
+        totalConexiones.decrementAndGet();
+        destruidas.incrementAndGet();
+        fisica.sentencias.cerrarTodas();
+        try {
+            fisica.conexion.close();
+        } catch (SQLException e) {
+            // La conexión ya no sirve; no hay nada más que hacer
+        }
+    }
+
+    private Connection prestar(ConexionFisica fisica, long inicioNanos) {
+        ConexionPrestada prestada = new ConexionPrestada(fisica,
+                umbralFugaMs > 0 ? new Throwable("Conexión obtenida aquí") : null,
+                metricas, consultasLentas, inicioNanos);
+        prestadas.add(prestada);
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(), new Class<?>[] {Connection.class}, prestada);
+    }
+
+    /**
+     * Devuelve la conexión física al pool, dejándola en un estado limpio.
+     */
+    private void devolver(ConexionPrestada prestada) {
+        prestadas.remove(prestada);
+        if (prestada.metricas != null) {
+            prestada.metricas.registrarOperacion(prestada.operacion,
+                    System.nanoTime() - prestada.inicioNanos, prestada.huboError);
+        }
+        ConexionFisica fisica = prestada.fisica;
+        try {
+            boolean reutilizable = !cerrado && !fisica.conexion.isClosed();
+            if (reutilizable && !fisica.conexion.getAutoCommit()) {
+                fisica.conexion.rollback();
+                fisica.conexion.setAutoCommit(true);
+            }
+            if (reutilizable) {
+                fisica.ultimoUso = System.currentTimeMillis();
+                libres.offerFirst(fisica);
+            } else {
+                destruir(fisica);
+            }
+        } catch (SQLException e) {
+            destruir(fisica);
+        } finally {
+            permisos.release();
+        }
+    }
+
+    /**
+     * Tarea periódica: reporta fugas, cierra conexiones inactivas sobrantes y completa el mínimo.
+     */
+    private void mantener() {
+        long ahora = System.currentTimeMillis();
+
+        if (umbralFugaMs > 0) {
+            for (ConexionPrestada prestada : prestadas) {
+                if (!prestada.fugaReportada && ahora - prestada.momentoPrestamo > umbralFugaMs) {
+                    prestada.fugaReportada = true;
+                    fugasDetectadas.incrementAndGet();
+                    LOG.advertencia("Posible fuga de conexión: prestada sin devolverse", prestada.origen,
+                            "prestadaMs", ahora - prestada.momentoPrestamo, "operacion", prestada.operacion);
+                }
+            }
+        }
+
+        // Las más antiguas quedan al final de la cola
+        Iterator<ConexionFisica> it = libres.descendingIterator();
+        while (it.hasNext() && totalConexiones.get() > tamanoMinimo) {
+            ConexionFisica fisica = it.next();
+            if (ahora - fisica.ultimoUso > tiempoMaximoInactivoMs && libres.remove(fisica)) {
+                destruir(fisica);
+            }
+        }
+
+        while (!cerrado) {
+            int actual = totalConexiones.get();
+            if (actual >= tamanoMinimo) {
+                break;
+            }
+            if (totalConexiones.compareAndSet(actual, actual + 1)) {
+                try {
+                    libres.offerLast(crear());
+                } catch (SQLException | RuntimeException e) {
+                    // Una excepción sin atrapar cancelaría las siguientes ejecuciones del mantenimiento
+                    LOG.advertencia("No se pudo crear una conexión para mantener el mínimo del pool", e,
+                            "minimo", tamanoMinimo, "total", totalConexiones.get());
+                    break; // Se reintentará en la siguiente ejecución
+                }
+            }
+        }
+    }
+
+    /**
+     * Conexión física junto con el momento en que se usó por última vez.
+     */
+    private static final class ConexionFisica {
+        final Connection conexion;
+        final CacheSentencias sentencias;
+        volatile long ultimoUso = System.currentTimeMillis();
+
+        ConexionFisica(Connection conexion, int tamanoCacheSentencias) {
+            this.conexion = conexion;
+            this.sentencias = new CacheSentencias(tamanoCacheSentencias);
+        }
+    }
+
+    /**
+     * Caché LRU de sentencias preparadas de una conexión física, indexada por texto SQL.
+     * Solo la usa el hilo que tiene prestada la conexión, por lo que no necesita sincronización.
+     */
+    private static final class CacheSentencias extends LinkedHashMap<String, SentenciaCacheada> {
+        private static final long serialVersionUID = 1L;
+
+        private final int capacidad;
+
+        CacheSentencias(int capacidad) {
+            super(16, 0.75f, true);
+            this.capacidad = capacidad;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SentenciaCacheada> mayor) {
+            if (size() <= capacidad) {
+                return false;
+            }
+            // Si la sentencia expulsada sigue en uso se cerrará al devolverla
+            SentenciaCacheada expulsada = mayor.getValue();
+            expulsada.expulsada = true;
+            if (!expulsada.enUso) {
+                expulsada.cerrarFisica();
+            }
+            return true;
+        }
+
+        void cerrarTodas() {
+            for (SentenciaCacheada sentencia : new ArrayList<>(values())) {
+                sentencia.cerrarFisica();
+            }
+            clear();
+        }
+    }
+
+    /**
+     * Vista lógica de una sentencia preparada guardada en caché. close() limpia los
+     * parámetros y el resultado abierto pero mantiene la sentencia preparada en el servidor.
+     */
+    private static final class SentenciaCacheada implements InvocationHandler {
+        final PreparedStatement sentencia;
+        final int tamanoFetchOriginal;
+        PreparedStatement proxy;
+        boolean enUso;
+        boolean expulsada;
+
+        SentenciaCacheada(PreparedStatement sentencia) throws SQLException {
+            this.sentencia = sentencia;
+            this.tamanoFetchOriginal = sentencia.getFetchSize();
+        }
+
+        PreparedStatement prestar() {
+            enUso = true;
+            if (proxy == null) {
+                proxy = (PreparedStatement) Proxy.newProxyInstance(
+                        PreparedStatement.class.getClassLoader(),
+                        new Class<?>[] {PreparedStatement.class}, this);
+            }
+            return proxy;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (enUso) {
+                        enUso = false;
+                        liberar();
+                    }
+                    return null;
+                case "isClosed":
+                    return !enUso || sentencia.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SentenciaCacheada[" + sentencia + "]";
+                default:
+                    break;
+            }
+            if (!enUso) {
+                throw new SQLException("La sentencia ya fue cerrada");
+            }
+            try {
+                return method.invoke(sentencia, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        private void liberar() throws SQLException {
+            if (expulsada) {
+                cerrarFisica();
+                return;
+            }
+            try {
+                ResultSet abierto = sentencia.getResultSet();
+                if (abierto != null) {
+                    abierto.close();
+                }
+                sentencia.clearParameters();
+                if (sentencia.getFetchSize() != tamanoFetchOriginal) {
+                    sentencia.setFetchSize(tamanoFetchOriginal);
+                }
+            } catch (SQLException e) {
+                expulsada = true;
+                cerrarFisica();
+                throw e;
+            }
+        }
+
+        void cerrarFisica() {
+            try {
+                sentencia.close();
+            } catch (SQLException e) {
+                // La sentencia ya no se usará
+            }
+        }
+    }
+
+    /**
+     * Vista lógica de una conexión prestada. close() la devuelve al pool una sola vez
+     * y cualquier uso posterior falla como en una conexión cerrada.
+     */
+    private final class ConexionPrestada implements InvocationHandler {
+        final ConexionFisica fisica;
+        final Throwable origen;
+        final long momentoPrestamo = System.currentTimeMillis();
+        final MetricasConsultas metricas;
+        final RegistroConsultasLentas consultasLentas;
+        volatile String operacion;
+        final long inicioNanos;
+        volatile boolean fugaReportada;
+        volatile boolean huboError;
+        private boolean devuelta;
+
+        ConexionPrestada(ConexionFisica fisica, Throwable origen, MetricasConsultas metricas,
+                         RegistroConsultasLentas consultasLentas, long inicioNanos) {
+            this.fisica = fisica;
+            this.origen = origen;
+            this.metricas = metricas;
+            this.consultasLentas = consultasLentas;
+            // Recorrer la pila en cada préstamo solo se justifica si se miden las operaciones;
+            // para el registro de consultas lentas se identifica recién cuando una sentencia es lenta
+            this.operacion = metricas != null ? MetricasConsultas.identificarOperacion() : null;
+            this.inicioNanos = inicioNanos;
+        }
+
+        /**
+         * Método que pidió la conexión; si no se identificó al prestarla, se identifica ahora desde
+         * la pila del hilo que la está usando.
+         */
+        String getOperacion() {
+            if (operacion == null) {
+                operacion = MetricasConsultas.identificarOperacion();
+            }
+            return operacion;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    synchronized (this) {
+                        if (!devuelta) {
+                            devuelta = true;
+                            devolver(this);
+                        }
+                    }
+                    return null;
+                case "isClosed":
+                    return devuelta || fisica.conexion.isClosed();
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "ConexionPool[" + fisica.conexion + "]";
+                default:
+                    break;
+            }
+            if (devuelta) {
+                throw new SQLException("La conexión ya fue devuelta al pool");
+            }
+            Object resultado;
+            if (tamanoCacheSentencias > 0 && "prepareStatement".equals(method.getName())
+                    && args.length == 1) {
+                resultado = prepararConCache((String) args[0], fisica);
+            } else {
+                try {
+                    resultado = method.invoke(fisica.conexion, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+            if ((metricas != null || consultasLentas != null) && resultado instanceof Statement) {
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return SentenciaMedida.envolver((Statement) resultado, method.getReturnType(), sql, this);
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Envoltura de una sentencia que mide cada ejecución y la registra bajo su texto SQL.
+     * En un Statement simple el SQL es el argumento de execute*; en las preparadas, el de prepare*.
+     * Si el registro de consultas lentas está activo guarda además los parámetros asignados y,
+     * en las consultas, cuenta las filas leídas: el tiempo de una consulta incluye el de next().
+     */
+    private static final class SentenciaMedida implements InvocationHandler {
+        final Statement sentencia;
+        final String sql;
+        final ConexionPrestada prestada;
+        final Map<Integer, Object> parametros;
+        ResultadoMedido abierto;
+
+        private SentenciaMedida(Statement sentencia, String sql, ConexionPrestada prestada) {
+            this.sentencia = sentencia;
+            this.sql = sql;
+            this.prestada = prestada;
+            this.parametros = prestada.consultasLentas != null && sql != null ? new TreeMap<>() : null;
+        }
+
+        static Statement envolver(Statement sentencia, Class<?> tipo, String sql, ConexionPrestada prestada) {
+            return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(),
+                    new Class<?>[] {tipo}, new SentenciaMedida(sentencia, sql, prestada));
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String nombre = method.getName();
+            switch (nombre) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "SentenciaMedida[" + sentencia + "]";
+                case "close":
+                    terminarConsultaAbierta();
+                    break;
+                case "clearParameters":
+                    if (parametros != null) {
+                        congelarParametrosAbierta();
+                        parametros.clear();
+                    }
+                    break;
+                default:
+                    if (parametros != null && nombre.startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer) {
+                        congelarParametrosAbierta();
+                        parametros.put((Integer) args[0], "setNull".equals(nombre) ? null : args[1]);
+                    }
+                    break;
+            }
+            if (!nombre.startsWith("execute")) {
+                try {
+                    return method.invoke(sentencia, args);
+                } catch (InvocationTargetException e) {
+                    throw e.getTargetException();
+                }
+            }
+
+            terminarConsultaAbierta();
+            String texto = sql;
+            if (texto == null) {
+                texto = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : "(lote)";
+            }
+            long inicio = System.nanoTime();
+            Object resultado;
+            try {
+                resultado = method.invoke(sentencia, args);
+            } catch (InvocationTargetException e) {
+                prestada.huboError = true;
+                if (prestada.metricas != null) {
+                    prestada.metricas.registrarSentencia(texto, System.nanoTime() - inicio, true);
+                }
+                throw e.getTargetException();
+            }
+            long nanos = System.nanoTime() - inicio;
+            if (prestada.metricas != null) {
+                prestada.metricas.registrarSentencia(texto, nanos, false);
+            }
+            if (prestada.consultasLentas != null) {
+                // Los parámetros se copian solo si la sentencia resulta lenta
+                if (resultado instanceof ResultSet) {
+                    abierto = new ResultadoMedido((ResultSet) resultado, texto, parametros, nanos, prestada);
+                    return abierto.proxy;
+                }
+                registrarSiEsLenta(prestada, texto, parametros, filasAfectadas(resultado), nanos);
+            }
+            return resultado;
+        }
+
+        private void terminarConsultaAbierta() {
+            if (abierto != null) {
+                abierto.terminar();
+                abierto = null;
+            }
+        }
+
+        // Si se cambian los parámetros mientras la consulta anterior sigue abierta, esa consulta
+        // conserva una copia de los parámetros con los que se ejecutó
+        private void congelarParametrosAbierta() {
+            if (abierto != null && abierto.parametros == parametros) {
+                abierto.parametros = new TreeMap<>(parametros);
+            }
+        }
+
+        private static long filasAfectadas(Object resultado) {
+            if (resultado instanceof Integer || resultado instanceof Long) {
+                return ((Number) resultado).longValue();
+            }
+            if (resultado instanceof int[]) {
+                long total = 0;
+                for (int filas : (int[]) resultado) {
+                    total += Math.max(filas, 0);
+                }
+                return total;
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Envoltura del ResultSet de una consulta que cuenta las filas leídas y el tiempo pasado en next().
+     * Al cerrarse (o al cerrarse o reutilizarse su sentencia) decide si la consulta fue lenta.
+     */
+    private static final class ResultadoMedido implements InvocationHandler {
+        final ResultSet resultado;
+        final String sql;
+        Map<Integer, Object> parametros; // Los de la sentencia, hasta que esta los cambie
+        final ConexionPrestada prestada;
+        final ResultSet proxy;
+        long nanos;
+        long filas;
+        boolean terminado;
+
+        ResultadoMedido(ResultSet resultado, String sql, Map<Integer, Object> parametros, long nanosEjecucion,
+                        ConexionPrestada prestada) {
+            this.resultado = resultado;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.nanos = nanosEjecucion;
+            this.prestada = prestada;
+            this.proxy = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                    new Class<?>[] {ResultSet.class}, this);
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "next": {
+                    long inicio = System.nanoTime();
+                    try {
+                        boolean hayFila = resultado.next();
+                        if (hayFila) {
+                            filas++;
+                        }
+                        return hayFila;
+                    } catch (SQLException e) {
+                        prestada.huboError = true;
+                        throw e;
+                    } finally {
+                        nanos += System.nanoTime() - inicio;
+                    }
+                }
+                case "close":
+                    terminar();
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(resultado, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+
+        void terminar() {
+            if (!terminado) {
+                terminado = true;
+                registrarSiEsLenta(prestada, sql, parametros, filas, nanos);
+            }
+        }
+    }
+
+    private static void registrarSiEsLenta(ConexionPrestada prestada, String sql, Map<Integer, Object> parametros,
+                                           long filas, long nanos) {
+        if (prestada.consultasLentas.superaUmbral(nanos)) {
+            prestada.consultasLentas.registrar(sql, parametros != null ? new TreeMap<>(parametros) : null,
+                    filas, nanos, prestada.getOperacion());
+        }
+    }
+
+    /**
+     * Devuelve la sentencia guardada para el SQL o la prepara y la guarda.
+     * Si la sentencia ya está en uso (consultas anidadas con el mismo SQL) se prepara una aparte.
+     */
+    private PreparedStatement prepararConCache(String sql, ConexionFisica fisica) throws SQLException {
+        SentenciaCacheada cacheada = fisica.sentencias.get(sql);
+        if (cacheada != null && !cacheada.enUso) {
+            aciertosCacheSentencias.incrementAndGet();
+            return cacheada.prestar();
+        }
+        fallosCacheSentencias.incrementAndGet();
+        PreparedStatement nueva = fisica.conexion.prepareStatement(sql);
+        if (cacheada != null) {
+            return nueva;
+        }
+        SentenciaCacheada sentencia = new SentenciaCacheada(nueva);
+        fisica.sentencias.put(sql, sentencia);
+        return sentencia.prestar();
+    }
+
+    /**
+     * Instantánea inmutable de las estadísticas del pool.
+     */
+    public static final class Estadisticas {
+        private final int activas;
+        private final int inactivas;
+        private final int total;
+        private final int hilosEsperando;
+        private final int tamanoMinimo;
+        private final int tamanoMaximo;
+        private final long prestamos;
+        private final long creadas;
+        private final long destruidas;
+        private final long esperasAgotadas;
+        private final long validacionesFallidas;
+        private final long fugasDetectadas;
+        private final long esperaPromedioMicros;
+        private final long aciertosCacheSentencias;
+        private final long fallosCacheSentencias;
+
+        Estadisticas(int activas, int inactivas, int total, int hilosEsperando, int tamanoMinimo,
+                     int tamanoMaximo, long prestamos, long creadas, long destruidas,
+                     long esperasAgotadas, long validacionesFallidas, long fugasDetectadas,
+                     long esperaPromedioMicros, long aciertosCacheSentencias,
+                     long fallosCacheSentencias) {
+            this.activas = activas;
+            this.inactivas = inactivas;
+            this.total = total;
+            this.hilosEsperando = hilosEsperando;
+            this.tamanoMinimo = tamanoMinimo;
+            this.tamanoMaximo = tamanoMaximo;
+            this.prestamos = prestamos;
+            this.creadas = creadas;
+            this.destruidas = destruidas;
+            this.esperasAgotadas = esperasAgotadas;
+            this.validacionesFallidas = validacionesFallidas;
+            this.fugasDetectadas = fugasDetectadas;
+            this.esperaPromedioMicros = esperaPromedioMicros;
+            this.aciertosCacheSentencias = aciertosCacheSentencias;
+            this.fallosCacheSentencias = fallosCacheSentencias;
+        }
+
+        public int getActivas() { return activas; }
+        public int getInactivas() { return inactivas; }
+        public int getTotal() { return total; }
+        public int getHilosEsperando() { return hilosEsperando; }
+        public int getTamanoMinimo() { return tamanoMinimo; }
+        public int getTamanoMaximo() { return tamanoMaximo; }
+        public long getPrestamos() { return prestamos; }
+        public long getCreadas() { return creadas; }
+        public long getDestruidas() { return destruidas; }
+        public long getEsperasAgotadas() { return esperasAgotadas; }
+        public long getValidacionesFallidas() { return validacionesFallidas; }
+        public long getFugasDetectadas() { return fugasDetectadas; }
+        public long getEsperaPromedioMicros() { return esperaPromedioMicros; }
+        public long getAciertosCacheSentencias() { return aciertosCacheSentencias; }
+        public long getFallosCacheSentencias() { return fallosCacheSentencias; }
+
+        @Override
+        public String toString() {
+            return "Pool[activas=" + activas + ", inactivas=" + inactivas + ", total=" + total
+                    + "/" + tamanoMaximo + ", esperando=" + hilosEsperando + ", prestamos=" + prestamos
+                    + ", creadas=" + creadas + ", destruidas=" + destruidas
+                    + ", esperasAgotadas=" + esperasAgotadas + ", validacionesFallidas=" + validacionesFallidas
+                    + ", fugas=" + fugasDetectadas + ", esperaPromedio=" + esperaPromedioMicros + "us"
+                    + ", cacheSentencias=" + aciertosCacheSentencias + "/"
+                    + (aciertosCacheSentencias + fallosCacheSentencias) + "]";
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package util;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Registro de consultas lentas: cada sentencia que supera el umbral se escribe con su SQL,
+ * sus parámetros (con DNI y email enmascarados), las filas afectadas o leídas, el tiempo y el
+ * método del controlador que la originó. La escritura la hace un hilo propio sobre un archivo
+ * rotativo, por lo que quien ejecuta la consulta solo encola la entrada; si la cola está
+ * llena, la entrada se descarta y se cuenta.
+ */
+public class RegistroConsultasLentas implements AutoCloseable {
+
+    private static final int CAPACIDAD_COLA = 1024;
+    private static final int MAXIMO_SQL_ANALIZADOS = 500;
+    private static final Set<String> COLUMNAS_SENSIBLES = Set.of("dni", "email");
+    private static final Pattern INSERT = Pattern.compile(
+            "(?is)\\s*INSERT\\s+INTO\\s+[\\w.`]+\\s*\\(([^)]*)\\)\\s*VALUES\\s*\\(([^)]*)\\).*");
+    private static final Bitacora LOG = Bitacora.obtener(RegistroConsultasLentas.class);
+    private static final StackWalker PILA = StackWalker.getInstance();
+    private static final Entrada FIN = new Entrada(0, null, null, 0, 0, null, null);
+
+    private final long umbralNanos;
+    private final Path archivo;
+    private final long tamanoMaximoBytes;
+    private final int archivosConservados;
+    private final BlockingQueue<Entrada> cola = new ArrayBlockingQueue<>(CAPACIDAD_COLA);
+    private final Map<String, String[]> columnasPorSql = new ConcurrentHashMap<>();
+    private final AtomicLong registradas = new AtomicLong();
+    private final AtomicLong descartadas = new AtomicLong();
+    private final Thread escritor;
+    private volatile boolean cerrado;
+
+    private BufferedWriter salida;
+    private long tamanoActual;
+
+    /**
+     * @param umbralMs tiempo a partir del cual una sentencia se considera lenta
+     * @param archivo archivo de registro; al llenarse se renombra a archivo.1, archivo.2, ...
+     * @param tamanoMaximoBytes tamaño a partir del cual se rota el archivo
+     * @param archivosConservados cantidad de archivos rotados que se conservan
+     */
+    public RegistroConsultasLentas(long umbralMs, Path archivo, long tamanoMaximoBytes, int archivosConservados) {
+        this.umbralNanos = TimeUnit.MILLISECONDS.toNanos(umbralMs);
+        this.archivo = archivo;
+        this.tamanoMaximoBytes = tamanoMaximoBytes;
+        this.archivosConservados = archivosConservados;
+        this.escritor = new Thread(this::escribirPendientes, "consultas-lentas-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Indica si una sentencia que tardó el tiempo dado debe registrarse.
+     */
+    public boolean superaUmbral(long nanos) {
+        return nanos >= umbralNanos;
+    }
+
+    /**
+     * Encola una consulta lenta. Debe llamarse desde el hilo que ejecutó la consulta,
+     * para poder identificar el método del controlador que la originó.
+     * @param parametros parámetros por posición; se enmascaran al escribir
+     * @param filas filas leídas o afectadas (-1 si no se conocen)
+     * @param operacion método que pidió la conexión (por ejemplo ClienteDAO.consultarCliente)
+     */
+    public void registrar(String sql, Map<Integer, Object> parametros, long filas, long nanos, String operacion) {
+        if (cerrado) {
+            return;
+        }
+        Entrada entrada = new Entrada(System.currentTimeMillis(), sql, parametros, filas, nanos,
+                identificarControlador(), operacion);
+        if (cola.offer(entrada)) {
+            registradas.incrementAndGet();
+        } else {
+            descartadas.incrementAndGet();
+        }
+    }
+
+    public long getRegistradas() {
+        return registradas.get();
+    }
+
+    public long getDescartadas() {
+        return descartadas.get();
+    }
+
+    /**
+     * Escribe las entradas pendientes y detiene el hilo escritor.
+     */
+    @Override
+    public void close() {
+        if (cerrado) {
+            return;
+        }
+        cerrado = true;
+        try {
+            if (cola.offer(FIN, 5, TimeUnit.SECONDS)) {
+                escritor.join(TimeUnit.SECONDS.toMillis(5));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static String identificarControlador() {
+        return PILA.walk(marcos -> marcos
+                .filter(marco -> marco.getClassName().startsWith("controlador."))
+                .findFirst()
+                .map(marco -> marco.getClassName().substring("controlador.".length()) + "." + marco.getMethodName())
+                .orElse("-"));
+    }
+
+    private void escribirPendientes() {
+        while (true) {
+            Entrada entrada;
+            try {
+                entrada = cola.take();
+            } catch (InterruptedException e) {
+                cerrarArchivo();
+                return;
+            }
+            try {
+                while (entrada != null) {
+                    if (entrada == FIN) {
+                        cerrarArchivo();
+                        return;
+                    }
+                    escribir(entrada);
+                    entrada = cola.poll();
+                }
+                if (salida != null) {
+                    salida.flush();
+                }
+            } catch (IOException e) {
+                // Se descarta lo que no se pudo escribir y se reabre el archivo con la próxima entrada
+                LOG.error("Error al escribir el registro de consultas lentas", e, "archivo", archivo);
+                cerrarArchivo();
+            }
+        }
+    }
+
+    private void escribir(Entrada entrada) throws IOException {
+        if (salida == null) {
+            Path carpeta = archivo.toAbsolutePath().getParent();
+            if (carpeta != null) {
+                Files.createDirectories(carpeta);
+            }
+            salida = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            tamanoActual = Files.size(archivo);
+        }
+        String linea = formatear(entrada) + System.lineSeparator();
+        salida.write(linea);
+        tamanoActual += linea.getBytes(StandardCharsets.UTF_8).length;
+        if (tamanoActual >= tamanoMaximoBytes) {
+            rotar();
+        }
+    }
+
+    private void rotar() throws IOException {
+        cerrarArchivo();
+        String nombre = archivo.getFileName().toString();
+        Files.deleteIfExists(archivo.resolveSibling(nombre + "." + archivosConservados));
+        for (int i = archivosConservados - 1; i >= 1; i--) {
+            Path origen = archivo.resolveSibling(nombre + "." + i);
+            if (Files.exists(origen)) {
+                Files.move(origen, archivo.resolveSibling(nombre + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        if (archivosConservados > 0) {
+            Files.move(archivo, archivo.resolveSibling(nombre + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        } else {
+            Files.delete(archivo);
+        }
+    }
+
+    private void cerrarArchivo() {
+        if (salida != null) {
+            try {
+                salida.close();
+            } catch (IOException e) {
+                LOG.error("Error al cerrar el registro de consultas lentas", e, "archivo", archivo);
+            }
+            salida = null;
+        }
+    }
+
+    private String formatear(Entrada entrada) {
+        StringBuilder linea = new StringBuilder();
+        linea.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(entrada.momento)))
+             .append(" | ").append(String.format(Locale.ROOT, "%.1f ms", entrada.nanos / 1_000_000.0))
+             .append(" | filas=").append(entrada.filas)
+             .append(" | ").append(entrada.controlador)
+             .append(" | ").append(entrada.operacion)
+             .append(" | ").append(entrada.sql.replaceAll("\\s+", " ").trim());
+        if (entrada.parametros != null && !entrada.parametros.isEmpty()) {
+            String[] columnas = columnasPorSql.get(entrada.sql);
+            if (columnas == null) {
+                columnas = columnasDeParametros(entrada.sql);
+                if (columnasPorSql.size() < MAXIMO_SQL_ANALIZADOS) {
+                    columnasPorSql.put(entrada.sql, columnas);
+                }
+            }
+            linea.append(" | [");
+            boolean primero = true;
+            for (Map.Entry<Integer, Object> parametro : entrada.parametros.entrySet()) {
+                int indice = parametro.getKey();
+                String columna = indice >= 1 && indice <= columnas.length ? columnas[indice - 1] : null;
+                linea.append(primero ? "" : ", ").append(indice).append('=')
+                     .append(enmascarar(columna, parametro.getValue()));
+                primero = false;
+            }
+            linea.append(']');
+        }
+        return linea.toString();
+    }
+
+    /**
+     * Representa el valor de un parámetro para el registro, enmascarando los datos personales:
+     * las columnas dni y email, y cualquier texto que parezca un email.
+     */
+    static String enmascarar(String columna, Object valor) {
+        if (valor == null) {
+            return "NULL";
+        }
+        if (!(valor instanceof CharSequence)) {
+            return valor instanceof Date ? "'" + valor + "'" : String.valueOf(valor);
+        }
+        String texto = valor.toString();
+        boolean sensible = columna != null && COLUMNAS_SENSIBLES.contains(columna.toLowerCase(Locale.ROOT));
+        if (texto.indexOf('@') >= 0) {
+            int arroba = texto.indexOf('@');
+            return "'" + (arroba > 0 ? texto.charAt(0) : "") + "***" + texto.substring(arroba) + "'";
+        }
+        if (sensible) {
+            int visibles = Math.min(3, texto.length() / 3);
+            return "'" + "*".repeat(texto.length() - visibles) + texto.substring(texto.length() - visibles) + "'";
+        }
+        return "'" + texto + "'";
+    }
+
+    /**
+     * Deduce a qué columna corresponde cada parámetro (?) de la sentencia: en un INSERT por la lista
+     * de columnas y en el resto por la columna que precede al operador de comparación
+     * (columna = ?, columna LIKE ?, ...). Las posiciones que no se pueden deducir quedan en null.
+     */
+    static String[] columnasDeParametros(String sql) {
+        int cantidad = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            if (sql.charAt(i) == '?') {
+                cantidad++;
+            }
+        }
+        String[] columnas = new String[cantidad];
+        int indice = 0;
+        int desde = 0;
+
+        Matcher insert = INSERT.matcher(sql);
+        if (insert.matches()) {
+            String[] nombres = insert.group(1).split(",");
+            String[] valores = insert.group(2).split(",");
+            for (int i = 0; i < valores.length && indice < cantidad; i++) {
+                if ("?".equals(valores[i].trim())) {
+                    columnas[indice++] = i < nombres.length ? limpiarColumna(nombres[i]) : null;
+                }
+            }
+            desde = insert.end(2);
+        }
+
+        for (int i = desde; i < sql.length() && indice < cantidad; i++) {
+            if (sql.charAt(i) == '?') {
+                columnas[indice++] = columnaAntesDe(sql, i);
+            }
+        }
+        return columnas;
+    }
+
+    private static String columnaAntesDe(String sql, int posicion) {
+        int i = posicion - 1;
+        while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+            i--;
+        }
+        int finOperador = i;
+        while (i >= 0 && "=<>!".indexOf(sql.charAt(i)) >= 0) {
+            i--;
+        }
+        if (i == finOperador && i >= 3 && sql.regionMatches(true, i - 3, "LIKE", 0, 4)) {
+            i -= 4;
+        } else if (i == finOperador) {
+            return null;
+        }
+        while (i >= 0 && Character.isWhitespace(sql.charAt(i))) {
+            i--;
+        }
+        int fin = i + 1;
+        while (i >= 0 && (Character.isLetterOrDigit(sql.charAt(i)) || "_.`".indexOf(sql.charAt(i)) >= 0)) {
+            i--;
+        }
+        return fin > i + 1 ? limpiarColumna(sql.substring(i + 1, fin)) : null;
+    }
+
+    private static String limpiarColumna(String columna) {
+        String limpia = columna.trim().replace("`", "");
+        return limpia.substring(limpia.lastIndexOf('.') + 1);
+    }
+
+    private static final class Entrada {
+        final long momento;
+        final String sql;
+        final Map<Integer, Object> parametros;
+        final long filas;
+        final long nanos;
+        final String controlador;
+        final String operacion;
+
+        Entrada(long momento, String sql, Map<Integer, Object> parametros, long filas, long nanos,
+                String controlador, String operacion) {
+            this.momento = momento;
+            this.sql = sql;
+            this.parametros = parametros;
+            this.filas = filas;
+            this.nanos = nanos;
+            this.controlador = controlador;
+            this.operacion = operacion;
+        }
+    }
+}
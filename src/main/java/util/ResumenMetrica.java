@@ -0,0 +1,47 @@
+package util;
+
+import javax.management.ConstructorParameters;
+
+/**
+ * Instantánea de las métricas de una operación o sentencia SQL. Los tiempos están en microsegundos.
+ */
+public class ResumenMetrica {
+    private final String nombre;
+    private final long llamadas;
+    private final long errores;
+    private final long promedioMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maximoMicros;
+
+    @ConstructorParameters({"nombre", "llamadas", "errores", "promedioMicros", "p50Micros", "p99Micros",
+            "p999Micros", "maximoMicros"})
+    public ResumenMetrica(String nombre, long llamadas, long errores, long promedioMicros, long p50Micros,
+                          long p99Micros, long p999Micros, long maximoMicros) {
+        this.nombre = nombre;
+        this.llamadas = llamadas;
+        this.errores = errores;
+        this.promedioMicros = promedioMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maximoMicros = maximoMicros;
+    }
+
+    public String getNombre() { return nombre; }
+    public long getLlamadas() { return llamadas; }
+    public long getErrores() { return errores; }
+    public long getPromedioMicros() { return promedioMicros; }
+    public long getP50Micros() { return p50Micros; }
+    public long getP99Micros() { return p99Micros; }
+    public long getP999Micros() { return p999Micros; }
+    public long getMaximoMicros() { return maximoMicros; }
+
+    @Override
+    public String toString() {
+        return nombre + " llamadas=" + llamadas + " errores=" + errores + " prom=" + promedioMicros
+                + "us p50=" + p50Micros + "us p99=" + p99Micros + "us p999=" + p999Micros
+                + "us max=" + maximoMicros + "us";
+    }
+}
@@ -23,6 +23,7 @@ public class ValidacionReserva {
         MENSAJES_ERROR.put("fecha_viaje", "La fecha de viaje no puede ser anterior a la fecha de reserva.");
         MENSAJES_ERROR.put("precio", "El precio debe ser un número válido con máximo 2 decimales.");
         MENSAJES_ERROR.put("precio_negativo", "El precio debe ser mayor a 0.");
+        MENSAJES_ERROR.put("precio_maximo", "El precio no puede superar " + Dinero.formatear(Dinero.MAXIMO_DECIMAL_10_2) + ".");
         
         // Mensajes de ayuda
         MENSAJES_AYUDA.put("destino", "Ingrese el destino usando solo letras, espacios, puntos y comas");
@@ -79,6 +80,13 @@ public class ValidacionReserva {
      * Valida que el precio sea un número válido con máximo 2 decimales
      */
     public static void validarPrecio(String precio) throws IllegalArgumentException {
+        convertirPrecio(precio);
+    }
+    
+    /**
+     * Valida el precio y lo devuelve en centavos (ver {@link Dinero}), sin pasar por double
+     */
+    public static long convertirPrecio(String precio) throws IllegalArgumentException {
         if (precio == null || precio.trim().isEmpty()) {
             throw new IllegalArgumentException("El precio es obligatorio.");
         }
@@ -87,16 +95,38 @@ public class ValidacionReserva {
             throw new IllegalArgumentException(MENSAJES_ERROR.get("precio"));
         }
         
+        long centavos;
         try {
-            double precioNumerico = Double.parseDouble(precio.trim());
-            if (precioNumerico <= 0) {
-                throw new IllegalArgumentException(MENSAJES_ERROR.get("precio_negativo"));
-            }
+            centavos = Dinero.parsear(precio);
         } catch (NumberFormatException e) {
-            throw new IllegalArgumentException(MENSAJES_ERROR.get("precio"));
+            throw new IllegalArgumentException(MENSAJES_ERROR.get("precio_maximo"));
+        }
+        validarPrecio(centavos);
+        return centavos;
+    }
+    
+    /**
+     * Valida un precio ya expresado en centavos (ver {@link Dinero})
+     */
+    public static void validarPrecio(long precioCentavos) throws IllegalArgumentException {
+        if (precioCentavos <= 0) {
+            throw new IllegalArgumentException(MENSAJES_ERROR.get("precio_negativo"));
+        }
+        if (precioCentavos > Dinero.MAXIMO_DECIMAL_10_2) {
+            throw new IllegalArgumentException(MENSAJES_ERROR.get("precio_maximo"));
         }
     }
     
+    /**
+     * Validación completa de una reserva con el precio en centavos, por ejemplo en las cargas por lotes
+     */
+    public static void validarReserva(String destino, Date fechaReserva, Date fechaViaje, long precioCentavos)
+            throws IllegalArgumentException {
+        validarDestino(destino);
+        validarFechaViaje(fechaReserva, fechaViaje);
+        validarPrecio(precioCentavos);
+    }
+    
     /**
      * Validación completa de una reserva
      */
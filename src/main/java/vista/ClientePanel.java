@@ -55,6 +55,7 @@ public class ClientePanel extends javax.swing.JPanel {
     private JButton btnEditar;
     private JButton btnEliminar;
     private JScrollPane scrollPane;
+    private TareasSegundoPlano tareas; // Ejecuta las consultas fuera del EDT
 
     public ClientePanel() {
         this(null); // Constructor por defecto para compatibilidad
@@ -64,6 +65,7 @@ public class ClientePanel extends javax.swing.JPanel {
         super();
         this.mainView = mainView;
         clienteController = new ClienteController();
+        tareas = new TareasSegundoPlano(this);
         initComponents();
         cargarClientes();
     }
@@ -133,6 +135,7 @@ public class ClientePanel extends javax.swing.JPanel {
         panelBotones.add(btnAgregar);
         panelBotones.add(btnEditar);
         panelBotones.add(btnEliminar);
+        panelBotones.add(tareas.getIndicador());
         
         // Agregar componentes al panel principal
         add(scrollPane, BorderLayout.CENTER);
@@ -150,29 +153,33 @@ public class ClientePanel extends javax.swing.JPanel {
     }
     
     private void cargarClientes() {
-        // Limpiar la tabla
-        modeloTabla.setRowCount(0);
-        
-        try {
-            List<Cliente> clientes = clienteController.listarClientes();
-            
-            for (Cliente cliente : clientes) {
-                Object[] fila = {
-                    cliente.getIdCliente(),
-                    cliente.getNombre(),
-                    cliente.getApellido(),
-                    cliente.getDni(),
-                    cliente.getTelefono(),
-                    cliente.getEmail(),
-                    cliente.getDireccion()
-                };
-                modeloTabla.addRow(fila);
-            }
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
+        // La consulta se ejecuta en segundo plano; la tabla se llena al terminar
+        tareas.cargar(
+            () -> clienteController.listarClientes(),
+            this::mostrarClientesEnTabla,
+            e -> JOptionPane.showMessageDialog(this, 
                 "Error al cargar los clientes: " + e.getMessage(), 
                 "Error", 
-                JOptionPane.ERROR_MESSAGE);
+                JOptionPane.ERROR_MESSAGE));
+    }
+    
+    /**
+     * Método auxiliar para mostrar una lista de clientes en la tabla
+     */
+    private void mostrarClientesEnTabla(List<Cliente> clientes) {
+        modeloTabla.setRowCount(0);
+        
+        for (Cliente cliente : clientes) {
+            Object[] fila = {
+                cliente.getIdCliente(),
+                cliente.getNombre(),
+                cliente.getApellido(),
+                cliente.getDni(),
+                cliente.getTelefono(),
+                cliente.getEmail(),
+                cliente.getDireccion()
+            };
+            modeloTabla.addRow(fila);
         }
     }
     
@@ -247,28 +254,19 @@ public class ClientePanel extends javax.swing.JPanel {
             String email = txtEmail.getText().trim();
             String direccion = txtDireccion.getText().trim();
             
-            try {
-                boolean exito = clienteController.agregarCliente(
+            tareas.ejecutar(
+                () -> clienteController.agregarCliente(
                     nombre, apellido, dni, telefono, email, direccion
-                );
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Cliente agregado exitosamente.");
-                    cargarClientes();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al agregar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (IllegalArgumentException e) {
-                JOptionPane.showMessageDialog(this, 
-                    e.getMessage(), 
-                    "Error de Validación", 
-                    JOptionPane.ERROR_MESSAGE);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al agregar el cliente: " + e.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                ),
+                exito -> {
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cliente agregado exitosamente.");
+                        cargarClientes();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al agregar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> mostrarErrorOperacion("Error al agregar el cliente: ", e));
         }
     }
     
@@ -357,8 +355,8 @@ public class ClientePanel extends javax.swing.JPanel {
             String emailActualizado = txtEmail.getText().trim();
             String direccionActualizada = txtDireccion.getText().trim();
             
-            try {
-                boolean exito = clienteController.actualizarCliente(
+            tareas.ejecutar(
+                () -> clienteController.actualizarCliente(
                     idCliente,
                     nombreActualizado,
                     apellidoActualizado,
@@ -366,25 +364,16 @@ public class ClientePanel extends javax.swing.JPanel {
                     telefonoActualizado,
                     emailActualizado,
                     direccionActualizada
-                );
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Cliente actualizado exitosamente.");
-                    cargarClientes();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al actualizar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (IllegalArgumentException e) {
-                JOptionPane.showMessageDialog(this, 
-                    e.getMessage(), 
-                    "Error de Validación", 
-                    JOptionPane.ERROR_MESSAGE);
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al actualizar el cliente: " + e.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                ),
+                exito -> {
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cliente actualizado exitosamente.");
+                        cargarClientes();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al actualizar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> mostrarErrorOperacion("Error al actualizar el cliente: ", e));
         }
     }
     
@@ -408,21 +397,34 @@ public class ClientePanel extends javax.swing.JPanel {
         );
         
         if (confirmacion == JOptionPane.YES_OPTION) {
-            try {
-                boolean exito = clienteController.eliminarCliente(idCliente);
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Cliente eliminado exitosamente.");
-                    cargarClientes();
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al eliminar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al eliminar el cliente: " + e.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            tareas.ejecutar(
+                () -> clienteController.eliminarCliente(idCliente),
+                exito -> {
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Cliente eliminado exitosamente.");
+                        cargarClientes();
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al eliminar el cliente.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> mostrarErrorOperacion("Error al eliminar el cliente: ", e));
+        }
+    }
+    
+    /**
+     * Muestra el error de una operación; los errores de validación se muestran con su propio título
+     */
+    private void mostrarErrorOperacion(String prefijo, Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            JOptionPane.showMessageDialog(this, 
+                e.getMessage(), 
+                "Error de Validación", 
+                JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                prefijo + e.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
         }
     }
     
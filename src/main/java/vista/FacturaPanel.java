@@ -3,9 +3,8 @@ package vista;
 import controlador.FacturaController;
 import controlador.ClienteController;
 import modelo.Factura;
-import modelo.Cliente;
+import util.Dinero;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
@@ -16,8 +15,12 @@ public class FacturaPanel extends javax.swing.JPanel {
     
     private FacturaController facturaController;
     private ClienteController clienteController;
+    private static final int TAMANO_PAGINA = 100; // Filas por consulta al desplazarse
+    private static final int PAGINAS_EN_MEMORIA = 10; // Páginas que se conservan cargadas
+    
     private JTable tablaFacturas;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaPaginado<Factura> modeloTabla;
+    private final SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy");
     private JButton btnRefrescar;
     private JButton btnAnularFactura;
     private JRadioButton rbMostrarTodas;
@@ -26,11 +29,13 @@ public class FacturaPanel extends javax.swing.JPanel {
     private List<Factura> facturasActuales; // Lista actual que se está mostrando
     private Integer clienteIdActual; // ID del cliente actual (null si se muestran todas)
     private Integer reservaIdActual; // ID de la reserva actual (null si no es factura específica)
+    private TareasSegundoPlano tareas; // Ejecuta las consultas fuera del EDT
     
     public FacturaPanel() {
         super();
         facturaController = new FacturaController();
         clienteController = new ClienteController();
+        tareas = new TareasSegundoPlano(this);
         initComponents();
         cargarFacturas(); // Carga inicial con filtros aplicados si los hay
     }
@@ -38,14 +43,13 @@ public class FacturaPanel extends javax.swing.JPanel {
     private void initComponents() {
         setLayout(new BorderLayout());
         
-        // Crear el modelo de la tabla
+        // Crear el modelo de la tabla: las filas se consultan por páginas al desplazarse
         String[] columnas = {"ID Factura", "ID Reserva", "Fecha Emisión", "Monto Total", "Estado Pago"};
-        modeloTabla = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer la tabla no editable
-            }
-        };
+        modeloTabla = new ModeloTablaPaginado<>(columnas, this::valorCelda, TAMANO_PAGINA, PAGINAS_EN_MEMORIA, tareas,
+            e -> JOptionPane.showMessageDialog(this, 
+                "Error al cargar las facturas: " + e.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE));
         
         // Crear la tabla
         tablaFacturas = new JTable(modeloTabla);
@@ -75,6 +79,7 @@ public class FacturaPanel extends javax.swing.JPanel {
         
         panelFiltros.add(rbMostrarTodas);
         panelFiltros.add(btnRefrescar);
+        panelFiltros.add(tareas.getIndicador());
         
         // Panel de botones de acción
         JPanel panelBotones = new JPanel(new FlowLayout());
@@ -121,82 +126,85 @@ public class FacturaPanel extends javax.swing.JPanel {
      * carga todas las facturas; si no, mantiene los filtros actuales.
      */
     public void cargarFacturas() {
-        // Limpiar la tabla
-        modeloTabla.setRowCount(0);
-        
-        try {
-            if (rbMostrarTodas.isSelected()) {
-                // Cargar todas las facturas usando listarFacturas
-                facturasActuales = facturaController.listarFacturas();
-                clienteIdActual = null; // Indicar que se muestran todas las facturas
-                reservaIdActual = null;
-            } else {
-                // Si no está seleccionado "mostrar todas", mantener filtros actuales
-                // Por defecto, si no hay filtros específicos, no mostrar nada o mostrar lista vacía
-                if (facturasActuales == null) {
-                    facturasActuales = List.of(); // Lista vacía
-                    clienteIdActual = null;
-                    reservaIdActual = null;
-                }
-                // Si ya había facturas filtradas, las mantiene
+        if (rbMostrarTodas.isSelected()) {
+            // Cargar todas las facturas por páginas, solo las que se van mostrando
+            facturasActuales = null;
+            clienteIdActual = null; // Indicar que se muestran todas las facturas
+            reservaIdActual = null;
+            modeloTabla.setFuente(ModeloTablaPaginado.fuenteKeyset(
+                facturaController::contarFacturas,
+                facturaController::listarFacturasPagina,
+                facturaController::listarFacturasDesdePosicion,
+                Factura::getIdFactura));
+            actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
+        } else if (reservaIdActual != null) {
+            // Volver a consultar los filtros actuales
+            cargarFacturaPorReserva(reservaIdActual, false);
+        } else if (clienteIdActual != null) {
+            cargarFacturasPorCliente(clienteIdActual);
+        } else {
+            // Por defecto, si no hay filtros específicos, mostrar lista vacía
+            if (facturasActuales == null) {
+                facturasActuales = List.of(); // Lista vacía
             }
-            
             mostrarFacturasEnTabla(facturasActuales);
             actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al cargar las facturas: " + e.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
         }
     }
     
     /**
-     * Carga facturas filtradas por cliente
+     * Carga facturas filtradas por cliente. El cliente y sus facturas se leen en una sola consulta.
      */
     public void cargarFacturasPorCliente(int idCliente) {
-        try {
-            facturasActuales = facturaController.listarFacturasCliente(idCliente);
-            clienteIdActual = idCliente; // Establecer el ID del cliente actual
-            reservaIdActual = null;
-            rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
-            mostrarFacturasEnTabla(facturasActuales);
-            actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
+        rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
+        tareas.cargar(
+            () -> clienteController.consultarResumenCliente(idCliente),
+            resumen -> {
+                facturasActuales = resumen == null ? List.of() : resumen.getFacturas();
+                clienteIdActual = idCliente; // Establecer el ID del cliente actual
+                reservaIdActual = null;
+                mostrarFacturasEnTabla(facturasActuales);
+                lblFacturasDe.setText(resumen == null ? "Facturas de: Cliente ID " + idCliente
+                    : "Facturas de: " + resumen.getCliente().getNombre() + " " + resumen.getCliente().getApellido());
+            },
+            e -> JOptionPane.showMessageDialog(this, 
                 "Error al cargar las facturas del cliente: " + e.getMessage(), 
                 "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+                JOptionPane.ERROR_MESSAGE));
     }
     
     /**
      * Carga la factura asociada a una reserva específica
      */
     public void cargarFacturaPorReserva(int idReserva) {
-        try {
-            Factura factura = facturaController.consultarFacturaPorReserva(idReserva);
-            if (factura != null) {
-                facturasActuales = List.of(factura);
-            } else {
-                facturasActuales = List.of(); // Lista vacía si no hay factura
-                JOptionPane.showMessageDialog(this, 
-                    "No se encontró factura asociada a la reserva seleccionada.", 
-                    "Información", 
-                    JOptionPane.INFORMATION_MESSAGE);
-            }
-            clienteIdActual = null;
-            reservaIdActual = idReserva; // Establecer el ID de la reserva actual
-            rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
-            mostrarFacturasEnTabla(facturasActuales);
-            actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
+        cargarFacturaPorReserva(idReserva, true);
+    }
+    
+    private void cargarFacturaPorReserva(int idReserva, boolean avisarSiNoExiste) {
+        rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
+        tareas.cargar(
+            () -> facturaController.consultarFacturaPorReserva(idReserva),
+            factura -> {
+                if (factura != null) {
+                    facturasActuales = List.of(factura);
+                } else {
+                    facturasActuales = List.of(); // Lista vacía si no hay factura
+                    if (avisarSiNoExiste) {
+                        JOptionPane.showMessageDialog(this, 
+                            "No se encontró factura asociada a la reserva seleccionada.", 
+                            "Información", 
+                            JOptionPane.INFORMATION_MESSAGE);
+                    }
+                }
+                clienteIdActual = null;
+                reservaIdActual = idReserva; // Establecer el ID de la reserva actual
+                mostrarFacturasEnTabla(facturasActuales);
+                actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
+            },
+            e -> JOptionPane.showMessageDialog(this, 
                 "Error al cargar la factura de la reserva: " + e.getMessage(), 
                 "Error", 
-                JOptionPane.ERROR_MESSAGE);
-        }
+                JOptionPane.ERROR_MESSAGE));
     }
     
     /**
@@ -208,17 +216,18 @@ public class FacturaPanel extends javax.swing.JPanel {
         } else if (clienteIdActual == null) {
             lblFacturasDe.setText("Facturas de: ALL");
         } else {
-            try {
-                Cliente cliente = clienteController.consultarCliente(clienteIdActual);
-                if (cliente != null) {
-                    String nombreCompleto = cliente.getNombre() + " " + cliente.getApellido();
-                    lblFacturasDe.setText("Facturas de: " + nombreCompleto);
-                } else {
-                    lblFacturasDe.setText("Facturas de: Cliente ID " + clienteIdActual);
-                }
-            } catch (Exception e) {
-                lblFacturasDe.setText("Facturas de: Cliente ID " + clienteIdActual);
-            }
+            // Mostrar el ID mientras se consulta el nombre del cliente en segundo plano
+            Integer idCliente = clienteIdActual;
+            lblFacturasDe.setText("Facturas de: Cliente ID " + idCliente);
+            tareas.ejecutar(
+                () -> clienteController.consultarCliente(idCliente),
+                cliente -> {
+                    if (cliente != null && idCliente.equals(clienteIdActual) && reservaIdActual == null) {
+                        String nombreCompleto = cliente.getNombre() + " " + cliente.getApellido();
+                        lblFacturasDe.setText("Facturas de: " + nombreCompleto);
+                    }
+                },
+                e -> { }); // Se mantiene la etiqueta con el ID del cliente
         }
     }
     
@@ -226,18 +235,20 @@ public class FacturaPanel extends javax.swing.JPanel {
      * Método auxiliar para mostrar una lista de facturas en la tabla
      */
     private void mostrarFacturasEnTabla(List<Factura> facturas) {
-        modeloTabla.setRowCount(0);
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        
-        for (Factura factura : facturas) {
-            Object[] fila = {
-                factura.getIdFactura(),
-                factura.getIdReserva(),
-                sdf.format(factura.getFechaEmision()),
-                String.format("$%.2f", factura.getMontoTotal()),
-                factura.getEstadoPago()
-            };
-            modeloTabla.addRow(fila);
+        modeloTabla.setFuente(ModeloTablaPaginado.fuenteDeLista(facturas));
+    }
+    
+    /**
+     * Valor de una celda de la tabla; se formatea solo cuando la fila se pinta
+     */
+    private Object valorCelda(Factura factura, int columna) {
+        switch (columna) {
+            case 0: return factura.getIdFactura();
+            case 1: return factura.getIdReserva();
+            case 2: return formatoFecha.format(factura.getFechaEmision());
+            case 3: return "$" + Dinero.formatear(factura.getMontoTotalCentavos());
+            case 4: return factura.getEstadoPago();
+            default: return null;
         }
     }
     
@@ -251,8 +262,13 @@ public class FacturaPanel extends javax.swing.JPanel {
             return;
         }
         
-        int idFactura = (Integer) modeloTabla.getValueAt(filaSeleccionada, 0);
-        String estadoActual = (String) modeloTabla.getValueAt(filaSeleccionada, 4);
+        Factura seleccionada = modeloTabla.getFila(filaSeleccionada);
+        if (seleccionada == null) {
+            JOptionPane.showMessageDialog(this, "La factura seleccionada aún se está cargando. Intente de nuevo.");
+            return;
+        }
+        int idFactura = seleccionada.getIdFactura();
+        String estadoActual = seleccionada.getEstadoPago();
         
         // Verificar si la factura ya está anulada
         if ("ANULADA".equals(estadoActual)) {
@@ -272,35 +288,24 @@ public class FacturaPanel extends javax.swing.JPanel {
         );
         
         if (confirmacion == JOptionPane.YES_OPTION) {
-            try {
-                // Obtener la factura completa
-                Factura factura = facturaController.consultarFactura(idFactura);
-                if (factura == null) {
-                    JOptionPane.showMessageDialog(this, "Error al obtener los datos de la factura.");
-                    return;
-                }
-                
-                // Actualizar solo el estado a "ANULADA"
-                boolean exito = facturaController.actualizarFactura(
-                    factura.getIdFactura(),
-                    factura.getIdReserva(),
-                    factura.getFechaEmision(),
-                    factura.getMontoTotal(),
-                    "ANULADA"
-                );
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Factura anulada exitosamente.");
-                    cargarFacturas(); // Refrescar la tabla
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al anular la factura.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
+            tareas.ejecutar(
+                // Actualizar solo el estado a "ANULADA", sin volver a leer la factura
+                () -> facturaController.actualizarEstadoFacturaDiferido(idFactura, "ANULADA"),
+                exito -> {
+                    if (exito) {
+                        // Con la escritura diferida la base puede tardar en reflejar el cambio,
+                        // así que se actualiza la fila mostrada en lugar de volver a consultar
+                        seleccionada.setEstadoPago("ANULADA");
+                        modeloTabla.fireTableDataChanged();
+                        JOptionPane.showMessageDialog(this, "Factura anulada exitosamente.");
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al anular la factura.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> JOptionPane.showMessageDialog(this, 
                     "Error al anular la factura: " + e.getMessage(), 
                     "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+                    JOptionPane.ERROR_MESSAGE));
         }
     }
 }
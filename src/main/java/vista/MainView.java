@@ -70,6 +70,11 @@ public class MainView {
 
 
         public static void main(String[] args) {
+        // Modo servidor: solo la API HTTP/JSON, sin ventanas
+        if (java.util.Arrays.asList(args).contains("--servidor")) {
+            servidor.ServidorApi.ejecutar(args);
+            return;
+        }
         // Use SwingUtilities.invokeLater to ensure thread safety
         SwingUtilities.invokeLater(() -> {
             MainView mainView = new MainView();
@@ -0,0 +1,254 @@
+package vista;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Modelo de tabla que carga las filas por páginas a medida que el usuario se desplaza.
+ * Solo mantiene en memoria una ventana acotada de páginas (LRU) y formatea cada celda
+ * en el momento de pintarla, en lugar de convertir toda la lista a Object[] por adelantado.
+ * Las páginas se consultan en segundo plano; mientras llegan, sus celdas se muestran vacías.
+ * Una página que no se pudo cargar no se vuelve a pedir hasta refrescar o cambiar la fuente,
+ * y el error se informa una sola vez por carga.
+ */
+class ModeloTablaPaginado<T> extends AbstractTableModel {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * Origen de las filas de la tabla. Sus métodos se llaman fuera del EDT.
+     */
+    interface FuentePaginas<T> {
+        int contar() throws Exception;
+
+        List<T> cargarPagina(int desde, int cantidad) throws Exception;
+    }
+
+    /**
+     * Obtiene el valor a mostrar en una columna a partir de la fila.
+     */
+    @FunctionalInterface
+    interface Columnas<T> {
+        Object valor(T fila, int columna);
+    }
+
+    /**
+     * Consulta por clave después de un ID (keyset).
+     */
+    @FunctionalInterface
+    interface ConsultaDespuesDeId<T> {
+        List<T> cargar(int despuesDeId, int cantidad) throws Exception;
+    }
+
+    /**
+     * Consulta por posición, usada solo cuando se salta a una página lejana.
+     */
+    @FunctionalInterface
+    interface ConsultaDesdePosicion<T> {
+        List<T> cargar(int posicion, int cantidad) throws Exception;
+    }
+
+    /**
+     * Fuente para una tabla completa de la base de datos. Usa paginación por clave con el
+     * último ID de la página anterior (costo constante por página) cuando se desplaza en orden,
+     * y una consulta por posición cuando se salta a una página cuyo cursor aún no se conoce.
+     */
+    static <T> FuentePaginas<T> fuenteKeyset(Callable<Integer> contar,
+                                             ConsultaDespuesDeId<T> despuesDeId,
+                                             ConsultaDesdePosicion<T> desdePosicion,
+                                             ToIntFunction<T> id) {
+        Map<Integer, Integer> ultimoIdPorPagina = new ConcurrentHashMap<>();
+        return new FuentePaginas<T>() {
+            @Override
+            public int contar() throws Exception {
+                ultimoIdPorPagina.clear();
+                return contar.call();
+            }
+
+            @Override
+            public List<T> cargarPagina(int desde, int cantidad) throws Exception {
+                int pagina = desde / cantidad;
+                Integer cursor = pagina == 0 ? Integer.valueOf(0) : ultimoIdPorPagina.get(pagina - 1);
+                List<T> filas = cursor != null
+                        ? despuesDeId.cargar(cursor, cantidad)
+                        : desdePosicion.cargar(desde, cantidad);
+                if (!filas.isEmpty()) {
+                    ultimoIdPorPagina.put(pagina, id.applyAsInt(filas.get(filas.size() - 1)));
+                }
+                return filas;
+            }
+        };
+    }
+
+    /**
+     * Fuente para una lista ya cargada en memoria (por ejemplo, las reservas de un cliente).
+     */
+    static <T> FuentePaginas<T> fuenteDeLista(List<T> lista) {
+        return new FuentePaginas<T>() {
+            @Override
+            public int contar() {
+                return lista.size();
+            }
+
+            @Override
+            public List<T> cargarPagina(int desde, int cantidad) {
+                return lista.subList(Math.min(desde, lista.size()), Math.min(desde + cantidad, lista.size()));
+            }
+        };
+    }
+
+    private final String[] nombresColumnas;
+    private final Columnas<T> columnas;
+    private final int tamanoPagina;
+    private final TareasSegundoPlano tareas;
+    private final Consumer<Exception> alFallar;
+    private final Map<Integer, List<T>> paginas;
+    private final Set<Integer> paginasPendientes = new HashSet<>();
+    private final Set<Integer> paginasFallidas = new HashSet<>();
+    private boolean falloInformado;
+    private FuentePaginas<T> fuente;
+    private int cantidadFilas;
+    private int generacion; // Descarta las páginas que llegan de una fuente anterior
+
+    /**
+     * @param paginasEnMemoria máximo de páginas que se mantienen cargadas
+     */
+    ModeloTablaPaginado(String[] nombresColumnas, Columnas<T> columnas, int tamanoPagina,
+                        int paginasEnMemoria, TareasSegundoPlano tareas, Consumer<Exception> alFallar) {
+        this.nombresColumnas = nombresColumnas;
+        this.columnas = columnas;
+        this.tamanoPagina = tamanoPagina;
+        this.tareas = tareas;
+        this.alFallar = alFallar;
+        this.paginas = new LinkedHashMap<Integer, List<T>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, List<T>> mayor) {
+                return size() > paginasEnMemoria;
+            }
+        };
+    }
+
+    /**
+     * Cambia la fuente de datos. El total de filas se consulta en segundo plano y
+     * cancela cualquier carga anterior que siga en curso.
+     */
+    void setFuente(FuentePaginas<T> nuevaFuente) {
+        int generacionNueva = reiniciar(nuevaFuente);
+        tareas.cargar(
+            nuevaFuente::contar,
+            total -> {
+                if (generacionNueva == generacion) {
+                    cantidadFilas = total;
+                    fireTableDataChanged();
+                }
+            },
+            e -> informarFallo(generacionNueva, e));
+    }
+
+    /**
+     * Vuelve a consultar la fuente actual, descartando las páginas en memoria.
+     */
+    void refrescar() {
+        if (fuente != null) {
+            setFuente(fuente);
+        }
+    }
+
+    /**
+     * Devuelve la fila indicada si su página ya está cargada, o null si aún no llegó.
+     */
+    T getFila(int fila) {
+        List<T> pagina = paginas.get(fila / tamanoPagina);
+        int indice = fila % tamanoPagina;
+        return pagina != null && indice < pagina.size() ? pagina.get(indice) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return cantidadFilas;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return nombresColumnas.length;
+    }
+
+    @Override
+    public String getColumnName(int columna) {
+        return nombresColumnas[columna];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false; // Hacer la tabla no editable
+    }
+
+    @Override
+    public Object getValueAt(int fila, int columna) {
+        int numeroPagina = fila / tamanoPagina;
+        List<T> pagina = paginas.get(numeroPagina);
+        if (pagina == null) {
+            solicitarPagina(numeroPagina);
+            return null;
+        }
+        int indice = fila % tamanoPagina;
+        return indice < pagina.size() ? columnas.valor(pagina.get(indice), columna) : null;
+    }
+
+    private int reiniciar(FuentePaginas<T> nuevaFuente) {
+        fuente = nuevaFuente;
+        generacion++;
+        paginas.clear();
+        paginasPendientes.clear();
+        paginasFallidas.clear();
+        falloInformado = false;
+        cantidadFilas = 0;
+        fireTableDataChanged();
+        return generacion;
+    }
+
+    private void solicitarPagina(int numeroPagina) {
+        if (fuente == null || paginasFallidas.contains(numeroPagina) || !paginasPendientes.add(numeroPagina)) {
+            return;
+        }
+        FuentePaginas<T> fuenteSolicitud = fuente;
+        int generacionSolicitud = generacion;
+        int desde = numeroPagina * tamanoPagina;
+        tareas.ejecutar(
+            () -> fuenteSolicitud.cargarPagina(desde, tamanoPagina),
+            filas -> {
+                if (generacionSolicitud != generacion) {
+                    return; // La tabla ya muestra otra fuente
+                }
+                paginasPendientes.remove(numeroPagina);
+                paginas.put(numeroPagina, Collections.unmodifiableList(filas));
+                int hasta = Math.min(desde + tamanoPagina, cantidadFilas) - 1;
+                if (hasta >= desde) {
+                    fireTableRowsUpdated(desde, hasta);
+                }
+            },
+            e -> {
+                if (generacionSolicitud == generacion) {
+                    paginasPendientes.remove(numeroPagina);
+                    paginasFallidas.add(numeroPagina); // Evita pedirla de nuevo en cada repintado
+                    informarFallo(generacionSolicitud, e);
+                }
+            });
+    }
+
+    // Muchas páginas suelen fallar juntas (por ejemplo, sin conexión): se muestra un solo aviso
+    private void informarFallo(int generacionFallo, Exception e) {
+        if (generacionFallo == generacion && !falloInformado) {
+            falloInformado = true;
+            alFallar.accept(e);
+        }
+    }
+}
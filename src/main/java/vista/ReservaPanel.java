@@ -2,11 +2,12 @@ package vista;
 
 import controlador.ReservaController;
 import controlador.ClienteController;
+import controlador.FacturaController;
+import modelo.Factura;
 import modelo.Reserva;
-import modelo.Cliente;
+import util.Dinero;
 import util.ValidacionReserva;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.text.AbstractDocument;
 import javax.swing.text.AttributeSet;
 import javax.swing.text.BadLocationException;
@@ -16,7 +17,10 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.text.SimpleDateFormat;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 class PriceDocumentFilter extends DocumentFilter {
     private static final int MAX_DIGITS_BEFORE_DECIMAL = 8;
@@ -91,8 +95,13 @@ public class ReservaPanel extends javax.swing.JPanel {
     private ReservaController reservaController;
     private ClienteController clienteController;
     private MainView mainView; // Referencia al MainView para navegación
+    private static final int TAMANO_PAGINA = 100; // Filas por consulta al desplazarse
+    private static final int PAGINAS_EN_MEMORIA = 10; // Páginas que se conservan cargadas
+    private static final int DESTINOS_POR_BUSQUEDA = 20; // Destinos distintos que muestra una búsqueda
+    
     private JTable tablaReservas;
-    private DefaultTableModel modeloTabla;
+    private ModeloTablaPaginado<FilaReserva> modeloTabla;
+    private final SimpleDateFormat formatoFecha = new SimpleDateFormat("dd/MM/yyyy");
     private JButton btnRefrescar;
     private JButton btnEditar;
     private JButton btnEliminar;
@@ -101,6 +110,10 @@ public class ReservaPanel extends javax.swing.JPanel {
     private JLabel lblReservasDe; // Etiqueta para mostrar el contexto de las reservas
     private List<Reserva> reservasActuales; // Lista actual que se está mostrando
     private Integer clienteIdActual; // ID del cliente actual (null si se muestran todas)
+    private String destinoBuscado; // Texto de la búsqueda por destino actual (null si no hay búsqueda)
+    private JTextField txtBuscarDestino;
+    private TareasSegundoPlano tareas; // Ejecuta las consultas fuera del EDT
+    private FacturaController facturaController;
     
     public ReservaPanel() {
         this(null); // Constructor por defecto para compatibilidad
@@ -111,6 +124,8 @@ public class ReservaPanel extends javax.swing.JPanel {
         this.mainView = mainView;
         reservaController = new ReservaController();
         clienteController = new ClienteController();
+        facturaController = new FacturaController();
+        tareas = new TareasSegundoPlano(this);
         initComponents();
         cargarReservas(); // Carga inicial con filtros aplicados si los hay
     }
@@ -118,14 +133,13 @@ public class ReservaPanel extends javax.swing.JPanel {
     private void initComponents() {
         setLayout(new BorderLayout());
         
-        // Crear el modelo de la tabla
-        String[] columnas = {"ID Reserva", "ID Cliente", "Fecha Reserva", "Destino", "Fecha Viaje", "Precio", "Estado"};
-        modeloTabla = new DefaultTableModel(columnas, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false; // Hacer la tabla no editable
-            }
-        };
+        // Crear el modelo de la tabla: las filas se consultan por páginas al desplazarse
+        String[] columnas = {"ID Reserva", "ID Cliente", "Fecha Reserva", "Destino", "Fecha Viaje", "Precio", "Estado", "Factura"};
+        modeloTabla = new ModeloTablaPaginado<>(columnas, this::valorCelda, TAMANO_PAGINA, PAGINAS_EN_MEMORIA, tareas,
+            e -> JOptionPane.showMessageDialog(this, 
+                "Error al cargar las reservas: " + e.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE));
         
         // Crear la tabla
         tablaReservas = new JTable(modeloTabla);
@@ -156,8 +170,20 @@ public class ReservaPanel extends javax.swing.JPanel {
             }
         });
         
+        // Búsqueda por destino: prefijo, sin tildes y tolerando errores de tipeo
+        txtBuscarDestino = new JTextField(15);
+        txtBuscarDestino.setToolTipText("Destino o comienzo del destino; se toleran tildes y errores de tipeo");
+        JButton btnBuscarDestino = new JButton("Buscar destino");
+        ActionListener buscar = e -> buscarReservasPorDestino(txtBuscarDestino.getText());
+        txtBuscarDestino.addActionListener(buscar);
+        btnBuscarDestino.addActionListener(buscar);
+        
         panelFiltros.add(rbMostrarTodas);
         panelFiltros.add(btnRefrescar);
+        panelFiltros.add(new JLabel("Destino:"));
+        panelFiltros.add(txtBuscarDestino);
+        panelFiltros.add(btnBuscarDestino);
+        panelFiltros.add(tareas.getIndicador());
         
         // Panel de botones de acción (solo editar y eliminar)
         JPanel panelBotones = new JPanel(new FlowLayout());
@@ -215,51 +241,88 @@ public class ReservaPanel extends javax.swing.JPanel {
      * carga todas las reservas; si no, mantiene los filtros actuales.
      */
     public void cargarReservas() {
-        // Limpiar la tabla
-        modeloTabla.setRowCount(0);
-        
-        try {
-            if (rbMostrarTodas.isSelected()) {
-                // Cargar todas las reservas usando listarReservas
-                reservasActuales = reservaController.listarReservas();
-                clienteIdActual = null; // Indicar que se muestran todas las reservas
-            } else {
-                // Si no está seleccionado "mostrar todas", mantener filtros actuales
-                // Por defecto, si no hay filtros específicos, no mostrar nada o mostrar lista vacía
-                if (reservasActuales == null) {
-                    reservasActuales = List.of(); // Lista vacía
-                    clienteIdActual = null;
-                }
-                // Si ya había reservas filtradas, las mantiene (clienteIdActual ya está establecido)
+        if (rbMostrarTodas.isSelected()) {
+            // Cargar todas las reservas por páginas, solo las que se van mostrando
+            reservasActuales = null;
+            clienteIdActual = null; // Indicar que se muestran todas las reservas
+            destinoBuscado = null;
+            modeloTabla.setFuente(conFacturas(ModeloTablaPaginado.fuenteKeyset(
+                reservaController::contarReservas,
+                reservaController::listarReservasPagina,
+                reservaController::listarReservasDesdePosicion,
+                Reserva::getIdReserva)));
+            actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
+        } else if (destinoBuscado != null) {
+            // Repetir la búsqueda por destino
+            buscarReservasPorDestino(destinoBuscado);
+        } else if (clienteIdActual != null) {
+            // Volver a consultar las reservas del cliente filtrado
+            cargarReservasPorCliente(clienteIdActual);
+        } else {
+            // Por defecto, si no hay filtros específicos, mostrar lista vacía
+            if (reservasActuales == null) {
+                reservasActuales = List.of(); // Lista vacía
             }
-            
-            mostrarReservasEnTabla(reservasActuales);
+            mostrarReservasEnTabla(reservasActuales, List.of());
             actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
-            
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
-                "Error al cargar las reservas: " + e.getMessage(), 
-                "Error", 
-                JOptionPane.ERROR_MESSAGE);
         }
     }
     
     /**
-     * Carga reservas filtradas por cliente
+     * Carga reservas filtradas por cliente. El cliente y sus reservas se leen en una sola consulta.
      */
     public void cargarReservasPorCliente(int idCliente) {
-        try {
-            reservasActuales = reservaController.listarReservasPorCliente(idCliente);
-            clienteIdActual = idCliente; // Establecer el ID del cliente actual
-            rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
-            mostrarReservasEnTabla(reservasActuales);
-            actualizarEtiquetaContexto(); // Actualizar la etiqueta de contexto
-        } catch (Exception e) {
-            JOptionPane.showMessageDialog(this, 
+        rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
+        tareas.cargar(
+            () -> clienteController.consultarResumenCliente(idCliente),
+            resumen -> {
+                reservasActuales = resumen == null ? List.of() : resumen.getReservas();
+                clienteIdActual = idCliente; // Establecer el ID del cliente actual
+                destinoBuscado = null;
+                // El resumen ya trae la factura de cada reserva
+                mostrarReservasEnTabla(reservasActuales, resumen == null ? List.of() : resumen.getFacturas());
+                lblReservasDe.setText(resumen == null ? "Reservas de: Cliente ID " + idCliente
+                    : "Reservas de: " + resumen.getCliente().getNombre() + " " + resumen.getCliente().getApellido());
+            },
+            e -> JOptionPane.showMessageDialog(this, 
                 "Error al cargar las reservas del cliente: " + e.getMessage(), 
                 "Error", 
-                JOptionPane.ERROR_MESSAGE);
+                JOptionPane.ERROR_MESSAGE));
+    }
+    
+    /**
+     * Busca los destinos que coinciden con el texto en el índice de destinos y muestra, por páginas,
+     * las reservas de esos destinos
+     */
+    public void buscarReservasPorDestino(String texto) {
+        if (texto == null || texto.isBlank()) {
+            JOptionPane.showMessageDialog(this, "Ingrese un destino para buscar.");
+            return;
         }
+        rbMostrarTodas.setSelected(false); // Desmarcar "mostrar todas"
+        tareas.cargar(
+            () -> reservaController.buscarDestinos(texto, DESTINOS_POR_BUSQUEDA),
+            destinos -> {
+                destinoBuscado = texto;
+                clienteIdActual = null;
+                reservasActuales = null;
+                if (destinos.isEmpty()) {
+                    reservasActuales = List.of();
+                    mostrarReservasEnTabla(reservasActuales, List.of());
+                    lblReservasDe.setText("Reservas de: ningún destino coincide con \"" + texto.trim() + "\"");
+                    return;
+                }
+                modeloTabla.setFuente(conFacturas(ModeloTablaPaginado.fuenteKeyset(
+                    () -> reservaController.contarReservasPorDestinos(destinos),
+                    (despuesDeId, cantidad) -> reservaController.listarReservasPorDestinosPagina(destinos, despuesDeId, cantidad),
+                    (posicion, cantidad) -> reservaController.listarReservasPorDestinosDesdePosicion(destinos, posicion, cantidad),
+                    Reserva::getIdReserva)));
+                lblReservasDe.setText("Reservas de destino: " + String.join(", ", destinos));
+            },
+            e -> JOptionPane.showMessageDialog(this, 
+                "Error al buscar destinos: " + e.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE));
     }
     
     /**
@@ -337,23 +400,26 @@ public class ReservaPanel extends javax.swing.JPanel {
                 // Validar los datos usando ValidacionReserva
                 ValidacionReserva.validarReserva(destino, fechaReserva, fechaViaje, precio);
                 
-                double precioNumerico = Double.parseDouble(precio);
+                long precioCentavos = ValidacionReserva.convertirPrecio(precio);
 
-                boolean exito = reservaController.agregarReserva(
-                    idCliente,
-                    fechaReserva,
-                    destino,
-                    fechaViaje,
-                    precioNumerico,
-                    estado
-                );
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Reserva creada exitosamente.");
-                    cargarReservasPorCliente(idCliente); // Refrescar la tabla con las reservas del cliente
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al crear la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                tareas.ejecutar(
+                    () -> reservaController.agregarReservaCentavos(
+                        idCliente,
+                        fechaReserva,
+                        destino,
+                        fechaViaje,
+                        precioCentavos,
+                        estado
+                    ),
+                    exito -> {
+                        if (exito) {
+                            JOptionPane.showMessageDialog(this, "Reserva creada exitosamente.");
+                            cargarReservasPorCliente(idCliente); // Refrescar la tabla con las reservas del cliente
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Error al crear la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> mostrarErrorOperacion("Error al crear la reserva: ", e));
             } catch (IllegalArgumentException e) {
                 JOptionPane.showMessageDialog(this, 
                     e.getMessage(), 
@@ -382,41 +448,98 @@ public class ReservaPanel extends javax.swing.JPanel {
         if (clienteIdActual == null) {
             lblReservasDe.setText("Reservas de: ALL");
         } else {
-            try {
-                Cliente cliente = clienteController.consultarCliente(clienteIdActual);
-                if (cliente != null) {
-                    String nombreCompleto = cliente.getNombre() + " " + cliente.getApellido();
-                    lblReservasDe.setText("Reservas de: " + nombreCompleto);
-                } else {
-                    lblReservasDe.setText("Reservas de: Cliente ID " + clienteIdActual);
-                }
-            } catch (Exception e) {
-                lblReservasDe.setText("Reservas de: Cliente ID " + clienteIdActual);
+            // Mostrar el ID mientras se consulta el nombre del cliente en segundo plano
+            Integer idCliente = clienteIdActual;
+            lblReservasDe.setText("Reservas de: Cliente ID " + idCliente);
+            tareas.ejecutar(
+                () -> clienteController.consultarCliente(idCliente),
+                cliente -> {
+                    if (cliente != null && idCliente.equals(clienteIdActual)) {
+                        String nombreCompleto = cliente.getNombre() + " " + cliente.getApellido();
+                        lblReservasDe.setText("Reservas de: " + nombreCompleto);
+                    }
+                },
+                e -> { }); // Se mantiene la etiqueta con el ID del cliente
+        }
+    }
+    
+    /**
+     * Método auxiliar para mostrar una lista de reservas en la tabla, con las facturas ya consultadas
+     */
+    private void mostrarReservasEnTabla(List<Reserva> reservas, List<Factura> facturas) {
+        Map<Integer, Factura> facturasPorReserva = new HashMap<>();
+        for (Factura factura : facturas) {
+            facturasPorReserva.putIfAbsent(factura.getIdReserva(), factura);
+        }
+        modeloTabla.setFuente(ModeloTablaPaginado.fuenteDeLista(reservas.stream()
+            .map(reserva -> new FilaReserva(reserva, facturasPorReserva.get(reserva.getIdReserva())))
+            .collect(Collectors.toList())));
+    }
+    
+    /**
+     * Agrega a la fuente la consulta de las facturas de cada página: una sola consulta por
+     * página, en el mismo hilo de fondo, en lugar de una consulta por reserva. Cada factura
+     * viaja con su fila, así que se descarta junto con la página
+     */
+    private ModeloTablaPaginado.FuentePaginas<FilaReserva> conFacturas(ModeloTablaPaginado.FuentePaginas<Reserva> fuente) {
+        return new ModeloTablaPaginado.FuentePaginas<FilaReserva>() {
+            @Override
+            public int contar() throws Exception {
+                return fuente.contar();
             }
+
+            @Override
+            public List<FilaReserva> cargarPagina(int desde, int cantidad) throws Exception {
+                List<Reserva> reservas = fuente.cargarPagina(desde, cantidad);
+                Map<Integer, Factura> facturasPorReserva = facturaController.consultarFacturasPorReservas(
+                    reservas.stream().map(Reserva::getIdReserva).collect(Collectors.toList()));
+                return reservas.stream()
+                    .map(reserva -> new FilaReserva(reserva, facturasPorReserva.get(reserva.getIdReserva())))
+                    .collect(Collectors.toList());
+            }
+        };
+    }
+    
+    /**
+     * Estado y monto de la factura de la reserva, para la columna "Factura"
+     */
+    private String resumenFactura(Factura factura) {
+        if (factura == null) {
+            return "Sin factura";
         }
+        return factura.getEstadoPago() + " ($" + Dinero.formatear(factura.getMontoTotalCentavos()) + ")";
     }
     
     /**
-     * Método auxiliar para mostrar una lista de reservas en la tabla
+     * Valor de una celda de la tabla; se formatea solo cuando la fila se pinta
      */
-    private void mostrarReservasEnTabla(List<Reserva> reservas) {
-        modeloTabla.setRowCount(0);
-        SimpleDateFormat sdf = new SimpleDateFormat("dd/MM/yyyy");
-        
-        for (Reserva reserva : reservas) {
-            Object[] fila = {
-                reserva.getIdReserva(),
-                reserva.getIdCliente(),
-                sdf.format(reserva.getFechaReserva()),
-                reserva.getDestino(),
-                sdf.format(reserva.getFechaViaje()),
-                String.format("$%.2f", reserva.getPrecio()),
-                reserva.getEstado()
-            };
-            modeloTabla.addRow(fila);
+    private Object valorCelda(FilaReserva fila, int columna) {
+        Reserva reserva = fila.reserva;
+        switch (columna) {
+            case 0: return reserva.getIdReserva();
+            case 1: return reserva.getIdCliente();
+            case 2: return formatoFecha.format(reserva.getFechaReserva());
+            case 3: return reserva.getDestino();
+            case 4: return formatoFecha.format(reserva.getFechaViaje());
+            case 5: return "$" + Dinero.formatear(reserva.getPrecioCentavos());
+            case 6: return reserva.getEstado();
+            case 7: return resumenFactura(fila.factura);
+            default: return null;
         }
     }
     
+    /**
+     * Reserva de la fila seleccionada, o null (con aviso) si su página aún se está cargando
+     */
+    private Reserva obtenerReservaFila(int fila) {
+        FilaReserva filaReserva = modeloTabla.getFila(fila);
+        if (filaReserva == null) {
+            JOptionPane.showMessageDialog(this, "La reserva seleccionada aún se está cargando. Intente de nuevo.");
+            return null;
+        }
+        return filaReserva.reserva;
+    }
+    
     private void editarReservaSeleccionada() {
         int filaSeleccionada = tablaReservas.getSelectedRow();
         if (filaSeleccionada == -1) {
@@ -424,19 +547,23 @@ public class ReservaPanel extends javax.swing.JPanel {
             return;
         }
         
-        int idReserva = (Integer) modeloTabla.getValueAt(filaSeleccionada, 0);
-        int idCliente = (Integer) modeloTabla.getValueAt(filaSeleccionada, 1);
-        String destino = (String) modeloTabla.getValueAt(filaSeleccionada, 3);
-        String estado = (String) modeloTabla.getValueAt(filaSeleccionada, 6);
-        
-        // Obtener la reserva completa para editar
-        Reserva reserva = reservaController.consultarReserva(idReserva);
-        if (reserva == null) {
-            JOptionPane.showMessageDialog(this, "Error al obtener los datos de la reserva.");
+        Reserva seleccionada = obtenerReservaFila(filaSeleccionada);
+        if (seleccionada == null) {
             return;
         }
+        int idReserva = seleccionada.getIdReserva();
         
-        mostrarDialogoEditarReserva(reserva);
+        // Obtener la reserva completa para editar
+        tareas.ejecutar(
+            () -> reservaController.consultarReserva(idReserva),
+            reserva -> {
+                if (reserva == null) {
+                    JOptionPane.showMessageDialog(this, "Error al obtener los datos de la reserva.");
+                    return;
+                }
+                mostrarDialogoEditarReserva(reserva);
+            },
+            e -> mostrarErrorOperacion("Error al obtener los datos de la reserva: ", e));
     }
     
     private void mostrarDialogoEditarReserva(Reserva reserva) {
@@ -453,7 +580,7 @@ public class ReservaPanel extends javax.swing.JPanel {
         txtDestino.setEditable(false);
         txtDestino.setBackground(Color.LIGHT_GRAY);
         JTextField txtFechaViaje = new JTextField(sdf.format(reserva.getFechaViaje()), 20);
-        JTextField txtPrecio = new JTextField(String.valueOf(reserva.getPrecio()), 20);
+        JTextField txtPrecio = new JTextField(Dinero.formatear(reserva.getPrecioCentavos()), 20);
         txtPrecio.setEditable(false);
         txtPrecio.setBackground(Color.LIGHT_GRAY);
         
@@ -513,24 +640,27 @@ public class ReservaPanel extends javax.swing.JPanel {
                 // Validar los datos usando ValidacionReserva
                 ValidacionReserva.validarReserva(destino, reserva.getFechaReserva(), fechaViaje, precio);
                 
-                double precioNumerico = Double.parseDouble(precio);
+                long precioCentavos = ValidacionReserva.convertirPrecio(precio);
                 
-                boolean exito = reservaController.actualizarReserva(
-                    reserva.getIdReserva(),
-                    idCliente,
-                    reserva.getFechaReserva(), // Mantener fecha de reserva original
-                    destino,
-                    fechaViaje,
-                    precioNumerico,
-                    estado
-                );
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Reserva actualizada exitosamente.");
-                    cargarReservas(); // Refrescar la tabla
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al actualizar la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
+                tareas.ejecutar(
+                    () -> reservaController.actualizarReservaCentavos(
+                        reserva.getIdReserva(),
+                        idCliente,
+                        reserva.getFechaReserva(), // Mantener fecha de reserva original
+                        destino,
+                        fechaViaje,
+                        precioCentavos,
+                        estado
+                    ),
+                    exito -> {
+                        if (exito) {
+                            JOptionPane.showMessageDialog(this, "Reserva actualizada exitosamente.");
+                            cargarReservas(); // Refrescar la tabla
+                        } else {
+                            JOptionPane.showMessageDialog(this, "Error al actualizar la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
+                        }
+                    },
+                    e -> mostrarErrorOperacion("Error al actualizar la reserva: ", e));
             } catch (IllegalArgumentException e) {
                 JOptionPane.showMessageDialog(this, 
                     e.getMessage(), 
@@ -552,8 +682,12 @@ public class ReservaPanel extends javax.swing.JPanel {
             return;
         }
         
-        int idReserva = (Integer) modeloTabla.getValueAt(filaSeleccionada, 0);
-        String destino = (String) modeloTabla.getValueAt(filaSeleccionada, 3);
+        Reserva seleccionada = obtenerReservaFila(filaSeleccionada);
+        if (seleccionada == null) {
+            return;
+        }
+        int idReserva = seleccionada.getIdReserva();
+        String destino = seleccionada.getDestino();
         
         int confirmacion = JOptionPane.showConfirmDialog(
             this,
@@ -564,21 +698,34 @@ public class ReservaPanel extends javax.swing.JPanel {
         );
         
         if (confirmacion == JOptionPane.YES_OPTION) {
-            try {
-                boolean exito = reservaController.eliminarReserva(idReserva);
-                
-                if (exito) {
-                    JOptionPane.showMessageDialog(this, "Reserva eliminada exitosamente.");
-                    cargarReservas(); // Refrescar la tabla
-                } else {
-                    JOptionPane.showMessageDialog(this, "Error al eliminar la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
-                }
-            } catch (Exception e) {
-                JOptionPane.showMessageDialog(this, 
-                    "Error al eliminar la reserva: " + e.getMessage(), 
-                    "Error", 
-                    JOptionPane.ERROR_MESSAGE);
-            }
+            tareas.ejecutar(
+                () -> reservaController.eliminarReserva(idReserva),
+                exito -> {
+                    if (exito) {
+                        JOptionPane.showMessageDialog(this, "Reserva eliminada exitosamente.");
+                        cargarReservas(); // Refrescar la tabla
+                    } else {
+                        JOptionPane.showMessageDialog(this, "Error al eliminar la reserva.", "Error", JOptionPane.ERROR_MESSAGE);
+                    }
+                },
+                e -> mostrarErrorOperacion("Error al eliminar la reserva: ", e));
+        }
+    }
+    
+    /**
+     * Muestra el error de una operación; los errores de validación se muestran con su propio título
+     */
+    private void mostrarErrorOperacion(String prefijo, Exception e) {
+        if (e instanceof IllegalArgumentException) {
+            JOptionPane.showMessageDialog(this, 
+                e.getMessage(), 
+                "Error de Validación", 
+                JOptionPane.ERROR_MESSAGE);
+        } else {
+            JOptionPane.showMessageDialog(this, 
+                prefijo + e.getMessage(), 
+                "Error", 
+                JOptionPane.ERROR_MESSAGE);
         }
     }
     
@@ -640,7 +787,22 @@ public class ReservaPanel extends javax.swing.JPanel {
             return;
         }
         
-        int idReserva = (Integer) modeloTabla.getValueAt(filaSeleccionada, 0);
-        mainView.mostrarFacturaDeReserva(idReserva);
+        Reserva seleccionada = obtenerReservaFila(filaSeleccionada);
+        if (seleccionada != null) {
+            mainView.mostrarFacturaDeReserva(seleccionada.getIdReserva());
+        }
+    }
+    
+    /**
+     * Fila de la tabla: la reserva y su factura (null si no tiene), cargadas juntas en la misma página
+     */
+    private static final class FilaReserva {
+        private final Reserva reserva;
+        private final Factura factura;
+        
+        FilaReserva(Reserva reserva, Factura factura) {
+            this.reserva = reserva;
+            this.factura = factura;
+        }
     }
 }
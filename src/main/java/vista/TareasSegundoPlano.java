@@ -0,0 +1,101 @@
+package vista;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Ejecuta las consultas y operaciones de base de datos de un panel fuera del hilo de eventos
+ * de Swing (EDT), para que la ventana no se congele mientras esperan a la base de datos.
+ * Los resultados y errores se entregan siempre en el EDT. Mientras haya tareas en curso se
+ * muestra un indicador de carga.
+ */
+class TareasSegundoPlano {
+
+    private final Component componente;
+    private final JProgressBar indicador;
+    private SwingWorker<?, ?> cargaActual;
+    private int tareasActivas;
+
+    /**
+     * @param componente componente sobre el que se muestra el cursor de espera
+     */
+    TareasSegundoPlano(Component componente) {
+        this.componente = componente;
+        this.indicador = new JProgressBar();
+        indicador.setIndeterminate(true);
+        indicador.setStringPainted(true);
+        indicador.setString("Cargando...");
+        indicador.setVisible(false);
+    }
+
+    /**
+     * Indicador de carga que el panel debe agregar a su diseño.
+     */
+    JProgressBar getIndicador() {
+        return indicador;
+    }
+
+    /**
+     * Ejecuta una carga de datos. Si había otra carga en curso se cancela y su
+     * resultado se descarta, de modo que la tabla solo muestra la carga más reciente.
+     */
+    <T> void cargar(Callable<T> consulta, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        if (cargaActual != null && !cargaActual.isDone()) {
+            cargaActual.cancel(false);
+        }
+        cargaActual = iniciar(consulta, alTerminar, alFallar);
+    }
+
+    /**
+     * Ejecuta una operación (agregar, editar, eliminar) sin cancelar las cargas en curso.
+     */
+    <T> void ejecutar(Callable<T> operacion, Consumer<T> alTerminar, Consumer<Exception> alFallar) {
+        iniciar(operacion, alTerminar, alFallar);
+    }
+
+    private <T> SwingWorker<T, Void> iniciar(Callable<T> tarea, Consumer<T> alTerminar,
+                                             Consumer<Exception> alFallar) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return tarea.call();
+            }
+
+            @Override
+            protected void done() {
+                finalizarTarea();
+                if (isCancelled()) {
+                    return; // Carga obsoleta: ya se pidió otra más reciente
+                }
+                try {
+                    alTerminar.accept(get());
+                } catch (ExecutionException e) {
+                    Throwable causa = e.getCause();
+                    alFallar.accept(causa instanceof Exception ? (Exception) causa : e);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        iniciarTarea();
+        worker.execute();
+        return worker;
+    }
+
+    private void iniciarTarea() {
+        tareasActivas++;
+        indicador.setVisible(true);
+        componente.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+    }
+
+    private void finalizarTarea() {
+        tareasActivas--;
+        if (tareasActivas == 0) {
+            indicador.setVisible(false);
+            componente.setCursor(Cursor.getDefaultCursor());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+-- Esquema de la base embebida (H2 en modo MySQL), equivalente al script MySQL del README.
+-- Los estados se guardan como VARCHAR porque la aplicación usa tanto 'PENDIENTE' como 'Pendiente'.
+
+CREATE TABLE IF NOT EXISTS cliente (
+    id_cliente INT AUTO_INCREMENT PRIMARY KEY,
+    nombre VARCHAR(100) NOT NULL,
+    apellido VARCHAR(100) NOT NULL,
+    dni VARCHAR(20) NOT NULL UNIQUE,
+    telefono VARCHAR(20),
+    email VARCHAR(100),
+    direccion VARCHAR(200)
+);
+
+CREATE TABLE IF NOT EXISTS reserva (
+    id_reserva INT AUTO_INCREMENT PRIMARY KEY,
+    id_cliente INT NOT NULL,
+    fecha_reserva DATE NOT NULL,
+    destino VARCHAR(100) NOT NULL,
+    fecha_viaje DATE NOT NULL,
+    precio DECIMAL(10,2) NOT NULL,
+    estado VARCHAR(20) DEFAULT 'PENDIENTE',
+    FOREIGN KEY (id_cliente) REFERENCES cliente(id_cliente)
+);
+
+CREATE TABLE IF NOT EXISTS factura (
+    id_factura INT AUTO_INCREMENT PRIMARY KEY,
+    id_reserva INT NOT NULL,
+    fecha_emision DATE NOT NULL,
+    monto_total DECIMAL(10,2) NOT NULL,
+    estado VARCHAR(20) DEFAULT 'PENDIENTE',
+    FOREIGN KEY (id_reserva) REFERENCES reserva(id_reserva)
+);
+
+-- Cantidad y monto facturado por mes de emisión (AAAAMM), estado y destino; lo mantienen los DAO
+-- en la misma transacción que cada escritura de facturas (ver AcumuladoIngresos)
+CREATE TABLE IF NOT EXISTS resumen_ingresos (
+    periodo INT NOT NULL,
+    estado VARCHAR(20) NOT NULL,
+    destino VARCHAR(100) NOT NULL,
+    cantidad INT NOT NULL,
+    monto_total DECIMAL(14,2) NOT NULL,
+    PRIMARY KEY (periodo, estado, destino)
+);
+
+CREATE INDEX IF NOT EXISTS idx_reserva_fecha_viaje ON reserva (fecha_viaje, id_reserva);
+CREATE INDEX IF NOT EXISTS idx_factura_fecha_emision ON factura (fecha_emision, id_factura);
+CREATE INDEX IF NOT EXISTS idx_reserva_destino ON reserva (destino, id_reserva);
+CREATE INDEX IF NOT EXISTS idx_reserva_fecha_viaje_estado ON reserva (fecha_viaje, estado);
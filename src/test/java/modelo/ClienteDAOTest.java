@@ -221,6 +221,120 @@ public class ClienteDAOTest {
         assertFalse(resultado2, "El segundo cliente no debe agregarse porque el DNI está duplicado");
     }
     
+    @Test
+    public void testExisteClienteConDni() {
+        // Arrange
+        Cliente cliente = new Cliente("Rosa", "Vera", "3333333333", "0933333333", "rosa@example.com", "Calle C");
+        clienteDAO.agregarCliente(cliente);
+        int clienteId = clienteDAO.consultarClientePorDni("3333333333").getIdCliente();
+        
+        // Act & Assert
+        assertTrue(clienteDAO.existeClienteConDni("3333333333", 0), "Debe encontrar el DNI registrado");
+        assertFalse(clienteDAO.existeClienteConDni("3333333333", clienteId), "No debe contar al cliente excluido");
+        assertFalse(clienteDAO.existeClienteConDni("4444444444", 0), "No debe encontrar un DNI inexistente");
+    }
+    
+    @Test
+    public void testRecorrerClientes() {
+        // Arrange
+        clienteDAO.agregarCliente(new Cliente("Luis", "García", "1111111111", "0911111111", "luis@example.com", "Calle A"));
+        clienteDAO.agregarCliente(new Cliente("Marta", "Rodríguez", "2222222222", "0922222222", "marta@example.com", "Calle B"));
+        
+        // Act
+        long cantidad;
+        try (java.util.stream.Stream<Cliente> clientes = clienteDAO.recorrerClientes()) {
+            cantidad = clientes.count();
+        }
+        
+        // Assert
+        assertEquals(2, cantidad, "El recorrido debe devolver los 2 clientes");
+    }
+
+    @Test
+    public void testAgregarClientesPorLotesInformaDuplicados() {
+        // Arrange
+        List<Cliente> clientes = List.of(
+            new Cliente("Ana", "Mora", "5555555555", "0955555555", "ana@example.com", "Calle D"),
+            new Cliente("Otra", "Ana", "5555555555", "0955555556", "otra@example.com", "Calle E"),
+            new Cliente("Raúl", "Paz", "6666666666", "0966666666", "raul@example.com", "Calle F"));
+
+        // Act
+        ResultadoLote resultado = clienteDAO.agregarClientes(clientes);
+
+        // Assert
+        assertEquals(2, resultado.getInsertados(), "Deben insertarse los 2 clientes válidos");
+        assertEquals(1, resultado.getFallos().size(), "Debe informarse 1 fila rechazada");
+        assertEquals(1, resultado.getFallos().get(0).getIndice(), "La fila rechazada es la del DNI duplicado");
+        assertTrue(clientes.get(2).getIdCliente() > 0, "Al cliente insertado se le asigna el ID generado");
+        assertEquals(2, clienteDAO.listarClientes().size(), "Deben quedar 2 clientes en la base de datos");
+    }
+
+    @Test
+    public void testConsultarResumenClienteConReservasYFacturas() throws SQLException {
+        // Arrange
+        Cliente cliente = new Cliente("Elena", "Vega", "7777777777", "0977777777", "elena@example.com", "Calle G");
+        clienteDAO.agregarCliente(cliente);
+        int clienteId = clienteDAO.consultarClientePorDni("7777777777").getIdCliente();
+        conn = TestConexionMySQL.getConnection();
+        int[] reservas = new int[2];
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) VALUES (?, ?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS)) {
+            for (int i = 0; i < reservas.length; i++) {
+                pstmt.setInt(1, clienteId);
+                pstmt.setDate(2, java.sql.Date.valueOf("2024-01-10"));
+                pstmt.setString(3, i == 0 ? "Quito" : "Lima");
+                pstmt.setDate(4, java.sql.Date.valueOf("2024-03-1" + i));
+                pstmt.setDouble(5, 100.00 * (i + 1));
+                pstmt.setString(6, "Pendiente");
+                pstmt.executeUpdate();
+                try (ResultSet rs = pstmt.getGeneratedKeys()) {
+                    rs.next();
+                    reservas[i] = rs.getInt(1);
+                }
+            }
+        }
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)")) {
+            pstmt.setInt(1, reservas[0]);
+            pstmt.setDate(2, java.sql.Date.valueOf("2024-01-10"));
+            pstmt.setDouble(3, 112.00);
+            pstmt.setString(4, "Pagada");
+            pstmt.executeUpdate();
+        }
+        conn.close();
+        
+        // Act
+        ResumenCliente resumen = clienteDAO.consultarResumenCliente(clienteId);
+        
+        // Assert
+        assertNotNull(resumen, "Debe encontrar el resumen del cliente");
+        assertEquals("Elena", resumen.getCliente().getNombre(), "El resumen debe incluir los datos del cliente");
+        assertEquals(2, resumen.getReservas().size(), "El resumen debe incluir las 2 reservas");
+        assertEquals("Quito", resumen.getReservas().get(0).getDestino(), "Las reservas deben venir ordenadas por ID");
+        assertEquals("Pendiente", resumen.getReservas().get(0).getEstado(), "El estado debe ser el de la reserva, no el de la factura");
+        assertEquals(1, resumen.getFacturas().size(), "Solo la primera reserva tiene factura");
+        assertEquals("Pagada", resumen.getFacturaDeReserva(reservas[0]).getEstadoPago(), "Debe asociar la factura a su reserva");
+        assertNull(resumen.getFacturaDeReserva(reservas[1]), "La segunda reserva no tiene factura");
+        assertEquals(112.00, resumen.getMontoFacturado(), 0.001, "El monto facturado debe sumar las facturas del cliente");
+    }
+    
+    @Test
+    public void testConsultarResumenClienteSinReservasOInexistente() {
+        // Arrange
+        clienteDAO.agregarCliente(new Cliente("Iván", "Soto", "8888888888", "0988888888", "ivan@example.com", "Calle H"));
+        int clienteId = clienteDAO.consultarClientePorDni("8888888888").getIdCliente();
+        
+        // Act
+        ResumenCliente resumen = clienteDAO.consultarResumenCliente(clienteId);
+        
+        // Assert
+        assertNotNull(resumen, "Debe encontrar al cliente aunque no tenga reservas");
+        assertTrue(resumen.getReservas().isEmpty(), "El cliente no tiene reservas");
+        assertTrue(resumen.getFacturas().isEmpty(), "El cliente no tiene facturas");
+        assertNull(clienteDAO.consultarResumenCliente(clienteId + 1000), "Un cliente inexistente debe devolver null");
+    }
+
     @AfterEach
     public void tearDownEach() throws SQLException {
         // Limpiar datos después de cada prueba
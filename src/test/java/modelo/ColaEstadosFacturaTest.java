@@ -0,0 +1,199 @@
+package modelo;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import util.TestConexionMySQL;
+
+/**
+ * Pruebas unitarias para la clase ColaEstadosFactura.
+ * Usa un intervalo largo para que los lotes se guarden solo cuando la prueba lo indica.
+ */
+public class ColaEstadosFacturaTest {
+
+    private static final long UNA_HORA_MS = 3_600_000L;
+
+    private static TestFacturaDAO facturaDAO;
+    private int facturaId;
+    private Path diario;
+
+    @BeforeAll
+    public static void setUp() {
+        facturaDAO = new TestFacturaDAO();
+    }
+
+    @BeforeEach
+    public void setUpEach(@TempDir Path carpeta) throws SQLException {
+        diario = carpeta.resolve("estados.diario");
+        try (Connection conn = TestConexionMySQL.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM factura");
+            stmt.executeUpdate("DELETE FROM reserva");
+            stmt.executeUpdate("DELETE FROM cliente");
+            stmt.executeUpdate("INSERT INTO cliente (nombre, apellido, dni, telefono, email, direccion) "
+                + "VALUES ('Cliente', 'Cola', '5566778899', '0987654321', 'cliente@cola.com', 'Calle Cola 123')");
+            int clienteId = ultimoId(stmt, "SELECT MAX(id_cliente) FROM cliente");
+            stmt.executeUpdate("INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) "
+                + "VALUES (" + clienteId + ", CURRENT_DATE, 'Quito', CURRENT_DATE, 100.00, 'Pendiente')");
+            int reservaId = ultimoId(stmt, "SELECT MAX(id_reserva) FROM reserva");
+            Factura factura = new Factura(reservaId, new Date(), 100.00, "PENDIENTE");
+            facturaDAO.agregarFactura(factura);
+            facturaId = factura.getIdFactura();
+        }
+    }
+
+    private static int ultimoId(Statement stmt, String sql) throws SQLException {
+        try (ResultSet rs = stmt.executeQuery(sql)) {
+            rs.next();
+            return rs.getInt(1);
+        }
+    }
+
+    @Test
+    public void testCombinaLosCambiosYGuardaElUltimo() throws IOException {
+        // Arrange
+        try (ColaEstadosFactura cola = new ColaEstadosFactura(facturaDAO, diario, UNA_HORA_MS, 100)) {
+            cola.encolar(facturaId, "PAGADA");
+            cola.encolar(facturaId, "ANULADA");
+
+            // Act
+            assertEquals(1, cola.getPendientes(), "Los cambios de una misma factura deben combinarse");
+            assertEquals("PENDIENTE", facturaDAO.consultarFactura(facturaId).getEstadoPago(),
+                "Antes de guardar, la base conserva el estado anterior");
+            boolean guardado = cola.guardar();
+
+            // Assert
+            assertTrue(guardado, "El lote debe guardarse");
+            assertEquals(0, cola.getPendientes(), "No deben quedar cambios pendientes");
+            assertEquals("ANULADA", facturaDAO.consultarFactura(facturaId).getEstadoPago(), "Debe guardarse el último estado");
+            assertFalse(Files.exists(diario), "El diario debe vaciarse al guardar todos los cambios");
+        }
+    }
+
+    @Test
+    public void testRecuperaLosCambiosDelDiario() throws IOException {
+        // Arrange
+        // La primera cola no se cierra, como si la aplicación terminara de forma inesperada
+        ColaEstadosFactura interrumpida = new ColaEstadosFactura(facturaDAO, diario, UNA_HORA_MS, 100);
+        interrumpida.encolar(facturaId, "ANULADA");
+        Files.writeString(diario, Files.readString(diario) + "12;PAG"); // Línea cortada a mitad de escritura
+
+        // Act
+        try (ColaEstadosFactura cola = new ColaEstadosFactura(facturaDAO, diario, UNA_HORA_MS, 100)) {
+
+            // Assert
+            assertEquals(1, cola.getPendientes(), "Debe recuperar solo los cambios completos del diario");
+            assertEquals("ANULADA", cola.consultarPendiente(facturaId), "Debe recuperar el estado encolado");
+            assertTrue(cola.guardar(), "El lote recuperado debe guardarse");
+            assertEquals("ANULADA", facturaDAO.consultarFactura(facturaId).getEstadoPago(), "El cambio recuperado debe guardarse");
+        } finally {
+            interrumpida.close();
+        }
+    }
+
+    @Test
+    public void testConservaLosCambiosSiFallaLaBase() throws IOException {
+        // Arrange
+        FacturaDAO sinBase = new TestFacturaDAO() {
+            @Override
+            public boolean actualizarEstadosFacturas(Map<Integer, String> estados) {
+                return false;
+            }
+
+            @Override
+            public Set<Integer> actualizarEstadosFacturasPorFila(Map<Integer, String> estados) {
+                return null;
+            }
+        };
+        try (ColaEstadosFactura cola = new ColaEstadosFactura(sinBase, diario, UNA_HORA_MS, 100)) {
+            cola.encolar(facturaId, "ANULADA");
+
+            // Act
+            boolean guardado = cola.guardar();
+
+            // Assert
+            assertFalse(guardado, "Debe informar que el lote no se guardó");
+            assertEquals("ANULADA", cola.consultarPendiente(facturaId), "El cambio debe seguir en la cola");
+            assertTrue(Files.readString(diario).contains(facturaId + ";ANULADA"), "El cambio debe seguir en el diario");
+        }
+    }
+
+    @Test
+    public void testDescartaLosCambiosQueLaBaseRechaza() throws IOException {
+        // Arrange
+        FacturaDAO rechazaLaPrimera = new TestFacturaDAO() {
+            @Override
+            public boolean actualizarEstadosFacturas(Map<Integer, String> estados) {
+                return false;
+            }
+
+            @Override
+            public Set<Integer> actualizarEstadosFacturasPorFila(Map<Integer, String> estados) {
+                return Set.of(facturaId);
+            }
+        };
+        try (ColaEstadosFactura cola = new ColaEstadosFactura(rechazaLaPrimera, diario, UNA_HORA_MS, 100)) {
+            cola.encolar(facturaId, "ANULADA");
+
+            // Act
+            boolean guardado = cola.guardar();
+
+            // Assert
+            assertTrue(guardado, "Un cambio rechazado por la base no debe dejar el lote como fallido");
+            assertEquals(0, cola.getPendientes(), "El cambio rechazado debe descartarse");
+            assertFalse(Files.exists(diario), "El cambio rechazado no debe quedar en el diario");
+        }
+    }
+
+    @Test
+    public void testGuardaSinEsperarAlLlenarseElLote() throws Exception {
+        // Arrange
+        try (ColaEstadosFactura cola = new ColaEstadosFactura(facturaDAO, diario, UNA_HORA_MS, 1)) {
+
+            // Act
+            cola.encolar(facturaId, "PAGADA");
+
+            // Assert
+            long limite = System.currentTimeMillis() + 5_000;
+            while (cola.getPendientes() > 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(10);
+            }
+            assertEquals(0, cola.getPendientes(), "El escritor debe guardar el lote lleno sin esperar el intervalo");
+            assertEquals("PAGADA", facturaDAO.consultarFactura(facturaId).getEstadoPago(), "El cambio debe guardarse");
+        }
+    }
+
+    @Test
+    public void testNoAceptaCambiosDespuesDeCerrar() throws IOException {
+        // Arrange
+        ColaEstadosFactura cola = new ColaEstadosFactura(facturaDAO, diario, UNA_HORA_MS, 100);
+        cola.encolar(facturaId, "ANULADA");
+
+        // Act
+        cola.close();
+
+        // Assert
+        assertEquals("ANULADA", facturaDAO.consultarFactura(facturaId).getEstadoPago(), "Al cerrar deben guardarse los pendientes");
+        assertFalse(cola.encolar(facturaId, "PAGADA"), "Una cola cerrada no debe aceptar cambios");
+        assertThrows(IllegalArgumentException.class, () -> cola.encolar(facturaId, " "), "Un estado vacío no es válido");
+        assertThrows(IllegalArgumentException.class, () -> cola.encolar(facturaId, "REEMBOLSADA"),
+            "Solo se aceptan los estados de Factura.ESTADOS_PAGO");
+    }
+
+    @AfterEach
+    public void tearDownEach() throws SQLException {
+        try (Connection conn = TestConexionMySQL.getConnection();
+             Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("DELETE FROM factura");
+            stmt.executeUpdate("DELETE FROM reserva");
+            stmt.executeUpdate("DELETE FROM cliente");
+        }
+    }
+}
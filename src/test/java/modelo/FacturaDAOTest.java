@@ -3,8 +3,15 @@ package modelo;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.sql.*;
+import java.time.YearMonth;
 import java.util.Date;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 import util.TestConexionMySQL;
 
 /**
@@ -384,6 +391,211 @@ public class FacturaDAOTest {
         assertEquals("PENDIENTE", facturaConsultada.getEstadoPago(), "El estado debe ser PENDIENTE");
     }
     
+    @Test
+    public void testConsultarFacturasPorReservas() throws SQLException {
+        // Arrange
+        // Tres reservas más; la última queda sin factura
+        int[] reservas = {reservaId, 0, 0, 0};
+        conn = TestConexionMySQL.getConnection();
+        PreparedStatement pstmtReserva = conn.prepareStatement(
+            "INSERT INTO reserva (id_cliente, fecha_reserva, destino, fecha_viaje, precio, estado) VALUES (?, ?, ?, ?, ?, ?)",
+            Statement.RETURN_GENERATED_KEYS
+        );
+        for (int i = 1; i < reservas.length; i++) {
+            pstmtReserva.setInt(1, clienteId);
+            pstmtReserva.setDate(2, java.sql.Date.valueOf("2024-01-10"));
+            pstmtReserva.setString(3, "Destino " + i);
+            pstmtReserva.setDate(4, java.sql.Date.valueOf("2024-02-10"));
+            pstmtReserva.setDouble(5, 100.00 * i);
+            pstmtReserva.setString(6, "PENDIENTE");
+            pstmtReserva.executeUpdate();
+            ResultSet generatedKeys = pstmtReserva.getGeneratedKeys();
+            generatedKeys.next();
+            reservas[i] = generatedKeys.getInt(1);
+        }
+        pstmtReserva.close();
+        PreparedStatement pstmtFactura = conn.prepareStatement(
+            "INSERT INTO factura (id_reserva, fecha_emision, monto_total, estado) VALUES (?, ?, ?, ?)"
+        );
+        for (int i = 0; i < 3; i++) {
+            pstmtFactura.setInt(1, reservas[i]);
+            pstmtFactura.setDate(2, java.sql.Date.valueOf("2024-01-10"));
+            pstmtFactura.setDouble(3, 112.00 * (i + 1));
+            pstmtFactura.setString(4, i == 0 ? "PAGADA" : "PENDIENTE");
+            pstmtFactura.executeUpdate();
+        }
+        pstmtFactura.close();
+        conn.close();
+        
+        // IDs repetidos e inexistentes, y más IDs que un bloque IN para que se consulte por partes
+        List<Integer> ids = new java.util.ArrayList<>();
+        for (int i = 1; i <= FacturaDAO.TAMANO_BLOQUE_IN + 100; i++) {
+            ids.add(-i);
+        }
+        for (int idReserva : reservas) {
+            ids.add(idReserva);
+        }
+        ids.add(reservas[1]);
+        
+        // Act
+        java.util.Map<Integer, Factura> facturas = facturaDAO.consultarFacturasPorReservas(ids);
+        
+        // Assert
+        assertEquals(3, facturas.size(), "Deben encontrarse las facturas de las 3 reservas facturadas");
+        assertEquals("PAGADA", facturas.get(reservas[0]).getEstadoPago(), "Cada factura debe asociarse a su reserva");
+        assertEquals(224.00, facturas.get(reservas[1]).getMontoTotal(), 0.01, "El monto debe ser el de la factura de la reserva");
+        assertFalse(facturas.containsKey(reservas[3]), "La reserva sin factura no debe aparecer");
+        assertTrue(facturaDAO.consultarFacturasPorReservas(List.of()).isEmpty(), "Sin IDs no debe haber facturas");
+    }
+    
+    @Test
+    public void testResumenIngresosSeMantieneConLasEscrituras() {
+        // Arrange
+        assertTrue(facturaDAO.reconstruirResumenIngresos(), "Debe reconstruir el resumen (otras pruebas borran facturas directamente)");
+        Set<AgrupacionIngresos> todos = EnumSet.allOf(AgrupacionIngresos.class);
+        Date marzo = java.sql.Date.valueOf("2026-03-10");
+        Date abril = java.sql.Date.valueOf("2026-04-02");
+        
+        // Act
+        // Escrituras por todos los caminos que modifican facturas
+        Factura pagada = new Factura(reservaId, marzo, 1000.00, "PENDIENTE");
+        facturaDAO.agregarFactura(pagada);
+        pagada.setEstadoPago("PAGADA");
+        facturaDAO.actualizarFactura(pagada);
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, new Date(), "Quito", abril, 500.00, "Pendiente"));
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, new Date(), "Cuenca", abril, 300.00, "Pendiente"));
+        for (Reserva reserva : reservaDAO.listarReservasPorCliente(clienteId)) {
+            if (reserva.getDestino().equals("Quito")) {
+                reserva.setDestino("Lima");
+                reservaDAO.actualizarReserva(reserva);
+            } else if (reserva.getDestino().equals("Cuenca")) {
+                reservaDAO.eliminarReservaConFactura(reserva.getIdReserva());
+            }
+        }
+        facturaDAO.agregarFacturas(List.of(new Factura(reservaId, abril, 100.00, "PENDIENTE")));
+        
+        // Assert
+        List<TotalIngresos> calculados = facturaDAO.calcularIngresos(todos, java.sql.Date.valueOf("2000-01-01"),
+            java.sql.Date.valueOf("2100-12-31"));
+        List<TotalIngresos> resumen = facturaDAO.consultarResumenIngresos(todos, YearMonth.of(2000, 1), YearMonth.of(2100, 12));
+        assertEquals(describir(calculados), describir(resumen), "El resumen debe coincidir con el cálculo sobre las facturas");
+        assertEquals(3, resumen.size(), "Debe haber un grupo por mes, estado y destino con facturas");
+        assertTrue(describir(resumen).stream().anyMatch(grupo -> grupo.contains("|Lima|1|560.00")),
+            "La factura de la reserva actualizada debe pasar al destino nuevo");
+        
+        List<TotalIngresos> porEstado = facturaDAO.consultarResumenIngresos(EnumSet.of(AgrupacionIngresos.ESTADO),
+            YearMonth.of(2026, 1), YearMonth.of(2026, 12));
+        assertEquals(List.of("PAGADA|1|1120.00", "PENDIENTE|2|672.00"), porEstado.stream()
+            .map(t -> t.getEstado() + "|" + t.getCantidad() + "|" + String.format(Locale.ROOT, "%.2f", t.getMontoTotal()))
+            .collect(Collectors.toList()), "Debe sumar por estado sin el destino ni el periodo");
+        List<TotalIngresos> total = facturaDAO.consultarResumenIngresos(EnumSet.noneOf(AgrupacionIngresos.class),
+            YearMonth.of(2000, 1), YearMonth.of(2100, 12));
+        assertEquals(3, total.get(0).getCantidad(), "Sin criterios debe haber un solo total");
+        assertEquals(597.33, total.get(0).getPromedio(), 0.01, "Debe promediar todas las facturas");
+        assertNull(total.get(0).getPeriodo(), "Sin agrupar por periodo no debe informar el mes");
+    }
+    
+    @Test
+    public void testActualizarEstadoFacturaCambiaSoloElEstado() {
+        // Arrange
+        assertTrue(facturaDAO.reconstruirResumenIngresos(), "Debe reconstruir el resumen (otras pruebas borran facturas directamente)");
+        Factura factura = new Factura(reservaId, new Date(), 1000.00, "PENDIENTE");
+        facturaDAO.agregarFactura(factura);
+
+        // Act
+        boolean resultado = facturaDAO.actualizarEstadoFactura(factura.getIdFactura(), "ANULADA");
+
+        // Assert
+        assertTrue(resultado, "Debe retornar true si la factura existe");
+        Factura consultada = facturaDAO.consultarFactura(factura.getIdFactura());
+        assertEquals("ANULADA", consultada.getEstadoPago(), "El estado debe actualizarse");
+        assertEquals(112000, consultada.getMontoTotalCentavos(), "El monto no debe cambiar (ni volver a sumar el IVA)");
+        List<TotalIngresos> porEstado = facturaDAO.consultarResumenIngresos(EnumSet.of(AgrupacionIngresos.ESTADO),
+            YearMonth.of(2000, 1), YearMonth.of(2100, 12));
+        assertEquals(1, porEstado.size(), "La factura debe pasar al grupo de su estado nuevo");
+        assertEquals("ANULADA", porEstado.get(0).getEstado(), "El resumen debe agrupar por el estado nuevo");
+        assertFalse(facturaDAO.actualizarEstadoFactura(99999, "ANULADA"), "Debe retornar false si la factura no existe");
+    }
+
+    @Test
+    public void testActualizarEstadosFacturasEnLote() {
+        // Arrange
+        assertTrue(facturaDAO.reconstruirResumenIngresos(), "Debe reconstruir el resumen (otras pruebas borran facturas directamente)");
+        Factura primera = new Factura(reservaId, new Date(), 100.00, "PENDIENTE");
+        Factura segunda = new Factura(reservaId, new Date(), 200.00, "PENDIENTE");
+        facturaDAO.agregarFactura(primera);
+        facturaDAO.agregarFactura(segunda);
+        Map<Integer, String> estados = new LinkedHashMap<>();
+        estados.put(primera.getIdFactura(), "PAGADA");
+        estados.put(segunda.getIdFactura(), "ANULADA");
+        estados.put(99999, "PAGADA"); // Factura inexistente: se ignora
+
+        // Act
+        boolean resultado = facturaDAO.actualizarEstadosFacturas(estados);
+
+        // Assert
+        assertTrue(resultado, "Debe retornar true si se guardó el lote");
+        assertEquals("PAGADA", facturaDAO.consultarFactura(primera.getIdFactura()).getEstadoPago(), "Cada factura debe tener su estado");
+        assertEquals("ANULADA", facturaDAO.consultarFactura(segunda.getIdFactura()).getEstadoPago(), "Cada factura debe tener su estado");
+        Set<AgrupacionIngresos> porEstado = EnumSet.of(AgrupacionIngresos.ESTADO);
+        assertEquals(describir(facturaDAO.calcularIngresos(porEstado, java.sql.Date.valueOf("2000-01-01"), java.sql.Date.valueOf("2100-12-31"))),
+            describir(facturaDAO.consultarResumenIngresos(porEstado, YearMonth.of(2000, 1), YearMonth.of(2100, 12))),
+            "El resumen debe coincidir con el cálculo sobre las facturas");
+    }
+
+    @Test
+    public void testAgregarFacturasSumaAlResumenSoloLasInsertadas() {
+        // Arrange
+        assertTrue(facturaDAO.reconstruirResumenIngresos(), "Debe reconstruir el resumen (otras pruebas borran facturas directamente)");
+        List<Factura> facturas = List.of(
+            new Factura(reservaId, new Date(), 100.00, "PENDIENTE"),
+            new Factura(99999, new Date(), 200.00, "PENDIENTE"), // Reserva inexistente: la base la rechaza
+            new Factura(reservaId, new Date(), 300.00, "PAGADA"));
+
+        // Act
+        ResultadoLote resultado = facturaDAO.agregarFacturas(facturas);
+
+        // Assert
+        assertEquals(2, resultado.getInsertados(), "Deben insertarse solo las facturas válidas");
+        Set<AgrupacionIngresos> porEstado = EnumSet.of(AgrupacionIngresos.ESTADO);
+        assertEquals(describir(facturaDAO.calcularIngresos(porEstado, java.sql.Date.valueOf("2000-01-01"), java.sql.Date.valueOf("2100-12-31"))),
+            describir(facturaDAO.consultarResumenIngresos(porEstado, YearMonth.of(2000, 1), YearMonth.of(2100, 12))),
+            "El resumen debe incluir solo las facturas insertadas");
+    }
+
+    @Test
+    public void testActualizarEstadosFacturasPorFilaSeparaLasRechazadas() {
+        // Arrange
+        assertTrue(facturaDAO.reconstruirResumenIngresos(), "Debe reconstruir el resumen (otras pruebas borran facturas directamente)");
+        Factura primera = new Factura(reservaId, new Date(), 100.00, "PENDIENTE");
+        Factura segunda = new Factura(reservaId, new Date(), 200.00, "PENDIENTE");
+        facturaDAO.agregarFactura(primera);
+        facturaDAO.agregarFactura(segunda);
+        Map<Integer, String> estados = new LinkedHashMap<>();
+        estados.put(primera.getIdFactura(), "X".repeat(30)); // No entra en la columna estado
+        estados.put(segunda.getIdFactura(), "ANULADA");
+        assertFalse(facturaDAO.actualizarEstadosFacturas(estados), "El lote completo debe fallar por la fila inválida");
+
+        // Act
+        Set<Integer> rechazadas = facturaDAO.actualizarEstadosFacturasPorFila(estados);
+
+        // Assert
+        assertEquals(Set.of(primera.getIdFactura()), rechazadas, "Solo debe informarse la fila que la base rechazó");
+        assertEquals("PENDIENTE", facturaDAO.consultarFactura(primera.getIdFactura()).getEstadoPago(), "La fila rechazada no debe cambiar");
+        assertEquals("ANULADA", facturaDAO.consultarFactura(segunda.getIdFactura()).getEstadoPago(), "Las demás filas deben guardarse");
+        Set<AgrupacionIngresos> porEstado = EnumSet.of(AgrupacionIngresos.ESTADO);
+        assertEquals(describir(facturaDAO.calcularIngresos(porEstado, java.sql.Date.valueOf("2000-01-01"), java.sql.Date.valueOf("2100-12-31"))),
+            describir(facturaDAO.consultarResumenIngresos(porEstado, YearMonth.of(2000, 1), YearMonth.of(2100, 12))),
+            "El resumen debe coincidir con el cálculo sobre las facturas");
+    }
+
+    private static List<String> describir(List<TotalIngresos> totales) {
+        return totales.stream()
+            .map(t -> t.getPeriodo() + "|" + t.getEstado() + "|" + t.getDestino() + "|" + t.getCantidad()
+                + "|" + String.format(Locale.ROOT, "%.2f", t.getMontoTotal()))
+            .collect(Collectors.toList());
+    }
+    
     @Test
     public void testManejoExcepcionReservaNoExistente() {
         // Arrange
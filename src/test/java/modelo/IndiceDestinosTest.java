@@ -0,0 +1,77 @@
+package modelo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pruebas unitarias para el índice en memoria de destinos.
+ */
+public class IndiceDestinosTest {
+
+    private IndiceDestinos indice;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndiceDestinos();
+        indice.cargar(Map.of(
+            "Cancún", 30,
+            "Cancun", 2,
+            "Nueva York", 50,
+            "Quito", 20,
+            "Guayaquil", 10,
+            "Cuenca", 5,
+            "Curazao", 1));
+    }
+
+    @Test
+    public void testBuscarPorPrefijoSinTildesNiMayusculas() {
+        // Act
+        List<String> resultado = indice.buscar("CANC", 10);
+
+        // Assert
+        assertEquals(2, resultado.size(), "Deben aparecer las dos formas escritas de Cancún");
+        assertTrue(resultado.containsAll(List.of("Cancún", "Cancun")), "Cancún y Cancun son el mismo destino normalizado");
+        assertEquals(List.of("Nueva York"), indice.buscar("york", 10), "Debe encontrar por el comienzo de una palabra");
+    }
+
+    @Test
+    public void testOrdenaPrefijosAntesQueParecidos() {
+        // Act
+        List<String> resultado = indice.buscar("cu", 10);
+
+        // Assert
+        assertEquals(List.of("Cuenca", "Curazao"), resultado, "Con el mismo rango se ordena por cantidad de reservas");
+    }
+
+    @Test
+    public void testToleraErroresDeTipeo() {
+        // Act & Assert
+        assertEquals(List.of("Guayaquil"), indice.buscar("guayakil", 10), "Debe tolerar una letra cambiada");
+        assertEquals(List.of("Quito"), indice.buscar("quitp", 10), "Debe tolerar un error al final");
+        assertEquals(List.of("Nueva York"), indice.buscar("nueba yor", 10), "Debe tolerar errores en textos incompletos");
+        assertTrue(indice.buscar("lima", 10).isEmpty(), "Un destino inexistente no debe coincidir");
+        assertTrue(indice.buscar("qx", 10).isEmpty(), "Los textos cortos no toleran errores");
+    }
+
+    @Test
+    public void testAgregarYQuitarMantienenElIndice() {
+        // Act
+        indice.agregar("Lima");
+        indice.quitar("Curazao");
+
+        // Assert
+        assertEquals(List.of("Lima"), indice.buscar("lim", 10), "Un destino nuevo debe poder buscarse");
+        assertTrue(indice.buscar("curazao", 10).isEmpty(), "Un destino sin reservas debe salir del índice");
+        assertEquals(32, indice.contarReservas(List.of("Cancún", "Cancun")), "Debe sumar las reservas de ambas formas");
+    }
+
+    @Test
+    public void testNormalizarYDistancia() {
+        // Act & Assert
+        assertEquals("sao paulo", IndiceDestinos.normalizar("  São-Paulo "), "Debe quitar tildes, signos y espacios extra");
+        assertEquals(1, IndiceDestinos.distancia("quito", "quitp"), "Una sustitución es distancia 1");
+        assertEquals(3, IndiceDestinos.distancia("kitten", "sitting"), "Distancia clásica de Levenshtein");
+    }
+}
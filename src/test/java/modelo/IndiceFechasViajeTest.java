@@ -0,0 +1,73 @@
+package modelo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Pruebas unitarias para el índice en memoria de salidas por fecha de viaje.
+ */
+public class IndiceFechasViajeTest {
+
+    private static final LocalDate HOY = LocalDate.of(2026, 3, 1);
+
+    private IndiceFechasViaje indice;
+
+    @BeforeEach
+    public void setUp() {
+        indice = new IndiceFechasViaje(30);
+        indice.cargar(HOY, Map.of(
+            "Pendiente", Map.of(HOY, 2, HOY.plusDays(5), 1, HOY.plusDays(40), 7),
+            "CONFIRMADA", Map.of(HOY.plusDays(5), 3, HOY.plusDays(29), 1)));
+    }
+
+    @Test
+    public void testContarRangosPorEstado() {
+        // Act & Assert
+        assertEquals(7, indice.contar(HOY, HOY.plusDays(29), null), "Debe contar todas las salidas de la ventana");
+        assertEquals(3, indice.contar(HOY, HOY.plusDays(10), "pendiente"), "El estado no distingue mayúsculas");
+        assertEquals(4, indice.contar(HOY.plusDays(5), HOY.plusDays(5), null), "Un rango de un día cuenta ese día");
+        assertEquals(0, indice.contar(HOY.plusDays(1), HOY.plusDays(4), null), "Un rango sin salidas cuenta cero");
+        assertEquals(0, indice.contar(HOY, HOY.plusDays(29), "Cancelada"), "Un estado sin reservas cuenta cero");
+    }
+
+    @Test
+    public void testContarPorDia() {
+        // Act
+        SortedMap<LocalDate, Integer> salidas = indice.contarPorDia(HOY, HOY.plusDays(29), null);
+
+        // Assert
+        assertEquals(Map.of(HOY, 2, HOY.plusDays(5), 4, HOY.plusDays(29), 1), salidas, "Solo deben aparecer los días con salidas");
+        assertEquals(HOY, salidas.firstKey(), "Los días deben quedar ordenados");
+    }
+
+    @Test
+    public void testCubreSoloLaVentana() {
+        // Act & Assert
+        assertTrue(indice.cubre(HOY, HOY.plusDays(29)), "La ventana cubre 30 días a partir del primer día");
+        assertFalse(indice.cubre(HOY.minusDays(1), HOY.plusDays(3)), "Los días anteriores a la ventana se consultan en la base");
+        assertFalse(indice.cubre(HOY, HOY.plusDays(30)), "Los días posteriores a la ventana se consultan en la base");
+
+        indice.invalidar();
+        assertFalse(indice.cubre(HOY, HOY.plusDays(3)), "Un índice invalidado no debe responder consultas");
+    }
+
+    @Test
+    public void testAgregarYQuitarMantienenElIndice() {
+        // Act
+        // Una reserva confirmada que se pasa a cancelada y cambia de fecha
+        indice.quitar(HOY.plusDays(5), "Confirmada");
+        indice.agregar(HOY.plusDays(6), "Cancelada");
+        indice.agregar(HOY.plusDays(90), "Pendiente"); // Fuera de la ventana: se ignora
+
+        // Assert
+        assertEquals(2, indice.contar(HOY.plusDays(5), HOY.plusDays(5), "confirmada"), "Debe descontar la reserva modificada");
+        assertEquals(1, indice.contar(HOY, HOY.plusDays(29), "CANCELADA"), "Debe contar la reserva en su estado nuevo");
+        assertEquals(7, indice.contar(HOY, HOY.plusDays(29), null), "El total de la ventana no cambia");
+
+        indice.quitar(HOY.plusDays(1), "Pendiente");
+        assertEquals(0, indice.contar(HOY.plusDays(1), HOY.plusDays(1), null), "Quitar de un día vacío no debe dejar cantidades negativas");
+    }
+}
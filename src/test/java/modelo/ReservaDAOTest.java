@@ -3,8 +3,10 @@ package modelo;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import java.sql.*;
+import java.time.LocalDate;
 import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import util.TestConexionMySQL;
 
 /**
@@ -286,6 +288,117 @@ public class ReservaDAOTest {
         }
     }
     
+    @Test
+    public void testAgregarReservaConFacturaUsaLaTasaDelDestino() throws SQLException {
+        // Arrange
+        Date fechaActual = new Date();
+        Date fechaViaje = new Date(fechaActual.getTime() + 86400000); // Un día después
+        reservaDAO.setCalculadoraImpuestos((subtotal, destino, fecha) ->
+                "Galápagos".equals(destino) ? subtotal : TablaTarifas.predeterminada().calcularTotal(subtotal, destino, fecha));
+
+        try {
+            // Act
+            reservaDAO.agregarReservasConFactura(new java.util.ArrayList<>(List.of(
+                    new Reserva(clienteId, fechaActual, "Galápagos", fechaViaje, 1000.00, "PENDIENTE"),
+                    new Reserva(clienteId, fechaActual, "Quito", fechaViaje, 1000.00, "PENDIENTE"))));
+        } finally {
+            reservaDAO.setCalculadoraImpuestos(TablaTarifas.predeterminada());
+        }
+
+        // Assert
+        conn = TestConexionMySQL.getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement(
+                "SELECT r.destino, f.monto_total FROM factura f JOIN reserva r ON r.id_reserva = f.id_reserva");
+             ResultSet rs = pstmt.executeQuery()) {
+            int facturas = 0;
+            while (rs.next()) {
+                facturas++;
+                double esperado = "Galápagos".equals(rs.getString("destino")) ? 1000.00 : 1120.00;
+                assertEquals(esperado, rs.getDouble("monto_total"), 0.001, "Cada factura debe usar la tasa de su destino");
+            }
+            assertEquals(2, facturas, "Deben existir las 2 facturas");
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testAgregarReservasConFacturaRevierteSiFallaElCalculoDeImpuestos() throws SQLException {
+        // Arrange
+        Date fechaActual = new Date();
+        Date fechaViaje = new Date(fechaActual.getTime() + 86400000); // Un día después
+        reservaDAO.setCalculadoraImpuestos((subtotal, destino, fecha) -> {
+            throw new IllegalStateException("Sin tasa vigente");
+        });
+
+        boolean resultado;
+        try {
+            // Act
+            resultado = reservaDAO.agregarReservasConFactura(new java.util.ArrayList<>(List.of(
+                    new Reserva(clienteId, fechaActual, "Quito", fechaViaje, 1000.00, "PENDIENTE"))));
+        } finally {
+            reservaDAO.setCalculadoraImpuestos(TablaTarifas.predeterminada());
+        }
+
+        // Assert
+        assertFalse(resultado, "Debe informar que el grupo no se guardó");
+        conn = TestConexionMySQL.getConnection();
+        try (PreparedStatement pstmt = conn.prepareStatement("SELECT COUNT(*) FROM reserva");
+             ResultSet rs = pstmt.executeQuery()) {
+            rs.next();
+            assertEquals(0, rs.getInt(1), "Las reservas ya insertadas deben revertirse");
+        } finally {
+            conn.close();
+        }
+    }
+
+    @Test
+    public void testAgregarReservasConFacturaEnGrupo() throws SQLException {
+        // Arrange
+        Date fechaActual = new Date();
+        Date fechaViaje = new Date(fechaActual.getTime() + 86400000); // Un día después
+        List<Reserva> grupo = new java.util.ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            grupo.add(new Reserva(clienteId, fechaActual, "Cusco", fechaViaje, 1000.00, "PENDIENTE"));
+        }
+
+        // Act
+        boolean resultado = reservaDAO.agregarReservasConFactura(grupo);
+
+        // Assert
+        assertTrue(resultado, "Debe retornar true si todas las reservas y facturas se agregaron");
+        assertEquals(3, reservaDAO.listarReservasPorCliente(clienteId).size(), "Deben existir las 3 reservas del grupo");
+        conn = TestConexionMySQL.getConnection();
+        PreparedStatement pstmt = conn.prepareStatement("SELECT monto_total FROM factura WHERE id_reserva = ?");
+        for (Reserva reserva : grupo) {
+            assertTrue(reserva.getIdReserva() > 0, "A cada reserva se le asigna el ID generado");
+            pstmt.setInt(1, reserva.getIdReserva());
+            try (ResultSet rs = pstmt.executeQuery()) {
+                assertTrue(rs.next(), "Cada reserva debe tener su factura");
+                assertEquals(1120.00, rs.getDouble("monto_total"), 0.01, "El monto total debe incluir el 12% de IVA");
+            }
+        }
+        pstmt.close();
+        conn.close();
+    }
+
+    @Test
+    public void testAgregarReservasConFacturaRevierteElGrupoSiUnaFalla() {
+        // Arrange
+        Date fechaActual = new Date();
+        Date fechaViaje = new Date(fechaActual.getTime() + 86400000); // Un día después
+        List<Reserva> grupo = List.of(
+            new Reserva(clienteId, fechaActual, "Quito", fechaViaje, 500.00, "PENDIENTE"),
+            new Reserva(99999, fechaActual, "Quito", fechaViaje, 500.00, "PENDIENTE"));
+
+        // Act
+        boolean resultado = reservaDAO.agregarReservasConFactura(grupo);
+
+        // Assert
+        assertFalse(resultado, "Debe retornar false porque uno de los clientes no existe");
+        assertTrue(reservaDAO.listarReservasPorCliente(clienteId).isEmpty(), "No debe guardarse ninguna reserva del grupo");
+    }
+
     @Test
     public void testEliminarReservaConFactura() throws SQLException {
         // Arrange
@@ -342,6 +455,145 @@ public class ReservaDAOTest {
         assertFalse(resultado, "Debe retornar false porque el cliente no existe");
     }
     
+    @Test
+    public void testListarReservasPagina() {
+        // Arrange
+        Date fechaActual = new Date();
+        for (int i = 1; i <= 3; i++) {
+            Date fechaViaje = new Date(fechaActual.getTime() + i * 86400000L);
+            reservaDAO.agregarReserva(new Reserva(clienteId, fechaActual, "Destino", fechaViaje, 100.00 * i, "PENDIENTE"));
+        }
+        
+        // Act
+        List<Reserva> primeraPagina = reservaDAO.listarReservasPagina(0, 2);
+        int ultimoId = primeraPagina.get(primeraPagina.size() - 1).getIdReserva();
+        List<Reserva> segundaPagina = reservaDAO.listarReservasPagina(ultimoId, 2);
+        
+        // Assert
+        assertEquals(2, primeraPagina.size(), "La primera página debe tener 2 reservas");
+        assertEquals(1, segundaPagina.size(), "La segunda página debe tener la reserva restante");
+        assertTrue(segundaPagina.get(0).getIdReserva() > ultimoId, "La segunda página debe continuar después del cursor");
+    }
+
+    @Test
+    public void testContarYListarReservasDesdePosicion() {
+        // Arrange
+        Date fechaActual = new Date();
+        for (int i = 1; i <= 3; i++) {
+            Date fechaViaje = new Date(fechaActual.getTime() + i * 86400000L);
+            reservaDAO.agregarReserva(new Reserva(clienteId, fechaActual, "Destino", fechaViaje, 100.00 * i, "PENDIENTE"));
+        }
+        List<Reserva> todas = reservaDAO.listarReservasPagina(0, 10);
+
+        // Act
+        int total = reservaDAO.contarReservas();
+        List<Reserva> desdeSegunda = reservaDAO.listarReservasDesdePosicion(1, 10);
+
+        // Assert
+        assertEquals(3, total, "Deben contarse las 3 reservas");
+        assertEquals(2, desdeSegunda.size(), "Desde la posición 1 deben quedar 2 reservas");
+        assertEquals(todas.get(1).getIdReserva(), desdeSegunda.get(0).getIdReserva(),
+                "La consulta por posición debe seguir el mismo orden que la paginación por clave");
+    }
+
+    @Test
+    public void testBuscarDestinosSeMantieneConLasEscrituras() {
+        // Arrange
+        ReservaDAO.getIndiceDestinos().invalidar(); // Otras pruebas borran reservas directamente en la base
+        Date fechaActual = new Date();
+        Date fechaViaje = new Date(fechaActual.getTime() + 86400000);
+        Reserva quito = new Reserva(clienteId, fechaActual, "Quito", fechaViaje, 300.00, "Pendiente");
+        reservaDAO.agregarReservaConFactura(quito);
+        assertEquals(List.of("Quito"), reservaDAO.buscarDestinos("quitp", 10), "Debe encontrar el destino con un error de tipeo");
+        
+        // Act
+        // Reservas nuevas y actualizadas después de cargar el índice
+        Reserva cancun = new Reserva(clienteId, fechaActual, "Cancún", fechaViaje, 900.00, "Pendiente");
+        reservaDAO.agregarReservaConFactura(cancun);
+        Reserva reserva = reservaDAO.listarReservasPorCliente(clienteId).stream()
+            .filter(r -> r.getDestino().equals("Quito")).findFirst().orElseThrow();
+        reserva.setDestino("Lima");
+        reservaDAO.actualizarReserva(reserva);
+        
+        // Assert
+        List<String> destinos = reservaDAO.buscarDestinos("CANCUN", 10);
+        assertEquals(List.of("Cancún"), destinos, "Debe encontrar la reserva nueva sin tildes ni mayúsculas");
+        assertEquals(1, reservaDAO.contarReservasPorDestinos(destinos), "Debe contar la reserva del destino encontrado");
+        assertEquals("Cancún", reservaDAO.listarReservasPorDestinosPagina(destinos, 0, 10).get(0).getDestino(),
+            "Debe listar las reservas del destino encontrado");
+        assertTrue(reservaDAO.buscarDestinos("quito", 10).isEmpty(), "El destino anterior de la reserva actualizada ya no tiene reservas");
+        assertEquals(List.of("Lima"), reservaDAO.buscarDestinos("lim", 10), "Debe encontrar el destino nuevo de la reserva actualizada");
+        
+        reservaDAO.eliminarReservaConFactura(reserva.getIdReserva());
+        assertTrue(reservaDAO.buscarDestinos("lima", 10).isEmpty(), "El destino de la reserva eliminada ya no debe aparecer");
+    }
+
+    @Test
+    public void testConsultasEntreFechasSeMantienenConLasEscrituras() {
+        // Arrange
+        ReservaDAO.getIndiceFechasViaje().invalidar(); // Otras pruebas borran reservas directamente en la base
+        LocalDate hoy = LocalDate.now();
+        Date fechaActual = new Date();
+        Date enTresDias = java.sql.Date.valueOf(hoy.plusDays(3));
+        Date enUnAnio = java.sql.Date.valueOf(hoy.plusDays(365));
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, fechaActual, "Quito", enTresDias, 300.00, "Pendiente"));
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, fechaActual, "Cuenca", enTresDias, 200.00, "Confirmada"));
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, fechaActual, "Lima", enUnAnio, 500.00, "Pendiente"));
+        Date desde = java.sql.Date.valueOf(hoy);
+        Date hasta = java.sql.Date.valueOf(hoy.plusDays(10));
+        assertEquals(2, reservaDAO.contarReservasEntreFechas(desde, hasta, null), "Debe contar las salidas de los próximos días");
+
+        // Act
+        // Cambios después de cargar el índice de salidas
+        reservaDAO.agregarReservaConFactura(new Reserva(clienteId, fechaActual, "Loja", hasta, 150.00, "Pendiente"));
+        Reserva quito = reservaDAO.listarReservasPorCliente(clienteId).stream()
+            .filter(r -> r.getDestino().equals("Quito")).findFirst().orElseThrow();
+        quito.setEstado("Cancelada");
+        reservaDAO.actualizarReserva(quito);
+
+        // Assert
+        assertTrue(ReservaDAO.getIndiceFechasViaje().cubre(hoy, hoy.plusDays(10)), "Los próximos días deben responderse desde memoria");
+        assertEquals(3, reservaDAO.contarReservasEntreFechas(desde, hasta, null), "Debe contar la reserva nueva");
+        assertEquals(1, reservaDAO.contarReservasEntreFechas(desde, hasta, "Pendiente"), "La reserva cancelada ya no está pendiente");
+        assertEquals(Map.of(hoy.plusDays(3), 2, hoy.plusDays(10), 1), reservaDAO.contarSalidasPorDia(desde, hasta, null),
+            "Debe contar las salidas de cada día");
+        Date hastaUnAnio = java.sql.Date.valueOf(hoy.plusDays(400));
+        assertEquals(4, reservaDAO.contarReservasEntreFechas(desde, hastaUnAnio, null), "Fuera de la ventana se cuenta en la base");
+        assertEquals(Map.of(hoy.plusDays(3), 1), reservaDAO.contarSalidasPorDia(desde, hastaUnAnio, "Cancelada"),
+            "Las salidas por día fuera de la ventana se cuentan en la base");
+
+        reservaDAO.eliminarReservaConFactura(quito.getIdReserva());
+        assertEquals(2, reservaDAO.contarReservasEntreFechas(desde, hasta, null), "La reserva eliminada ya no debe contarse");
+    }
+
+    @Test
+    public void testListarReservasEntreFechasPagina() {
+        // Arrange
+        LocalDate hoy = LocalDate.now();
+        Date fechaActual = new Date();
+        for (int i = 0; i < 5; i++) {
+            reservaDAO.agregarReserva(new Reserva(clienteId, fechaActual, "Destino " + i,
+                java.sql.Date.valueOf(hoy.plusDays(5 - i)), 100.00, i % 2 == 0 ? "Pendiente" : "Confirmada"));
+        }
+        Date desde = java.sql.Date.valueOf(hoy.plusDays(2));
+        Date hasta = java.sql.Date.valueOf(hoy.plusDays(5));
+
+        // Act
+        List<Reserva> primera = reservaDAO.listarReservasEntreFechasPagina(desde, hasta, null, null, 0, 2);
+        Reserva ultima = primera.get(primera.size() - 1);
+        List<Reserva> segunda = reservaDAO.listarReservasEntreFechasPagina(desde, hasta, null,
+            ultima.getFechaViaje(), ultima.getIdReserva(), 2);
+        List<Reserva> pendientes = reservaDAO.listarReservasEntreFechasPagina(desde, hasta, "Pendiente", null, 0, 10);
+
+        // Assert
+        assertEquals(List.of("Destino 3", "Destino 2"), primera.stream().map(Reserva::getDestino).toList(),
+            "La primera página debe empezar por la fecha de viaje más cercana dentro del rango");
+        assertEquals(List.of("Destino 1", "Destino 0"), segunda.stream().map(Reserva::getDestino).toList(),
+            "La segunda página debe continuar después de la última reserva recibida");
+        assertEquals(List.of("Destino 2", "Destino 0"), pendientes.stream().map(Reserva::getDestino).toList(),
+            "Debe filtrar por estado");
+    }
+    
     @AfterEach
     public void tearDownEach() throws SQLException {
         // Limpiar datos después de cada prueba
@@ -0,0 +1,34 @@
+package modelo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Pruebas unitarias para la clase ResultadoLote.
+ */
+public class ResultadoLoteTest {
+
+    @Test
+    public void testConRechazosUsaLosIndicesDeLaListaRecibida() {
+        // Arrange
+        // Se recibieron 5 filas: la 1 y la 3 no pasaron la validación y las otras 3 se enviaron
+        ResultadoLote enviadas = new ResultadoLote(3);
+        enviadas.registrarInsertado();
+        enviadas.registrarFallo(1, "DNI duplicado"); // Segunda fila enviada: la 2 de la lista recibida
+        enviadas.registrarInsertado();
+
+        // Act
+        ResultadoLote resultado = ResultadoLote.conRechazos(5, Map.of(1, "Email no válido", 3, "Nombre vacío"), enviadas);
+
+        // Assert
+        assertEquals(5, resultado.getTotal(), "El total debe ser el de las filas recibidas");
+        assertEquals(2, resultado.getInsertados(), "Deben contarse las filas insertadas");
+        List<Integer> indices = resultado.getFallos().stream().map(ResultadoLote.Fallo::getIndice).collect(Collectors.toList());
+        assertEquals(List.of(1, 2, 3), indices, "Las fallas deben indicar la posición en la lista recibida, en orden");
+        assertEquals("DNI duplicado", resultado.getFallos().get(1).getMensaje(), "Debe conservarse el motivo informado por la base");
+        assertFalse(resultado.esCompleto(), "Un lote con filas rechazadas no está completo");
+    }
+}
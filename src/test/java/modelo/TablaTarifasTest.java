@@ -0,0 +1,88 @@
+package modelo;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.LocalDate;
+
+/**
+ * Pruebas unitarias para la clase TablaTarifas.
+ */
+public class TablaTarifasTest {
+
+    private static final String TABLA = "# destino;desde;hasta;porcentaje\n"
+            + "*;;2025-12-31;12\n"
+            + "*;2026-01-01;;15\n"
+            + "\n"
+            + "Galápagos;2026-03-01;2026-03-31;0\n"
+            + "Cusco;;;7.5\n";
+
+    private TablaTarifas tabla;
+
+    @BeforeEach
+    public void setUpEach() throws IOException {
+        tabla = TablaTarifas.leer(new StringReader(TABLA));
+    }
+
+    @Test
+    public void testTasaGeneralSegunLaFechaDeEmision() {
+        // Act & Assert
+        assertEquals(1200, tabla.consultarPorcentaje("Quito", LocalDate.of(2025, 12, 31)), "Hasta fin de 2025 rige el 12%");
+        assertEquals(1500, tabla.consultarPorcentaje("Quito", LocalDate.of(2026, 1, 1)), "Desde 2026 rige el 15%");
+        assertEquals(1500, tabla.consultarPorcentaje(null, LocalDate.of(2026, 1, 1)), "Sin destino se usa la tasa general");
+    }
+
+    @Test
+    public void testTasaDelDestinoSoloDuranteSuVigencia() {
+        // Act & Assert
+        assertEquals(0, tabla.consultarPorcentaje("GALÁPAGOS", LocalDate.of(2026, 3, 15)),
+                "Dentro de la vigencia rige la tasa del destino, sin distinguir mayúsculas");
+        assertEquals(1500, tabla.consultarPorcentaje("Galápagos", LocalDate.of(2026, 4, 1)),
+                "Fuera de la vigencia rige la tasa general");
+        assertEquals(750, tabla.consultarPorcentaje(" cusco ", LocalDate.of(2020, 1, 1)),
+                "Una tasa sin límites rige en cualquier fecha");
+    }
+
+    @Test
+    public void testCalcularTotalRedondeaAlCentavo() {
+        // Act & Assert
+        assertEquals(112000, tabla.calcularTotal(100000, "Quito", LocalDate.of(2025, 6, 1)), "1000.00 más 12% es 1120.00");
+        assertEquals(100000, tabla.calcularTotal(100000, "Galápagos", LocalDate.of(2026, 3, 1)), "Con tasa 0 el total es el subtotal");
+        assertEquals(108, tabla.calcularTotal(100, "Cusco", LocalDate.of(2026, 3, 1)), "1.075 debe redondearse a 1.08");
+    }
+
+    @Test
+    public void testRechazaTablasNoValidas() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("Quito;;;12\n")),
+                "Una tabla sin tasa general no es válida");
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;;;12\n*;2026-01-01;;15\n")),
+                "Las vigencias de un mismo destino no pueden superponerse");
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;;;doce\n")),
+                "El porcentaje debe ser un número");
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;2026-13-01;;12\n")),
+                "Las fechas deben ser válidas");
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;;12\n")),
+                "Cada línea debe tener cuatro campos");
+    }
+
+    @Test
+    public void testRechazaHuecosEnLaTasaGeneral() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;2026-01-01;;15\n")),
+                "La tasa general debe cubrir las fechas anteriores a su primera vigencia");
+        assertThrows(IllegalArgumentException.class, () -> TablaTarifas.leer(new StringReader("*;;2025-12-31;12\n")),
+                "La tasa general debe cubrir las fechas posteriores a su última vigencia");
+        assertThrows(IllegalArgumentException.class,
+                () -> TablaTarifas.leer(new StringReader("*;;2025-12-30;12\n*;2026-01-01;;15\n")),
+                "Las vigencias de la tasa general no pueden dejar días sin cubrir");
+    }
+
+    @Test
+    public void testTablaPredeterminadaAplicaElIvaGeneral() {
+        // Act & Assert
+        assertEquals(1200, TablaTarifas.predeterminada().consultarPorcentaje("Quito", LocalDate.now()),
+                "La tabla incluida en los recursos debe aplicar el 12% general");
+    }
+}
@@ -0,0 +1,76 @@
+package servidor;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Pruebas unitarias para la lectura y escritura de JSON de la API.
+ */
+public class JsonTest {
+
+    @Test
+    public void testLeerObjetoConTiposBasicos() {
+        // Arrange
+        String texto = "{\"idCliente\": 7, \"precio\": 150.50, \"activo\": true, \"nota\": null, "
+                + "\"destinos\": [\"Quito\", \"Cuenca\"]}";
+
+        // Act
+        @SuppressWarnings("unchecked")
+        Map<String, Object> objeto = (Map<String, Object>) Json.leer(texto);
+
+        // Assert
+        assertEquals(7L, objeto.get("idCliente"), "Los enteros deben leerse como Long");
+        assertEquals(new BigDecimal("150.50"), objeto.get("precio"), "Los decimales deben leerse como BigDecimal sin perder precisión");
+        assertEquals(Boolean.TRUE, objeto.get("activo"), "Los booleanos deben leerse como Boolean");
+        assertTrue(objeto.containsKey("nota") && objeto.get("nota") == null, "null debe conservarse como campo nulo");
+        assertEquals(List.of("Quito", "Cuenca"), objeto.get("destinos"), "Los arreglos deben leerse como listas");
+    }
+
+    @Test
+    public void testEscribirYLeerTextoConCaracteresEspeciales() {
+        // Arrange
+        String original = "Dirección \"Norte\"\n\\ calle\t5 ñ";
+
+        // Act
+        String json = Json.escribir(Map.of("direccion", original));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> leido = (Map<String, Object>) Json.leer(json);
+
+        // Assert
+        assertEquals(original, leido.get("direccion"), "El texto debe conservarse tras escribir y leer el JSON");
+        assertEquals("á", Json.leer("\"\\u00e1\""), "Los escapes \\u deben decodificarse");
+    }
+
+    @Test
+    public void testEscribirNumerosFechasYNulos() {
+        // Arrange
+        Calendar calendario = Calendar.getInstance();
+        calendario.clear();
+        calendario.set(2024, Calendar.MARCH, 5);
+
+        // Act
+        String json = Json.escribir(Arrays.asList(168.0, 112.56, Double.NaN, 42, calendario.getTime(), null));
+
+        // Assert
+        assertEquals("[168,112.56,null,42,\"2024-03-05\",null]", json,
+                "Los números deben escribirse sin notación científica y las fechas como yyyy-MM-dd");
+    }
+
+    @Test
+    public void testJsonInvalidoLanzaIllegalArgumentException() {
+        // Arrange
+        String[] invalidos = {"", "{", "{\"a\" 1}", "[1,]", "{\"a\": 1} extra", "\"sin cerrar", "tru", "01x"};
+
+        // Act & Assert
+        for (String invalido : invalidos) {
+            IllegalArgumentException ex = assertThrows(IllegalArgumentException.class, () -> Json.leer(invalido),
+                    "Debe rechazarse el JSON inválido: " + invalido);
+            assertTrue(ex.getMessage().startsWith("JSON inválido"), "El mensaje debe indicar que el JSON es inválido");
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package servidor;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.Map;
+import util.ConexionMySQL;
+
+/**
+ * Pruebas del servidor API contra la base embebida (H2): códigos de estado de las operaciones
+ * de /api/clientes y de los errores más comunes.
+ */
+public class ServidorApiTest {
+
+    private static final String CLIENTE = "{\"nombre\":\"Ana\",\"apellido\":\"López\",\"dni\":\"0102030405\","
+            + "\"telefono\":\"0991234567\",\"email\":\"ana@example.com\",\"direccion\":\"Calle 1\"}";
+
+    private static ServidorApi api;
+    private static HttpClient cliente;
+    private static String base;
+
+    @BeforeAll
+    public static void setUp() throws IOException {
+        api = new ServidorApi(0);
+        api.iniciar();
+        cliente = HttpClient.newHttpClient();
+        base = "http://127.0.0.1:" + api.getPuerto();
+    }
+
+    private static HttpResponse<String> enviar(String metodo, String ruta, String cuerpo) throws Exception {
+        HttpRequest solicitud = HttpRequest.newBuilder(URI.create(base + ruta))
+                .method(metodo, cuerpo == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(cuerpo))
+                .build();
+        return cliente.send(solicitud, HttpResponse.BodyHandlers.ofString());
+    }
+
+    @Test
+    public void testCicloDeVidaDeUnCliente() throws Exception {
+        // Act & Assert
+        assertEquals(201, enviar("POST", "/api/clientes", CLIENTE).statusCode(), "Registrar un cliente debe responder 201");
+
+        HttpResponse<String> pagina = enviar("GET", "/api/clientes", null);
+        assertEquals(200, pagina.statusCode(), "Listar clientes debe responder 200");
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> clientes = (List<Map<String, Object>>) Json.leer(pagina.body());
+        Object idCliente = clientes.stream().filter(c -> "0102030405".equals(c.get("dni")))
+                .findFirst().orElseThrow().get("idCliente");
+
+        assertEquals(200, enviar("GET", "/api/clientes/" + idCliente, null).statusCode(),
+                "Consultar un cliente existente debe responder 200");
+        HttpResponse<String> actualizado = enviar("PUT", "/api/clientes/" + idCliente, CLIENTE.replace("Calle 1", "Calle 2"));
+        assertEquals(200, actualizado.statusCode(), "Actualizar un cliente debe responder 200");
+        assertTrue(actualizado.body().contains("Calle 2"), "La respuesta debe traer el cliente actualizado");
+        assertEquals(204, enviar("DELETE", "/api/clientes/" + idCliente, null).statusCode(),
+                "Eliminar un cliente sin reservas debe responder 204");
+        assertEquals(404, enviar("GET", "/api/clientes/" + idCliente, null).statusCode(),
+                "Un cliente eliminado ya no debe encontrarse");
+    }
+
+    @Test
+    public void testErroresDeLaSolicitud() throws Exception {
+        // Act & Assert
+        assertEquals(400, enviar("POST", "/api/clientes", "{\"nombre\":\"Ana\"}").statusCode(),
+                "Un cliente con datos incompletos debe responder 400");
+        assertEquals(400, enviar("POST", "/api/clientes", "{no es json").statusCode(),
+                "Un cuerpo que no es JSON debe responder 400");
+        assertEquals(400, enviar("GET", "/api/clientes/abc", null).statusCode(),
+                "Un ID que no es un número debe responder 400");
+        assertEquals(404, enviar("GET", "/api/clientes/1/desconocido", null).statusCode(),
+                "Una ruta inexistente debe responder 404");
+        assertEquals(404, enviar("PATCH", "/api/facturas/99999", "{\"estadoPago\":\"ANULADA\"}").statusCode(),
+                "Cambiar el estado de una factura inexistente debe responder 404");
+        HttpResponse<String> noPermitido = enviar("PATCH", "/api/clientes/1", "{}");
+        assertEquals(405, noPermitido.statusCode(), "Un método no soportado debe responder 405");
+        assertEquals("GET, PUT, DELETE", noPermitido.headers().firstValue("Allow").orElse(null),
+                "La respuesta 405 debe indicar los métodos permitidos");
+    }
+
+    @Test
+    public void testEscuchaSoloEnLaInterfazLocalPorDefecto() throws Exception {
+        // Act & Assert
+        assertEquals(200, enviar("GET", "/api/salud", null).statusCode(), "El servidor debe responder en la interfaz local");
+        ServidorApi otro = new ServidorApi(null, 0);
+        try {
+            assertTrue(otro.getDireccion().getAddress().isLoopbackAddress(),
+                    "Sin servidor.host el servidor solo debe escuchar en la interfaz local");
+        } finally {
+            otro.detener(0);
+        }
+    }
+
+    @AfterAll
+    public static void tearDown() {
+        api.detener(0);
+        ConexionMySQL.cerrarPool();
+    }
+}
@@ -0,0 +1,124 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas unitarias para las clases Bitacora y DespachadorBitacora.
+ * Usan un despachador propio que escribe en una lista en lugar de la consola.
+ */
+public class BitacoraTest {
+
+    @Test
+    public void testFormateaCamposYRespetaElNivel() {
+        // Arrange
+        List<String> lineas = Collections.synchronizedList(new ArrayList<>());
+        DespachadorBitacora despachador = new DespachadorBitacora(16, DespachadorBitacora.hacia(lineas::add));
+        Bitacora bitacora = new Bitacora("modelo.ClienteDAO", Bitacora.Nivel.INFO, despachador);
+
+        // Act
+        bitacora.depuracion("No debe escribirse");
+        bitacora.info("Cliente agregado", "idCliente", 7, "destino", "Buenos Aires");
+        bitacora.error("Error al consultar cliente", new IllegalStateException("sin conexión"), "idCliente", 7);
+        despachador.detener(1000);
+
+        // Assert
+        assertEquals(2, lineas.size(), "Solo deben escribirse los eventos de nivel INFO o superior");
+        assertTrue(lineas.get(0).contains(" INFO [") && lineas.get(0).endsWith(
+                "ClienteDAO - Cliente agregado idCliente=7 destino=\"Buenos Aires\""),
+                "La línea debe llevar nivel, clase, mensaje y campos: " + lineas.get(0));
+        assertTrue(lineas.get(1).contains("ERROR") && lineas.get(1).contains("error=\"java.lang.IllegalStateException: sin conexión\""),
+                "El error debe incluir la excepción: " + lineas.get(1));
+        assertTrue(lineas.get(1).contains("at util.BitacoraTest"), "El error debe incluir la traza");
+    }
+
+    @Test
+    public void testConservaElOrdenConVariosHilos() throws InterruptedException {
+        // Arrange
+        List<String> lineas = Collections.synchronizedList(new ArrayList<>());
+        DespachadorBitacora despachador = new DespachadorBitacora(8192, DespachadorBitacora.hacia(lineas::add));
+        Bitacora bitacora = new Bitacora("controlador.ReservaController", Bitacora.Nivel.INFO, despachador);
+        Thread[] hilos = new Thread[4];
+
+        // Act
+        for (int h = 0; h < hilos.length; h++) {
+            String nombre = "hilo" + h;
+            hilos[h] = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    bitacora.info("Evento", "n", i);
+                }
+            }, nombre);
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos) {
+            hilo.join();
+        }
+        despachador.detener(5000);
+
+        // Assert
+        assertEquals(4000 - despachador.getDescartados(), lineas.size(), "Deben escribirse todos los eventos no descartados");
+        for (int h = 0; h < hilos.length; h++) {
+            int anterior = -1;
+            for (String linea : lineas) {
+                if (linea.contains("[hilo" + h + "]")) {
+                    int n = Integer.parseInt(linea.substring(linea.lastIndexOf('=') + 1));
+                    assertTrue(n > anterior, "Los eventos de un mismo hilo deben conservar su orden");
+                    anterior = n;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDescartaSinBloquearCuandoElBufferEstaLleno() throws InterruptedException {
+        // Arrange
+        CountDownLatch liberar = new CountDownLatch(1);
+        DespachadorBitacora despachador = new DespachadorBitacora(4, DespachadorBitacora.hacia(linea -> {
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        Bitacora bitacora = new Bitacora("modelo.ReservaDAO", Bitacora.Nivel.INFO, despachador);
+
+        // Act
+        long inicio = System.nanoTime();
+        for (int i = 0; i < 20; i++) {
+            bitacora.info("Evento", "n", i);
+        }
+        long nanos = System.nanoTime() - inicio;
+        liberar.countDown();
+        despachador.detener(1000);
+
+        // Assert
+        assertTrue(despachador.getDescartados() >= 20 - 4 - 1, "Los eventos que no caben deben descartarse");
+        assertTrue(nanos < TimeUnit.SECONDS.toNanos(1), "Registrar no debe bloquear aunque la salida esté detenida");
+    }
+
+    @Test
+    public void testNivelPorClaseYPaquete() {
+        // Arrange
+        Bitacora bitacora = Bitacora.obtener(BitacoraTest.class);
+
+        try {
+            // Act
+            Bitacora.configurarNivel("util", Bitacora.Nivel.ERROR);
+            boolean infoConPaqueteEnError = bitacora.estaActivo(Bitacora.Nivel.INFO);
+            Bitacora.configurarNivel("util.BitacoraTest", Bitacora.Nivel.DEPURACION);
+            boolean depuracionConClaseEnDepuracion = bitacora.estaActivo(Bitacora.Nivel.DEPURACION);
+
+            // Assert
+            assertFalse(infoConPaqueteEnError, "El nivel del paquete debe aplicarse a sus clases");
+            assertTrue(depuracionConClaseEnDepuracion, "El nivel de la clase debe ganar al del paquete");
+        } finally {
+            Bitacora.configurarNivel("util", Bitacora.Nivel.INFO);
+            Bitacora.configurarNivel("util.BitacoraTest", Bitacora.Nivel.INFO);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pruebas unitarias para la clase CacheLectura.
+ * Utiliza un reloj simulado para controlar el vencimiento de las entradas.
+ */
+public class CacheLecturaTest {
+
+    private AtomicLong relojNanos;
+    private AtomicInteger cargas;
+    private CacheLectura<Integer, String> cache;
+
+    @BeforeEach
+    public void setUpEach() {
+        relojNanos = new AtomicLong();
+        cargas = new AtomicInteger();
+        cache = new CacheLectura<>(2, 1_000, relojNanos::get);
+    }
+
+    private String cargar(Integer clave) {
+        cargas.incrementAndGet();
+        return "valor" + clave;
+    }
+
+    @Test
+    public void testSegundaLecturaSeResuelveDesdeLaCache() {
+        // Act
+        cache.obtener(1, this::cargar);
+        String valor = cache.obtener(1, this::cargar);
+
+        // Assert
+        assertEquals("valor1", valor, "Debe devolverse el valor cargado");
+        assertEquals(1, cargas.get(), "La segunda lectura no debe volver a cargar");
+        assertEquals(0.5, cache.obtenerEstadisticas().getTasaAciertos(), 0.001, "La tasa de aciertos debe ser 50%");
+    }
+
+    @Test
+    public void testEntradaExpiradaSeVuelveACargar() {
+        // Arrange
+        cache.obtener(1, this::cargar);
+
+        // Act
+        relojNanos.addAndGet(1_000_000_001L);
+        cache.obtener(1, this::cargar);
+
+        // Assert
+        assertEquals(2, cargas.get(), "La entrada vencida debe cargarse de nuevo");
+        assertEquals(1, cache.obtenerEstadisticas().getExpiradas(), "Debe contarse la entrada expirada");
+    }
+
+    @Test
+    public void testDesalojaLaEntradaMenosUsada() {
+        // Arrange
+        cache.obtener(1, this::cargar);
+        cache.obtener(2, this::cargar);
+        cache.obtener(1, this::cargar); // La clave 2 queda como la menos usada
+
+        // Act
+        cache.obtener(3, this::cargar);
+        cache.obtener(1, this::cargar);
+        cache.obtener(2, this::cargar);
+
+        // Assert
+        assertEquals(4, cargas.get(), "Solo la clave 2 debe haberse desalojado y vuelto a cargar");
+        assertEquals(2, cache.obtenerEstadisticas().getDesalojadas(), "Deben contarse los desalojos");
+    }
+
+    @Test
+    public void testInvalidarDescartaLaEntradaYLaCargaEnCurso() {
+        // Arrange
+        cache.obtener(1, this::cargar);
+
+        // Act
+        cache.invalidar(1);
+        String durante = cache.obtener(1, clave -> {
+            cache.invalidar(1); // Se actualiza el registro mientras se está cargando
+            return "antiguo";
+        });
+        String despues = cache.obtener(1, this::cargar);
+
+        // Assert
+        assertEquals("antiguo", durante, "El llamador recibe el valor que cargó");
+        assertEquals("valor1", despues, "El valor cargado durante la invalidación no debe guardarse");
+    }
+
+    @Test
+    public void testNoGuardaValoresNulos() {
+        // Act
+        cache.obtener(1, clave -> null);
+        String valor = cache.obtener(1, this::cargar);
+
+        // Assert
+        assertEquals("valor1", valor, "Un valor null no debe guardarse en la caché");
+    }
+}
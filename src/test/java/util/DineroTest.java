@@ -0,0 +1,75 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.math.BigDecimal;
+
+/**
+ * Pruebas unitarias para la clase Dinero.
+ */
+public class DineroTest {
+
+    @Test
+    public void testParsearMontosValidos() {
+        // Act & Assert
+        assertEquals(15000, Dinero.parsear("150"), "Un entero debe convertirse a centavos");
+        assertEquals(15050, Dinero.parsear("150.5"), "Un decimal debe completarse a dos cifras");
+        assertEquals(15005, Dinero.parsear(" 150.05 "), "Deben ignorarse los espacios alrededor");
+        assertEquals(-15050, Dinero.parsear("-150.50"), "Deben admitirse montos negativos");
+    }
+
+    @Test
+    public void testParsearRechazaMontosNoValidos() {
+        // Act & Assert
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear(null), "Un monto nulo no es válido");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear(""), "Un monto vacío no es válido");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("abc"), "Un texto no es un monto");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("150."), "Falta la parte decimal");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear(".50"), "Falta la parte entera");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("1.505"), "No se admiten más de dos decimales");
+        assertThrows(NumberFormatException.class, () -> Dinero.parsear("99999999999999999999"),
+                "Un monto que no cabe en un long debe rechazarse");
+    }
+
+    @Test
+    public void testFormatear() {
+        // Act & Assert
+        assertEquals("1234.50", Dinero.formatear(123450), "Deben mostrarse siempre dos decimales");
+        assertEquals("0.05", Dinero.formatear(5), "Los centavos menores a diez deben llevar cero");
+        assertEquals("-10.05", Dinero.formatear(-1005), "Los negativos deben llevar el signo delante");
+    }
+
+    @Test
+    public void testMultiplicarRedondeaAlCentavo() {
+        // Act & Assert
+        assertEquals(11200, Dinero.multiplicar(10000, 112, 100), "El 12% de impuesto sobre 100.00 es exacto");
+        assertEquals(112, Dinero.multiplicar(100, 112, 100), "El 12% sobre 1.00 es 1.12");
+        assertEquals(6, Dinero.multiplicar(5, 112, 100), "0.056 debe redondearse a 0.06");
+        assertEquals(1, Dinero.multiplicar(1, 1, 2), "Las mitades deben redondearse hacia arriba");
+        assertEquals(-1, Dinero.multiplicar(-1, 1, 2), "Las mitades negativas deben alejarse de cero");
+    }
+
+    @Test
+    public void testConversionesConDecimalYDouble() {
+        // Act & Assert
+        assertEquals(new BigDecimal("1500.75"), Dinero.aDecimal(150075), "Debe devolverse un decimal con dos cifras");
+        assertEquals(150075, Dinero.deDecimal(new BigDecimal("1500.75")), "La ida y vuelta debe ser exacta");
+        assertEquals(0, Dinero.deDecimal(null), "Un decimal nulo se toma como cero");
+        assertEquals(1010, Dinero.deDouble(10.1), "Un double con dos decimales debe convertirse sin error");
+        assertEquals(10.1, Dinero.aDouble(1010), 0.0, "Los centavos deben volver al mismo double");
+    }
+
+    @Test
+    public void testSumaDeCentavosNoAcumulaErrores() {
+        // Arrange
+        long total = 0;
+
+        // Act
+        for (int i = 0; i < 1000; i++) {
+            total += Dinero.parsear("0.10");
+        }
+
+        // Assert
+        assertEquals("100.00", Dinero.formatear(total), "Mil montos de 0.10 deben sumar exactamente 100.00");
+    }
+}
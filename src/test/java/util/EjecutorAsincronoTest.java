@@ -0,0 +1,84 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pruebas unitarias para el ejecutor acotado de las operaciones asíncronas.
+ */
+public class EjecutorAsincronoTest {
+
+    private EjecutorAsincrono ejecutor;
+
+    @AfterEach
+    public void tearDown() {
+        ejecutor.detener(1000);
+    }
+
+    @Test
+    public void testCombinaResultadosDeTareasIndependientes() {
+        // Arrange
+        ejecutor = new EjecutorAsincrono(2, 10, "prueba-async");
+
+        // Act
+        CompletableFuture<Integer> primera = ejecutor.ejecutar(() -> 20);
+        CompletableFuture<Integer> segunda = ejecutor.ejecutar(() -> 22);
+        int suma = primera.thenCombine(segunda, Integer::sum).join();
+        String hilo = ejecutor.ejecutar(() -> Thread.currentThread().getName()).join();
+
+        // Assert
+        assertEquals(42, suma, "Los resultados de ambas tareas deben combinarse");
+        assertTrue(hilo.startsWith("prueba-async-"), "La tarea debe ejecutarse en un hilo del ejecutor");
+    }
+
+    @Test
+    public void testExcepcionDeLaOperacionCompletaElFuturo() {
+        // Arrange
+        ejecutor = new EjecutorAsincrono(1, 10, "prueba-async");
+
+        // Act
+        CompletableFuture<Boolean> futuro = ejecutor.ejecutar(() -> {
+            throw new IllegalArgumentException("Error de validación: DNI inválido");
+        });
+
+        // Assert
+        CompletionException ex = assertThrows(CompletionException.class, futuro::join,
+                "El futuro debe completarse excepcionalmente");
+        assertTrue(ex.getCause() instanceof IllegalArgumentException,
+                "La causa debe ser la excepción original de la operación");
+    }
+
+    @Test
+    public void testRechazaTareasCuandoLaColaEstaLlena() throws InterruptedException {
+        // Arrange
+        ejecutor = new EjecutorAsincrono(1, 1, "prueba-async");
+        CountDownLatch liberar = new CountDownLatch(1);
+        CountDownLatch ocupado = new CountDownLatch(1);
+        ejecutor.ejecutar(() -> {
+            ocupado.countDown();
+            try {
+                return liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                return false;
+            }
+        });
+        assertTrue(ocupado.await(5, TimeUnit.SECONDS), "El único hilo debe quedar ocupado");
+        CompletableFuture<Integer> enCola = ejecutor.ejecutar(() -> 1);
+
+        // Act
+        CompletableFuture<Integer> rechazada = ejecutor.ejecutar(() -> 2);
+
+        // Assert
+        assertEquals(1, ejecutor.getTareasEnCola(), "Debe haber una tarea esperando en la cola");
+        CompletionException ex = assertThrows(CompletionException.class, rechazada::join,
+                "La tarea que no cabe en la cola debe fallar");
+        assertTrue(ex.getCause() instanceof RejectedExecutionException, "La causa debe ser RejectedExecutionException");
+        liberar.countDown();
+        assertEquals(1, enCola.join(), "La tarea encolada debe ejecutarse al liberarse el hilo");
+    }
+}
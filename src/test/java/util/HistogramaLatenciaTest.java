@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas unitarias para la clase HistogramaLatencia.
+ */
+public class HistogramaLatenciaTest {
+
+    @Test
+    public void testPercentilesDentroDelErrorRelativo() {
+        // Arrange
+        HistogramaLatencia histograma = new HistogramaLatencia();
+
+        // Act
+        for (long micros = 1; micros <= 10_000; micros++) {
+            histograma.registrarMicros(micros);
+        }
+
+        // Assert
+        assertEquals(10_000, histograma.getCantidad(), "Deben contarse todas las mediciones");
+        assertEquals(10_000, histograma.getMaximoMicros(), "El máximo debe ser exacto");
+        assertEquals(5_000, histograma.getPromedioMicros(), "El promedio debe ser exacto");
+        assertEquals(5_000, histograma.percentilMicros(50), 5_000 * 0.0625, "p50 fuera del error esperado");
+        assertEquals(9_900, histograma.percentilMicros(99), 9_900 * 0.0625, "p99 fuera del error esperado");
+        assertTrue(histograma.percentilMicros(99.9) <= 10_000, "Ningún percentil debe superar el máximo");
+    }
+
+    @Test
+    public void testCubetasCubrenTodoElRango() {
+        // Act & Assert
+        long anterior = -1;
+        for (int indice = 0; indice < 16 * 38; indice++) {
+            long limite = HistogramaLatencia.limiteSuperior(indice);
+            assertTrue(limite > anterior, "Los límites deben ser crecientes");
+            assertEquals(indice, HistogramaLatencia.indice(limite), "El límite debe caer en su propia cubeta");
+            assertEquals(indice, HistogramaLatencia.indice(anterior + 1), "No debe haber huecos entre cubetas");
+            anterior = limite;
+        }
+    }
+
+    @Test
+    public void testHistogramaVacio() {
+        // Arrange
+        HistogramaLatencia histograma = new HistogramaLatencia();
+
+        // Act & Assert
+        assertEquals(0, histograma.percentilMicros(99), "Sin mediciones el percentil debe ser 0");
+        assertEquals(0, histograma.getPromedioMicros(), "Sin mediciones el promedio debe ser 0");
+    }
+}
@@ -0,0 +1,218 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pruebas unitarias para la clase PoolConexiones.
+ * Utiliza conexiones simuladas para no depender de una base de datos.
+ */
+public class PoolConexionesTest {
+
+    private AtomicInteger conexionesCreadas;
+    private AtomicInteger sentenciasPreparadas;
+    private PoolConexiones pool;
+
+    @BeforeEach
+    public void setUpEach() {
+        conexionesCreadas = new AtomicInteger();
+        sentenciasPreparadas = new AtomicInteger();
+        pool = new PoolConexiones(this::crearConexionSimulada, 0, 2, 60_000, 200, 0, 4);
+    }
+
+    @AfterEach
+    public void tearDownEach() {
+        pool.close();
+    }
+
+    @Test
+    public void testReutilizaConexionDevuelta() throws SQLException {
+        // Act
+        Connection primera = pool.obtenerConexion();
+        primera.close();
+        Connection segunda = pool.obtenerConexion();
+        segunda.close();
+
+        // Assert
+        assertEquals(1, conexionesCreadas.get(), "Debe reutilizarse la conexión física devuelta");
+        assertEquals(2, pool.obtenerEstadisticas().getPrestamos(), "Deben registrarse 2 préstamos");
+    }
+
+    @Test
+    public void testTiempoDeEsperaAgotadoCuandoElPoolEstaLleno() throws SQLException {
+        // Arrange
+        Connection c1 = pool.obtenerConexion();
+        Connection c2 = pool.obtenerConexion();
+
+        // Act & Assert
+        assertThrows(SQLException.class, () -> pool.obtenerConexion(),
+                "Debe fallar si no se libera ninguna conexión dentro del tiempo de espera");
+        assertEquals(1, pool.obtenerEstadisticas().getEsperasAgotadas(), "Debe contarse la espera agotada");
+
+        c1.close();
+        c2.close();
+    }
+
+    @Test
+    public void testConexionDevueltaNoSePuedeUsar() throws SQLException {
+        // Arrange
+        Connection conexion = pool.obtenerConexion();
+
+        // Act
+        conexion.close();
+        conexion.close(); // Cerrar dos veces no debe devolverla dos veces
+
+        // Assert
+        assertTrue(conexion.isClosed(), "La conexión debe reportarse como cerrada");
+        assertThrows(SQLException.class, () -> conexion.createStatement(),
+                "No se debe poder usar una conexión ya devuelta");
+        assertEquals(1, pool.obtenerEstadisticas().getInactivas(), "Debe haber una sola conexión inactiva");
+    }
+
+    @Test
+    public void testReutilizaSentenciaPreparadaEntrePrestamos() throws SQLException {
+        // Arrange
+        String sql = "SELECT * FROM cliente WHERE id_cliente = ?";
+
+        // Act
+        try (Connection conexion = pool.obtenerConexion();
+             PreparedStatement pstmt = conexion.prepareStatement(sql)) {
+            pstmt.setInt(1, 1);
+        }
+        try (Connection conexion = pool.obtenerConexion();
+             PreparedStatement pstmt = conexion.prepareStatement(sql)) {
+            pstmt.setInt(1, 2);
+        }
+
+        // Assert
+        assertEquals(1, sentenciasPreparadas.get(), "La sentencia debe prepararse una sola vez");
+        PoolConexiones.Estadisticas estadisticas = pool.obtenerEstadisticas();
+        assertEquals(1, estadisticas.getAciertosCacheSentencias(), "Debe haber 1 acierto en la caché");
+        assertEquals(1, estadisticas.getFallosCacheSentencias(), "Debe haber 1 fallo en la caché");
+    }
+
+    @Test
+    public void testRegistraMetricasPorOperacionYSentencia() throws SQLException {
+        // Arrange
+        MetricasConsultas metricas = new MetricasConsultas();
+        pool.usarMetricas(metricas);
+        String sql = "SELECT * FROM cliente WHERE id_cliente = ?";
+
+        // Act
+        for (int i = 0; i < 3; i++) {
+            try (Connection conexion = pool.obtenerConexion();
+                 PreparedStatement pstmt = conexion.prepareStatement(sql)) {
+                pstmt.setInt(1, i);
+                pstmt.executeQuery();
+            }
+        }
+
+        // Assert
+        assertEquals(1, metricas.getOperaciones().size(), "Debe haber una sola operación");
+        ResumenMetrica operacion = metricas.getOperaciones().get(0);
+        assertEquals("PoolConexionesTest.testRegistraMetricasPorOperacionYSentencia", operacion.getNombre(),
+                "La operación debe llevar el nombre del método que pidió la conexión");
+        assertEquals(3, operacion.getLlamadas(), "Deben registrarse 3 préstamos");
+        ResumenMetrica sentencia = metricas.getSentencias().get(0);
+        assertEquals(sql, sentencia.getNombre(), "La sentencia debe registrarse con su texto SQL");
+        assertEquals(3, sentencia.getLlamadas(), "Deben registrarse 3 ejecuciones");
+        assertEquals(0, sentencia.getErrores(), "No debe haber errores");
+    }
+
+    @Test
+    public void testRegistraConsultaLentaConParametros(@TempDir Path carpeta) throws SQLException, IOException {
+        // Arrange
+        Path archivo = carpeta.resolve("lentas.log");
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(0, archivo, 1_000_000, 1);
+        pool.usarRegistroConsultasLentas(registro);
+        String sql = "SELECT * FROM cliente WHERE dni = ?";
+
+        // Act
+        try (Connection conexion = pool.obtenerConexion();
+             PreparedStatement pstmt = conexion.prepareStatement(sql)) {
+            pstmt.setString(1, "0987654321");
+            pstmt.executeQuery();
+        }
+        registro.close();
+
+        // Assert
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size(), "Debe registrarse la consulta");
+        assertTrue(lineas.get(0).contains("PoolConexionesTest.testRegistraConsultaLentaConParametros | " + sql),
+                "Debe registrarse la operación y el SQL: " + lineas.get(0));
+        assertTrue(lineas.get(0).endsWith("[1='*******321']"), "El DNI debe quedar enmascarado: " + lineas.get(0));
+    }
+
+    /**
+     * Crea una conexión simulada que solo responde a las llamadas que usa el pool.
+     */
+    @Test
+    public void testMantenimientoSigueTrasUnErrorDeLaFabrica() throws InterruptedException {
+        // Arrange
+        AtomicInteger intentos = new AtomicInteger();
+        PoolConexiones conMinimo = new PoolConexiones(() -> {
+            if (intentos.incrementAndGet() == 1) {
+                throw new IllegalStateException("Driver no disponible");
+            }
+            return crearConexionSimulada();
+        }, 1, 2, 2_000, 200, 0, 4); // Mantenimiento cada segundo
+
+        try {
+            // Act
+            // La primera ejecución falla y la segunda crea la conexión
+            long limite = System.currentTimeMillis() + 5_000;
+            while (conexionesCreadas.get() == 0 && System.currentTimeMillis() < limite) {
+                Thread.sleep(50);
+            }
+
+            // Assert
+            assertTrue(intentos.get() >= 2, "El mantenimiento debe volver a ejecutarse tras una RuntimeException");
+            assertEquals(1, conexionesCreadas.get(), "Debe reponer el mínimo de conexiones en la siguiente ejecución");
+        } finally {
+            conMinimo.close();
+        }
+    }
+
+    private Connection crearConexionSimulada() {
+        conexionesCreadas.incrementAndGet();
+        boolean[] cerrada = {false};
+        return (Connection) Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "close":
+                        cerrada[0] = true;
+                        return null;
+                    case "isClosed":
+                        return cerrada[0];
+                    case "isValid":
+                    case "getAutoCommit":
+                        return !cerrada[0];
+                    case "prepareStatement":
+                        sentenciasPreparadas.incrementAndGet();
+                        return crearSentenciaSimulada();
+                    default:
+                        return null;
+                }
+            });
+    }
+
+    private PreparedStatement crearSentenciaSimulada() {
+        return (PreparedStatement) Proxy.newProxyInstance(
+            PreparedStatement.class.getClassLoader(),
+            new Class<?>[] {PreparedStatement.class},
+            (proxy, method, args) -> "getFetchSize".equals(method.getName()) ? 0 : null);
+    }
+}
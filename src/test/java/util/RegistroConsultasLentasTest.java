@@ -0,0 +1,96 @@
+package util;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Pruebas unitarias para la clase RegistroConsultasLentas.
+ */
+public class RegistroConsultasLentasTest {
+
+    @TempDir
+    Path carpeta;
+
+    @Test
+    public void testDeduceColumnasDeLosParametros() {
+        // Act
+        String[] insert = RegistroConsultasLentas.columnasDeParametros(
+                "INSERT INTO cliente (nombre, apellido, dni, telefono, email, direccion) VALUES (?, ?, ?, ?, ?, ?)");
+        String[] select = RegistroConsultasLentas.columnasDeParametros(
+                "SELECT 1 FROM cliente WHERE dni = ? AND id_cliente <> ? AND c.email LIKE ?");
+
+        // Assert
+        assertArrayEquals(new String[] {"nombre", "apellido", "dni", "telefono", "email", "direccion"}, insert,
+                "En un INSERT cada parámetro corresponde a su columna");
+        assertArrayEquals(new String[] {"dni", "id_cliente", "email"}, select,
+                "Cada parámetro debe corresponder a la columna que se compara");
+    }
+
+    @Test
+    public void testEnmascaraDniYEmail() {
+        // Act & Assert
+        assertEquals("'*******321'", RegistroConsultasLentas.enmascarar("dni", "0987654321"),
+                "Del DNI solo deben quedar visibles los últimos 3 dígitos");
+        assertEquals("'j***@example.com'", RegistroConsultasLentas.enmascarar("email", "juan.perez@example.com"),
+                "Del email solo deben quedar la inicial y el dominio");
+        assertEquals("'j***@example.com'", RegistroConsultasLentas.enmascarar(null, "juan.perez@example.com"),
+                "Un texto con forma de email se enmascara aunque no se conozca la columna");
+        assertEquals("'Quito'", RegistroConsultasLentas.enmascarar("destino", "Quito"),
+                "Los demás textos no se enmascaran");
+        assertEquals("42", RegistroConsultasLentas.enmascarar("id_cliente", 42), "Los números se escriben tal cual");
+        assertEquals("NULL", RegistroConsultasLentas.enmascarar("dni", null), "Los nulos se escriben como NULL");
+    }
+
+    @Test
+    public void testEscribeSoloLasConsultasQueSuperanElUmbral() throws IOException {
+        // Arrange
+        Path archivo = carpeta.resolve("lentas.log");
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(100, archivo, 1_000_000, 2);
+        Map<Integer, Object> parametros = new TreeMap<>(Map.of(1, "0987654321"));
+
+        // Act
+        if (registro.superaUmbral(150_000_000L)) {
+            registro.registrar("SELECT * FROM cliente WHERE dni = ?", parametros, 1, 150_000_000L,
+                    "ClienteDAO.consultarClientePorDni");
+        }
+        if (registro.superaUmbral(5_000_000L)) {
+            registro.registrar("SELECT * FROM cliente", null, 10, 5_000_000L, "ClienteDAO.listarClientes");
+        }
+        registro.close();
+
+        // Assert
+        List<String> lineas = Files.readAllLines(archivo, StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size(), "Solo debe registrarse la consulta lenta");
+        assertTrue(lineas.get(0).contains("150.0 ms | filas=1 | - | ClienteDAO.consultarClientePorDni"),
+                "La línea debe incluir tiempo, filas, controlador y operación: " + lineas.get(0));
+        assertTrue(lineas.get(0).endsWith("[1='*******321']"), "El DNI debe quedar enmascarado: " + lineas.get(0));
+    }
+
+    @Test
+    public void testRotaElArchivoAlLlenarse() throws IOException {
+        // Arrange
+        Path archivo = carpeta.resolve("lentas.log");
+        RegistroConsultasLentas registro = new RegistroConsultasLentas(0, archivo, 200, 2);
+
+        // Act
+        for (int i = 0; i < 10; i++) {
+            registro.registrar("SELECT * FROM reserva WHERE id_reserva = ?", new TreeMap<>(Map.of(1, i)), 1,
+                    1_000_000L, "ReservaDAO.consultarReserva");
+        }
+        registro.close();
+
+        // Assert
+        assertTrue(Files.exists(carpeta.resolve("lentas.log.1")), "Debe existir el primer archivo rotado");
+        assertTrue(Files.exists(carpeta.resolve("lentas.log.2")), "Debe existir el segundo archivo rotado");
+        assertFalse(Files.exists(carpeta.resolve("lentas.log.3")), "No deben conservarse más de 2 archivos rotados");
+        assertTrue(Files.size(carpeta.resolve("lentas.log.1")) >= 200, "El archivo rotado debe alcanzar el tamaño máximo");
+    }
+}
@@ -6,11 +6,16 @@ import java.sql.SQLException;
 
 /**
  * Clase utilitaria para proporcionar conexiones a la base de datos de prueba.
+ * Por defecto usa la base embebida (H2 en memoria), de modo que las pruebas no necesitan
+ * un servidor MySQL. Para probar contra MySQL: -Ddb.test.url=jdbc:mysql://localhost:3306/test_agency_g8
  */
 public class TestConexionMySQL {
-    private static final String URL = "";
-    private static final String USER = "";
-    private static final String PASSWORD = "";
+    private static final String URL = System.getProperty("db.test.url", "");
+    private static final String USER = System.getProperty("db.test.usuario", "");
+    private static final String PASSWORD = System.getProperty("db.test.clave", "");
+    private static final String URL_EMBEBIDA = BaseDatosEmbebida.url("test_agency_g8");
+    
+    private static boolean esquemaCreado;
 
     /**
      * Obtiene una conexión a la base de datos de prueba.
@@ -18,6 +23,9 @@ public class TestConexionMySQL {
      * @throws SQLException si hay un error al conectar con la BD
      */
     public static Connection getConnection() throws SQLException {
+        if (URL.isEmpty()) {
+            return getConexionEmbebida();
+        }
         try {
             Class.forName("com.mysql.cj.jdbc.Driver");
             return DriverManager.getConnection(URL, USER, PASSWORD);
@@ -25,4 +33,13 @@ public class TestConexionMySQL {
             throw new SQLException("MySQL JDBC Driver not found", e);
         }
     }
+
+    private static synchronized Connection getConexionEmbebida() throws SQLException {
+        Connection conn = DriverManager.getConnection(URL_EMBEBIDA);
+        if (!esquemaCreado) {
+            BaseDatosEmbebida.crearEsquema(conn);
+            esquemaCreado = true;
+        }
+        return conn;
+    }
 }